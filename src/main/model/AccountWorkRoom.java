@@ -12,6 +12,8 @@ import java.util.List;
 
 // Represents a workroom having an account balance
 // Accounts list will always be non-empty
+// Every read or change of the balance holds this workroom's lock, so a purchase checks and lowers the balance
+// as one step even when several threads buy through the same account
 public class AccountWorkRoom implements Writeable {
 
     private double balance;
@@ -30,7 +32,7 @@ public class AccountWorkRoom implements Writeable {
 
     // MODIFIES: this
     // EFFECTS: sets the account's balance to the given amount
-    public void setBalance(double amount) throws IllegalAccountBalanceException {
+    public synchronized void setBalance(double amount) throws IllegalAccountBalanceException {
         if (amount >= 0) {
             account.get(0).setBalance(amount);
             EventLog.getInstance().logEvent(new Event("Set account balance to: "
@@ -41,13 +43,13 @@ public class AccountWorkRoom implements Writeable {
 
     }
 
-    public double getBalance() {
+    public synchronized double getBalance() {
         return account.get(0).getBalance();
     }
 
     // MODIFIES: this
     // EFFECTS: adds account to this workroom
-    public void addAccount(Account a) {
+    public synchronized void addAccount(Account a) {
         account.set(0, a);
     }
 
@@ -80,8 +82,7 @@ public class AccountWorkRoom implements Writeable {
     // EFFECTS: if balance is enough to buy car, subtracts the car's price from the account's balance and return true
     // return false otherwise
     public boolean boughtCar(Car c) {
-        if (getBalance() >= c.getPrice()) {
-            setBalanceBoughtCar(getBalance() - c.getPrice());
+        if (debit(c.getPrice())) {
             EventLog.getInstance().logEvent(new Event("Bought car and added to garage: " + c.getYear() + " "
                     + c.getManufacturer() + " " + c.getModel()));
             return true;
@@ -89,10 +90,37 @@ public class AccountWorkRoom implements Writeable {
         return false;
     }
 
-    public void setBalanceBoughtCar(double balance) {
+    public synchronized void setBalanceBoughtCar(double balance) {
         account.get(0).setBalanceNoException(balance);
     }
 
+    // REQUIRES: amount >= 0
+    // MODIFIES: this
+    // EFFECTS: if the balance is at least amount, lowers it by amount and returns true, as one step;
+    // returns false otherwise
+    public synchronized boolean debit(double amount) {
+        if (getBalance() < amount) {
+            return false;
+        }
+        setBalanceBoughtCar(getBalance() - amount);
+        return true;
+    }
+
+    // REQUIRES: amount >= 0
+    // MODIFIES: this
+    // EFFECTS: raises the balance by amount, as one step
+    public synchronized void credit(double amount) {
+        setBalanceBoughtCar(getBalance() + amount);
+    }
+
+    // EFFECTS: returns a new workroom with the same balance as this one, without logging an event;
+    // used to save a consistent copy while this workroom keeps changing
+    public synchronized AccountWorkRoom snapshot() {
+        AccountWorkRoom copy = new AccountWorkRoom();
+        copy.setBalanceBoughtCar(getBalance());
+        return copy;
+    }
+
     // getter
     public List<Account> getAccount() {
         return account;
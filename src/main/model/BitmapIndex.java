@@ -0,0 +1,132 @@
+package model;
+
+import model.bitmap.RoaringBitmap;
+import model.cars.CarField;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Represents a bitmap index on one low-cardinality field of a CarTable: for each value of the field, a
+// compressed bitmap of the slots holding it. Drive types are keyed by ordinal, manufacturers by their id in
+// the table's dictionary, and years by year. Bitmaps from this index and others can be intersected, united
+// and subtracted without looking at any car, and the slots of a result come out in insertion order
+public class BitmapIndex {
+
+    private final CarField field;
+    private final NavigableMap<Integer, RoaringBitmap> bitmaps;
+
+    // REQUIRES: supports(field)
+    // EFFECTS: constructs an index on field holding every live slot of table, run-optimized
+    BitmapIndex(CarField field, CarTable table) {
+        this.field = field;
+        this.bitmaps = new TreeMap<>();
+        for (int slot : table.liveSlots()) {
+            insert(table.key(field, slot), slot);
+        }
+        for (RoaringBitmap bitmap : bitmaps.values()) {
+            bitmap.runOptimize();
+        }
+    }
+
+    // EFFECTS: returns true if a bitmap index can be built on field
+    public static boolean supports(CarField field) {
+        return field == CarField.DRIVE_TYPE || field == CarField.MANUFACTURER || field == CarField.YEAR;
+    }
+
+    public CarField getField() {
+        return field;
+    }
+
+    // EFFECTS: returns the bitmap of slots whose field has the given key; the bitmap belongs to this index
+    // and must not be changed
+    public RoaringBitmap get(int key) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        return bitmap == null ? new RoaringBitmap() : bitmap;
+    }
+
+    // EFFECTS: returns a new bitmap of the slots whose field has a key between minKey and maxKey inclusive
+    public RoaringBitmap range(int minKey, int maxKey) {
+        if (minKey > maxKey) {
+            return new RoaringBitmap();
+        }
+        return RoaringBitmap.or(bitmaps.subMap(minKey, true, maxKey, true).values());
+    }
+
+    // EFFECTS: returns the number of slots whose field has the given key
+    public int count(int key) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        return bitmap == null ? 0 : bitmap.cardinality();
+    }
+
+    // EFFECTS: returns the number of slots whose field has a key between minKey and maxKey inclusive
+    public int countInRange(int minKey, int maxKey) {
+        int count = 0;
+        if (minKey <= maxKey) {
+            for (RoaringBitmap bitmap : bitmaps.subMap(minKey, true, maxKey, true).values()) {
+                count += bitmap.cardinality();
+            }
+        }
+        return count;
+    }
+
+    // EFFECTS: returns the number of distinct keys in the index
+    public int numKeys() {
+        return bitmaps.size();
+    }
+
+    // EFFECTS: returns an estimate of the memory the index's bitmaps take, in bytes
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (RoaringBitmap bitmap : bitmaps.values()) {
+            bytes += bitmap.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    // EFFECTS: returns the number of array, bitmap and run containers over all of the index's bitmaps
+    public int[] containerCounts() {
+        int[] counts = new int[3];
+        for (RoaringBitmap bitmap : bitmaps.values()) {
+            int[] c = bitmap.containerCounts();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += c[i];
+            }
+        }
+        return counts;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds slot, whose field has the given key, to the index
+    void insert(int key, int slot) {
+        bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes slot, whose field has the given key, from the index
+    void remove(int key, int slot) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(slot);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    // REQUIRES: newSlots keeps slots in the same relative order
+    // MODIFIES: this
+    // EFFECTS: renumbers every slot s in the index as newSlots[s], after the table has been packed, and
+    // run-optimizes the rebuilt bitmaps
+    void remap(int[] newSlots) {
+        for (Map.Entry<Integer, RoaringBitmap> entry : bitmaps.entrySet()) {
+            int[] slots = entry.getValue().toArray();
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = newSlots[slots[i]];
+            }
+            RoaringBitmap bitmap = RoaringBitmap.of(slots);
+            bitmap.runOptimize();
+            entry.setValue(bitmap);
+        }
+    }
+}
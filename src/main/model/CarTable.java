@@ -0,0 +1,579 @@
+package model;
+
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+
+import java.util.Arrays;
+
+// Represents the cars of a workroom stored column by column: one primitive array per numeric field, a byte
+// column of drive type ordinals, and dictionary-encoded manufacturer and model columns. Each car occupies a
+// slot, and the same slot of every column holds its values, so a filter or statistic over one field reads
+// one contiguous array instead of following a pointer to every car. A hash index from car id to slot is
+// always kept, so a car is found by its id in constant time.
+//
+// Cars are appended to the next free slot. Removing a car only marks its slot empty, so the slots of the
+// other cars do not move; once more than half of the slots are empty, the live cars are packed back
+// together in order.
+//
+// A sorted index on an orderable field, a bitmap index on a low-cardinality one, the trigram index over
+// manufacturers and models, the k-d tree over performance and price, or the running statistics, is built
+// the first time it is asked for, and from then on is kept up to date as cars are added and removed.
+//
+// The car objects themselves are kept alongside the columns, one reference per slot. A workroom hands back
+// the very cars it was given, which callers compare by identity and which carry what the columns do not,
+// such as the image and the undecoded record of a car read from a snapshot; a car rebuilt from the columns
+// would be a different object that decodes every field at once. The columns are a copy of the fields that
+// filters, sorts and statistics scan, about 57 bytes per car, so those scans never touch the cars.
+public class CarTable {
+
+    public static final byte NO_DRIVE_TYPE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_COMPACTION_SLOTS = 64;
+    private static final DriveType[] DRIVE_TYPES = DriveType.values();
+
+    private final StringDictionary manufacturers;
+    private final StringDictionary models;
+
+    private Car[] cars;
+    private long[] ids;
+    private int[] manufacturerIds;
+    private int[] modelIds;
+    private int[] years;
+    private int[] prices;
+    private double[] speeds;
+    private double[] handlings;
+    private double[] accelerations;
+    private double[] brakings;
+    private byte[] driveTypes;
+
+    private int numSlots;
+    private int numCars;
+    private int[] order;
+    private final IdIndex idIndex;
+    private final SortedIndex[] indexes;
+    private final BitmapIndex[] bitmapIndexes;
+    private TextIndex textIndex;
+    private NeighbourIndex neighbourIndex;
+    private MarketStats stats;
+
+    // EFFECTS: constructs an empty table
+    public CarTable() {
+        manufacturers = new StringDictionary();
+        models = new StringDictionary();
+        idIndex = new IdIndex();
+        indexes = new SortedIndex[CarField.values().length];
+        bitmapIndexes = new BitmapIndex[CarField.values().length];
+        allocate(INITIAL_CAPACITY);
+    }
+
+    // EFFECTS: returns the number of cars in the table
+    public int size() {
+        return numCars;
+    }
+
+    // EFFECTS: returns the number of slots in use, including empty ones; every slot is below this
+    public int numSlots() {
+        return numSlots;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes room for at least capacity slots
+    public void ensureCapacity(int capacity) {
+        if (capacity > cars.length) {
+            resize(Math.max(capacity, cars.length * 2));
+        }
+        idIndex.ensureCapacity(capacity);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores car in the next slot and returns that slot; a car's numeric fields are read through
+    // Car.getValue, so lazily decoded cars are not materialized by being added
+    public int add(Car car) {
+        ensureCapacity(numSlots + 1);
+        int slot = numSlots++;
+        cars[slot] = car;
+        ids[slot] = car.getId();
+        idIndex.insert(ids[slot], slot);
+        manufacturerIds[slot] = manufacturers.encode(car.getManufacturer());
+        modelIds[slot] = models.encode(car.getModel());
+        years[slot] = (int) car.getValue(CarField.YEAR);
+        prices[slot] = (int) car.getValue(CarField.PRICE);
+        speeds[slot] = car.getValue(CarField.SPEED);
+        handlings[slot] = car.getValue(CarField.HANDLING);
+        accelerations[slot] = car.getValue(CarField.ACCELERATION);
+        brakings[slot] = car.getValue(CarField.BRAKING);
+        driveTypes[slot] = (byte) car.getValue(CarField.DRIVE_TYPE);
+        numCars++;
+        order = null;
+        insertIntoIndexes(slot);
+        return slot;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the car in slot, packing the table once most of its slots are empty
+    public void remove(int slot) {
+        idIndex.remove(ids[slot], slot);
+        removeFromIndexes(slot);
+        cars[slot] = null;
+        numCars--;
+        order = null;
+        if (numSlots > MIN_COMPACTION_SLOTS && numCars < numSlots / 2) {
+            compact();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the car in slot to every sorted, bitmap, trigram and neighbour index built so far, and to
+    // the statistics if they are kept
+    private void insertIntoIndexes(int slot) {
+        for (SortedIndex index : indexes) {
+            if (index != null) {
+                index.insert(value(index.getField(), slot), slot);
+            }
+        }
+        for (BitmapIndex index : bitmapIndexes) {
+            if (index != null) {
+                index.insert(key(index.getField(), slot), slot);
+            }
+        }
+        if (textIndex != null) {
+            textIndex.insert(this, slot);
+        }
+        if (neighbourIndex != null) {
+            neighbourIndex.insert(slot);
+        }
+        if (stats != null) {
+            stats.add(cars[slot]);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the car in slot from every sorted, bitmap, trigram and neighbour index built so far, and
+    // from the statistics if they are kept
+    private void removeFromIndexes(int slot) {
+        for (SortedIndex index : indexes) {
+            if (index != null) {
+                index.remove(value(index.getField(), slot), slot);
+            }
+        }
+        for (BitmapIndex index : bitmapIndexes) {
+            if (index != null) {
+                index.remove(key(index.getField(), slot), slot);
+            }
+        }
+        if (textIndex != null) {
+            textIndex.remove(this, slot);
+        }
+        if (neighbourIndex != null) {
+            neighbourIndex.remove(slot);
+        }
+        if (stats != null) {
+            stats.remove(cars[slot]);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the sorted index on field, building it on first use;
+    // throws IllegalArgumentException if field is not orderable
+    public SortedIndex index(CarField field) {
+        if (!field.isOrderable()) {
+            throw new IllegalArgumentException(field + " cannot be ordered");
+        }
+        SortedIndex index = indexes[field.ordinal()];
+        if (index == null) {
+            index = new SortedIndex(field, this);
+            indexes[field.ordinal()] = index;
+        }
+        return index;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the bitmap index on field, building it on first use;
+    // throws IllegalArgumentException if field is not DRIVE_TYPE, MANUFACTURER or YEAR
+    public BitmapIndex bitmapIndex(CarField field) {
+        if (!BitmapIndex.supports(field)) {
+            throw new IllegalArgumentException("No bitmap index on " + field);
+        }
+        BitmapIndex index = bitmapIndexes[field.ordinal()];
+        if (index == null) {
+            index = new BitmapIndex(field, this);
+            bitmapIndexes[field.ordinal()] = index;
+        }
+        return index;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the trigram index over the manufacturers and models of the table, building it on
+    // first use
+    public TextIndex textIndex() {
+        if (textIndex == null) {
+            textIndex = new TextIndex(this);
+        }
+        return textIndex;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the k-d tree over the performance stats and prices of the table, building it on first
+    // use and again once it has been changed more than it was built
+    public NeighbourIndex neighbourIndex() {
+        if (neighbourIndex == null || neighbourIndex.isWorn()) {
+            neighbourIndex = new NeighbourIndex(this);
+        }
+        return neighbourIndex;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the running statistics of the table's cars, counting every car on first use and then
+    // keeping them up to date as cars are added and removed; extremes that are no longer known are left for
+    // the caller to find
+    public MarketStats stats() {
+        if (stats == null) {
+            stats = new MarketStats();
+            for (int slot : liveSlots()) {
+                stats.add(cars[slot]);
+            }
+        }
+        return stats;
+    }
+
+    // REQUIRES: stats are the statistics of exactly the table's cars
+    // MODIFIES: this
+    // EFFECTS: keeps stats as the table's running statistics from now on, instead of counting them on first
+    // use
+    public void restoreStats(MarketStats stats) {
+        this.stats = stats;
+    }
+
+    // EFFECTS: returns the live slots whose group field, MANUFACTURER, YEAR or DRIVE_TYPE, is key, in
+    // insertion order, read from the bitmap index on it
+    int[] slotsInGroup(CarField field, Object key) {
+        if (field != CarField.MANUFACTURER) {
+            return bitmapIndex(field).get(field == CarField.YEAR ? (Integer) key : ((DriveType) key).ordinal())
+                    .toArray();
+        }
+        int id = manufacturers.lookup((String) key);
+        return id == StringDictionary.NO_STRING && key != null ? new int[0] : bitmapIndex(field).get(id).toArray();
+    }
+
+    // EFFECTS: returns the slot holding car, or -1 if car is not in the table; a car held in more than one
+    // slot is found in its lowest one
+    public int slotOf(Car car) {
+        return slotOf(car.getId());
+    }
+
+    // EFFECTS: returns the lowest slot holding the car with the given id, or -1 if there is none, found
+    // through the id index in constant expected time
+    public int slotOf(long id) {
+        return idIndex.find(id);
+    }
+
+    // EFFECTS: returns true if slot holds a car
+    public boolean isLive(int slot) {
+        return cars[slot] != null;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the slot of the car at index in insertion order
+    public int slotAt(int index) {
+        if (numCars == numSlots) {
+            return index;
+        }
+        if (order == null) {
+            order = liveSlots();
+        }
+        return order[index];
+    }
+
+    // getters for the values in a slot
+    public Car car(int slot) {
+        return cars[slot];
+    }
+
+    public long id(int slot) {
+        return ids[slot];
+    }
+
+    public String manufacturer(int slot) {
+        return manufacturers.decode(manufacturerIds[slot]);
+    }
+
+    public String model(int slot) {
+        return models.decode(modelIds[slot]);
+    }
+
+    public int manufacturerId(int slot) {
+        return manufacturerIds[slot];
+    }
+
+    public int modelId(int slot) {
+        return modelIds[slot];
+    }
+
+    public int year(int slot) {
+        return years[slot];
+    }
+
+    public int price(int slot) {
+        return prices[slot];
+    }
+
+    public double speed(int slot) {
+        return speeds[slot];
+    }
+
+    public double handling(int slot) {
+        return handlings[slot];
+    }
+
+    public double acceleration(int slot) {
+        return accelerations[slot];
+    }
+
+    public double braking(int slot) {
+        return brakings[slot];
+    }
+
+    public DriveType driveType(int slot) {
+        return driveTypes[slot] == NO_DRIVE_TYPE ? null : DRIVE_TYPES[driveTypes[slot]];
+    }
+
+    public StringDictionary getManufacturers() {
+        return manufacturers;
+    }
+
+    public StringDictionary getModels() {
+        return models;
+    }
+
+    // REQUIRES: field is numeric or DRIVE_TYPE
+    // EFFECTS: returns the value of field in slot, as Car.getValue would
+    public double value(CarField field, int slot) {
+        switch (field) {
+            case YEAR: return years[slot];
+            case PRICE: return prices[slot];
+            case SPEED: return speeds[slot];
+            case HANDLING: return handlings[slot];
+            case ACCELERATION: return accelerations[slot];
+            case BRAKING: return brakings[slot];
+            case DRIVE_TYPE: return driveTypes[slot];
+            default: throw new IllegalArgumentException(field + " is not numeric");
+        }
+    }
+
+    // REQUIRES: BitmapIndex.supports(field)
+    // EFFECTS: returns the key of slot in the bitmap index on field: its drive type ordinal, manufacturer
+    // id or year, with -1 for no drive type or manufacturer
+    int key(CarField field, int slot) {
+        switch (field) {
+            case DRIVE_TYPE: return driveTypes[slot];
+            case MANUFACTURER: return manufacturerIds[slot];
+            default: return years[slot];
+        }
+    }
+
+    // EFFECTS: returns the live slots in insertion order
+    public int[] liveSlots() {
+        int[] slots = new int[numCars];
+        int n = 0;
+        for (int slot = 0; slot < numSlots; slot++) {
+            if (cars[slot] != null) {
+                slots[n++] = slot;
+            }
+        }
+        return slots;
+    }
+
+    // REQUIRES: field is numeric
+    // EFFECTS: returns the slots, in insertion order, of the cars whose field is below bound, scanning only
+    // that field's column
+    public int[] slotsBelow(CarField field, double bound) {
+        switch (field) {
+            case YEAR: return below(years, bound);
+            case PRICE: return below(prices, bound);
+            case SPEED: return below(speeds, bound);
+            case HANDLING: return below(handlings, bound);
+            case ACCELERATION: return below(accelerations, bound);
+            case BRAKING: return below(brakings, bound);
+            default: throw new IllegalArgumentException(field + " is not a stat");
+        }
+    }
+
+    // REQUIRES: field is numeric, and the first n slots are live
+    // MODIFIES: slots
+    // EFFECTS: moves those of the first n slots whose field lies between min and max to the front of slots,
+    // keeping their order, and returns how many there are; each bound is included only if its inclusive
+    // flag is set. Only that field's column is read
+    public int retainInRange(CarField field, double min, boolean minInclusive, double max, boolean maxInclusive,
+                             int[] slots, int n) {
+        double lo = minInclusive ? min : Math.nextUp(min);
+        double hi = maxInclusive ? max : Math.nextDown(max);
+        switch (field) {
+            case YEAR: return retain(years, lo, hi, slots, n);
+            case PRICE: return retain(prices, lo, hi, slots, n);
+            case SPEED: return retain(speeds, lo, hi, slots, n);
+            case HANDLING: return retain(handlings, lo, hi, slots, n);
+            case ACCELERATION: return retain(accelerations, lo, hi, slots, n);
+            case BRAKING: return retain(brakings, lo, hi, slots, n);
+            default: throw new IllegalArgumentException(field + " is not numeric");
+        }
+    }
+
+    // EFFECTS: returns the slots, in insertion order, of the cars with the given drive type, read from the
+    // bitmap index on drive type
+    public int[] slotsWithDriveType(DriveType driveType) {
+        return bitmapIndex(CarField.DRIVE_TYPE).get(driveType.ordinal()).toArray();
+    }
+
+    // EFFECTS: returns the live slots whose value in column is below bound
+    private int[] below(int[] column, double bound) {
+        Matches matches = new Matches();
+        for (int slot = 0; slot < numSlots; slot++) {
+            if (column[slot] < bound && cars[slot] != null) {
+                matches.add(slot);
+            }
+        }
+        return matches.toArray();
+    }
+
+    // EFFECTS: returns the live slots whose value in column is below bound
+    private int[] below(double[] column, double bound) {
+        Matches matches = new Matches();
+        for (int slot = 0; slot < numSlots; slot++) {
+            if (column[slot] < bound && cars[slot] != null) {
+                matches.add(slot);
+            }
+        }
+        return matches.toArray();
+    }
+
+    // EFFECTS: moves those of the first n slots whose value in column lies in [lo, hi] to the front of slots
+    private static int retain(int[] column, double lo, double hi, int[] slots, int n) {
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            int value = column[slots[i]];
+            if (value >= lo && value <= hi) {
+                slots[kept++] = slots[i];
+            }
+        }
+        return kept;
+    }
+
+    // EFFECTS: moves those of the first n slots whose value in column lies in [lo, hi] to the front of slots
+    private static int retain(double[] column, double lo, double hi, int[] slots, int n) {
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            double value = column[slots[i]];
+            if (value >= lo && value <= hi) {
+                slots[kept++] = slots[i];
+            }
+        }
+        return kept;
+    }
+
+    // Collects matching slots in a growable int array
+    private static class Matches {
+        private int[] slots = new int[INITIAL_CAPACITY];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, size);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the live cars to the lowest slots, keeping their order
+    private void compact() {
+        int[] newSlots = new int[numSlots];
+        int n = 0;
+        for (int slot = 0; slot < numSlots; slot++) {
+            if (cars[slot] != null) {
+                newSlots[slot] = n;
+                moveSlot(slot, n++);
+            }
+        }
+        Arrays.fill(cars, n, numSlots, null);
+        numSlots = n;
+        remapIndexes(newSlots);
+    }
+
+    // REQUIRES: newSlots maps every live slot to the slot it moved to
+    // MODIFIES: this
+    // EFFECTS: renumbers the slots held by the id index and every sorted, bitmap, trigram and neighbour index
+    // built so far, after the table has been packed
+    private void remapIndexes(int[] newSlots) {
+        idIndex.remap(newSlots);
+        for (SortedIndex index : indexes) {
+            if (index != null) {
+                index.remap(newSlots);
+            }
+        }
+        for (BitmapIndex index : bitmapIndexes) {
+            if (index != null) {
+                index.remap(newSlots);
+            }
+        }
+        if (textIndex != null) {
+            textIndex.remap(newSlots);
+        }
+        if (neighbourIndex != null) {
+            neighbourIndex.remap(newSlots);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: copies every column's value in slot from to slot to
+    private void moveSlot(int from, int to) {
+        cars[to] = cars[from];
+        ids[to] = ids[from];
+        manufacturerIds[to] = manufacturerIds[from];
+        modelIds[to] = modelIds[from];
+        years[to] = years[from];
+        prices[to] = prices[from];
+        speeds[to] = speeds[from];
+        handlings[to] = handlings[from];
+        accelerations[to] = accelerations[from];
+        brakings[to] = brakings[from];
+        driveTypes[to] = driveTypes[from];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: allocates empty columns with room for capacity slots
+    private void allocate(int capacity) {
+        cars = new Car[capacity];
+        ids = new long[capacity];
+        manufacturerIds = new int[capacity];
+        modelIds = new int[capacity];
+        years = new int[capacity];
+        prices = new int[capacity];
+        speeds = new double[capacity];
+        handlings = new double[capacity];
+        accelerations = new double[capacity];
+        brakings = new double[capacity];
+        driveTypes = new byte[capacity];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows every column to capacity slots
+    private void resize(int capacity) {
+        cars = Arrays.copyOf(cars, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        manufacturerIds = Arrays.copyOf(manufacturerIds, capacity);
+        modelIds = Arrays.copyOf(modelIds, capacity);
+        years = Arrays.copyOf(years, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        handlings = Arrays.copyOf(handlings, capacity);
+        accelerations = Arrays.copyOf(accelerations, capacity);
+        brakings = Arrays.copyOf(brakings, capacity);
+        driveTypes = Arrays.copyOf(driveTypes, capacity);
+    }
+}
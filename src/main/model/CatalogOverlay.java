@@ -0,0 +1,469 @@
+package model;
+
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import model.query.CarQuery;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import persistence.JsonStreamWriter;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Represents a workroom layered over a shared base catalog. The base's cars are never copied or changed:
+// cars listed through this workroom are kept in its own table as a small set of additions, and base cars
+// taken off it are kept in a set of removals. Its cars are the base's cars that have not been removed, in base order,
+// followed by the additions. Saving this workroom writes only the additions and removals
+public class CatalogOverlay extends GarageWorkRoom {
+
+    private final GarageWorkRoom base;
+    private final Set<Car> removed;
+    private List<Car> merged;
+    private MarketStats stats;
+
+    // REQUIRES: base is not changed while this overlay is in use
+    // EFFECTS: constructs an overlay over base with no additions or removals
+    public CatalogOverlay(GarageWorkRoom base) {
+        this.base = base;
+        this.removed = new LinkedHashSet<>();
+    }
+
+    public GarageWorkRoom getBase() {
+        return base;
+    }
+
+    // EFFECTS: returns the cars listed through this overlay, in the order they were listed
+    public List<Car> getAdded() {
+        return super.getCars();
+    }
+
+    // EFFECTS: returns the base cars taken off this overlay, in the order they were removed
+    public Set<Car> getRemoved() {
+        return removed;
+    }
+
+    // EFFECTS: returns the base's remaining cars followed by the added ones; the list is a read-only view
+    // that follows later changes to this overlay
+    @Override
+    public List<Car> getCars() {
+        return new AbstractList<Car>() {
+            @Override
+            public Car get(int index) {
+                List<Car> cars = removed.isEmpty() ? null : merged();
+                if (cars != null) {
+                    return cars.get(index);
+                }
+                int numBase = base.numCars();
+                return index < numBase ? base.getCars().get(index) : getAdded().get(index - numBase);
+            }
+
+            @Override
+            public int size() {
+                return numCars();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Car && containsCar((Car) o);
+            }
+        };
+    }
+
+    // EFFECTS: returns the added car, or the base car that has not been removed, with the given id, or null
+    // if there is none
+    @Override
+    public Car getCar(long id) {
+        Car car = super.getCar(id);
+        if (car == null) {
+            car = base.getCar(id);
+        }
+        return car == null || removed.contains(car) ? null : car;
+    }
+
+    // EFFECTS: returns true if car was added to this overlay, or is a base car that has not been removed;
+    // a car is only taken for one listed here if it has the same specifications as well as the same id
+    @Override
+    public boolean containsCar(Car car) {
+        return addedMatch(car) != null || baseMatch(car) != null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: lists car through this overlay
+    @Override
+    public void addCar(Car car) {
+        super.addCar(car);
+        merged = null;
+        if (stats != null) {
+            stats.add(car);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: lists all cars through this overlay in iteration order, logging event once
+    @Override
+    public void addAll(Collection<Car> cars, String event) {
+        super.addAll(cars, event);
+        merged = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: lists all cars through this overlay in iteration order without logging an event
+    @Override
+    protected void addQuietly(Collection<Car> cars) {
+        super.addQuietly(cars);
+        if (stats != null) {
+            for (Car c : cars) {
+                stats.add(c);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: takes car off this overlay; an added car is dropped from the additions, and a base car is
+    // recorded as removed while the base itself is left untouched. Only a car with the same id and
+    // specifications as car is taken off
+    @Override
+    public void removeCar(Car car) {
+        merged = null;
+        Car added = addedMatch(car);
+        Car listed = added == null ? baseMatch(car) : null;
+        if (added != null) {
+            super.removeCar(added);
+            if (stats != null) {
+                stats.remove(added);
+            }
+        } else if (listed != null && removed.add(listed)) {
+            if (stats != null) {
+                stats.remove(listed);
+            }
+            EventLog.getInstance().logEvent(new Event("Removed car from garage: " + car.getYear() + " "
+                    + car.getManufacturer() + " " + car.getModel()));
+        }
+    }
+
+    // EFFECTS: returns the car added to this overlay with car's id, if it has the same specifications as car,
+    // or null otherwise
+    private Car addedMatch(Car car) {
+        Car added = super.getCar(car.getId());
+        return added != null && added.isSameListing(car) ? added : null;
+    }
+
+    // EFFECTS: returns the base car with car's id that has not been removed, if it has the same specifications
+    // as car, or null otherwise
+    private Car baseMatch(Car car) {
+        Car listed = base.getCar(car.getId());
+        return listed != null && listed.isSameListing(car) && !removed.contains(listed) ? listed : null;
+    }
+
+    // EFFECTS: returns number of cars in this overlay
+    @Override
+    public int numCars() {
+        return base.numCars() - removed.size() + super.numCars();
+    }
+
+    // EFFECTS: returns the base's remaining cars whose field is below bound followed by the added ones,
+    // scanning the base's column and this overlay's own
+    @Override
+    public List<Car> carsBelow(CarField field, double bound) {
+        List<Car> cars = withoutRemoved(base.carsBelow(field, bound));
+        cars.addAll(super.carsBelow(field, bound));
+        return cars;
+    }
+
+    // EFFECTS: returns the base's remaining cars whose field lies between min and max inclusive merged with
+    // the added ones, in ascending order of that field
+    @Override
+    public List<Car> carsInRange(CarField field, double min, double max) {
+        List<Car> baseCars = withoutRemoved(base.carsInRange(field, min, max));
+        List<Car> addedCars = super.carsInRange(field, min, max);
+        List<Car> cars = new ArrayList<>(baseCars.size() + addedCars.size());
+        int i = 0;
+        int j = 0;
+        while (i < baseCars.size() || j < addedCars.size()) {
+            if (j >= addedCars.size() || (i < baseCars.size()
+                    && baseCars.get(i).getValue(field) <= addedCars.get(j).getValue(field))) {
+                cars.add(baseCars.get(i++));
+            } else {
+                cars.add(addedCars.get(j++));
+            }
+        }
+        return cars;
+    }
+
+    // EFFECTS: returns the base's remaining cars with the given drive type followed by the added ones
+    @Override
+    public List<Car> carsWithDriveType(DriveType driveType) {
+        List<Car> cars = withoutRemoved(base.carsWithDriveType(driveType));
+        cars.addAll(super.carsWithDriveType(driveType));
+        return cars;
+    }
+
+    // EFFECTS: returns the base's remaining cars matching query merged with the added ones, ordered and
+    // paged as query asks; both are asked for every car up to the end of the page, since the page may start
+    // in either, and the base for enough extra cars to make up for any removed ones. A skyline query is
+    // answered by skylineQuery instead
+    @Override
+    public List<Car> query(CarQuery query) {
+        if (query.isSkyline()) {
+            return skylineQuery(query);
+        }
+        List<Car> baseCars = withoutRemoved(base.query(baseQuery(query)));
+        List<Car> addedCars = super.query(query.withOffset(0).withLimit(addedLimit(query)));
+        int end = query.getEnd();
+        List<Car> cars = new ArrayList<>(Math.min(end, baseCars.size() + addedCars.size()));
+        int i = 0;
+        int j = 0;
+        while (cars.size() < end && (i < baseCars.size() || j < addedCars.size())) {
+            if (j >= addedCars.size() || (i < baseCars.size() && precedes(baseCars.get(i), addedCars.get(j), query))) {
+                cars.add(baseCars.get(i++));
+            } else {
+                cars.add(addedCars.get(j++));
+            }
+        }
+        return cars.subList(Math.min(query.getOffset(), cars.size()), cars.size());
+    }
+
+    // EFFECTS: returns the skyline of the base's remaining cars and the added ones satisfying query's
+    // condition, ordered and paged as query asks. Taking off a car that is not on the base's skyline cannot
+    // change it, since a car on the skyline beats every car the removed one beats, so the base's skyline is
+    // used as it is unless a removed car is on it; then the base's remaining matching cars are used instead.
+    // Each side's skyline is found by its own table, and the two are merged with Skyline
+    private List<Car> skylineQuery(CarQuery query) {
+        CarQuery all = new CarQuery().where(query.getCondition()).skyline();
+        List<Car> baseCars = base.query(all);
+        if (!Collections.disjoint(baseCars, removed)) {
+            baseCars = withoutRemoved(base.query(new CarQuery().where(query.getCondition())));
+        }
+        List<Car> cars = new ArrayList<>(baseCars);
+        cars.addAll(super.query(all));
+        cars = Skyline.of(cars);
+        List<CarField> fields = query.getOrderFields();
+        if (!fields.isEmpty()) {
+            if (!query.isAscending(fields.size() - 1)) {
+                Collections.reverse(cars);
+            }
+            cars.sort(resultOrder(query));
+        }
+        int end = Math.min(query.getEnd(), cars.size());
+        return cars.subList(Math.min(query.getOffset(), end), end);
+    }
+
+    // EFFECTS: returns the order of cars by query's order fields, each ascending or descending as it asks
+    private static Comparator<Car> resultOrder(CarQuery query) {
+        return (a, b) -> {
+            List<CarField> fields = query.getOrderFields();
+            for (int i = 0; i < fields.size(); i++) {
+                int c = Double.compare(a.getValue(fields.get(i)), b.getValue(fields.get(i)));
+                if (c != 0) {
+                    return query.isAscending(i) ? c : -c;
+                }
+            }
+            return 0;
+        };
+    }
+
+    // EFFECTS: returns up to limit of the base's remaining cars and the added ones that match text, the best
+    // matches first and base cars first among equally good ones; the base is asked for enough extra cars to
+    // make up for any removed ones
+    @Override
+    public List<Car> search(String text, int limit) {
+        List<Car> baseCars = withoutRemoved(base.search(text, (int) Math.min(Integer.MAX_VALUE,
+                (long) limit + removed.size())));
+        List<Car> addedCars = super.search(text, limit);
+        List<Car> cars = new ArrayList<>(Math.min(limit, baseCars.size() + addedCars.size()));
+        int i = 0;
+        int j = 0;
+        while (cars.size() < limit && (i < baseCars.size() || j < addedCars.size())) {
+            if (j >= addedCars.size() || (i < baseCars.size()
+                    && similarity(text, baseCars.get(i)) >= similarity(text, addedCars.get(j)))) {
+                cars.add(baseCars.get(i++));
+            } else {
+                cars.add(addedCars.get(j++));
+            }
+        }
+        return cars;
+    }
+
+    // REQUIRES: k >= 0
+    // MODIFIES: this
+    // EFFECTS: returns up to k of the base's remaining cars and the added ones most like car, merged by their
+    // distance to car with base cars first among those as near; each side searches its own k-d tree, and the
+    // base is asked for enough extra cars to make up for any removed ones
+    @Override
+    public List<Car> similarCars(Car car, int k) {
+        List<Car> baseCars = withoutRemoved(base.similarCars(car, (int) Math.min(Integer.MAX_VALUE,
+                (long) k + removed.size())));
+        List<Car> addedCars = super.similarCars(car, k);
+        List<Car> cars = new ArrayList<>(Math.min(k, baseCars.size() + addedCars.size()));
+        int i = 0;
+        int j = 0;
+        while (cars.size() < k && (i < baseCars.size() || j < addedCars.size())) {
+            if (j >= addedCars.size() || (i < baseCars.size() && NeighbourIndex.distance(car, baseCars.get(i))
+                    <= NeighbourIndex.distance(car, addedCars.get(j)))) {
+                cars.add(baseCars.get(i++));
+            } else {
+                cars.add(addedCars.get(j++));
+            }
+        }
+        return cars;
+    }
+
+    // EFFECTS: returns a new list of the base's remaining cars merged with the added ones in order of field,
+    // ascending or descending, or a view of all of them in the order they were listed if field is null; each
+    // side walks its own sorted index on field, so nothing is sorted
+    @Override
+    public List<Car> sortedCars(CarField field, boolean ascending) {
+        return field == null ? getCars() : query(new CarQuery().orderBy(field, ascending));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the statistics of the base's remaining cars and the added ones. They start as a copy of
+    // the base's, less the removed cars and plus the added ones, and are then kept up to date in constant time
+    // per car listed or taken off through this overlay
+    @Override
+    public MarketStats getStats() {
+        if (stats == null) {
+            stats = base.getStats().copy();
+            for (Car c : removed) {
+                stats.remove(c);
+            }
+            for (Car c : getAdded()) {
+                stats.add(c);
+            }
+        }
+        return refreshed(stats);
+    }
+
+    // EFFECTS: returns the plans query would run with against the base and against the additions
+    @Override
+    public String explain(CarQuery query) {
+        return "Merge of base catalog without " + removed.size() + " removed cars:\n"
+                + base.explain(baseQuery(query)) + "and additions:\n"
+                + super.explain(query.withOffset(0).withLimit(addedLimit(query)));
+    }
+
+    // EFFECTS: returns the query to run against the base for query: every car up to the end of its page,
+    // plus one for each removed car
+    private CarQuery baseQuery(CarQuery query) {
+        int limit = query.hasLimit() ? (int) Math.min(Integer.MAX_VALUE, (long) query.getEnd() + removed.size())
+                : CarQuery.NO_LIMIT;
+        return query.withOffset(0).withLimit(limit);
+    }
+
+    // EFFECTS: returns the limit to run query with against the additions: the end of its page
+    private static int addedLimit(CarQuery query) {
+        return query.hasLimit() ? query.getEnd() : CarQuery.NO_LIMIT;
+    }
+
+    // EFFECTS: returns a new overlay over the same base with the same additions and removals, without
+    // logging an event
+    @Override
+    public CatalogOverlay snapshot() {
+        CatalogOverlay copy = new CatalogOverlay(base);
+        copy.addQuietly(getAdded());
+        copy.removed.addAll(removed);
+        return copy;
+    }
+
+    // EFFECTS: creates a JSON object holding the added cars as "cars" and the removed base cars as "removed"
+    @Override
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("cars", carsToJson(getAdded()));
+        json.put("removed", carsToJson(removed));
+        return json;
+    }
+
+    // EFFECTS: writes the members of the same document as toJson straight to out, one car at a time
+    @Override
+    public void writeMembers(JsonStreamWriter out) throws IOException {
+        out.name("cars");
+        writeCars(out, getAdded());
+        out.name("removed");
+        writeCars(out, removed);
+    }
+
+    // EFFECTS: writes cars to out as a JSON array
+    private void writeCars(JsonStreamWriter out, Collection<Car> cars) throws IOException {
+        out.beginArray();
+        for (Car c : cars) {
+            c.writeJson(out);
+        }
+        out.endArray();
+    }
+
+    // EFFECTS: returns cars as a JSON array
+    private JSONArray carsToJson(Collection<Car> cars) {
+        JSONArray jsonArray = new JSONArray();
+        for (Car c : cars) {
+            jsonArray.put(c.toJson());
+        }
+        return jsonArray;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the base's remaining cars followed by the added ones, rebuilding the list of
+    // references only after this overlay has changed
+    private List<Car> merged() {
+        if (merged == null) {
+            List<Car> cars = new ArrayList<>(numCars());
+            for (Car c : base.getCars()) {
+                if (!removed.contains(c)) {
+                    cars.add(c);
+                }
+            }
+            cars.addAll(getAdded());
+            merged = cars;
+        }
+        return merged;
+    }
+
+    // EFFECTS: returns a new list of the given base cars that have not been removed
+    private List<Car> withoutRemoved(List<Car> baseCars) {
+        if (removed.isEmpty()) {
+            return baseCars;
+        }
+        List<Car> cars = new ArrayList<>(baseCars.size());
+        for (Car c : baseCars) {
+            if (!removed.contains(c)) {
+                cars.add(c);
+            }
+        }
+        return cars;
+    }
+
+    // EFFECTS: returns the base's remaining cars whose field is key followed by the added ones
+    @Override
+    protected List<Car> groupCars(CarField field, Object key) {
+        List<Car> cars = new ArrayList<>(withoutRemoved(base.groupCars(field, key)));
+        cars.addAll(super.groupCars(field, key));
+        return cars;
+    }
+
+    // EFFECTS: returns how similar car's manufacturer and model are to the search text
+    private static double similarity(String text, Car car) {
+        return TextIndex.similarity(text, car.getManufacturer(), car.getModel());
+    }
+
+    // EFFECTS: returns true if base car b comes before added car a in the results of query; base cars come
+    // first among cars equal in every order field when the last is ascending, so that descending order on one
+    // field is the exact reverse
+    private static boolean precedes(Car b, Car a, CarQuery query) {
+        List<CarField> fields = query.getOrderFields();
+        for (int i = 0; i < fields.size(); i++) {
+            int c = Double.compare(b.getValue(fields.get(i)), a.getValue(fields.get(i)));
+            if (c != 0) {
+                return query.isAscending(i) ? c < 0 : c > 0;
+            }
+        }
+        return fields.isEmpty() || query.isAscending(fields.size() - 1);
+    }
+}
@@ -2,16 +2,15 @@ package model;
 
 import model.cars.Car;
 
-import java.util.ArrayList;
+import java.util.List;
 
-// Represents the user's garage as a list of cars
+// Represents the user's garage as a list of cars, held in the workroom's table so that a car is found and
+// removed by its id in constant time
 public class Garage extends GarageWorkRoom {
 
-    private ArrayList<Car> garage;
-
     // Constructs an empty garage
     public Garage() {
-        garage = new ArrayList<>();
+        super();
     }
 
 //    // EFFECTS: returns the cars in the garage as a String in format "manufacturer model"
@@ -29,29 +28,30 @@ public class Garage extends GarageWorkRoom {
 
     // MODIFIES: this
     // EFFECTS: adds a car to the garage, regardless if the car is already in the garage
+    @Override
     public void addCar(Car c) {
-        garage.add(c);
+        getTable().add(c);
     }
 
     // MODIFIES: this
     // EFFECTS: remove car from the garage. If car isn't found, do nothing
+    @Override
     public void removeCar(Car c) {
-        garage.remove(c);
-    }
-
-    // EFFECTS: return true if the given car is found in the garage, false if not
-    public boolean containsCar(Car c) {
-        return garage.contains(c);
+        int slot = getTable().slotOf(c);
+        if (slot >= 0) {
+            getTable().remove(slot);
+        }
     }
 
     // getters
     // EFFECTS: returns the number of cars in the garage
     public int getGarageSize() {
-        return garage.size();
+        return numCars();
     }
 
-    public ArrayList<Car> getGarage() {
-        return garage;
+    // EFFECTS: returns a read-only view of the cars in the garage, in the order they were added
+    public List<Car> getGarage() {
+        return getCars();
     }
 
 
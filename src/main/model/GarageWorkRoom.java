@@ -1,56 +1,213 @@
 package model;
 
 import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import model.query.CarQuery;
+import model.query.QueryPlan;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import persistence.JsonStreamWriter;
+import persistence.StreamWriteable;
 import persistence.Writeable;
 
+import java.io.IOException;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.RandomAccess;
 
-// Represents a workroom having a collection of cars
-public class GarageWorkRoom implements Writeable {
+// Represents a workroom having a collection of cars, stored column by column in a CarTable
+public class GarageWorkRoom implements Writeable, StreamWriteable {
 
+    private CarTable table;
     private List<Car> carList;
 
     // EFFECTS: constructs workroom with a name and empty list of cars
     public GarageWorkRoom() {
-        carList = new ArrayList<>();
+        table = new CarTable();
+        carList = new CarListView();
     }
 
-    // EFFECTS: returns an unmodifiable list of cars in this workroom
+    // EFFECTS: returns an unmodifiable list of cars in this workroom, in the order they were added; the list
+    // is a view of the table that follows later changes to this workroom
     public List<Car> getCars() {
         return carList;
     }
 
+    // EFFECTS: returns the columnar table holding the cars of this workroom
+    public CarTable getTable() {
+        return table;
+    }
+
     // MODIFIES: this
     // EFFECTS: adds car to this workroom
     public void addCar(Car car) {
-        carList.add(car);
+        table.add(car);
         EventLog.getInstance().logEvent(new Event("Car listed onto marketplace: " + car.getYear() + " "
                 + car.getManufacturer() + " " + car.getModel()));
     }
 
+    // MODIFIES: this
+    // EFFECTS: adds all cars to this workroom in iteration order, presizing the list once and logging
+    // a single summary event for the whole batch instead of one event per car
+    public void addAll(Collection<Car> cars) {
+        addAll(cars, "Loaded " + cars.size() + " cars onto marketplace");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds all cars to this workroom in iteration order, presizing the list once, and logs event
+    // once for the whole batch, so that a caller collecting results in a workroom can say what happened
+    public void addAll(Collection<Car> cars, String event) {
+        if (cars.isEmpty()) {
+            return;
+        }
+        addQuietly(cars);
+        EventLog.getInstance().logEvent(new Event(event));
+    }
+
+    // EFFECTS: returns a new workroom holding the same cars as this one, without logging an event;
+    // used to save a consistent copy while this workroom keeps changing
+    public GarageWorkRoom snapshot() {
+        GarageWorkRoom copy = new GarageWorkRoom();
+        copy.addQuietly(carList);
+        return copy;
+    }
+
     // EFFECTS: returns number of cars in this workroom
     public int numCars() {
-        return carList.size();
+        return table.size();
+    }
+
+    // EFFECTS: returns the car in this workroom with the given id, or null if there is none, found through
+    // the table's id index in constant time
+    public Car getCar(long id) {
+        int slot = table.slotOf(id);
+        return slot < 0 ? null : table.car(slot);
+    }
+
+    // EFFECTS: returns true if car is in this workroom
+    public boolean containsCar(Car car) {
+        return table.slotOf(car) >= 0;
     }
 
+    // REQUIRES: field is numeric
+    // EFFECTS: returns the cars whose field is below bound, in the order they were added, found through the
+    // sorted index on field
+    public List<Car> carsBelow(CarField field, double bound) {
+        int[] slots = table.index(field).slotsBelow(bound);
+        Arrays.sort(slots);
+        return carsIn(slots);
+    }
+
+    // REQUIRES: field is numeric
+    // EFFECTS: returns the cars whose field lies between min and max inclusive, in ascending order of that
+    // field, found through the sorted index on field in O(log n + k) for k matches
+    public List<Car> carsInRange(CarField field, double min, double max) {
+        return carsIn(table.index(field).slotsInRange(min, true, max, true));
+    }
+
+    // EFFECTS: returns the cars with the given drive type, in the order they were added, read from the
+    // bitmap index on drive type without looking at any car
+    public List<Car> carsWithDriveType(DriveType driveType) {
+        return carsIn(table.slotsWithDriveType(driveType));
+    }
+
+    // EFFECTS: returns the cars matching query, planned against this workroom's table: the cars satisfying
+    // its condition, cut down to those no other beats if it is a skyline query, ordered and limited as it
+    // asks, or in the order they were added if it has no order
+    public List<Car> query(CarQuery query) {
+        return carsIn(QueryPlan.plan(table, query).execute());
+    }
+
+    // REQUIRES: field is null or orderable, offset >= 0 and count >= 0
+    // EFFECTS: returns up to count cars starting at offset among this workroom's cars ordered by field,
+    // ascending or descending, or in the order they were added if field is null. Only the cars up to the end
+    // of the page are ever put in order: they are taken from the field's sorted index, or selected with a
+    // heap when there are many cars, so showing the first page does not sort the whole workroom
+    public List<Car> page(CarField field, boolean ascending, int offset, int count) {
+        CarQuery query = new CarQuery().offset(offset).limit(count);
+        if (field != null) {
+            query.orderBy(field, ascending);
+        }
+        return query(query);
+    }
+
+    // REQUIRES: limit >= 0
+    // MODIFIES: this
+    // EFFECTS: returns up to limit cars whose manufacturer and model match text, allowing for typos and an
+    // unfinished last word, the best matches first; found through the table's trigram index, which is built
+    // on first use and looks at one entry per distinct manufacturer and model rather than at every car
+    public List<Car> search(String text, int limit) {
+        return carsIn(table.textIndex().search(text, limit));
+    }
+
+    // REQUIRES: k >= 0
+    // MODIFIES: this
+    // EFFECTS: returns up to k of this workroom's cars most like car in speed, handling, acceleration, braking
+    // and price, the most alike first, leaving out car itself; car need not be in this workroom. Found
+    // through the table's k-d tree, which is built on first use and then follows cars as they are added and
+    // removed, so only the few leaves near car are looked at
+    public List<Car> similarCars(Car car, int k) {
+        return carsIn(table.neighbourIndex().nearest(car, k));
+    }
+
+    // REQUIRES: field is null or orderable
+    // MODIFIES: this
+    // EFFECTS: returns a read-only view of this workroom's cars ordered by field, ascending or descending,
+    // or in the order they were added if field is null; the view follows later changes to this workroom.
+    // It reads the table's sorted index on field, which is built on first use and then kept in order as cars
+    // are added and removed, so asking again, or for the other direction, does not sort anything
+    public List<Car> sortedCars(CarField field, boolean ascending) {
+        return field == null ? carList : new SortedView(table.index(field), ascending);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the statistics of this workroom's cars, overall and by manufacturer, year and drive
+    // type. They are counted once, on first use, and then kept up to date by the table in constant time per
+    // car added or removed, so reading them again only looks at the cars of a group that has lost the last
+    // car holding one of its extremes
+    public MarketStats getStats() {
+        return refreshed(table.stats());
+    }
+
+    // REQUIRES: stats are the statistics of exactly this workroom's cars, such as those saved with a snapshot
+    // of it
+    // MODIFIES: this
+    // EFFECTS: keeps stats as this workroom's statistics from now on, so they need not be counted again
+    public void restoreStats(MarketStats stats) {
+        table.restoreStats(stats);
+    }
+
+    // EFFECTS: returns a description of the plan query would run with, and what it is estimated to cost
+    public String explain(CarQuery query) {
+        return QueryPlan.plan(table, query).explain();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes car from this workroom if it is there, found by its id in constant time
     public void removeCar(Car car) {
-        carList.remove(car);
+        int slot = table.slotOf(car);
+        if (slot >= 0) {
+            table.remove(slot);
+        }
         EventLog.getInstance().logEvent(new Event("Removed car from garage: " + car.getYear() + " "
                 + car.getManufacturer() + " " + car.getModel()));
     }
 
     // EFFECTS: returns the cars in the garage as a String in format "manufacturer model"
     public String carsInGarage() {
+        List<Car> cars = getCars();
         String garageCars = "";
-        if (carList.isEmpty()) {
+        if (cars.isEmpty()) {
             return "Your garage is empty. Visit the marketplace to buy cars!";
         }
-        for (int i = 0; i < carList.size(); i++) {
-            garageCars += (i + 1) + ". " + carList.get(i).getYear() + " " + carList.get(i).getManufacturer()
-                    + " " + carList.get(i).getModel() + "\n";
+        for (int i = 0; i < cars.size(); i++) {
+            garageCars += (i + 1) + ". " + cars.get(i).getYear() + " " + cars.get(i).getManufacturer()
+                    + " " + cars.get(i).getModel() + "\n";
         }
         return garageCars;
     }
@@ -63,6 +220,107 @@ public class GarageWorkRoom implements Writeable {
         return json;
     }
 
+    // EFFECTS: writes the same document as toJson straight to out, one car at a time
+    @Override
+    public void writeJson(JsonStreamWriter out) throws IOException {
+        out.beginObject();
+        writeMembers(out);
+        out.endObject();
+    }
+
+    // EFFECTS: writes the members of the document written by writeJson to out, inside an object already
+    // begun, so a writer can add members of its own around them
+    public void writeMembers(JsonStreamWriter out) throws IOException {
+        out.name("cars");
+        out.beginArray();
+        for (Car c : carList) {
+            c.writeJson(out);
+        }
+        out.endArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds all cars to the table in iteration order without logging an event
+    protected void addQuietly(Collection<Car> cars) {
+        table.ensureCapacity(table.numSlots() + cars.size());
+        for (Car c : cars) {
+            table.add(c);
+        }
+    }
+
+    // MODIFIES: stats
+    // EFFECTS: finds every extreme of stats that is no longer known again, from the cars of its group, and
+    // returns stats
+    protected MarketStats refreshed(MarketStats stats) {
+        for (MarketStats.Summary summary : stats.staleGroups()) {
+            summary.rescan(groupCars(summary.getGroupField(), summary.getGroupKey()));
+        }
+        stats.refreshOverall();
+        return stats;
+    }
+
+    // REQUIRES: field is MANUFACTURER, YEAR or DRIVE_TYPE, and key is a manufacturer name, year or drive type
+    // to match
+    // MODIFIES: this
+    // EFFECTS: returns this workroom's cars whose field is key, read from the table's bitmap index on field
+    protected List<Car> groupCars(CarField field, Object key) {
+        return carsIn(table.slotsInGroup(field, key));
+    }
+
+    // EFFECTS: returns the cars in the given slots of the table
+    protected List<Car> carsIn(int[] slots) {
+        List<Car> cars = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            cars.add(table.car(slot));
+        }
+        return cars;
+    }
+
+    // A read-only list of the cars in the table, in the order they were added
+    private class CarListView extends AbstractList<Car> implements RandomAccess {
+        @Override
+        public Car get(int index) {
+            if (index < 0 || index >= table.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + table.size());
+            }
+            return table.car(table.slotAt(index));
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Car && table.slotOf((Car) o) >= 0;
+        }
+    }
+
+    // A read-only list of the cars in the table in the order of a sorted index, read backwards when descending
+    private class SortedView extends AbstractList<Car> implements RandomAccess {
+        private final SortedIndex index;
+        private final boolean ascending;
+
+        SortedView(SortedIndex index, boolean ascending) {
+            this.index = index;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public Car get(int i) {
+            if (i < 0 || i >= index.size()) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + index.size());
+            }
+            return table.car(index.slotAt(ascending ? i : index.size() - 1 - i));
+        }
+
+        @Override
+        public int size() {
+            return index.size();
+        }
+    }
+
     // EFFECTS: returns cars in this workroom as a JSON array
     private JSONArray carsToJson() {
         JSONArray jsonArray = new JSONArray();
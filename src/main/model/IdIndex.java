@@ -0,0 +1,126 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a hash index from car id to slot in a CarTable, kept for every table so that finding,
+// checking for and removing a car by id takes constant expected time however many cars the table holds.
+// Entries are stored by open addressing with linear probing in two parallel primitive arrays, so no object
+// is allocated per car; a removed entry is filled by shifting later entries of its probe run back, leaving
+// no tombstones. The same id may be stored in more than one slot, as when one car is added twice.
+public class IdIndex {
+
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private long[] ids;
+    private int[] slots;
+    private int size;
+    private int shift;
+
+    // EFFECTS: constructs an empty index
+    IdIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    // EFFECTS: returns the number of entries in the index
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns the lowest slot holding id, or -1 if no slot does
+    public int find(long id) {
+        int found = EMPTY;
+        for (int i = home(id); slots[i] != EMPTY; i = (i + 1) & (slots.length - 1)) {
+            if (ids[i] == id && (found == EMPTY || slots[i] < found)) {
+                found = slots[i];
+            }
+        }
+        return found;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes room for at least capacity entries without rehashing
+    void ensureCapacity(int capacity) {
+        if (2 * capacity > slots.length) {
+            rehash(Integer.highestOneBit(2 * capacity - 1) << 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that slot holds id
+    void insert(long id, int slot) {
+        if (2 * (size + 1) > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int i = home(id);
+        while (slots[i] != EMPTY) {
+            i = (i + 1) & (slots.length - 1);
+        }
+        ids[i] = id;
+        slots[i] = slot;
+        size++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the entry recording that slot holds id, if there is one
+    void remove(long id, int slot) {
+        int mask = slots.length - 1;
+        int i = home(id);
+        while (slots[i] != EMPTY && (ids[i] != id || slots[i] != slot)) {
+            i = (i + 1) & mask;
+        }
+        if (slots[i] == EMPTY) {
+            return;
+        }
+        for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+            int k = home(ids[j]);
+            if (((j - k) & mask) >= ((j - i) & mask)) {
+                ids[i] = ids[j];
+                slots[i] = slots[j];
+                i = j;
+            }
+        }
+        slots[i] = EMPTY;
+        size--;
+    }
+
+    // REQUIRES: newSlots maps every slot in the index to the slot it moved to
+    // MODIFIES: this
+    // EFFECTS: moves every entry to its slot's new position
+    void remap(int[] newSlots) {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != EMPTY) {
+                slots[i] = newSlots[slots[i]];
+            }
+        }
+    }
+
+    // EFFECTS: returns the bucket id is probed from first
+    private int home(long id) {
+        return (int) ((id * MIX) >>> shift);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves every entry into a new table with the given power-of-two number of buckets
+    private void rehash(int capacity) {
+        long[] oldIds = ids;
+        int[] oldSlots = slots;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != EMPTY) {
+                insert(oldIds[i], oldSlots[i]);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: allocates empty buckets for the given power-of-two capacity
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        shift = Long.numberOfLeadingZeros(capacity - 1);
+    }
+}
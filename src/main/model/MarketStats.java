@@ -0,0 +1,438 @@
+package model;
+
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import model.sketch.Histogram;
+import model.sketch.QuantileSketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Represents running statistics of the cars of a market: how many there are, and the sum, mean, minimum and
+// maximum of their price and each performance stat, with a quantile sketch and a fixed-bucket histogram of
+// each, over all of them and grouped by manufacturer, by year and by drive type. Adding or removing a car
+// updates the summaries it belongs to in constant time: counts, sums, sketches and histograms directly, and
+// each extreme along with how many cars hold it.
+//
+// Only when the last car holding an extreme is removed does that extreme become unknown, and it stays known
+// to be beyond the remaining cars' values, so a car added past it becomes the new extreme. An unknown extreme
+// of a group is found again when the statistics are next read, by looking at the cars of that group alone;
+// that of all cars is then taken from the year groups, which between them hold every car
+public class MarketStats {
+
+    public static final CarField[] FIELDS = {CarField.PRICE, CarField.SPEED, CarField.HANDLING,
+            CarField.ACCELERATION, CarField.BRAKING};
+
+    private static final double[] PRICE_BOUNDS = {0, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+            1_000_000, 2_500_000};
+    private static final double[] STAT_BOUNDS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    private final Summary overall;
+    private final Map<String, Summary> byManufacturer;
+    private final Map<Integer, Summary> byYear;
+    private final Map<DriveType, Summary> byDriveType;
+
+    // EFFECTS: constructs statistics of an empty market
+    MarketStats() {
+        overall = new Summary(null, null);
+        byManufacturer = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        byYear = new TreeMap<>();
+        byDriveType = new EnumMap<>(DriveType.class);
+    }
+
+    // EFFECTS: returns the summary of all cars
+    public Summary getOverall() {
+        return overall;
+    }
+
+    // EFFECTS: returns the summaries of the cars of each manufacturer, by manufacturer name in alphabetical
+    // order; a manufacturer with no cars has no summary
+    public Map<String, Summary> getByManufacturer() {
+        return Collections.unmodifiableMap(byManufacturer);
+    }
+
+    // EFFECTS: returns the summaries of the cars of each year, in ascending year order
+    public Map<Integer, Summary> getByYear() {
+        return Collections.unmodifiableMap(byYear);
+    }
+
+    // EFFECTS: returns the summaries of the cars of each drive type; cars without one are in no drive type
+    // summary
+    public Map<DriveType, Summary> getByDriveType() {
+        return Collections.unmodifiableMap(byDriveType);
+    }
+
+    // EFFECTS: returns new statistics equal to these, which change independently of them
+    MarketStats copy() {
+        MarketStats copy = new MarketStats();
+        copy.overall.copyFrom(overall);
+        byManufacturer.forEach((key, summary) -> copy.byManufacturer.put(key, summary.copy()));
+        byYear.forEach((key, summary) -> copy.byYear.put(key, summary.copy()));
+        byDriveType.forEach((key, summary) -> copy.byDriveType.put(key, summary.copy()));
+        return copy;
+    }
+
+    // EFFECTS: writes these statistics to out, as read by read
+    public void write(DataOutput out) throws IOException {
+        overall.write(out);
+        out.writeInt(byManufacturer.size());
+        for (Map.Entry<String, Summary> group : byManufacturer.entrySet()) {
+            out.writeBoolean(group.getKey() != null);
+            if (group.getKey() != null) {
+                out.writeUTF(group.getKey());
+            }
+            group.getValue().write(out);
+        }
+        out.writeInt(byYear.size());
+        for (Map.Entry<Integer, Summary> group : byYear.entrySet()) {
+            out.writeInt(group.getKey());
+            group.getValue().write(out);
+        }
+        out.writeInt(byDriveType.size());
+        for (Map.Entry<DriveType, Summary> group : byDriveType.entrySet()) {
+            out.writeByte(group.getKey().ordinal());
+            group.getValue().write(out);
+        }
+    }
+
+    // EFFECTS: returns the statistics written to in by write; throws IOException if they cannot be read
+    public static MarketStats read(DataInput in) throws IOException {
+        MarketStats stats = new MarketStats();
+        stats.overall.copyFrom(Summary.read(in, null, null));
+        for (int n = in.readInt(); n > 0; n--) {
+            String manufacturer = in.readBoolean() ? in.readUTF() : null;
+            stats.byManufacturer.put(manufacturer, Summary.read(in, CarField.MANUFACTURER, manufacturer));
+        }
+        for (int n = in.readInt(); n > 0; n--) {
+            int year = in.readInt();
+            stats.byYear.put(year, Summary.read(in, CarField.YEAR, year));
+        }
+        for (int n = in.readInt(); n > 0; n--) {
+            DriveType driveType = DriveType.values()[in.readByte()];
+            stats.byDriveType.put(driveType, Summary.read(in, CarField.DRIVE_TYPE, driveType));
+        }
+        return stats;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts car in the summary of all cars and in those of its manufacturer, year and drive type
+    void add(Car car) {
+        overall.add(car);
+        byManufacturer.computeIfAbsent(car.getManufacturer(), k -> new Summary(CarField.MANUFACTURER, k)).add(car);
+        byYear.computeIfAbsent(car.getYear(), k -> new Summary(CarField.YEAR, k)).add(car);
+        if (car.getDriveType() != null) {
+            byDriveType.computeIfAbsent(car.getDriveType(), k -> new Summary(CarField.DRIVE_TYPE, k)).add(car);
+        }
+    }
+
+    // REQUIRES: car has been counted in these statistics and not removed since
+    // MODIFIES: this
+    // EFFECTS: takes car out of the summaries it was counted in, dropping a group left with no cars
+    void remove(Car car) {
+        overall.remove(car);
+        removeFrom(byManufacturer, car.getManufacturer(), car);
+        removeFrom(byYear, car.getYear(), car);
+        if (car.getDriveType() != null) {
+            removeFrom(byDriveType, car.getDriveType(), car);
+        }
+    }
+
+    // EFFECTS: returns the group summaries with an extreme that is no longer known
+    List<Summary> staleGroups() {
+        List<Summary> stale = new ArrayList<>();
+        for (Map<?, Summary> groups : Arrays.<Map<?, Summary>>asList(byManufacturer, byYear, byDriveType)) {
+            for (Summary summary : groups.values()) {
+                if (summary.isStale()) {
+                    stale.add(summary);
+                }
+            }
+        }
+        return stale;
+    }
+
+    // REQUIRES: no year summary is stale
+    // MODIFIES: this
+    // EFFECTS: finds the extremes of all cars again from the year summaries, if any is no longer known
+    void refreshOverall() {
+        if (overall.isStale()) {
+            overall.clearExtremes();
+            for (Summary summary : byYear.values()) {
+                overall.mergeExtremes(summary);
+            }
+        }
+    }
+
+    // MODIFIES: groups
+    // EFFECTS: takes car out of the summary of groups under key, dropping the summary if it has no cars left
+    private static <K> void removeFrom(Map<K, Summary> groups, K key, Car car) {
+        Summary summary = groups.get(key);
+        summary.remove(car);
+        if (summary.getCount() == 0) {
+            groups.remove(key);
+        }
+    }
+
+    // Represents the count of a group of cars and the sum, minimum and maximum of each of FIELDS over them,
+    // with how many of the cars hold each extreme, and the quantile sketch and histogram of each; none hold
+    // an extreme that is no longer known, which is then kept as a bound beyond every remaining car's value
+    public static class Summary {
+        private final CarField groupField;
+        private final Object groupKey;
+        private int count;
+        private final double[] sums = new double[FIELDS.length];
+        private final double[] mins = new double[FIELDS.length];
+        private final double[] maxes = new double[FIELDS.length];
+        private final int[] atMin = new int[FIELDS.length];
+        private final int[] atMax = new int[FIELDS.length];
+        private final QuantileSketch[] sketches = new QuantileSketch[FIELDS.length];
+        private final Histogram[] histograms = new Histogram[FIELDS.length];
+
+        // EFFECTS: constructs the summary of an empty group of the cars whose groupField is groupKey, or of
+        // all cars if groupField is null
+        Summary(CarField groupField, Object groupKey) {
+            this.groupField = groupField;
+            this.groupKey = groupKey;
+            for (int f = 0; f < FIELDS.length; f++) {
+                sketches[f] = new QuantileSketch();
+                histograms[f] = new Histogram(FIELDS[f] == CarField.PRICE ? PRICE_BOUNDS : STAT_BOUNDS);
+            }
+        }
+
+        // EFFECTS: returns MANUFACTURER, YEAR or DRIVE_TYPE for the field the group is of, or null for all cars
+        public CarField getGroupField() {
+            return groupField;
+        }
+
+        // EFFECTS: returns the manufacturer name, year or drive type the group is of, or null for all cars
+        public Object getGroupKey() {
+            return groupKey;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        // REQUIRES: field is one of FIELDS
+        // EFFECTS: returns the sum of field over the group's cars
+        public double getSum(CarField field) {
+            return sums[indexOf(field)];
+        }
+
+        // REQUIRES: field is one of FIELDS
+        // EFFECTS: returns the mean of field over the group's cars, or NaN if there are none
+        public double getMean(CarField field) {
+            return count == 0 ? Double.NaN : sums[indexOf(field)] / count;
+        }
+
+        // REQUIRES: field is one of FIELDS, and these statistics were read from their workroom since the
+        // group last changed
+        // EFFECTS: returns the least value of field among the group's cars, or NaN if there are none
+        public double getMin(CarField field) {
+            return count == 0 ? Double.NaN : mins[indexOf(field)];
+        }
+
+        // REQUIRES: field is one of FIELDS, and these statistics were read from their workroom since the
+        // group last changed
+        // EFFECTS: returns the greatest value of field among the group's cars, or NaN if there are none
+        public double getMax(CarField field) {
+            return count == 0 ? Double.NaN : maxes[indexOf(field)];
+        }
+
+        // REQUIRES: field is one of FIELDS, and 0 <= q <= 1
+        // EFFECTS: returns an estimate of the q-quantile of field over the group's cars, such as the median
+        // for 0.5, within QuantileSketch.ACCURACY relative error of a value of the right rank; returns NaN if
+        // there are none
+        public double getQuantile(CarField field, double q) {
+            return sketches[indexOf(field)].quantile(q);
+        }
+
+        // REQUIRES: field is one of FIELDS
+        // EFFECTS: returns the histogram of field over the group's cars, in fixed price bands or in whole
+        // stat points; it belongs to this summary and must not be changed
+        public Histogram getHistogram(CarField field) {
+            return histograms[indexOf(field)];
+        }
+
+        // EFFECTS: returns true if the group has cars and one of its extremes is no longer known
+        boolean isStale() {
+            for (int f = 0; f < FIELDS.length && count > 0; f++) {
+                if (atMin[f] == 0 || atMax[f] == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: counts car in this summary
+        void add(Car car) {
+            count++;
+            for (int f = 0; f < FIELDS.length; f++) {
+                double value = car.getValue(FIELDS[f]);
+                sums[f] += value;
+                sketches[f].add(value);
+                histograms[f].add(value);
+                if (count == 1 || value < mins[f] || (value == mins[f] && atMin[f] == 0)) {
+                    mins[f] = value;
+                    atMin[f] = 1;
+                } else if (value == mins[f]) {
+                    atMin[f]++;
+                }
+                if (count == 1 || value > maxes[f] || (value == maxes[f] && atMax[f] == 0)) {
+                    maxes[f] = value;
+                    atMax[f] = 1;
+                } else if (value == maxes[f]) {
+                    atMax[f]++;
+                }
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: takes car out of this summary; the sums start again from zero once no cars are left, so
+        // that rounding errors do not build up
+        void remove(Car car) {
+            count--;
+            for (int f = 0; f < FIELDS.length; f++) {
+                double value = car.getValue(FIELDS[f]);
+                sums[f] = count == 0 ? 0 : sums[f] - value;
+                sketches[f].remove(value);
+                histograms[f].remove(value);
+                if (value == mins[f] && atMin[f] > 0) {
+                    atMin[f]--;
+                }
+                if (value == maxes[f] && atMax[f] > 0) {
+                    atMax[f]--;
+                }
+            }
+        }
+
+        // REQUIRES: cars are exactly the cars of the group
+        // MODIFIES: this
+        // EFFECTS: finds every extreme again from cars
+        void rescan(Iterable<Car> cars) {
+            clearExtremes();
+            for (Car c : cars) {
+                for (int f = 0; f < FIELDS.length; f++) {
+                    double value = c.getValue(FIELDS[f]);
+                    mergeMin(f, value, 1);
+                    mergeMax(f, value, 1);
+                }
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: forgets every extreme, ready to merge new ones in
+        private void clearExtremes() {
+            for (int f = 0; f < FIELDS.length; f++) {
+                mins[f] = Double.POSITIVE_INFINITY;
+                maxes[f] = Double.NEGATIVE_INFINITY;
+                atMin[f] = 0;
+                atMax[f] = 0;
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: takes in the extremes of part, a summary of some of this group's cars
+        private void mergeExtremes(Summary part) {
+            for (int f = 0; f < FIELDS.length; f++) {
+                mergeMin(f, part.mins[f], part.atMin[f]);
+                mergeMax(f, part.maxes[f], part.atMax[f]);
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: takes in n cars holding value of the f-th field as candidates for its minimum
+        private void mergeMin(int f, double value, int n) {
+            if (value < mins[f]) {
+                mins[f] = value;
+                atMin[f] = n;
+            } else if (value == mins[f]) {
+                atMin[f] += n;
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: takes in n cars holding value of the f-th field as candidates for its maximum
+        private void mergeMax(int f, double value, int n) {
+            if (value > maxes[f]) {
+                maxes[f] = value;
+                atMax[f] = n;
+            } else if (value == maxes[f]) {
+                atMax[f] += n;
+            }
+        }
+
+        // EFFECTS: returns a new summary equal to this one
+        private Summary copy() {
+            Summary copy = new Summary(groupField, groupKey);
+            copy.copyFrom(this);
+            return copy;
+        }
+
+        // EFFECTS: writes this summary's figures to out, as read by read
+        private void write(DataOutput out) throws IOException {
+            out.writeInt(count);
+            for (int f = 0; f < FIELDS.length; f++) {
+                out.writeDouble(sums[f]);
+                out.writeDouble(mins[f]);
+                out.writeDouble(maxes[f]);
+                out.writeInt(atMin[f]);
+                out.writeInt(atMax[f]);
+                sketches[f].write(out);
+                histograms[f].write(out);
+            }
+        }
+
+        // EFFECTS: returns the summary of the group of the cars whose groupField is groupKey written to in by
+        // write; throws IOException if it cannot be read
+        private static Summary read(DataInput in, CarField groupField, Object groupKey) throws IOException {
+            Summary summary = new Summary(groupField, groupKey);
+            summary.count = in.readInt();
+            for (int f = 0; f < FIELDS.length; f++) {
+                summary.sums[f] = in.readDouble();
+                summary.mins[f] = in.readDouble();
+                summary.maxes[f] = in.readDouble();
+                summary.atMin[f] = in.readInt();
+                summary.atMax[f] = in.readInt();
+                summary.sketches[f] = QuantileSketch.read(in);
+                summary.histograms[f] = Histogram.read(in);
+            }
+            return summary;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: makes this summary's figures equal to other's
+        private void copyFrom(Summary other) {
+            count = other.count;
+            for (int f = 0; f < FIELDS.length; f++) {
+                sketches[f] = other.sketches[f].copy();
+                histograms[f] = other.histograms[f].copy();
+            }
+            System.arraycopy(other.sums, 0, sums, 0, FIELDS.length);
+            System.arraycopy(other.mins, 0, mins, 0, FIELDS.length);
+            System.arraycopy(other.maxes, 0, maxes, 0, FIELDS.length);
+            System.arraycopy(other.atMin, 0, atMin, 0, FIELDS.length);
+            System.arraycopy(other.atMax, 0, atMax, 0, FIELDS.length);
+        }
+
+        // EFFECTS: returns the position of field in FIELDS; throws IllegalArgumentException if it is not there
+        private static int indexOf(CarField field) {
+            for (int f = 0; f < FIELDS.length; f++) {
+                if (FIELDS[f] == field) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("No statistics on " + field);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package model;
+
+import model.cars.Car;
+
+import java.util.Arrays;
+
+// Represents a k-d tree over the cars of a CarTable, for finding the cars most like a given one. Each car is
+// a point in five dimensions: its speed, handling, acceleration and braking, and its price normalized to a
+// log scale of one point per doubling, since a buyer weighs a difference in price relative to the price
+// rather than in dollars; the cars most like a car are the nearest points by Euclidean distance. An inner
+// node splits its points at their median along the dimension they spread most in, and a leaf holds up to
+// LEAF_SIZE points in flat arrays.
+//
+// The tree follows the table as cars come and go: an added car is put in the leaf it falls in, which is
+// split in two once it is full, and a removed car is taken out of its leaf. Changes can leave the tree
+// uneven, so once the cars added or removed since it was built outnumber the cars it was built with, the
+// table builds it again from scratch, which costs O(log n) per change over time
+public class NeighbourIndex {
+
+    public static final int DIMENSIONS = 5;
+
+    private static final int LEAF_SIZE = 32;
+
+    private final CarTable table;
+    private final Node root;
+    private final int builtSize;
+    private int size;
+    private int changes;
+
+    // EFFECTS: constructs a balanced tree holding every live slot of table
+    NeighbourIndex(CarTable table) {
+        this.table = table;
+        int[] slots = table.liveSlots();
+        double[] coords = new double[slots.length * DIMENSIONS];
+        for (int i = 0; i < slots.length; i++) {
+            point(table, slots[i], coords, i);
+        }
+        root = build(slots, coords, slots.length);
+        builtSize = slots.length;
+        size = slots.length;
+    }
+
+    // EFFECTS: returns the number of cars in the index
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns true if the cars added or removed since the tree was built outnumber the cars it was
+    // built with, so that it should be built again
+    public boolean isWorn() {
+        return changes > Math.max(builtSize, LEAF_SIZE);
+    }
+
+    // REQUIRES: k >= 0
+    // EFFECTS: returns the slots of up to k cars nearest to car, nearest first and those as near in slot
+    // order, leaving out every car with car's id. Only the leaves that could hold a car nearer than the k-th
+    // nearest found so far are visited, nearest first
+    public int[] nearest(Car car, int k) {
+        double[] point = new double[DIMENSIONS];
+        point(car.getSpeed(), car.getHandling(), car.getAcceleration(), car.getBraking(), car.getPrice(),
+                point, 0);
+        Neighbours best = new Neighbours(k);
+        if (k > 0) {
+            search(root, point, car.getId(), best);
+        }
+        return best.sorted();
+    }
+
+    // EFFECTS: returns the distance between a and b in the index's space
+    public static double distance(Car a, Car b) {
+        double[] points = new double[2 * DIMENSIONS];
+        point(a.getSpeed(), a.getHandling(), a.getAcceleration(), a.getBraking(), a.getPrice(), points, 0);
+        point(b.getSpeed(), b.getHandling(), b.getAcceleration(), b.getBraking(), b.getPrice(), points, 1);
+        return Math.sqrt(squaredDistance(points, 0, points, 1));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds slot of the table to the leaf its point falls in, splitting the leaf if it is full
+    void insert(int slot) {
+        double[] point = new double[DIMENSIONS];
+        point(table, slot, point, 0);
+        Node node = root;
+        while (!node.isLeaf()) {
+            node = point[node.dim] < node.split ? node.low : node.high;
+        }
+        node.add(slot, point, 0);
+        if (node.size > LEAF_SIZE) {
+            node.split();
+        }
+        size++;
+        changes++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes slot of the table from its leaf, if it is in the index
+    void remove(int slot) {
+        double[] point = new double[DIMENSIONS];
+        point(table, slot, point, 0);
+        if (remove(root, point, slot)) {
+            size--;
+            changes++;
+        }
+    }
+
+    // MODIFIES: node
+    // EFFECTS: removes slot, whose point is given, from the leaf below node holding it and returns true, or
+    // returns false if no leaf does; a point on a split may be on either side of it
+    private static boolean remove(Node node, double[] point, int slot) {
+        if (node.isLeaf()) {
+            return node.remove(slot);
+        }
+        return (point[node.dim] <= node.split && remove(node.low, point, slot))
+                || (point[node.dim] >= node.split && remove(node.high, point, slot));
+    }
+
+    // REQUIRES: newSlots maps every slot in the index to the slot it moved to
+    // MODIFIES: this
+    // EFFECTS: renumbers every slot s in the index as newSlots[s], after the table has been packed
+    void remap(int[] newSlots) {
+        remap(root, newSlots);
+    }
+
+    // MODIFIES: node
+    // EFFECTS: renumbers every slot s below node as newSlots[s]
+    private static void remap(Node node, int[] newSlots) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                node.slots[i] = newSlots[node.slots[i]];
+            }
+        } else {
+            remap(node.low, newSlots);
+            remap(node.high, newSlots);
+        }
+    }
+
+    // EFFECTS: returns the root of a balanced tree over the first n slots, whose points are held in coords
+    private static Node build(int[] slots, double[] coords, int n) {
+        Node node = new Node();
+        for (int i = 0; i < n; i++) {
+            node.add(slots[i], coords, i);
+        }
+        node.splitAll();
+        return node;
+    }
+
+    // MODIFIES: best
+    // EFFECTS: offers every car below node other than those with excludedId to best, skipping the subtrees
+    // that lie farther from point than the worst of best
+    private void search(Node node, double[] point, long excludedId, Neighbours best) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                double d = squaredDistance(node.coords, i, point, 0);
+                if (d <= best.worst() && table.id(node.slots[i]) != excludedId) {
+                    best.offer(d, node.slots[i]);
+                }
+            }
+            return;
+        }
+        double diff = point[node.dim] - node.split;
+        search(diff < 0 ? node.low : node.high, point, excludedId, best);
+        if (diff * diff <= best.worst()) {
+            search(diff < 0 ? node.high : node.low, point, excludedId, best);
+        }
+    }
+
+    // MODIFIES: coords
+    // EFFECTS: writes the point of slot of table as the i-th point of coords
+    private static void point(CarTable table, int slot, double[] coords, int i) {
+        point(table.speed(slot), table.handling(slot), table.acceleration(slot), table.braking(slot),
+                table.price(slot), coords, i);
+    }
+
+    // MODIFIES: coords
+    // EFFECTS: writes the point of a car with the given stats and price as the i-th point of coords
+    private static void point(double speed, double handling, double acceleration, double braking, int price,
+                              double[] coords, int i) {
+        int at = i * DIMENSIONS;
+        coords[at] = speed;
+        coords[at + 1] = handling;
+        coords[at + 2] = acceleration;
+        coords[at + 3] = braking;
+        coords[at + 4] = Math.log(Math.max(price, 1)) / Math.log(2);
+    }
+
+    // EFFECTS: returns the squared distance between the i-th point of a and the j-th point of b
+    private static double squaredDistance(double[] a, int i, double[] b, int j) {
+        double sum = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double diff = a[i * DIMENSIONS + d] - b[j * DIMENSIONS + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    // A node of the tree: an inner node splits its points between low, below split in dimension dim, and
+    // high, at or above it, where points equal to split may be on either side; a leaf holds its points'
+    // slots and coordinates
+    private static class Node {
+        private int dim = -1;
+        private double split;
+        private Node low;
+        private Node high;
+        private int[] slots = new int[LEAF_SIZE + 1];
+        private double[] coords = new double[(LEAF_SIZE + 1) * DIMENSIONS];
+        private int size;
+
+        boolean isLeaf() {
+            return dim < 0;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: adds slot to this leaf with the i-th point of from
+        void add(int slot, double[] from, int i) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, 2 * size);
+                coords = Arrays.copyOf(coords, 2 * size * DIMENSIONS);
+            }
+            slots[size] = slot;
+            System.arraycopy(from, i * DIMENSIONS, coords, size * DIMENSIONS, DIMENSIONS);
+            size++;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: removes slot from this leaf, moving its last point into the gap, and returns true, or
+        // returns false if this leaf does not hold slot
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    System.arraycopy(coords, size * DIMENSIONS, coords, i * DIMENSIONS, DIMENSIONS);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: splits this leaf and its halves until no leaf holds more than LEAF_SIZE points
+        void splitAll() {
+            split();
+            if (!isLeaf()) {
+                low.splitAll();
+                high.splitAll();
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: if this leaf holds more than LEAF_SIZE points that are not all the same, turns it into an
+        // inner node splitting them at their median along the dimension they spread most in
+        void split() {
+            int widest = widestDimension();
+            if (size <= LEAF_SIZE || widest < 0) {
+                return;
+            }
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            int median = size / 2;
+            select(order, widest, median);
+            low = new Node();
+            high = new Node();
+            for (int i = 0; i < size; i++) {
+                (i < median ? low : high).add(slots[order[i]], coords, order[i]);
+            }
+            dim = widest;
+            split = coords[order[median] * DIMENSIONS + widest];
+            slots = null;
+            coords = null;
+            size = 0;
+        }
+
+        // EFFECTS: returns the dimension the points of this leaf spread most in, or -1 if they are all the same
+        private int widestDimension() {
+            int widest = -1;
+            double widestSpread = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < size; i++) {
+                    min = Math.min(min, coords[i * DIMENSIONS + d]);
+                    max = Math.max(max, coords[i * DIMENSIONS + d]);
+                }
+                if (max - min > widestSpread) {
+                    widest = d;
+                    widestSpread = max - min;
+                }
+            }
+            return widest;
+        }
+
+        // MODIFIES: order
+        // EFFECTS: reorders the point numbers in order so that the one at k has the k-th smallest coordinate in
+        // dimension dim, those before it none larger and those after it none smaller
+        private void select(int[] order, int dim, int k) {
+            int from = 0;
+            int to = order.length - 1;
+            while (from < to) {
+                double pivot = coords[order[(from + to) >>> 1] * DIMENSIONS + dim];
+                int i = from;
+                int j = to;
+                while (i <= j) {
+                    while (coords[order[i] * DIMENSIONS + dim] < pivot) {
+                        i++;
+                    }
+                    while (coords[order[j] * DIMENSIONS + dim] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int swap = order[i];
+                        order[i++] = order[j];
+                        order[j--] = swap;
+                    }
+                }
+                from = k <= j ? from : i <= k ? i : k;
+                to = k <= j ? j : i <= k ? to : k;
+            }
+        }
+    }
+
+    // The k nearest cars offered so far, in a max-heap on squared distance and then slot
+    private static class Neighbours {
+        private final double[] distances;
+        private final int[] slots;
+        private int size;
+
+        Neighbours(int k) {
+            distances = new double[k];
+            slots = new int[k];
+        }
+
+        // EFFECTS: returns the squared distance a car must be within to be kept, which is infinite until k
+        // cars have been offered
+        double worst() {
+            return size < slots.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        // MODIFIES: this
+        // EFFECTS: keeps the car in slot at squared distance d if it is among the k nearest offered so far
+        void offer(double d, int slot) {
+            if (size < slots.length) {
+                siftUp(size++, d, slot);
+            } else if (before(d, slot, distances[0], slots[0])) {
+                siftDown(d, slot);
+            }
+        }
+
+        // EFFECTS: returns the slots kept, nearest first and those as near in slot order
+        int[] sorted() {
+            int n = size;
+            int[] sorted = new int[n];
+            for (int end = n - 1; end >= 0; end--) {
+                sorted[end] = slots[0];
+                size--;
+                if (size > 0) {
+                    siftDown(distances[size], slots[size]);
+                }
+            }
+            return sorted;
+        }
+
+        // EFFECTS: returns true if a car at squared distance d in slot comes before one at e in other
+        private static boolean before(double d, int slot, double e, int other) {
+            return d < e || (d == e && slot < other);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: puts the car at squared distance d in slot at i and moves it up until its parent comes
+        // after it
+        private void siftUp(int i, double d, int slot) {
+            while (i > 0 && before(distances[(i - 1) >>> 1], slots[(i - 1) >>> 1], d, slot)) {
+                distances[i] = distances[(i - 1) >>> 1];
+                slots[i] = slots[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            distances[i] = d;
+            slots[i] = slot;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: replaces the root with the car at squared distance d in slot and moves it down until no
+        // child comes after it
+        private void siftDown(double d, int slot) {
+            int i = 0;
+            for (int child = 1; child < size; child = 2 * i + 1) {
+                if (child + 1 < size && before(distances[child], slots[child], distances[child + 1],
+                        slots[child + 1])) {
+                    child++;
+                }
+                if (!before(d, slot, distances[child], slots[child])) {
+                    break;
+                }
+                distances[i] = distances[child];
+                slots[i] = slots[child];
+                i = child;
+            }
+            distances[i] = d;
+            slots[i] = slot;
+        }
+    }
+}
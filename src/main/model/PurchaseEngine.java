@@ -0,0 +1,117 @@
+package model;
+
+import model.cars.Car;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Represents the purchase path of the marketplace: buying a listed car reserves the listing, debits the
+// buyer's account and moves the car from the market to the buyer's garage as one purchase, however many
+// buyers race for the same listing or spend from the same account at once.
+//
+// A listing is reserved by a compare-and-set on a concurrent map from car id to buyer, so exactly one of the
+// buyers racing for it goes on and the rest are told it is taken. The purchase then runs under one of STRIPES
+// locks picked by the car's id, so purchases of different listings go on side by side. The account is
+// debited in one step under its own lock, so a balance can never be overdrawn, and credited back if the car
+// cannot be moved. Workrooms are not thread-safe, so each market or garage is only read or changed while
+// holding its own monitor, and never two of them at once, so purchases cannot deadlock. Markets and garages
+// must only be changed through this engine, or while holding their monitor, while purchases may be running
+public class PurchaseEngine {
+
+    // The outcome of an attempt to buy a car
+    public enum Outcome {
+        BOUGHT, RESERVED, NOT_LISTED, INSUFFICIENT_FUNDS
+    }
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentMap<Long, AccountWorkRoom> reservations;
+    private final ReentrantLock[] stripes;
+
+    // EFFECTS: constructs an engine with no listings reserved
+    public PurchaseEngine() {
+        reservations = new ConcurrentHashMap<>();
+        stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // MODIFIES: market, buyer, garage
+    // EFFECTS: buys car from market for buyer: if car is listed on market, not reserved by another buyer and
+    // buyer's balance covers its price, takes the price from buyer's balance, removes car from market and adds
+    // it to garage, and returns BOUGHT. Otherwise changes nothing and returns RESERVED if another purchase of
+    // car is under way, NOT_LISTED if car is not on market, or INSUFFICIENT_FUNDS if buyer cannot afford it.
+    // If the car cannot be moved, puts it back on market, credits its price back to buyer, releases the
+    // listing and rethrows what stopped the move
+    public Outcome buy(Car car, GarageWorkRoom market, AccountWorkRoom buyer, GarageWorkRoom garage) {
+        if (reservations.putIfAbsent(car.getId(), buyer) != null) {
+            return Outcome.RESERVED;
+        }
+        ReentrantLock lock = lockFor(car);
+        lock.lock();
+        try {
+            return buyReserved(car, market, buyer, garage);
+        } finally {
+            lock.unlock();
+            reservations.remove(car.getId(), buyer);
+        }
+    }
+
+    // EFFECTS: returns true if a purchase of car is under way
+    public boolean isReserved(Car car) {
+        return reservations.containsKey(car.getId());
+    }
+
+    // EFFECTS: returns the lock that purchases of car's listing run under, shared with the listings whose ids
+    // fall in the same stripe
+    public ReentrantLock lockFor(Car car) {
+        long id = car.getId();
+        int h = (int) (id ^ (id >>> 32));
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    // REQUIRES: car is reserved by buyer and its stripe's lock is held
+    // MODIFIES: market, buyer, garage
+    // EFFECTS: buys car from market for buyer as buy does, crediting its price back if it cannot be moved
+    private Outcome buyReserved(Car car, GarageWorkRoom market, AccountWorkRoom buyer, GarageWorkRoom garage) {
+        synchronized (market) {
+            if (!market.containsCar(car)) {
+                return Outcome.NOT_LISTED;
+            }
+        }
+        if (!buyer.debit(car.getPrice())) {
+            return Outcome.INSUFFICIENT_FUNDS;
+        }
+        try {
+            transfer(car, market, garage);
+        } catch (RuntimeException e) {
+            buyer.credit(car.getPrice());
+            throw e;
+        }
+        EventLog.getInstance().logEvent(new Event("Bought car and added to garage: " + car.getYear() + " "
+                + car.getManufacturer() + " " + car.getModel()));
+        return Outcome.BOUGHT;
+    }
+
+    // REQUIRES: car is listed on market and reserved
+    // MODIFIES: market, garage
+    // EFFECTS: removes car from market, then adds it to garage, each while holding that workroom's monitor;
+    // if car cannot be added to garage, puts it back on market and rethrows
+    private void transfer(Car car, GarageWorkRoom market, GarageWorkRoom garage) {
+        synchronized (market) {
+            market.removeCar(car);
+        }
+        try {
+            synchronized (garage) {
+                garage.addCar(car);
+            }
+        } catch (RuntimeException e) {
+            synchronized (market) {
+                market.addCar(car);
+            }
+            throw e;
+        }
+    }
+}
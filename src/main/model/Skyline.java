@@ -0,0 +1,257 @@
+package model;
+
+import model.cars.Car;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Finds the skyline, or Pareto frontier, of a set of cars on price and performance: the cars no other car in
+// the set beats, where one car beats another when it costs no more and is no worse in speed, handling,
+// acceleration or braking, and is strictly better in at least one of them. Cars equal in all five are both
+// kept. Each car is a point in five dimensions, with its stats negated so that lower is better in every one.
+//
+// The set is split in halves on a ForkJoinPool until each part holds at most LEAF_SIZE cars, whose skyline
+// is found by sort-filter-skyline: the points are sorted by the sum of their coordinates, which is never more
+// for a point than for any point it beats, and each is kept unless a point kept before it beats it. Two
+// halves' skylines are merged by dropping the points of each that a point of the other beats, which is
+// enough since neither half beats itself; merging long skylines is split over the pool too. Only skyline
+// cars survive a merge, so for typical listings the parts shrink to a few hundred cars on their way up
+public final class Skyline {
+
+    public static final int DIMENSIONS = 5;
+
+    private static final int LEAF_SIZE = 4096;
+    private static final long FILTER_GRAIN = 1L << 20;
+
+    private final double[] points;
+    private final PointSource source;
+
+    // EFFECTS: constructs a skyline over n points, read from source as they are needed
+    private Skyline(int n, PointSource source) {
+        this.points = new double[n * DIMENSIONS];
+        this.source = source;
+    }
+
+    // EFFECTS: returns the slots of table among slots whose cars no other of them beats, in the order given,
+    // found on the common ForkJoinPool
+    public static int[] of(CarTable table, int[] slots) {
+        return of(table, slots, ForkJoinPool.commonPool());
+    }
+
+    // EFFECTS: returns the slots of table among slots whose cars no other of them beats, in the order given,
+    // found on pool
+    public static int[] of(CarTable table, int[] slots, ForkJoinPool pool) {
+        Skyline skyline = new Skyline(slots.length, (i, points, at) -> point(table.price(slots[i]),
+                table.speed(slots[i]), table.handling(slots[i]), table.acceleration(slots[i]),
+                table.braking(slots[i]), points, at));
+        int[] positions = skyline.compute(pool);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = slots[positions[i]];
+        }
+        return positions;
+    }
+
+    // EFFECTS: returns the cars that no other car of cars beats, in the order given, found on the common
+    // ForkJoinPool
+    public static List<Car> of(List<Car> cars) {
+        Car[] array = cars.toArray(new Car[0]);
+        Skyline skyline = new Skyline(array.length, (i, points, at) -> point(array[i].getPrice(),
+                array[i].getSpeed(), array[i].getHandling(), array[i].getAcceleration(), array[i].getBraking(),
+                points, at));
+        List<Car> kept = new ArrayList<>();
+        for (int i : skyline.compute(ForkJoinPool.commonPool())) {
+            kept.add(array[i]);
+        }
+        return kept;
+    }
+
+    // EFFECTS: returns true if car a beats car b: a costs no more and is no worse in speed, handling,
+    // acceleration or braking, and is strictly better in at least one
+    public static boolean beats(Car a, Car b) {
+        double[] points = new double[2 * DIMENSIONS];
+        point(a.getPrice(), a.getSpeed(), a.getHandling(), a.getAcceleration(), a.getBraking(), points, 0);
+        point(b.getPrice(), b.getSpeed(), b.getHandling(), b.getAcceleration(), b.getBraking(), points, 1);
+        return beats(points, 0, 1);
+    }
+
+    // EFFECTS: returns true if the point at a of points beats the one at b: it is no higher in any
+    // coordinate and lower in at least one
+    private static boolean beats(double[] points, int a, int b) {
+        int i = a * DIMENSIONS;
+        int j = b * DIMENSIONS;
+        boolean lower = false;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (points[i + d] > points[j + d]) {
+                return false;
+            }
+            lower |= points[i + d] < points[j + d];
+        }
+        return lower;
+    }
+
+    // EFFECTS: returns the positions of the points no other point beats, in ascending order, splitting the
+    // work over pool unless there are too few points to be worth it
+    private int[] compute(ForkJoinPool pool) {
+        int n = points.length / DIMENSIONS;
+        SkylineTask task = new SkylineTask(this, 0, n);
+        return n <= LEAF_SIZE ? task.compute() : pool.invoke(task);
+    }
+
+    // MODIFIES: points
+    // EFFECTS: stores the point of a car with the given price and stats as the point at index of points
+    private static void point(double price, double speed, double handling, double acceleration, double braking,
+                              double[] points, int index) {
+        int at = index * DIMENSIONS;
+        points[at] = price;
+        points[at + 1] = -speed;
+        points[at + 2] = -handling;
+        points[at + 3] = -acceleration;
+        points[at + 4] = -braking;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the positions from lo (inclusive) to hi (exclusive) whose points no other of them beats,
+    // in ascending order, reading their points from the source first
+    private int[] leafSkyline(int lo, int hi) {
+        int n = hi - lo;
+        double[] sums = new double[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            source.fill(lo + i, points, lo + i);
+            order[i] = lo + i;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                sums[i] += points[(lo + i) * DIMENSIONS + d];
+            }
+        }
+        SlotSorter.sort(sums, order, n);
+        int[] kept = new int[n];
+        double[] keptSums = new double[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            k = keepUnlessBeaten(kept, keptSums, k, order[i], sums[i]);
+        }
+        int[] skyline = Arrays.copyOf(kept, k);
+        Arrays.sort(skyline);
+        return skyline;
+    }
+
+    // MODIFIES: kept, keptSums
+    // EFFECTS: adds p, whose coordinates sum to sum, to the first k kept positions unless one of them beats
+    // it, and returns how many are kept. Rounding can give a point the same sum as one it beats, so a kept
+    // point with p's sum that p beats is dropped
+    private int keepUnlessBeaten(int[] kept, double[] keptSums, int k, int p, double sum) {
+        int n = 0;
+        for (int j = 0; j < k; j++) {
+            if (beats(points, kept[j], p)) {
+                return k;
+            }
+            if (keptSums[j] != sum || !beats(points, p, kept[j])) {
+                kept[n] = kept[j];
+                keptSums[n++] = keptSums[j];
+            }
+        }
+        kept[n] = p;
+        keptSums[n] = sum;
+        return n + 1;
+    }
+
+    // EFFECTS: returns the positions among candidates[from..to) whose points no point at a position in
+    // against beats, in the order given
+    private int[] unbeaten(int[] candidates, int from, int to, int[] against) {
+        int[] kept = new int[to - from];
+        int k = 0;
+        for (int i = from; i < to; i++) {
+            boolean beaten = false;
+            for (int j = 0; j < against.length && !beaten; j++) {
+                beaten = beats(points, against[j], candidates[i]);
+            }
+            if (!beaten) {
+                kept[k++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(kept, k);
+    }
+
+    // EFFECTS: returns the two arrays joined, a first
+    private static int[] concat(int[] a, int[] b) {
+        int[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    // Reads the point at one position of the set being searched
+    private interface PointSource {
+        // MODIFIES: points
+        // EFFECTS: stores the point at position i as the point at index of points
+        void fill(int i, double[] points, int index);
+    }
+
+    // Finds the skyline of the points at positions lo (inclusive) to hi (exclusive), splitting the range in
+    // half until it is no bigger than LEAF_SIZE
+    private static class SkylineTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Skyline skyline;
+        private final int lo;
+        private final int hi;
+
+        SkylineTask(Skyline skyline, int lo, int hi) {
+            this.skyline = skyline;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        // EFFECTS: returns the positions of the skyline of this range, in ascending order
+        @Override
+        protected int[] compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                return skyline.leafSkyline(lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            SkylineTask left = new SkylineTask(skyline, lo, mid);
+            left.fork();
+            int[] right = new SkylineTask(skyline, mid, hi).compute();
+            int[] leftSkyline = left.join();
+            FilterTask leftKept = new FilterTask(skyline, leftSkyline, 0, leftSkyline.length, right);
+            leftKept.fork();
+            int[] rightKept = new FilterTask(skyline, right, 0, right.length, leftSkyline).compute();
+            return concat(leftKept.join(), rightKept);
+        }
+    }
+
+    // Drops the positions among candidates[from..to) that a position in against beats, splitting the
+    // candidates in half while they take more than FILTER_GRAIN comparisons
+    private static class FilterTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Skyline skyline;
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+        private final int[] against;
+
+        FilterTask(Skyline skyline, int[] candidates, int from, int to, int[] against) {
+            this.skyline = skyline;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.against = against;
+        }
+
+        // EFFECTS: returns the unbeaten candidates, in the order given
+        @Override
+        protected int[] compute() {
+            if ((long) (to - from) * against.length <= FILTER_GRAIN || to - from < 2) {
+                return skyline.unbeaten(candidates, from, to, against);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask left = new FilterTask(skyline, candidates, from, mid, against);
+            left.fork();
+            int[] right = new FilterTask(skyline, candidates, mid, to, against).compute();
+            return concat(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Sorts slots of a CarTable by keys held alongside them. Each key is mapped to a 64-bit integer whose
+// unsigned order is the order Double.compare gives, and the integers are sorted with a stable
+// least-significant-digit radix sort, one counting pass per byte; a byte that is the same in every key is
+// skipped, so a whole-number field such as year or price, whose keys differ in only a few bytes, takes two
+// or three passes instead of eight. On more than one core, a very large sort whose keys and positions fit in
+// one long each is handed to Arrays.parallelSort instead, and a small one is done by insertion. Slots with
+// equal keys keep the order they were given in, so sorting by several keys sorts by each in turn from the
+// last to the first. When only the first few slots in key order are wanted, they are selected with a bounded
+// heap instead of sorting every slot
+public final class SlotSorter {
+
+    private static final int INSERTION_THRESHOLD = 32;
+    private static final int PARALLEL_THRESHOLD = 1 << 18;
+    private static final int DIGIT_BITS = 8;
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    private SlotSorter() {
+    }
+
+    // REQUIRES: keys and slots hold at least n entries
+    // MODIFIES: keys, slots
+    // EFFECTS: stably sorts the first n entries of keys into ascending order, moving slots with them
+    public static void sort(double[] keys, int[] slots, int n) {
+        sort(keys, slots, n, isParallel(n));
+    }
+
+    // REQUIRES: keys and slots hold at least n entries
+    // MODIFIES: keys, slots
+    // EFFECTS: stably sorts the first n entries of keys into ascending order, moving slots with them, with
+    // Arrays.parallelSort if parallel is true and the keys fit
+    static void sort(double[] keys, int[] slots, int n, boolean parallel) {
+        long[] bits = new long[n];
+        for (int i = 0; i < n; i++) {
+            bits[i] = sortable(keys[i]);
+        }
+        sortBits(bits, slots, n, parallel);
+        for (int i = 0; i < n; i++) {
+            keys[i] = fromSortable(bits[i]);
+        }
+    }
+
+    // REQUIRES: keys.length == ascending.length > 0, and slots and every keys[j] hold at least n entries
+    // MODIFIES: slots
+    // EFFECTS: sorts the first n slots by their first key, ascending or descending as ascending[0] says,
+    // then those equal in it by their second key, and so on, where keys[j][i] is the j-th key of the slot at
+    // i. Slots equal in every key keep the order they were given in if the last key is ascending and are
+    // reversed if it is descending, so that a descending sort on one key is the exact reverse of the
+    // ascending one. The slots are sorted as a permutation of their positions, one stable pass per key
+    public static void sort(double[][] keys, boolean[] ascending, int[] slots, int n) {
+        boolean parallel = isParallel(n);
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = ascending[ascending.length - 1] ? i : n - 1 - i;
+        }
+        long[] bits = new long[n];
+        for (int j = keys.length - 1; j >= 0; j--) {
+            for (int i = 0; i < n; i++) {
+                long key = sortable(keys[j][perm[i]]);
+                bits[i] = ascending[j] ? key : ~key;
+            }
+            sortBits(bits, perm, n, parallel);
+        }
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = slots[perm[i]];
+        }
+        System.arraycopy(sorted, 0, slots, 0, n);
+    }
+
+    // EFFECTS: returns a 64-bit integer whose unsigned order among such integers is key's order under
+    // Double.compare
+    static long sortable(double key) {
+        long bits = Double.doubleToLongBits(key);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    // EFFECTS: returns the key that sortable maps to bits
+    static double fromSortable(long bits) {
+        return Double.longBitsToDouble(bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+    }
+
+    // EFFECTS: returns true if a sort of n entries should be tried in parallel
+    private static boolean isParallel(int n) {
+        return n >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    // MODIFIES: bits, perm
+    // EFFECTS: stably sorts the first n entries of bits into ascending unsigned order, moving perm with them
+    private static void sortBits(long[] bits, int[] perm, int n, boolean parallel) {
+        if (n < INSERTION_THRESHOLD) {
+            insertionSort(bits, perm, n);
+            return;
+        }
+        long min = bits[0];
+        long max = bits[0];
+        long diff = 0;
+        for (int i = 1; i < n; i++) {
+            min = Long.compareUnsigned(bits[i], min) < 0 ? bits[i] : min;
+            max = Long.compareUnsigned(bits[i], max) > 0 ? bits[i] : max;
+            diff |= bits[i] ^ bits[0];
+        }
+        int positionBits = Integer.SIZE - Integer.numberOfLeadingZeros(n - 1);
+        if (parallel && Long.SIZE - Long.numberOfLeadingZeros(max - min) + positionBits < Long.SIZE) {
+            packedSort(bits, perm, n, min, positionBits);
+        } else {
+            radixSort(bits, perm, n, diff);
+        }
+    }
+
+    // MODIFIES: bits, perm
+    // EFFECTS: stably sorts the first n entries of bits into ascending unsigned order by insertion, moving
+    // perm with them
+    private static void insertionSort(long[] bits, int[] perm, int n) {
+        for (int i = 1; i < n; i++) {
+            long key = bits[i];
+            int p = perm[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(bits[j], key) > 0) {
+                bits[j + 1] = bits[j];
+                perm[j + 1] = perm[j];
+                j--;
+            }
+            bits[j + 1] = key;
+            perm[j + 1] = p;
+        }
+    }
+
+    // MODIFIES: bits, perm
+    // EFFECTS: stably sorts the first n entries of bits into ascending unsigned order with one counting pass
+    // per byte, from the lowest, skipping the bytes where diff has no bits set, and moves perm with them
+    private static void radixSort(long[] bits, int[] perm, int n, long diff) {
+        long[] bitsFrom = bits;
+        int[] permFrom = perm;
+        long[] bitsTo = new long[n];
+        int[] permTo = new int[n];
+        for (int shift = 0; shift < Long.SIZE; shift += DIGIT_BITS) {
+            if (((diff >>> shift) & (RADIX - 1)) != 0) {
+                countingPass(bitsFrom, permFrom, bitsTo, permTo, n, shift);
+                long[] bitsSwap = bitsFrom;
+                bitsFrom = bitsTo;
+                bitsTo = bitsSwap;
+                int[] permSwap = permFrom;
+                permFrom = permTo;
+                permTo = permSwap;
+            }
+        }
+        if (bitsFrom != bits) {
+            System.arraycopy(bitsFrom, 0, bits, 0, n);
+            System.arraycopy(permFrom, 0, perm, 0, n);
+        }
+    }
+
+    // MODIFIES: bitsTo, permTo
+    // EFFECTS: puts the first n entries of bits and perm into bitsTo and permTo in stable order of the byte
+    // of bits starting at shift
+    private static void countingPass(long[] bits, int[] perm, long[] bitsTo, int[] permTo, int n, int shift) {
+        int[] starts = new int[RADIX];
+        for (int i = 0; i < n; i++) {
+            starts[(int) (bits[i] >>> shift) & (RADIX - 1)]++;
+        }
+        int sum = 0;
+        for (int d = 0; d < RADIX; d++) {
+            int count = starts[d];
+            starts[d] = sum;
+            sum += count;
+        }
+        for (int i = 0; i < n; i++) {
+            int to = starts[(int) (bits[i] >>> shift) & (RADIX - 1)]++;
+            bitsTo[to] = bits[i];
+            permTo[to] = perm[i];
+        }
+    }
+
+    // REQUIRES: every entry of bits minus min, shifted left by positionBits, fits in 63 bits
+    // MODIFIES: bits, perm
+    // EFFECTS: stably sorts the first n entries of bits into ascending unsigned order, moving perm with them,
+    // by packing each entry's distance from min above its position and sorting the packed longs with
+    // Arrays.parallelSort; the position makes every packed long distinct, which keeps equal keys in order
+    private static void packedSort(long[] bits, int[] perm, int n, long min, int positionBits) {
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((bits[i] - min) << positionBits) | i;
+        }
+        Arrays.parallelSort(packed);
+        int[] sortedPerm = new int[n];
+        long mask = (1L << positionBits) - 1;
+        for (int k = 0; k < n; k++) {
+            sortedPerm[k] = perm[(int) (packed[k] & mask)];
+            packed[k] = (packed[k] >>> positionBits) + min;
+        }
+        System.arraycopy(packed, 0, bits, 0, n);
+        System.arraycopy(sortedPerm, 0, perm, 0, n);
+    }
+
+    // REQUIRES: keys and slots hold at least n entries, and k >= 0
+    // MODIFIES: keys, slots
+    // EFFECTS: moves the min(k, n) entries that would come first in a stable sort of the first n entries by
+    // key to the front of keys and slots, in that order, and returns how many there are; the other entries
+    // are left in no particular order. Keeps the best entries seen so far in a max-heap of size k, so it
+    // takes O(n log k) time and O(k) extra space
+    public static int selectFirst(double[] keys, int[] slots, int n, int k) {
+        int size = Math.min(k, n);
+        int[] heap = heapOfFirst(keys, n, size);
+        sortHeap(heap, keys);
+        double[] firstKeys = new double[size];
+        int[] firstSlots = new int[size];
+        for (int i = 0; i < size; i++) {
+            firstKeys[i] = keys[heap[i]];
+            firstSlots[i] = slots[heap[i]];
+        }
+        System.arraycopy(firstKeys, 0, keys, 0, size);
+        System.arraycopy(firstSlots, 0, slots, 0, size);
+        return size;
+    }
+
+    // REQUIRES: 0 <= size <= n
+    // EFFECTS: returns a max-heap of the positions of the size entries among the first n that would come first
+    // in a stable sort by key, keeping the best entries seen so far as it passes over them once
+    private static int[] heapOfFirst(double[] keys, int n, int size) {
+        int[] heap = new int[size];
+        for (int i = 0; i < n; i++) {
+            if (i < size) {
+                heap[i] = i;
+                siftUp(heap, i, keys);
+            } else if (size > 0 && precedes(keys, i, heap[0])) {
+                heap[0] = i;
+                siftDown(heap, size, keys);
+            }
+        }
+        return heap;
+    }
+
+    // REQUIRES: heap is a max-heap of positions by key
+    // MODIFIES: heap
+    // EFFECTS: sorts the positions of heap into the order of a stable sort by key, by repeatedly moving the
+    // root past the end of the shrinking heap
+    private static void sortHeap(int[] heap, double[] keys) {
+        for (int end = heap.length - 1; end > 0; end--) {
+            int last = heap[0];
+            heap[0] = heap[end];
+            heap[end] = last;
+            siftDown(heap, end, keys);
+        }
+    }
+
+    // EFFECTS: returns true if entry a comes before entry b in a stable sort by key
+    private static boolean precedes(double[] keys, int a, int b) {
+        int c = Double.compare(keys[a], keys[b]);
+        return c < 0 || (c == 0 && a < b);
+    }
+
+    // MODIFIES: heap
+    // EFFECTS: moves the entry at i of the max-heap up until its parent comes after it
+    private static void siftUp(int[] heap, int i, double[] keys) {
+        int entry = heap[i];
+        while (i > 0 && precedes(keys, heap[(i - 1) >>> 1], entry)) {
+            heap[i] = heap[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        heap[i] = entry;
+    }
+
+    // MODIFIES: heap
+    // EFFECTS: moves the root of the max-heap of the given size down until no child comes after it
+    private static void siftDown(int[] heap, int size, double[] keys) {
+        int entry = heap[0];
+        int i = 0;
+        for (int child = 1; child < size; child = 2 * i + 1) {
+            if (child + 1 < size && precedes(keys, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!precedes(keys, entry, heap[child])) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = entry;
+    }
+}
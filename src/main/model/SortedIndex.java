@@ -0,0 +1,156 @@
+package model;
+
+import model.cars.CarField;
+
+import java.util.Arrays;
+
+// Represents a sorted secondary index on one orderable field of a CarTable: the table's live slots ordered by
+// that field's value, with ties in slot order. A range of values is found with two binary searches, so a
+// range query costs O(log n + k) for k matches, and the number of matches is known in O(log n).
+// Adding or removing a car finds its position by binary search and shifts the entries after it, so the
+// index is a sorted permutation of the table that is never sorted again once built; read from its high end,
+// it is the descending order of the field.
+public class SortedIndex {
+
+    private final CarField field;
+    private double[] keys;
+    private int[] slots;
+    private int size;
+
+    // REQUIRES: field is orderable
+    // EFFECTS: constructs an index on field holding every live slot of table
+    SortedIndex(CarField field, CarTable table) {
+        this.field = field;
+        int[] live = table.liveSlots();
+        size = live.length;
+        keys = new double[Math.max(size, 16)];
+        slots = new int[keys.length];
+        for (int i = 0; i < size; i++) {
+            keys[i] = table.value(field, live[i]);
+            slots[i] = live[i];
+        }
+        SlotSorter.sort(keys, slots, size);
+    }
+
+    public CarField getField() {
+        return field;
+    }
+
+    // EFFECTS: returns the number of slots in the index
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns the slots whose value lies between min and max, in ascending order of value; each
+    // bound is included only if its inclusive flag is set
+    public int[] slotsInRange(double min, boolean minInclusive, double max, boolean maxInclusive) {
+        int from = minInclusive ? lowerBound(min) : upperBound(min);
+        int to = maxInclusive ? upperBound(max) : lowerBound(max);
+        return to <= from ? new int[0] : Arrays.copyOfRange(slots, from, to);
+    }
+
+    // EFFECTS: returns the number of slots whose value lies between min and max, without collecting them
+    public int countInRange(double min, boolean minInclusive, double max, boolean maxInclusive) {
+        int from = minInclusive ? lowerBound(min) : upperBound(min);
+        int to = maxInclusive ? upperBound(max) : lowerBound(max);
+        return Math.max(0, to - from);
+    }
+
+    // EFFECTS: returns the slots whose value is below bound, in ascending order of value
+    public int[] slotsBelow(double bound) {
+        return Arrays.copyOfRange(slots, 0, lowerBound(bound));
+    }
+
+    // REQUIRES: 0 <= i < size()
+    // EFFECTS: returns the slot at position i in value order
+    public int slotAt(int i) {
+        return slots[i];
+    }
+
+    // REQUIRES: 0 <= i < size()
+    // EFFECTS: returns the value at position i in value order
+    public double keyAt(int i) {
+        return keys[i];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds slot, whose field has value key, to the index
+    void insert(double key, int slot) {
+        int i = position(key, slot);
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(slots, i, slots, i + 1, size - i);
+        keys[i] = key;
+        slots[i] = slot;
+        size++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes slot, whose field has value key, from the index if it is there
+    void remove(double key, int slot) {
+        int i = position(key, slot);
+        if (i < size && slots[i] == slot && Double.compare(keys[i], key) == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+            size--;
+        }
+    }
+
+    // REQUIRES: newSlots keeps slots in the same relative order
+    // MODIFIES: this
+    // EFFECTS: renumbers every slot s in the index as newSlots[s], after the table has been packed
+    void remap(int[] newSlots) {
+        for (int i = 0; i < size; i++) {
+            slots[i] = newSlots[slots[i]];
+        }
+    }
+
+    // EFFECTS: returns the position of the first entry not before (key, slot)
+    private int position(double key, int slot) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Double.compare(keys[mid], key);
+            if (c < 0 || (c == 0 && slots[mid] < slot)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // EFFECTS: returns the position of the first entry whose value is not below key
+    private int lowerBound(double key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // EFFECTS: returns the position of the first entry whose value is above key
+    private int upperBound(double key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
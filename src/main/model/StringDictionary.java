@@ -0,0 +1,76 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Represents a dictionary that encodes each distinct string as a small int id, so a column of repeated
+// strings can be stored and compared as ints. It also interns strings: the string a dictionary decodes an id
+// to is the one copy of it that every caller shares. Safe to use from many threads; finding a string
+// already in the dictionary takes no lock
+public class StringDictionary {
+
+    public static final int NO_STRING = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> ids;
+    private volatile String[] strings;
+    private volatile int size;
+
+    // EFFECTS: constructs an empty dictionary
+    public StringDictionary() {
+        ids = new ConcurrentHashMap<>();
+        strings = new String[INITIAL_CAPACITY];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the id of s, adding s to the dictionary if it is not there yet;
+    // returns NO_STRING if s is null
+    public int encode(String s) {
+        if (s == null) {
+            return NO_STRING;
+        }
+        Integer id = ids.get(s);
+        return id != null ? id : add(s);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the shared copy of s, making s the shared copy if it is not in the dictionary yet;
+    // returns null if s is null
+    public String intern(String s) {
+        return decode(encode(s));
+    }
+
+    // EFFECTS: returns the id of s, or NO_STRING if s is null or not in the dictionary
+    public int lookup(String s) {
+        Integer id = s == null ? null : ids.get(s);
+        return id == null ? NO_STRING : id;
+    }
+
+    // EFFECTS: returns the string with the given id, or null for NO_STRING
+    public String decode(int id) {
+        return id == NO_STRING ? null : strings[id];
+    }
+
+    // EFFECTS: returns the number of distinct strings in the dictionary
+    public int size() {
+        return size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds s to the dictionary, unless another thread has just added it, and returns its id; the
+    // string is stored before its id is published, so a thread that finds the id can decode it
+    private synchronized int add(String s) {
+        Integer id = ids.get(s);
+        if (id != null) {
+            return id;
+        }
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+        }
+        strings[size] = s;
+        ids.put(s, size);
+        return size++;
+    }
+}
@@ -0,0 +1,234 @@
+package model;
+
+import model.bitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Represents an inverted trigram index over the manufacturer and model of the cars of a CarTable, for
+// typo-tolerant search as the user types. Each distinct manufacturer and model pair is indexed once as a
+// name, such as "lamborghini aventador", with a compressed bitmap of the slots of the cars that have it, so
+// the index grows with the number of names rather than the number of cars. A name is broken into the
+// trigrams of its words, each word padded with two spaces in front and one behind, and each trigram lists
+// the names holding it.
+//
+// A query is broken into trigrams the same way, except that a last word the query ends on is not padded
+// behind, since the user may still be typing it. A name matches when it holds at least MIN_SIMILARITY of the query's
+// trigrams, so a prefix matches fully and a typo costs only the few trigrams it touches. Names are ranked by
+// similarity, and the cars of each name follow in insertion order
+public class TextIndex {
+
+    public static final double MIN_SIMILARITY = 0.5;
+
+    private static final double LENGTH_PENALTY = 1e-6;
+    private static final long TRIGRAM_MASK = (1L << 48) - 1;
+
+    private final Map<Long, Integer> nameIds;
+    private final List<RoaringBitmap> nameSlots;
+    private final List<Integer> nameTrigrams;
+    private final Map<Long, Postings> postings;
+
+    // EFFECTS: constructs an index holding every live slot of table
+    TextIndex(CarTable table) {
+        nameIds = new HashMap<>();
+        nameSlots = new ArrayList<>();
+        nameTrigrams = new ArrayList<>();
+        postings = new HashMap<>();
+        for (int slot : table.liveSlots()) {
+            insert(table, slot);
+        }
+    }
+
+    // EFFECTS: returns the number of distinct names in the index
+    public int numNames() {
+        return nameSlots.size();
+    }
+
+    // EFFECTS: returns the number of distinct trigrams in the index
+    public int numTrigrams() {
+        return postings.size();
+    }
+
+    // REQUIRES: limit >= 0
+    // EFFECTS: returns the slots of up to limit cars whose manufacturer and model match query, those of the
+    // most similar names first and each name's in insertion order; returns none if query has no letters or
+    // digits
+    public int[] search(String query, int limit) {
+        int[] names = rankedNames(trigrams(query, true), limit);
+        int[] slots = new int[0];
+        for (int i = 0; i < names.length && slots.length < limit; i++) {
+            int[] more = nameSlots.get(names[i]).toArray(limit - slots.length);
+            int n = slots.length;
+            slots = Arrays.copyOf(slots, n + more.length);
+            System.arraycopy(more, 0, slots, n, more.length);
+        }
+        return slots;
+    }
+
+    // EFFECTS: returns how similar the name made of manufacturer and model is to query: the share of the
+    // query's trigrams the name holds, less a millionth per trigram of the name, so that of two names holding
+    // as much of the query the shorter ranks first; returns 0 if query has no letters or digits
+    public static double similarity(String query, String manufacturer, String model) {
+        long[] queryTrigrams = trigrams(query, true);
+        long[] name = trigrams(name(manufacturer, model), false);
+        int shared = 0;
+        for (long t : queryTrigrams) {
+            shared += Arrays.binarySearch(name, t) >= 0 ? 1 : 0;
+        }
+        return similarity(shared, queryTrigrams.length, name.length);
+    }
+
+    // EFFECTS: returns the similarity of a name with nameTrigrams trigrams holding shared of a query's
+    // queryTrigrams trigrams
+    private static double similarity(int shared, int queryTrigrams, int nameTrigrams) {
+        return queryTrigrams == 0 ? 0 : (double) shared / queryTrigrams - LENGTH_PENALTY * nameTrigrams;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds slot of table to the bitmap of its name, indexing the name if it is new
+    void insert(CarTable table, int slot) {
+        long key = nameKey(table, slot);
+        Integer id = nameIds.get(key);
+        if (id == null) {
+            int newId = nameSlots.size();
+            nameIds.put(key, newId);
+            nameSlots.add(new RoaringBitmap());
+            long[] trigrams = trigrams(name(table.manufacturer(slot), table.model(slot)), false);
+            nameTrigrams.add(trigrams.length);
+            for (long t : trigrams) {
+                postings.computeIfAbsent(t, k -> new Postings()).add(newId);
+            }
+            id = newId;
+        }
+        nameSlots.get(id).add(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes slot of table from the bitmap of its name; the name stays indexed with no cars
+    void remove(CarTable table, int slot) {
+        Integer id = nameIds.get(nameKey(table, slot));
+        if (id != null) {
+            nameSlots.get(id).remove(slot);
+        }
+    }
+
+    // REQUIRES: newSlots keeps slots in the same relative order
+    // MODIFIES: this
+    // EFFECTS: renumbers every slot s in the index as newSlots[s], after the table has been packed
+    void remap(int[] newSlots) {
+        for (int id = 0; id < nameSlots.size(); id++) {
+            int[] slots = nameSlots.get(id).toArray();
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = newSlots[slots[i]];
+            }
+            RoaringBitmap bitmap = RoaringBitmap.of(slots);
+            bitmap.runOptimize();
+            nameSlots.set(id, bitmap);
+        }
+    }
+
+    // EFFECTS: returns the ids of up to limit names with cars that hold at least MIN_SIMILARITY of trigrams,
+    // most similar first and otherwise in the order they were indexed, selected with a bounded heap
+    private int[] rankedNames(long[] trigrams, int limit) {
+        int[] shared = new int[nameSlots.size()];
+        int[] matched = matchingNames(trigrams, shared);
+        double[] keys = new double[matched.length];
+        int n = 0;
+        for (int i = 0; i < matched.length; i++) {
+            int id = matched[i];
+            if (shared[id] >= MIN_SIMILARITY * trigrams.length && !nameSlots.get(id).isEmpty()) {
+                keys[n] = -similarity(shared[id], trigrams.length, nameTrigrams.get(id));
+                matched[n++] = id;
+            }
+        }
+        return Arrays.copyOf(matched, SlotSorter.selectFirst(keys, matched, n, limit));
+    }
+
+    // MODIFIES: shared
+    // EFFECTS: returns the ids of the names holding any of trigrams in ascending order, and counts how many
+    // of trigrams each holds in shared, reading the postings of the trigrams
+    private int[] matchingNames(long[] trigrams, int[] shared) {
+        int[] matched = new int[16];
+        int m = 0;
+        for (long t : trigrams) {
+            Postings names = postings.get(t);
+            for (int i = 0; names != null && i < names.size; i++) {
+                if (shared[names.ids[i]]++ == 0) {
+                    matched = m == matched.length ? Arrays.copyOf(matched, 2 * m) : matched;
+                    matched[m++] = names.ids[i];
+                }
+            }
+        }
+        Arrays.sort(matched, 0, m);
+        return Arrays.copyOf(matched, m);
+    }
+
+    // EFFECTS: returns the key of the manufacturer and model pair in slot of table
+    private static long nameKey(CarTable table, int slot) {
+        return ((long) table.manufacturerId(slot) << 32) | (table.modelId(slot) & 0xFFFFFFFFL);
+    }
+
+    // EFFECTS: returns the name indexed for manufacturer and model, either of which may be null
+    private static String name(String manufacturer, String model) {
+        return (manufacturer == null ? "" : manufacturer) + " " + (model == null ? "" : model);
+    }
+
+    // EFFECTS: returns the distinct trigrams of the lower-cased words of text in ascending order, where words
+    // are runs of letters and digits; each word is padded with two spaces in front and one behind, except a
+    // word still being typed: the last one, when typing is true and text ends with it
+    static long[] trigrams(String text, boolean typing) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        long[] trigrams = new long[2 * lower.length() + 1];
+        int n = 0;
+        long window = trigram(' ', ' ', ' ');
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                window = ((window << 16) | c) & TRIGRAM_MASK;
+                trigrams[n++] = window;
+            } else if ((char) window != ' ') {
+                trigrams[n++] = ((window << 16) | ' ') & TRIGRAM_MASK;
+                window = trigram(' ', ' ', ' ');
+            }
+        }
+        if ((char) window != ' ' && !typing) {
+            trigrams[n++] = ((window << 16) | ' ') & TRIGRAM_MASK;
+        }
+        return distinct(trigrams, n);
+    }
+
+    // EFFECTS: returns the trigram of the three chars
+    private static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // MODIFIES: values
+    // EFFECTS: returns the distinct values among the first n of values, in ascending order
+    private static long[] distinct(long[] values, int n) {
+        Arrays.sort(values, 0, n);
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (kept == 0 || values[i] != values[kept - 1]) {
+                values[kept++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, kept);
+    }
+
+    // The ids of the names holding one trigram, in the order the names were indexed
+    private static class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package model.bitmap;
+
+import java.util.Arrays;
+
+// Represents a container of at most MAX_ARRAY_SIZE values kept as a sorted array of chars
+final class ArrayContainer extends Container {
+
+    private char[] values;
+    private int cardinality;
+
+    // EFFECTS: constructs a container holding x
+    ArrayContainer(char x) {
+        values = new char[] {x, 0, 0, 0};
+        cardinality = 1;
+    }
+
+    // REQUIRES: the first cardinality values are distinct and ascending, and cardinality <= MAX_ARRAY_SIZE
+    // EFFECTS: constructs a container holding the first cardinality values
+    ArrayContainer(char[] values, int cardinality) {
+        this.values = values;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char x) {
+        int i = Arrays.binarySearch(values, 0, cardinality, x);
+        if (i >= 0) {
+            return this;
+        }
+        if (cardinality == MAX_ARRAY_SIZE) {
+            long[] words = words();
+            words[x >>> 6] |= 1L << x;
+            return new BitmapContainer(words, cardinality + 1);
+        }
+        i = -i - 1;
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, cardinality * 2));
+        }
+        System.arraycopy(values, i, values, i + 1, cardinality - i);
+        values[i] = x;
+        cardinality++;
+        return this;
+    }
+
+    @Override
+    Container remove(char x) {
+        int i = Arrays.binarySearch(values, 0, cardinality, x);
+        if (i >= 0) {
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality--;
+        }
+        return cardinality == 0 ? null : this;
+    }
+
+    @Override
+    boolean contains(char x) {
+        return Arrays.binarySearch(values, 0, cardinality, x) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    int numRuns() {
+        int numRuns = cardinality == 0 ? 0 : 1;
+        for (int i = 1; i < cardinality; i++) {
+            if (values[i] != values[i - 1] + 1) {
+                numRuns++;
+            }
+        }
+        return numRuns;
+    }
+
+    @Override
+    long sizeInBytes() {
+        return 16 + (long) Character.BYTES * values.length;
+    }
+
+    @Override
+    int fill(int[] out, int pos, int high) {
+        for (int i = 0; i < cardinality; i++) {
+            out[pos++] = high | values[i];
+        }
+        return pos;
+    }
+
+    @Override
+    void orInto(long[] words) {
+        for (int i = 0; i < cardinality; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+    }
+
+    @Override
+    char[] values() {
+        return Arrays.copyOf(values, cardinality);
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(values(), cardinality);
+    }
+
+    // EFFECTS: returns the values of this container that are in other if keep, or not in other otherwise
+    Container filter(Container other, boolean keep) {
+        char[] kept = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (other.contains(values[i]) == keep) {
+                kept[n++] = values[i];
+            }
+        }
+        return n == 0 ? null : new ArrayContainer(kept, n);
+    }
+
+    // REQUIRES: cardinality() + other.cardinality() <= MAX_ARRAY_SIZE
+    // EFFECTS: returns the values in this or other, merging the two sorted arrays
+    Container union(ArrayContainer other) {
+        char[] merged = new char[cardinality + other.cardinality];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < cardinality || j < other.cardinality) {
+            if (j >= other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                merged[n++] = values[i++];
+            } else if (i >= cardinality || other.values[j] < values[i]) {
+                merged[n++] = other.values[j++];
+            } else {
+                merged[n++] = values[i++];
+                j++;
+            }
+        }
+        return new ArrayContainer(merged, n);
+    }
+}
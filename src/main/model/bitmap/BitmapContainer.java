@@ -0,0 +1,126 @@
+package model.bitmap;
+
+// Represents a container of more than MAX_ARRAY_SIZE values kept as a 65536-bit bitmap
+final class BitmapContainer extends Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    // REQUIRES: words has NUM_WORDS words with cardinality bits set
+    // EFFECTS: constructs a container holding the values whose bits are set in words
+    BitmapContainer(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    // EFFECTS: returns a container holding the values whose bits are set in words, as an array container if
+    // there are few enough of them, or null if there are none
+    static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long w : words) {
+            cardinality += Long.bitCount(w);
+        }
+        if (cardinality == 0) {
+            return null;
+        } else if (cardinality > MAX_ARRAY_SIZE) {
+            return new BitmapContainer(words, cardinality);
+        }
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < NUM_WORDS; i++) {
+            for (long w = words[i]; w != 0; w &= w - 1) {
+                values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(w));
+            }
+        }
+        return new ArrayContainer(values, cardinality);
+    }
+
+    @Override
+    Container add(char x) {
+        long bit = 1L << x;
+        if ((words[x >>> 6] & bit) == 0) {
+            words[x >>> 6] |= bit;
+            cardinality++;
+        }
+        return this;
+    }
+
+    @Override
+    Container remove(char x) {
+        long bit = 1L << x;
+        if ((words[x >>> 6] & bit) != 0) {
+            words[x >>> 6] &= ~bit;
+            cardinality--;
+            if (cardinality <= MAX_ARRAY_SIZE) {
+                return fromWords(words);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    boolean contains(char x) {
+        return (words[x >>> 6] & (1L << x)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    // EFFECTS: counts the bits that start a run, that is the set bits whose lower neighbour is clear
+    @Override
+    int numRuns() {
+        int numRuns = 0;
+        long carry = 0;
+        for (long w : words) {
+            numRuns += Long.bitCount(w & ~((w << 1) | carry));
+            carry = w >>> 63;
+        }
+        return numRuns;
+    }
+
+    @Override
+    long sizeInBytes() {
+        return 16 + (long) Long.BYTES * NUM_WORDS;
+    }
+
+    @Override
+    int fill(int[] out, int pos, int high) {
+        for (int i = 0; i < NUM_WORDS; i++) {
+            for (long w = words[i]; w != 0; w &= w - 1) {
+                out[pos++] = high | ((i << 6) + Long.numberOfTrailingZeros(w));
+            }
+        }
+        return pos;
+    }
+
+    @Override
+    void orInto(long[] into) {
+        for (int i = 0; i < NUM_WORDS; i++) {
+            into[i] |= words[i];
+        }
+    }
+
+    @Override
+    long[] words() {
+        return words.clone();
+    }
+
+    @Override
+    Container copy() {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    char[] values() {
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < NUM_WORDS; i++) {
+            for (long w = words[i]; w != 0; w &= w - 1) {
+                values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(w));
+            }
+        }
+        return values;
+    }
+}
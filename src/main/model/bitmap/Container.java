@@ -0,0 +1,112 @@
+package model.bitmap;
+
+// Represents the low 16 bits of the values in one 65536-value chunk of a RoaringBitmap, stored in whichever
+// of three forms is smallest: a sorted array of values, a 65536-bit bitmap, or a list of runs. The set
+// operations never change their operands; they return a new container, or null if the result is empty
+abstract class Container {
+
+    static final int MAX_ARRAY_SIZE = 4096;
+    static final int NUM_WORDS = 1024;
+
+    // MODIFIES: this
+    // EFFECTS: adds x and returns the container now holding the values, which may be a new one
+    abstract Container add(char x);
+
+    // MODIFIES: this
+    // EFFECTS: removes x and returns the container now holding the values, or null if none are left
+    abstract Container remove(char x);
+
+    // EFFECTS: returns true if x is in this container
+    abstract boolean contains(char x);
+
+    // EFFECTS: returns the number of values in this container
+    abstract int cardinality();
+
+    // EFFECTS: returns the number of runs of consecutive values in this container
+    abstract int numRuns();
+
+    // EFFECTS: returns an estimate of the memory this container takes, in bytes
+    abstract long sizeInBytes();
+
+    // MODIFIES: out
+    // EFFECTS: writes the values of this container, each combined with high as its upper 16 bits, to out in
+    // ascending order starting at pos, and returns the position after the last one written
+    abstract int fill(int[] out, int pos, int high);
+
+    // MODIFIES: words
+    // EFFECTS: sets the bit of every value of this container in words
+    abstract void orInto(long[] words);
+
+    // EFFECTS: returns the values of this container, in ascending order, as chars
+    abstract char[] values();
+
+    // EFFECTS: returns a container with the same values that shares no mutable state with this one
+    abstract Container copy();
+
+    // EFFECTS: returns the values in both this and other
+    Container and(Container other) {
+        if (this instanceof ArrayContainer) {
+            return ((ArrayContainer) this).filter(other, true);
+        } else if (other instanceof ArrayContainer) {
+            return ((ArrayContainer) other).filter(this, true);
+        }
+        long[] words = words();
+        long[] otherWords = other.words();
+        for (int i = 0; i < NUM_WORDS; i++) {
+            words[i] &= otherWords[i];
+        }
+        return BitmapContainer.fromWords(words);
+    }
+
+    // EFFECTS: returns the values in this or other
+    Container or(Container other) {
+        if (this instanceof ArrayContainer && other instanceof ArrayContainer
+                && cardinality() + other.cardinality() <= MAX_ARRAY_SIZE) {
+            return ((ArrayContainer) this).union((ArrayContainer) other);
+        }
+        long[] words = words();
+        other.orInto(words);
+        return BitmapContainer.fromWords(words);
+    }
+
+    // EFFECTS: returns the values in this but not in other
+    Container andNot(Container other) {
+        if (this instanceof ArrayContainer) {
+            return ((ArrayContainer) this).filter(other, false);
+        }
+        long[] words = words();
+        long[] otherWords = other.words();
+        for (int i = 0; i < NUM_WORDS; i++) {
+            words[i] &= ~otherWords[i];
+        }
+        return BitmapContainer.fromWords(words);
+    }
+
+    // EFFECTS: returns this container's values as a new 65536-bit bitmap
+    long[] words() {
+        long[] words = new long[NUM_WORDS];
+        orInto(words);
+        return words;
+    }
+
+    // EFFECTS: returns a run container with the same values if that takes less memory, otherwise this
+    Container runOptimize() {
+        int numRuns = numRuns();
+        if (RunContainer.sizeInBytes(numRuns) < sizeInBytes()) {
+            return RunContainer.fromValues(values(), numRuns);
+        }
+        return this;
+    }
+
+    // EFFECTS: returns an array or bitmap container, whichever is smaller, holding values in ascending order
+    static Container of(char[] values, int cardinality) {
+        if (cardinality <= MAX_ARRAY_SIZE) {
+            return new ArrayContainer(values, cardinality);
+        }
+        long[] words = new long[NUM_WORDS];
+        for (int i = 0; i < cardinality; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return new BitmapContainer(words, cardinality);
+    }
+}
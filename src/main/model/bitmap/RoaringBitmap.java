@@ -0,0 +1,235 @@
+package model.bitmap;
+
+import java.util.Arrays;
+
+// Represents a compressed set of non-negative ints, such as the slots of a CarTable, in the style of a
+// Roaring bitmap: values are split by their upper 16 bits into chunks, and each chunk's lower 16 bits are
+// kept in an array container while it has at most 4096 values, in a 65536-bit bitmap container once it has
+// more, or in a run container when run-optimizing finds runs of consecutive values take less memory.
+// Intersections, unions and differences work one chunk at a time on the containers' own forms, so dense
+// chunks are combined 64 values per instruction and sparse ones by merging short arrays
+public class RoaringBitmap {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    // EFFECTS: constructs an empty bitmap
+    public RoaringBitmap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    // EFFECTS: constructs an empty bitmap with room for capacity chunks
+    private RoaringBitmap(int capacity) {
+        keys = new char[Math.max(capacity, 1)];
+        containers = new Container[keys.length];
+    }
+
+    // REQUIRES: every value is >= 0
+    // EFFECTS: returns a bitmap holding values
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int v : values) {
+            bitmap.add(v);
+        }
+        return bitmap;
+    }
+
+    // REQUIRES: x >= 0
+    // MODIFIES: this
+    // EFFECTS: adds x to this bitmap
+    public void add(int x) {
+        char key = (char) (x >>> 16);
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) x);
+        } else {
+            insertContainer(-i - 1, key, new ArrayContainer((char) x));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes x from this bitmap if it is there
+    public void remove(int x) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (x >>> 16));
+        if (x >= 0 && i >= 0) {
+            containers[i] = containers[i].remove((char) x);
+            if (containers[i] == null) {
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+                containers[--size] = null;
+            }
+        }
+    }
+
+    // EFFECTS: returns true if x is in this bitmap
+    public boolean contains(int x) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (x >>> 16));
+        return x >= 0 && i >= 0 && containers[i].contains((char) x);
+    }
+
+    // EFFECTS: returns the number of values in this bitmap
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // EFFECTS: returns a new bitmap of the values in both this and other
+    public RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(Math.min(size, other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], containers[i++].and(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    // EFFECTS: returns a new bitmap of the values in this or other
+    public RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i++].copy());
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j++].copy());
+            } else {
+                result.append(keys[i], containers[i++].or(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    // EFFECTS: returns the union of bitmaps, or an empty bitmap if there are none
+    public static RoaringBitmap or(Iterable<RoaringBitmap> bitmaps) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (RoaringBitmap b : bitmaps) {
+            result = result.or(b);
+        }
+        return result;
+    }
+
+    // EFFECTS: returns a new bitmap of the values in this but not in other
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(size);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            boolean shared = j < other.size && other.keys[j] == keys[i];
+            result.append(keys[i], shared ? containers[i].andNot(other.containers[j]) : containers[i].copy());
+        }
+        return result;
+    }
+
+    // EFFECTS: returns the values of this bitmap in ascending order
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            pos = containers[i].fill(values, pos, keys[i] << 16);
+        }
+        return values;
+    }
+
+    // REQUIRES: limit >= 0
+    // EFFECTS: returns the lowest limit values of this bitmap in ascending order, or all of them if there are
+    // fewer; only the chunks holding those values are read
+    public int[] toArray(int limit) {
+        int[] values = new int[Math.min(limit, cardinality())];
+        int pos = 0;
+        for (int i = 0; i < size && pos < values.length; i++) {
+            if (pos + containers[i].cardinality() <= values.length) {
+                pos = containers[i].fill(values, pos, keys[i] << 16);
+            } else {
+                int[] chunk = new int[containers[i].cardinality()];
+                containers[i].fill(chunk, 0, keys[i] << 16);
+                System.arraycopy(chunk, 0, values, pos, values.length - pos);
+                pos = values.length;
+            }
+        }
+        return values;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: turns every container that would take less memory as runs into a run container
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+    }
+
+    // EFFECTS: returns an estimate of the memory this bitmap takes, in bytes
+    public long sizeInBytes() {
+        long bytes = 32 + (long) (Character.BYTES + 8) * keys.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    // EFFECTS: returns the number of array, bitmap and run containers in this bitmap, in that order
+    public int[] containerCounts() {
+        int[] counts = new int[3];
+        for (int i = 0; i < size; i++) {
+            if (containers[i] instanceof ArrayContainer) {
+                counts[0]++;
+            } else if (containers[i] instanceof BitmapContainer) {
+                counts[1]++;
+            } else {
+                counts[2]++;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RoaringBitmap && Arrays.equals(toArray(), ((RoaringBitmap) o).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds container as the chunk for key, which is above every key so far, unless it is null
+    private void append(char key, Container container) {
+        if (container != null) {
+            insertContainer(size, key, container);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: inserts container as the chunk for key at position i
+    private void insertContainer(int i, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        size++;
+    }
+}
@@ -0,0 +1,128 @@
+package model.bitmap;
+
+import java.util.Arrays;
+
+// Represents a container kept as runs of consecutive values, each stored as its first value and its length
+// less one. Run containers are made by run-optimizing a bitmap; adding or removing a value turns one back
+// into an array or bitmap container
+final class RunContainer extends Container {
+
+    private final char[] starts;
+    private final char[] lengths;
+    private final int cardinality;
+
+    // REQUIRES: the runs are ascending, do not touch, and hold cardinality values in all
+    // EFFECTS: constructs a container holding the given runs
+    private RunContainer(char[] starts, char[] lengths, int cardinality) {
+        this.starts = starts;
+        this.lengths = lengths;
+        this.cardinality = cardinality;
+    }
+
+    // REQUIRES: values are distinct and ascending, and form numRuns runs
+    // EFFECTS: returns a run container holding values
+    static RunContainer fromValues(char[] values, int numRuns) {
+        char[] starts = new char[numRuns];
+        char[] lengths = new char[numRuns];
+        int run = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[i - 1] + 1) {
+                starts[++run] = values[i];
+            } else {
+                lengths[run]++;
+            }
+        }
+        return new RunContainer(starts, lengths, values.length);
+    }
+
+    @Override
+    Container add(char x) {
+        return contains(x) ? this : Container.of(values(), cardinality).add(x);
+    }
+
+    @Override
+    Container remove(char x) {
+        return contains(x) ? Container.of(values(), cardinality).remove(x) : this;
+    }
+
+    @Override
+    boolean contains(char x) {
+        int i = Arrays.binarySearch(starts, x);
+        if (i >= 0) {
+            return true;
+        }
+        i = -i - 2;
+        return i >= 0 && x - starts[i] <= lengths[i];
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    int numRuns() {
+        return starts.length;
+    }
+
+    // EFFECTS: returns the memory a run container of numRuns runs takes, in bytes
+    static long sizeInBytes(int numRuns) {
+        return 32 + 2L * Character.BYTES * numRuns;
+    }
+
+    @Override
+    long sizeInBytes() {
+        return sizeInBytes(starts.length);
+    }
+
+    @Override
+    int fill(int[] out, int pos, int high) {
+        for (int r = 0; r < starts.length; r++) {
+            for (int v = starts[r]; v <= starts[r] + lengths[r]; v++) {
+                out[pos++] = high | v;
+            }
+        }
+        return pos;
+    }
+
+    // EFFECTS: sets whole words at a time for the middle of each run
+    @Override
+    void orInto(long[] words) {
+        for (int r = 0; r < starts.length; r++) {
+            int from = starts[r];
+            int to = starts[r] + lengths[r] + 1;
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            if (firstWord == lastWord) {
+                words[firstWord] |= (-1L << from) & (-1L >>> -to);
+            } else {
+                words[firstWord] |= -1L << from;
+                Arrays.fill(words, firstWord + 1, lastWord, -1L);
+                words[lastWord] |= -1L >>> -to;
+            }
+        }
+    }
+
+    @Override
+    char[] values() {
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int r = 0; r < starts.length; r++) {
+            for (int v = starts[r]; v <= starts[r] + lengths[r]; v++) {
+                values[n++] = (char) v;
+            }
+        }
+        return values;
+    }
+
+    // EFFECTS: returns this container, which is never changed
+    @Override
+    Container copy() {
+        return this;
+    }
+
+    @Override
+    Container runOptimize() {
+        return this;
+    }
+}
@@ -1,13 +1,33 @@
 package model.cars;
 
+import model.StringDictionary;
 import org.json.JSONObject;
+import persistence.JsonStreamWriter;
+import persistence.StreamWriteable;
 import persistence.Writeable;
 
+import java.io.IOException;
 import java.text.DecimalFormat;
-
-// Represents a car, with stats and specifications and a price in dollars
-public class Car implements Writeable {
-
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Represents a car, with stats and specifications and a price in dollars. Every car has a positive 64-bit id
+// that identifies its listing: a new car takes the next unused id, and a car read back from a file keeps
+// the id it was saved with. Cars are equal when their ids are.
+//
+// A car holds only its own values: its manufacturer, model and image names are the shared copies interned
+// in one dictionary of names, prices are formatted with one formatter per thread rather than one per car,
+// and the text shown for a car is built each time it is asked for rather than kept with the car
+public class Car implements Writeable, StreamWriteable {
+
+    public static final long NO_ID = 0;
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+    private static final StringDictionary NAMES = new StringDictionary();
+    private static final ThreadLocal<DecimalFormat> PRICE_FORMAT =
+            ThreadLocal.withInitial(() -> new DecimalFormat("#,###.##"));
+
+    private final long id;
     private String manufacturer;
     private String model;
     private int year;
@@ -19,14 +39,22 @@ public class Car implements Writeable {
     private int price;
     private String image;
 
-    private final DecimalFormat df = new DecimalFormat("#,###.##");
-
-    // EFFECTS: constructs a new car with the given stats and specifications
+    // EFFECTS: constructs a new car with the given stats and specifications and the next unused id
     public Car(String manufacturer, String model, int year, double speed, double handling,
                double acceleration, double braking, DriveType driveType, int price, String image) {
+        this(NEXT_ID.getAndIncrement(), manufacturer, model, year, speed, handling, acceleration, braking,
+                driveType, price, image);
+    }
 
-        this.manufacturer = manufacturer;
-        this.model = model;
+    // REQUIRES: id > NO_ID
+    // EFFECTS: constructs a car that was saved with the given id, stats and specifications; ids handed to new
+    // cars from now on are greater than id
+    public Car(long id, String manufacturer, String model, int year, double speed, double handling,
+               double acceleration, double braking, DriveType driveType, int price, String image) {
+        NEXT_ID.accumulateAndGet(id + 1, Math::max);
+        this.id = id;
+        this.manufacturer = NAMES.intern(manufacturer);
+        this.model = NAMES.intern(model);
         this.year = year;
         this.speed = speed;
         this.handling = handling;
@@ -34,10 +62,27 @@ public class Car implements Writeable {
         this.braking = braking;
         this.driveType = driveType;
         this.price = price;
-        this.image = image;
+        this.image = NAMES.intern(image);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: fills in the stats, drive type and image of a car whose subclass decodes them only when first
+    // asked for
+    protected void setDetails(double speed, double handling, double acceleration, double braking,
+                              DriveType driveType, String image) {
+        this.speed = speed;
+        this.handling = handling;
+        this.acceleration = acceleration;
+        this.braking = braking;
+        this.driveType = driveType;
+        this.image = NAMES.intern(image);
     }
 
     // getters
+    public long getId() {
+        return id;
+    }
+
     public String getManufacturer() {
         return manufacturer;
     }
@@ -78,29 +123,90 @@ public class Car implements Writeable {
         return image;
     }
 
+    // REQUIRES: field is not MANUFACTURER, MODEL or IMAGE
+    // EFFECTS: returns the value of a numeric field of this car; the value of a drive type is its ordinal,
+    // or -1 if the car has none
+    public double getValue(CarField field) {
+        switch (field) {
+            case YEAR: return getYear();
+            case PRICE: return getPrice();
+            case SPEED: return getSpeed();
+            case HANDLING: return getHandling();
+            case ACCELERATION: return getAcceleration();
+            case BRAKING: return getBraking();
+            case DRIVE_TYPE: return getDriveType() == null ? -1 : getDriveType().ordinal();
+            default: throw new IllegalArgumentException(field + " is not numeric");
+        }
+    }
+
+    // EFFECTS: returns true if other has the same specifications, price and image as this car
+    public boolean isSameListing(Car other) {
+        return Objects.equals(getManufacturer(), other.getManufacturer())
+                && Objects.equals(getModel(), other.getModel()) && getYear() == other.getYear()
+                && getSpeed() == other.getSpeed() && getHandling() == other.getHandling()
+                && getAcceleration() == other.getAcceleration() && getBraking() == other.getBraking()
+                && getDriveType() == other.getDriveType() && getPrice() == other.getPrice()
+                && Objects.equals(getImage(), other.getImage());
+    }
+
     // EFFECTS: creates a JSON object with the given fields
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("manufacturer", manufacturer);
-        json.put("model", model);
-        json.put("year", year);
-        json.put("speed", speed);
-        json.put("handling", handling);
-        json.put("acceleration", acceleration);
-        json.put("braking", braking);
-        json.put("driveType", driveType);
-        json.put("price", price);
-        json.put("image", image);
+        json.put("id", getId());
+        json.put("manufacturer", getManufacturer());
+        json.put("model", getModel());
+        json.put("year", getYear());
+        json.put("speed", getSpeed());
+        json.put("handling", getHandling());
+        json.put("acceleration", getAcceleration());
+        json.put("braking", getBraking());
+        json.put("driveType", getDriveType());
+        json.put("price", getPrice());
+        json.put("image", getImage());
         return json;
     }
 
+    // EFFECTS: writes the same fields as toJson straight to out, leaving out a null drive type as toJson does
+    @Override
+    public void writeJson(JsonStreamWriter out) throws IOException {
+        out.beginObject();
+        out.member("id", getId());
+        out.member("manufacturer", getManufacturer());
+        out.member("model", getModel());
+        out.member("year", getYear());
+        out.member("speed", getSpeed());
+        out.member("handling", getHandling());
+        out.member("acceleration", getAcceleration());
+        out.member("braking", getBraking());
+        if (getDriveType() != null) {
+            out.member("driveType", getDriveType().name());
+        }
+        out.member("price", getPrice());
+        if (getImage() != null) {
+            out.member("image", getImage());
+        }
+        out.endObject();
+    }
+
+    // EFFECTS: returns true if o is a car with the same id as this one
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Car && ((Car) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    // EFFECTS: returns the text shown for this car
     @Override
     public String toString() {
         return getYear() + " "
                 + getManufacturer()
                 + " " + getModel() + " $"
-                + df.format(getPrice()) + "\n" + "Speed: "
+                + PRICE_FORMAT.get().format(getPrice()) + "\n" + "Speed: "
                 + getSpeed() + "\n" + "Handling: "
                 + getHandling() + "\n" + "Acceleration: "
                 + getAcceleration() + "\n" + "Braking: "
@@ -0,0 +1,19 @@
+package model.cars;
+
+// An enumeration of the fields of a car
+public enum CarField {
+    MANUFACTURER, MODEL, YEAR, SPEED, HANDLING, ACCELERATION, BRAKING, DRIVE_TYPE, PRICE, IMAGE;
+
+    // EFFECTS: returns true if this field holds a number that cars can be ordered by: the year, price or
+    // one of the stats
+    public boolean isNumeric() {
+        return this == YEAR || this == SPEED || this == HANDLING || this == ACCELERATION || this == BRAKING
+                || this == PRICE;
+    }
+
+    // EFFECTS: returns true if cars can be put in order of this field: it is numeric or the drive type, which
+    // is ordered as DriveType declares its values
+    public boolean isOrderable() {
+        return isNumeric() || this == DRIVE_TYPE;
+    }
+}
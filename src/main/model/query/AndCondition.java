@@ -0,0 +1,97 @@
+package model.query;
+
+import model.CarTable;
+import model.bitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Represents the conjunction of conditions
+final class AndCondition extends Condition {
+
+    private final List<Condition> conditions;
+
+    // REQUIRES: conditions is not empty
+    // EFFECTS: constructs a condition that holds when every one of conditions holds
+    AndCondition(List<Condition> conditions) {
+        this.conditions = new ArrayList<>(conditions);
+    }
+
+    List<Condition> getConditions() {
+        return conditions;
+    }
+
+    // EFFECTS: returns a filter applying the conditions one after another, most selective first, so each
+    // later condition only reads the slots the earlier ones kept
+    @Override
+    SlotFilter bind(CarTable table) {
+        List<Condition> bySelectivity = new ArrayList<>(conditions);
+        bySelectivity.sort(Comparator.comparingInt(c -> c.estimate(table)));
+        SlotFilter[] filters = new SlotFilter[bySelectivity.size()];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = bySelectivity.get(i).bind(table);
+        }
+        return (slots, n) -> {
+            int kept = n;
+            for (int i = 0; i < filters.length && kept > 0; i++) {
+                kept = filters[i].retain(slots, kept);
+            }
+            return kept;
+        };
+    }
+
+    @Override
+    boolean isBitmapIndexed() {
+        for (Condition c : conditions) {
+            if (!c.isBitmapIndexed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns the intersection of the conditions' bitmaps, less the bitmaps of negated conditions,
+    // or null unless every condition has a bitmap and at least one is not negated
+    @Override
+    RoaringBitmap bitmap(CarTable table) {
+        return bitmapOf(conditions, table);
+    }
+
+    // EFFECTS: returns the intersection of the bitmaps of conditions, less the bitmaps of the negated ones,
+    // or null unless every condition has a bitmap and at least one is not negated
+    static RoaringBitmap bitmapOf(List<Condition> conditions, CarTable table) {
+        RoaringBitmap result = null;
+        List<RoaringBitmap> excluded = new ArrayList<>();
+        for (Condition c : conditions) {
+            boolean negated = c instanceof NotCondition;
+            RoaringBitmap bitmap = (negated ? ((NotCondition) c).getCondition() : c).bitmap(table);
+            if (bitmap == null) {
+                return null;
+            } else if (negated) {
+                excluded.add(bitmap);
+            } else {
+                result = result == null ? bitmap : result.and(bitmap);
+            }
+        }
+        for (int i = 0; result != null && i < excluded.size(); i++) {
+            result = result.andNot(excluded.get(i));
+        }
+        return result;
+    }
+
+    // EFFECTS: returns the estimate of the most selective condition
+    @Override
+    int estimate(CarTable table) {
+        int estimate = table.size();
+        for (Condition c : conditions) {
+            estimate = Math.min(estimate, c.estimate(table));
+        }
+        return estimate;
+    }
+
+    @Override
+    public String toString() {
+        return join(conditions, " and ");
+    }
+}
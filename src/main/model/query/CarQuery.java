@@ -0,0 +1,166 @@
+package model.query;
+
+import model.cars.CarField;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Represents a query over the cars of a workroom: an optional condition the cars must satisfy, optional
+// numeric fields or drive type to order them by, each breaking ties in the ones before it, and an optional
+// page of the results to return, given as how many to skip and a limit on how many to return. Without an
+// order, cars are returned in the order they were added; ordering is stable, and a descending order on one
+// field is the exact reverse of the ascending one. A skyline query keeps only the cars satisfying the
+// condition that no other of them beats on price and every performance stat, before ordering and paging
+public class CarQuery {
+
+    public static final int NO_LIMIT = -1;
+
+    private Condition condition;
+    private final List<CarField> orderBy = new ArrayList<>();
+    private final List<Boolean> ascending = new ArrayList<>();
+    private int limit = NO_LIMIT;
+    private int offset;
+    private boolean skyline;
+
+    // EFFECTS: constructs a query returning every car in the order they were added
+    public CarQuery() {
+    }
+
+    // MODIFIES: this
+    // EFFECTS: restricts the query to cars satisfying condition, and returns this query
+    public CarQuery where(Condition condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: orders the results by field alone, ascending or descending, and returns this query;
+    // throws IllegalArgumentException if cars cannot be ordered by field
+    public CarQuery orderBy(CarField field, boolean ascending) {
+        this.orderBy.clear();
+        this.ascending.clear();
+        return thenBy(field, ascending);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: orders the results that are equal in every order so far by field, ascending or descending,
+    // and returns this query; throws IllegalArgumentException if cars cannot be ordered by field
+    public CarQuery thenBy(CarField field, boolean ascending) {
+        if (!field.isOrderable()) {
+            throw new IllegalArgumentException("Cannot order cars by " + field);
+        }
+        this.orderBy.add(field);
+        this.ascending.add(ascending);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: keeps only the cars satisfying the condition that no other of them beats on price and every
+    // performance stat, as Skyline defines it, and returns this query
+    public CarQuery skyline() {
+        this.skyline = true;
+        return this;
+    }
+
+    // REQUIRES: limit >= 0, or limit == NO_LIMIT
+    // MODIFIES: this
+    // EFFECTS: returns at most limit results, and returns this query
+    public CarQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    // REQUIRES: offset >= 0
+    // MODIFIES: this
+    // EFFECTS: skips the first offset results, and returns this query
+    public CarQuery offset(int offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    // EFFECTS: returns a copy of this query with the given limit
+    public CarQuery withLimit(int limit) {
+        CarQuery copy = new CarQuery().where(condition).limit(limit).offset(offset);
+        copy.skyline = skyline;
+        copy.orderBy.addAll(orderBy);
+        copy.ascending.addAll(ascending);
+        return copy;
+    }
+
+    // REQUIRES: offset >= 0
+    // EFFECTS: returns a copy of this query with the given offset
+    public CarQuery withOffset(int offset) {
+        return withLimit(limit).offset(offset);
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    // EFFECTS: returns the field results are ordered by first, or null if they are not ordered
+    public CarField getOrderBy() {
+        return orderBy.isEmpty() ? null : orderBy.get(0);
+    }
+
+    // EFFECTS: returns true unless results are ordered by a field first in descending order
+    public boolean isAscending() {
+        return ascending.isEmpty() || ascending.get(0);
+    }
+
+    // REQUIRES: 0 <= i < getOrderFields().size()
+    // EFFECTS: returns true if results are ordered by the i-th order field in ascending order
+    public boolean isAscending(int i) {
+        return ascending.get(i);
+    }
+
+    // EFFECTS: returns the fields results are ordered by, each breaking ties in the ones before it
+    public List<CarField> getOrderFields() {
+        return Collections.unmodifiableList(orderBy);
+    }
+
+    public boolean isSkyline() {
+        return skyline;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public boolean hasLimit() {
+        return limit != NO_LIMIT;
+    }
+
+    // EFFECTS: returns how many results must be found in order for the page to be returned: the offset plus
+    // the limit, or Integer.MAX_VALUE if there is no limit
+    public int getEnd() {
+        return hasLimit() ? (int) Math.min(Integer.MAX_VALUE, (long) offset + limit) : Integer.MAX_VALUE;
+    }
+
+    // EFFECTS: returns this query as text, as explain output shows it
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (condition != null) {
+            sb.append(condition);
+        }
+        if (skyline) {
+            sb.append(sb.length() > 0 ? " " : "").append("skyline");
+        }
+        for (int i = 0; i < orderBy.size(); i++) {
+            sb.append(i > 0 ? ", " : sb.length() > 0 ? " sort by " : "sort by ")
+                    .append(orderBy.get(i).name().toLowerCase()).append(ascending.get(i) ? " asc" : " desc");
+        }
+        if (hasLimit()) {
+            sb.append(sb.length() > 0 ? " " : "").append("limit ").append(limit);
+        }
+        if (offset > 0) {
+            sb.append(sb.length() > 0 ? " " : "").append("offset ").append(offset);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package model.query;
+
+import model.CarTable;
+import model.bitmap.RoaringBitmap;
+import model.cars.CarField;
+import model.cars.DriveType;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Represents a condition on the cars of a workroom: a range of values of a numeric field, a drive type or
+// manufacturer the car must have, or the conjunction or disjunction of other conditions. A condition is
+// bound to one CarTable before it is evaluated, and then filters a batch of that table's slots at a time,
+// running one tight loop over the column it reads instead of calling through every condition per car.
+// Conditions on drive type, manufacturer and year can also be answered as a whole from the table's bitmap
+// indexes, combining bitmaps without reading any column
+public abstract class Condition {
+
+    // A condition bound to the columns of one table
+    interface SlotFilter {
+        // REQUIRES: the first n slots are live in the bound table
+        // MODIFIES: slots
+        // EFFECTS: moves those of the first n slots whose cars satisfy the condition to the front of slots,
+        // keeping their order, and returns how many there are
+        int retain(int[] slots, int n);
+    }
+
+    // REQUIRES: field is numeric
+    // EFFECTS: returns a condition that holds when field lies between min and max inclusive
+    public static Condition between(CarField field, double min, double max) {
+        return new RangeCondition(field, min, true, max, true);
+    }
+
+    // REQUIRES: field is numeric
+    // EFFECTS: returns a condition that holds when field is below bound
+    public static Condition below(CarField field, double bound) {
+        return new RangeCondition(field, Double.NEGATIVE_INFINITY, true, bound, false);
+    }
+
+    // REQUIRES: field is numeric
+    // EFFECTS: returns a condition that holds when field is at most bound
+    public static Condition atMost(CarField field, double bound) {
+        return new RangeCondition(field, Double.NEGATIVE_INFINITY, true, bound, true);
+    }
+
+    // REQUIRES: field is numeric
+    // EFFECTS: returns a condition that holds when field is above bound
+    public static Condition above(CarField field, double bound) {
+        return new RangeCondition(field, bound, false, Double.POSITIVE_INFINITY, true);
+    }
+
+    // REQUIRES: field is numeric
+    // EFFECTS: returns a condition that holds when field is at least bound
+    public static Condition atLeast(CarField field, double bound) {
+        return new RangeCondition(field, bound, true, Double.POSITIVE_INFINITY, true);
+    }
+
+    // EFFECTS: returns a condition that holds when the car has the given drive type
+    public static Condition driveType(DriveType driveType) {
+        return new DriveTypeCondition(driveType);
+    }
+
+    // EFFECTS: returns a condition that holds when the car's manufacturer is name, ignoring case
+    public static Condition manufacturer(String name) {
+        return new ManufacturerCondition(name);
+    }
+
+    // EFFECTS: returns a condition that holds when condition does not
+    public static Condition not(Condition condition) {
+        return new NotCondition(condition);
+    }
+
+    // REQUIRES: conditions is not empty
+    // EFFECTS: returns a condition that holds when every one of conditions holds
+    public static Condition and(Condition... conditions) {
+        return conditions.length == 1 ? conditions[0] : new AndCondition(Arrays.asList(conditions));
+    }
+
+    // REQUIRES: conditions is not empty
+    // EFFECTS: returns a condition that holds when any one of conditions holds
+    public static Condition or(Condition... conditions) {
+        return conditions.length == 1 ? conditions[0] : new OrCondition(Arrays.asList(conditions));
+    }
+
+    // EFFECTS: returns a filter testing this condition against the slots of table
+    abstract SlotFilter bind(CarTable table);
+
+    // EFFECTS: returns an estimate of how many cars of table satisfy this condition, without scanning it
+    abstract int estimate(CarTable table);
+
+    // EFFECTS: returns true if this condition can be answered from bitmap indexes alone
+    boolean isBitmapIndexed() {
+        return false;
+    }
+
+    // MODIFIES: table
+    // EFFECTS: returns a bitmap of the slots of table satisfying this condition, computed from the table's
+    // bitmap indexes, or null if this condition cannot be answered from bitmap indexes alone; the bitmap
+    // may belong to an index and must not be changed
+    RoaringBitmap bitmap(CarTable table) {
+        return null;
+    }
+
+    // EFFECTS: returns this condition as text, as explain output shows it
+    @Override
+    public abstract String toString();
+
+    // EFFECTS: returns the conditions joined by separator, each parenthesized if it is itself a compound
+    static String join(List<Condition> conditions, String separator) {
+        StringBuilder sb = new StringBuilder();
+        for (Condition c : conditions) {
+            if (sb.length() > 0) {
+                sb.append(separator);
+            }
+            sb.append(parenthesized(c));
+        }
+        return sb.toString();
+    }
+
+    // EFFECTS: returns c as text, in parentheses if it combines other conditions with "and" or "or"
+    static String parenthesized(Condition c) {
+        return c instanceof AndCondition || c instanceof OrCondition ? "(" + c + ")" : c.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package model.query;
+
+import model.CarTable;
+import model.bitmap.RoaringBitmap;
+import model.cars.CarField;
+import model.cars.DriveType;
+
+// Represents a condition that a car has a given drive type
+final class DriveTypeCondition extends Condition {
+
+    private final DriveType driveType;
+
+    // EFFECTS: constructs a condition that a car has driveType
+    DriveTypeCondition(DriveType driveType) {
+        this.driveType = driveType;
+    }
+
+    @Override
+    SlotFilter bind(CarTable table) {
+        return (slots, n) -> {
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (table.driveType(slots[i]) == driveType) {
+                    slots[kept++] = slots[i];
+                }
+            }
+            return kept;
+        };
+    }
+
+    // EFFECTS: returns the exact number of cars of table with the drive type, from its bitmap index
+    @Override
+    int estimate(CarTable table) {
+        return table.bitmapIndex(CarField.DRIVE_TYPE).count(driveType.ordinal());
+    }
+
+    @Override
+    boolean isBitmapIndexed() {
+        return true;
+    }
+
+    @Override
+    RoaringBitmap bitmap(CarTable table) {
+        return table.bitmapIndex(CarField.DRIVE_TYPE).get(driveType.ordinal());
+    }
+
+    @Override
+    public String toString() {
+        return "drivetype = " + driveType;
+    }
+}
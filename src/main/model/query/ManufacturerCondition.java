@@ -0,0 +1,84 @@
+package model.query;
+
+import model.BitmapIndex;
+import model.CarTable;
+import model.StringDictionary;
+import model.bitmap.RoaringBitmap;
+import model.cars.CarField;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a condition that a car's manufacturer is a given name, ignoring case
+final class ManufacturerCondition extends Condition {
+
+    private final String name;
+
+    // EFFECTS: constructs a condition that a car's manufacturer is name
+    ManufacturerCondition(String name) {
+        this.name = name;
+    }
+
+    // EFFECTS: returns a filter comparing each slot's dictionary id against the ids of the spellings of
+    // name in table's manufacturer dictionary, so no string is compared per car
+    @Override
+    SlotFilter bind(CarTable table) {
+        boolean[] matching = matchingIds(table);
+        return (slots, n) -> {
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                int id = table.manufacturerId(slots[i]);
+                if (id != StringDictionary.NO_STRING && matching[id]) {
+                    slots[kept++] = slots[i];
+                }
+            }
+            return kept;
+        };
+    }
+
+    // EFFECTS: returns the exact number of cars of table with a spelling of name, from its bitmap index
+    @Override
+    int estimate(CarTable table) {
+        BitmapIndex index = table.bitmapIndex(CarField.MANUFACTURER);
+        boolean[] matching = matchingIds(table);
+        int count = 0;
+        for (int id = 0; id < matching.length; id++) {
+            count += matching[id] ? index.count(id) : 0;
+        }
+        return count;
+    }
+
+    @Override
+    boolean isBitmapIndexed() {
+        return true;
+    }
+
+    // EFFECTS: returns the union of the bitmaps of every spelling of name in table's bitmap index
+    @Override
+    RoaringBitmap bitmap(CarTable table) {
+        BitmapIndex index = table.bitmapIndex(CarField.MANUFACTURER);
+        boolean[] matching = matchingIds(table);
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (int id = 0; id < matching.length; id++) {
+            if (matching[id]) {
+                bitmaps.add(index.get(id));
+            }
+        }
+        return bitmaps.size() == 1 ? bitmaps.get(0) : RoaringBitmap.or(bitmaps);
+    }
+
+    // EFFECTS: returns, for every id in table's manufacturer dictionary, whether it is a spelling of name
+    private boolean[] matchingIds(CarTable table) {
+        StringDictionary manufacturers = table.getManufacturers();
+        boolean[] matching = new boolean[manufacturers.size()];
+        for (int id = 0; id < matching.length; id++) {
+            matching[id] = manufacturers.decode(id).equalsIgnoreCase(name);
+        }
+        return matching;
+    }
+
+    @Override
+    public String toString() {
+        return "manufacturer = '" + name + "'";
+    }
+}
@@ -0,0 +1,55 @@
+package model.query;
+
+import model.CarTable;
+
+import java.util.Arrays;
+
+// Represents the negation of a condition. Within a conjunction answered from bitmap indexes it becomes a
+// difference of bitmaps; on its own it filters out the slots its condition keeps
+final class NotCondition extends Condition {
+
+    private final Condition condition;
+
+    // EFFECTS: constructs a condition that holds when condition does not
+    NotCondition(Condition condition) {
+        this.condition = condition;
+    }
+
+    Condition getCondition() {
+        return condition;
+    }
+
+    @Override
+    SlotFilter bind(CarTable table) {
+        SlotFilter filter = condition.bind(table);
+        return (slots, n) -> {
+            int[] matching = Arrays.copyOf(slots, n);
+            int numMatching = filter.retain(matching, n);
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < n; i++) {
+                if (j < numMatching && slots[i] == matching[j]) {
+                    j++;
+                } else {
+                    slots[kept++] = slots[i];
+                }
+            }
+            return kept;
+        };
+    }
+
+    @Override
+    boolean isBitmapIndexed() {
+        return condition.isBitmapIndexed();
+    }
+
+    @Override
+    int estimate(CarTable table) {
+        return Math.max(0, table.size() - condition.estimate(table));
+    }
+
+    @Override
+    public String toString() {
+        return "not " + parenthesized(condition);
+    }
+}
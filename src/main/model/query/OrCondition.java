@@ -0,0 +1,110 @@
+package model.query;
+
+import model.CarTable;
+import model.bitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents the disjunction of conditions
+final class OrCondition extends Condition {
+
+    private final List<Condition> conditions;
+
+    // REQUIRES: conditions is not empty
+    // EFFECTS: constructs a condition that holds when any one of conditions holds
+    OrCondition(List<Condition> conditions) {
+        this.conditions = new ArrayList<>(conditions);
+    }
+
+    List<Condition> getConditions() {
+        return conditions;
+    }
+
+    // EFFECTS: returns a filter keeping the slots that any of the conditions keeps
+    @Override
+    SlotFilter bind(CarTable table) {
+        SlotFilter[] filters = new SlotFilter[conditions.size()];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = conditions.get(i).bind(table);
+        }
+        return new OrFilter(filters, table.numSlots());
+    }
+
+    @Override
+    boolean isBitmapIndexed() {
+        for (Condition c : conditions) {
+            if (!c.isBitmapIndexed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns the union of the conditions' bitmaps, or null unless every condition has one
+    @Override
+    RoaringBitmap bitmap(CarTable table) {
+        RoaringBitmap result = null;
+        for (Condition c : conditions) {
+            RoaringBitmap bitmap = c.bitmap(table);
+            if (bitmap == null) {
+                return null;
+            }
+            result = result == null ? bitmap : result.or(bitmap);
+        }
+        return result;
+    }
+
+    // EFFECTS: returns the sum of the conditions' estimates, capped at the size of table
+    @Override
+    int estimate(CarTable table) {
+        long estimate = 0;
+        for (Condition c : conditions) {
+            estimate += c.estimate(table);
+        }
+        return (int) Math.min(estimate, table.size());
+    }
+
+    @Override
+    public String toString() {
+        return join(conditions, " or ");
+    }
+
+    // A disjunction bound to one table. Each condition filters its own copy of a batch, and the slots it
+    // keeps are marked in a bitmap of the table's slots; the batch is then packed down to its marked slots
+    // and their bits are cleared again, so the bitmap is allocated once per query rather than per batch
+    private static class OrFilter implements SlotFilter {
+        private final SlotFilter[] filters;
+        private final long[] marked;
+        private int[] copy = new int[0];
+
+        OrFilter(SlotFilter[] filters, int numSlots) {
+            this.filters = filters;
+            this.marked = new long[(numSlots + 63) >>> 6];
+        }
+
+        @Override
+        public int retain(int[] slots, int n) {
+            if (copy.length < n) {
+                copy = new int[n];
+            }
+            for (SlotFilter f : filters) {
+                System.arraycopy(slots, 0, copy, 0, n);
+                int numRetained = f.retain(copy, n);
+                for (int j = 0; j < numRetained; j++) {
+                    marked[copy[j] >>> 6] |= 1L << copy[j];
+                }
+            }
+            int numKept = 0;
+            for (int i = 0; i < n; i++) {
+                int slot = slots[i];
+                slots[numKept] = slot;
+                numKept += (int) (marked[slot >>> 6] >>> slot) & 1;
+            }
+            for (int i = 0; i < n; i++) {
+                marked[slots[i] >>> 6] = 0;
+            }
+            return numKept;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package model.query;
+
+import model.cars.CarField;
+import model.cars.DriveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Represents a parser for queries typed into the marketplace, such as
+//   price < 50000 and (drivetype = awd or year >= 2015) sort by speed desc, price limit 10 offset 20
+//   year >= 2015 skyline sort by price
+// A condition compares year, price, speed, handling, acceleration or braking to a number with <, <=, >, >=
+// or =, or requires drivetype or manufacturer to equal a value; conditions are negated with "not" and
+// combined with "and", which binds tighter than "or", and parentheses. "skyline" keeps only the cars
+// satisfying the condition that no other of them beats on price and every performance stat. Keywords, fields
+// and drive types are not case sensitive, and a manufacturer name with spaces is written in quotes
+public class QueryParser {
+
+    private final List<String> tokens;
+    private int pos;
+
+    // EFFECTS: constructs a parser over the tokens of text
+    private QueryParser(String text) {
+        tokens = tokenize(text);
+    }
+
+    // EFFECTS: returns the query written in text; throws IllegalArgumentException if text is not a query
+    public static CarQuery parse(String text) {
+        return new QueryParser(text).query();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses [condition] [skyline] [sort by field [asc | desc] {, field [asc | desc]}] [limit n]
+    // [offset n] up to the end of the text
+    private CarQuery query() {
+        CarQuery query = new CarQuery();
+        if (!atKeyword("skyline") && !atKeyword("sort") && !atKeyword("order") && !atKeyword("limit")
+                && !atKeyword("offset") && pos < tokens.size()) {
+            query.where(disjunction());
+        }
+        if (acceptKeyword("skyline")) {
+            query.skyline();
+        }
+        if (acceptKeyword("sort") || acceptKeyword("order")) {
+            orderBy(query);
+        }
+        if (acceptKeyword("limit")) {
+            query.limit(count(next()));
+        }
+        if (acceptKeyword("offset")) {
+            query.offset(count(next()));
+        }
+        if (pos < tokens.size()) {
+            throw error("Unexpected '" + tokens.get(pos) + "'");
+        }
+        return query;
+    }
+
+    // MODIFIES: this, query
+    // EFFECTS: parses by field [asc | desc] {, field [asc | desc]} and orders query by the fields
+    private void orderBy(CarQuery query) {
+        expectKeyword("by");
+        do {
+            CarField field = field(next());
+            query.thenBy(field, !acceptKeyword("desc"));
+            acceptKeyword("asc");
+        } while (acceptKeyword(","));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses conjunctions joined by "or"
+    private Condition disjunction() {
+        List<Condition> conditions = new ArrayList<>();
+        conditions.add(conjunction());
+        while (acceptKeyword("or")) {
+            conditions.add(conjunction());
+        }
+        return Condition.or(conditions.toArray(new Condition[0]));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses comparisons or parenthesized conditions joined by "and"
+    private Condition conjunction() {
+        List<Condition> conditions = new ArrayList<>();
+        conditions.add(primary());
+        while (acceptKeyword("and")) {
+            conditions.add(primary());
+        }
+        return Condition.and(conditions.toArray(new Condition[0]));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses a negated, parenthesized or single comparison
+    private Condition primary() {
+        if (acceptKeyword("not")) {
+            return Condition.not(primary());
+        }
+        if (acceptKeyword("(")) {
+            Condition condition = disjunction();
+            expectKeyword(")");
+            return condition;
+        }
+        String name = next().toLowerCase(Locale.ROOT);
+        String op = next();
+        String value = next();
+        if (name.equals("drivetype") || name.equals("manufacturer")) {
+            if (!op.equals("=")) {
+                throw error("Only = can be used with " + name);
+            }
+            return name.equals("drivetype") ? Condition.driveType(driveType(value))
+                    : Condition.manufacturer(unquote(value));
+        }
+        return comparison(field(name), op, number(value));
+    }
+
+    // EFFECTS: returns the condition comparing field to value with op
+    private Condition comparison(CarField field, String op, double value) {
+        switch (op) {
+            case "<": return Condition.below(field, value);
+            case "<=": return Condition.atMost(field, value);
+            case ">": return Condition.above(field, value);
+            case ">=": return Condition.atLeast(field, value);
+            case "=": return Condition.between(field, value, value);
+            default: throw error("Expected a comparison but found '" + op + "'");
+        }
+    }
+
+    // EFFECTS: returns the numeric field called name
+    private CarField field(String name) {
+        try {
+            CarField field = CarField.valueOf(name.toUpperCase(Locale.ROOT));
+            if (field.isNumeric()) {
+                return field;
+            }
+        } catch (IllegalArgumentException e) {
+            // reported below
+        }
+        throw error("Unknown field '" + name + "'");
+    }
+
+    // EFFECTS: returns the drive type written as value
+    private DriveType driveType(String value) {
+        try {
+            return DriveType.valueOf(unquote(value).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw error("Unknown drive type '" + value + "'");
+        }
+    }
+
+    // EFFECTS: returns the number written as value
+    private double number(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw error("Expected a number but found '" + value + "'");
+        }
+    }
+
+    // EFFECTS: returns the limit or offset written as value
+    private int count(String value) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count >= 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw error("Expected a count of cars but found '" + value + "'");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next token; throws IllegalArgumentException at the end of the text
+    private String next() {
+        if (pos >= tokens.size()) {
+            throw error("Unexpected end of query");
+        }
+        return tokens.get(pos++);
+    }
+
+    // EFFECTS: returns true if the next token is keyword, ignoring case
+    private boolean atKeyword(String keyword) {
+        return pos < tokens.size() && tokens.get(pos).equalsIgnoreCase(keyword);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next token and returns true if it is keyword, otherwise returns false
+    private boolean acceptKeyword(String keyword) {
+        if (atKeyword(keyword)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next token; throws IllegalArgumentException if it is not keyword
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) {
+            throw error("Expected '" + keyword + "'");
+        }
+    }
+
+    // EFFECTS: returns an exception describing a syntax error at the current token
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " (at token " + pos + ")");
+    }
+
+    // EFFECTS: returns value without its surrounding quotes, if it has them
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    // EFFECTS: splits text into words, numbers, quoted strings, comparison operators, parentheses and commas
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                i++;
+            } else {
+                int end = tokenEnd(text, i);
+                tokens.add(text.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    // EFFECTS: returns the end of the token starting at i in text;
+    // throws IllegalArgumentException if a quoted string is not closed
+    private static int tokenEnd(String text, int i) {
+        char c = text.charAt(i);
+        int end = i + 1;
+        if (c == '\'' || c == '"') {
+            end = text.indexOf(c, i + 1) + 1;
+            if (end == 0) {
+                throw new IllegalArgumentException("Unterminated string in query");
+            }
+        } else if (c == '<' || c == '>') {
+            end = end < text.length() && text.charAt(end) == '=' ? end + 1 : end;
+        } else if (c != '=' && c != '(' && c != ')' && c != ',') {
+            while (end < text.length() && "<>=(),'\"".indexOf(text.charAt(end)) < 0
+                    && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+        }
+        return end;
+    }
+}
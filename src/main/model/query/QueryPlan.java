@@ -0,0 +1,519 @@
+package model.query;
+
+import model.CarTable;
+import model.Skyline;
+import model.SlotSorter;
+import model.SortedIndex;
+import model.bitmap.RoaringBitmap;
+import model.cars.CarField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Represents the plan chosen for running a query against one CarTable. The planner costs each way of
+// finding the candidate cars in rough units of slots touched, and keeps the cheapest:
+//   FULL_SCAN    test every slot's columns in order, stopping early once enough unordered matches are found
+//   INDEX_RANGE  take the slots of one range of an "and" from its sorted index, then test the rest
+//   INDEX_UNION  take the slots of every range of an "or" of ranges from their sorted indexes
+//   INDEX_ORDER  walk the sorted index of the order-by field, from its high end when descending, and stop at
+//                the limit if there is one
+//   BITMAP       combine the bitmap indexes of the drive type, manufacturer and year conditions of an "and",
+//                then test the rest
+// The number of cars in a range is counted exactly on its sorted index in O(log n), and the number with a
+// drive type, manufacturer or year is read from its bitmap index. A slot reached through an index costs more than
+// one reached by a sequential scan, and sorting k results costs about k log k, or less when they only need
+// putting back in insertion order. When a limit asks for only the first few of many ordered results, they are
+// selected with a bounded heap rather than sorting them all, and a page further down the results is found by
+// selecting up to its end and skipping its offset. A sorted index is kept up to date once built, so ordering
+// by a field again, or in the other direction, walks the same index instead of sorting the cars again. A
+// query ordered by several fields sorts its results with SlotSorter, by radix on every field in turn. A skyline
+// query finds every candidate, however small its page, and keeps those no other beats with Skyline, on the
+// common ForkJoinPool, before ordering and paging them.
+public class QueryPlan {
+
+    // The ways a plan can find its candidate cars
+    public enum Access {
+        FULL_SCAN, INDEX_RANGE, INDEX_UNION, INDEX_ORDER, BITMAP
+    }
+
+    private static final int RANDOM_ACCESS_COST = 4;
+    private static final int BLOCK_SIZE = 1024;
+    private static final int BITMAP_SORT_RATIO = 256;
+    private static final int TOP_K_RATIO = 16;
+
+    private final CarTable table;
+    private final CarQuery query;
+    private final int estimate;
+
+    private Access access;
+    private List<RangeCondition> ranges;
+    private List<Condition> bitmapConditions;
+    private RoaringBitmap bitmap;
+    private Condition residual;
+    private long cost;
+
+    // EFFECTS: constructs a full scan plan for query against table
+    private QueryPlan(CarTable table, CarQuery query) {
+        this.table = table;
+        this.query = query;
+        this.estimate = query.getCondition() == null ? table.size() : query.getCondition().estimate(table);
+        this.access = Access.FULL_SCAN;
+        this.ranges = new ArrayList<>();
+        this.residual = query.getCondition();
+        this.cost = scanCost();
+    }
+
+    // MODIFIES: table
+    // EFFECTS: returns the cheapest plan for query against table, building the sorted indexes it costs
+    // the query's ranges and order with
+    public static QueryPlan plan(CarTable table, CarQuery query) {
+        QueryPlan plan = new QueryPlan(table, query);
+        Condition condition = query.getCondition();
+        if (condition instanceof RangeCondition) {
+            plan.considerIndexRange((RangeCondition) condition, new ArrayList<>());
+        } else if (condition instanceof AndCondition) {
+            List<Condition> conjuncts = ((AndCondition) condition).getConditions();
+            for (Condition c : conjuncts) {
+                if (c instanceof RangeCondition) {
+                    List<Condition> rest = new ArrayList<>(conjuncts);
+                    rest.remove(c);
+                    plan.considerIndexRange((RangeCondition) c, rest);
+                }
+            }
+        } else if (condition instanceof OrCondition) {
+            plan.considerIndexUnion(((OrCondition) condition).getConditions());
+        }
+        plan.considerBitmap();
+        if (query.getOrderBy() != null && !plan.hasTiebreaks() && !query.isSkyline()) {
+            plan.considerIndexOrder();
+        }
+        return plan;
+    }
+
+    public Access getAccess() {
+        return access;
+    }
+
+    // EFFECTS: returns the estimated cost of this plan, in slots touched
+    public long getCost() {
+        return cost;
+    }
+
+    // EFFECTS: returns the estimated number of cars satisfying the query's condition
+    public int getEstimate() {
+        return estimate;
+    }
+
+    // EFFECTS: runs this plan and returns the slots of the matching cars in result order, from the query's
+    // offset up to its limit
+    public int[] execute() {
+        int[] slots = access == Access.INDEX_ORDER ? walkIndex() : ordered(query.isSkyline()
+                ? Skyline.of(table, candidates()) : candidates());
+        int from = Math.min(query.getOffset(), slots.length);
+        int to = Math.min(query.getEnd(), slots.length);
+        return from == 0 && to == slots.length ? slots : Arrays.copyOfRange(slots, from, to);
+    }
+
+    // EFFECTS: returns a description of this plan, one step per line with each step indented under the
+    // step that consumes its output
+    public String explain() {
+        List<String> steps = steps();
+        StringBuilder sb = new StringBuilder("Plan for: " + (query.toString().isEmpty() ? "all cars" : query)
+                + " (est. " + estimate + " of " + table.size() + " cars, cost " + cost + ")\n");
+        for (int i = 0; i < steps.size(); i++) {
+            for (int j = 0; j <= i; j++) {
+                sb.append("  ");
+            }
+            sb.append(steps.get(i)).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // EFFECTS: returns the steps of this plan, from the last one applied to the access that starts it
+    private List<String> steps() {
+        List<String> steps = new ArrayList<>();
+        if (query.hasLimit()) {
+            steps.add("Limit " + query.getLimit() + (query.getOffset() > 0 ? " offset " + query.getOffset() : ""));
+        } else if (query.getOffset() > 0) {
+            steps.add("Offset " + query.getOffset());
+        }
+        if (query.getOrderBy() != null && !isOrderedByIndex() && access != Access.INDEX_ORDER) {
+            steps.add((usesTopK(estimate) ? "Top " + query.getEnd() + " by " : "Sort by ") + orderText());
+        }
+        if (query.isSkyline()) {
+            steps.add("Skyline on price, speed, handling, acceleration, braking");
+        }
+        if (residual != null) {
+            steps.add("Filter " + residual);
+        }
+        steps.add(accessText());
+        return steps;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: switches to taking range's slots from its index and filtering them by rest, if that is cheaper
+    private void considerIndexRange(RangeCondition range, List<Condition> rest) {
+        int candidates = range.estimate(table);
+        long candidateCost = (long) RANDOM_ACCESS_COST * candidates;
+        if (query.getOrderBy() == null || query.isSkyline()) {
+            candidateCost += slotOrderCost(candidates);
+        } else if (query.getOrderBy() != range.getField() || hasTiebreaks()) {
+            candidateCost += orderCost(estimate);
+        }
+        if (candidateCost < cost) {
+            access = Access.INDEX_RANGE;
+            ranges = new ArrayList<>();
+            ranges.add(range);
+            residual = rest.isEmpty() ? null : Condition.and(rest.toArray(new Condition[0]));
+            cost = candidateCost;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: switches to taking the union of the ranges' slots from their indexes, if every disjunct is a
+    // range and that is cheaper
+    private void considerIndexUnion(List<Condition> disjuncts) {
+        List<RangeCondition> unionRanges = new ArrayList<>();
+        long candidates = 0;
+        for (Condition c : disjuncts) {
+            if (!(c instanceof RangeCondition)) {
+                return;
+            }
+            unionRanges.add((RangeCondition) c);
+            candidates += c.estimate(table);
+        }
+        long candidateCost = RANDOM_ACCESS_COST * candidates + slotOrderCost(candidates);
+        if (query.getOrderBy() != null) {
+            candidateCost += orderCost(estimate);
+        }
+        if (candidateCost < cost) {
+            access = Access.INDEX_UNION;
+            ranges = unionRanges;
+            residual = null;
+            cost = candidateCost;
+        }
+    }
+
+    // MODIFIES: this, table
+    // EFFECTS: switches to intersecting the bitmaps of the conjuncts that bitmap indexes can answer and
+    // filtering the result by the rest, if that is cheaper; the bitmaps are combined here, since their
+    // result's size is what the plan is costed by
+    private void considerBitmap() {
+        Condition condition = query.getCondition();
+        if (condition == null) {
+            return;
+        }
+        List<Condition> answered = new ArrayList<>();
+        List<Condition> rest = new ArrayList<>();
+        for (Condition c : condition instanceof AndCondition ? ((AndCondition) condition).getConditions()
+                : Collections.singletonList(condition)) {
+            (c.isBitmapIndexed() ? answered : rest).add(c);
+        }
+        RoaringBitmap candidates = answered.isEmpty() ? null : AndCondition.bitmapOf(answered, table);
+        if (candidates == null) {
+            return;
+        }
+        long candidateCost = bitmapCost(answered.size(), candidates.cardinality(), !rest.isEmpty());
+        if (candidateCost < cost) {
+            access = Access.BITMAP;
+            bitmap = candidates;
+            bitmapConditions = answered;
+            residual = rest.isEmpty() ? null : Condition.and(rest.toArray(new Condition[0]));
+            cost = candidateCost;
+        }
+    }
+
+    // EFFECTS: returns the cost of intersecting numBitmaps bitmaps, a word of each per 64 slots, into k
+    // candidates, fetching each candidate if filtered is true, and sorting them if the query is ordered
+    private long bitmapCost(int numBitmaps, int k, boolean filtered) {
+        return (long) numBitmaps * table.numSlots() / Long.SIZE + k + (filtered ? RANDOM_ACCESS_COST * k : 0)
+                + (query.getOrderBy() == null ? 0 : orderCost(k));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: switches to walking the index of the order-by field until the limit is reached, if that is
+    // cheaper; matches are assumed to be spread evenly through the index, which is not counted as sorted
+    // again since it is kept once built
+    private void considerIndexOrder() {
+        long walked = Math.min(table.size(), (long) query.getEnd() * table.size() / Math.max(1, estimate));
+        long candidateCost = RANDOM_ACCESS_COST * walked;
+        if (candidateCost < cost) {
+            access = Access.INDEX_ORDER;
+            ranges = new ArrayList<>();
+            residual = query.getCondition();
+            cost = candidateCost;
+        }
+    }
+
+    // EFFECTS: returns the cost of scanning every slot, stopping early when a limit without an order allows
+    private long scanCost() {
+        if (query.getOrderBy() != null) {
+            return table.numSlots() + orderCost(estimate);
+        }
+        if (stopsAtLimit()) {
+            return Math.min(table.numSlots(), (long) query.getEnd() * table.numSlots() / Math.max(1, estimate));
+        }
+        return table.numSlots();
+    }
+
+    // EFFECTS: returns the cost of putting n slots back in insertion order, by sorting or through a bitmap
+    private long slotOrderCost(long n) {
+        return Math.min(sortCost(n), table.numSlots() / Long.SIZE + n);
+    }
+
+    // EFFECTS: returns the cost of putting n results in the query's order: one pass over them plus sorting
+    // those that are wanted when a heap selects the first few, otherwise sorting them all
+    private long orderCost(long n) {
+        return usesTopK(n) ? n + sortCost(query.getEnd()) : sortCost(n);
+    }
+
+    // EFFECTS: returns true if the results wanted are few enough, among n, to be selected with a heap, which
+    // orders by one field only
+    private boolean usesTopK(long n) {
+        return query.hasLimit() && !hasTiebreaks() && (long) query.getEnd() * TOP_K_RATIO <= n;
+    }
+
+    // EFFECTS: returns true if the query is ordered by more than one field
+    private boolean hasTiebreaks() {
+        return query.getOrderFields().size() > 1;
+    }
+
+    // EFFECTS: returns the cost of sorting n results
+    private static long sortCost(long n) {
+        return n < 2 ? n : n * (64 - Long.numberOfLeadingZeros(n - 1));
+    }
+
+    // EFFECTS: returns the slots of the cars satisfying the condition, in insertion order unless they come
+    // from the index of the order-by field of a query that is not a skyline
+    private int[] candidates() {
+        switch (access) {
+            case INDEX_RANGE:
+                int[] slots = filter(ranges.get(0).lookup(table));
+                return query.getOrderBy() == null || query.isSkyline() ? inSlotOrder(slots) : slots;
+            case INDEX_UNION:
+                return union();
+            case BITMAP:
+                return filter(bitmap.toArray());
+            default:
+                return scan();
+        }
+    }
+
+    // EFFECTS: returns true if the candidates come from an index range on the order-by field, and so are
+    // already in ascending order of it
+    private boolean isOrderedByIndex() {
+        return access == Access.INDEX_RANGE && ranges.get(0).getField() == query.getOrderBy() && !hasTiebreaks()
+                && !query.isSkyline();
+    }
+
+    // EFFECTS: returns true if a scan can stop once it has found the end of the query's page, which it can
+    // when the results are neither ordered nor cut down to a skyline
+    private boolean stopsAtLimit() {
+        return query.hasLimit() && query.getOrderBy() == null && !query.isSkyline();
+    }
+
+    // EFFECTS: returns the live slots satisfying the residual condition, in insertion order, filtering them
+    // a block of slots at a time and stopping once the limit is reached when results are not ordered
+    private int[] scan() {
+        Condition.SlotFilter f = residual == null ? null : residual.bind(table);
+        int stopAt = stopsAtLimit() ? query.getEnd() : Integer.MAX_VALUE;
+        int[] matches = new int[Math.min(estimate, stopAt) + BLOCK_SIZE];
+        int[] block = new int[BLOCK_SIZE];
+        int n = 0;
+        for (int from = 0; from < table.numSlots() && n < stopAt; from += BLOCK_SIZE) {
+            int k = liveSlots(from, Math.min(from + BLOCK_SIZE, table.numSlots()), block);
+            k = f == null ? k : f.retain(block, k);
+            if (n + k > matches.length) {
+                matches = Arrays.copyOf(matches, Math.max(n + k, matches.length * 2));
+            }
+            System.arraycopy(block, 0, matches, n, k);
+            n += k;
+        }
+        return Arrays.copyOf(matches, Math.min(n, stopAt));
+    }
+
+    // MODIFIES: block
+    // EFFECTS: puts the live slots from (inclusive) to to (exclusive) into block and returns how many there
+    // are; when the table has no empty slots, every slot is live and no car is looked at
+    private int liveSlots(int from, int to, int[] block) {
+        boolean dense = table.size() == table.numSlots();
+        int k = 0;
+        for (int slot = from; slot < to; slot++) {
+            if (dense || table.isLive(slot)) {
+                block[k++] = slot;
+            }
+        }
+        return k;
+    }
+
+    // MODIFIES: slots
+    // EFFECTS: returns the slots satisfying the residual condition, keeping their order
+    private int[] filter(int[] slots) {
+        return residual == null ? slots : Arrays.copyOf(slots, residual.bind(table).retain(slots, slots.length));
+    }
+
+    // EFFECTS: returns the distinct slots in any of the ranges, in insertion order
+    private int[] union() {
+        int[][] parts = new int[ranges.size()][];
+        int total = 0;
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = ranges.get(i).lookup(table);
+            total += parts[i].length;
+        }
+        int[] slots = new int[total];
+        int n = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, slots, n, part.length);
+            n += part.length;
+        }
+        return inSlotOrder(slots);
+    }
+
+    // EFFECTS: returns the distinct slots among slots in ascending order, which is insertion order; many
+    // slots are ordered by setting their bits in a bitmap of the table's slots and reading the set bits
+    // back, and a few by sorting them
+    private int[] inSlotOrder(int[] slots) {
+        if ((long) slots.length * BITMAP_SORT_RATIO < table.numSlots()) {
+            return sortedDistinct(slots);
+        }
+        long[] bits = new long[(table.numSlots() + 63) >>> 6];
+        for (int slot : slots) {
+            bits[slot >>> 6] |= 1L << slot;
+        }
+        int n = 0;
+        for (int word = 0; word < bits.length; word++) {
+            for (long w = bits[word]; w != 0; w &= w - 1) {
+                slots[n++] = (word << 6) + Long.numberOfTrailingZeros(w);
+            }
+        }
+        return Arrays.copyOf(slots, n);
+    }
+
+    // MODIFIES: slots
+    // EFFECTS: returns the distinct slots among slots in ascending order, by sorting them
+    private static int[] sortedDistinct(int[] slots) {
+        Arrays.sort(slots);
+        int distinct = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (distinct == 0 || slots[i] != slots[distinct - 1]) {
+                slots[distinct++] = slots[i];
+            }
+        }
+        return Arrays.copyOf(slots, distinct);
+    }
+
+    // EFFECTS: returns the first slots satisfying the residual condition, up to the end of the query's page,
+    // walking the index of the order-by field a block at a time from its low end when ascending and from its
+    // high end when descending
+    private int[] walkIndex() {
+        SortedIndex index = table.index(query.getOrderBy());
+        Condition.SlotFilter f = residual == null ? null : residual.bind(table);
+        int end = query.getEnd();
+        int[] matches = new int[Math.min(end, index.size()) + BLOCK_SIZE];
+        int[] block = new int[BLOCK_SIZE];
+        int n = 0;
+        for (int from = 0; from < index.size() && n < end; from += BLOCK_SIZE) {
+            int k = Math.min(BLOCK_SIZE, index.size() - from);
+            for (int i = 0; i < k; i++) {
+                block[i] = index.slotAt(query.isAscending() ? from + i : index.size() - 1 - from - i);
+            }
+            k = f == null ? k : f.retain(block, k);
+            System.arraycopy(block, 0, matches, n, k);
+            n += k;
+        }
+        return Arrays.copyOf(matches, Math.min(n, end));
+    }
+
+    // MODIFIES: slots
+    // EFFECTS: returns the candidate slots in result order; when only the first few of many are wanted, only
+    // those are returned, selected with a heap
+    private int[] ordered(int[] slots) {
+        if (query.getOrderBy() == null) {
+            return slots;
+        }
+        if (isOrderedByIndex()) {
+            if (!query.isAscending()) {
+                reverse(slots);
+            }
+            return slots;
+        }
+        if (usesTopK(slots.length)) {
+            return selectFirst(slots);
+        }
+        sortByKeys(slots);
+        return slots;
+    }
+
+    // MODIFIES: slots
+    // EFFECTS: sorts slots by the order fields, reading each field's column into a key array once
+    private void sortByKeys(int[] slots) {
+        List<CarField> fields = query.getOrderFields();
+        double[][] keys = new double[fields.size()][slots.length];
+        boolean[] ascending = new boolean[fields.size()];
+        for (int j = 0; j < fields.size(); j++) {
+            for (int i = 0; i < slots.length; i++) {
+                keys[j][i] = table.value(fields.get(j), slots[i]);
+            }
+            ascending[j] = query.isAscending(j);
+        }
+        SlotSorter.sort(keys, ascending, slots, slots.length);
+    }
+
+    // MODIFIES: slots
+    // EFFECTS: returns the slots that come first in result order, up to the end of the query's page, in that
+    // order. A descending order is selected as the ascending order of negated keys over the slots reversed,
+    // so that it stays the exact reverse of the ascending order
+    private int[] selectFirst(int[] slots) {
+        CarField field = query.getOrderBy();
+        if (!query.isAscending()) {
+            reverse(slots);
+        }
+        double sign = query.isAscending() ? 1 : -1;
+        double[] keys = new double[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = sign * table.value(field, slots[i]);
+        }
+        return Arrays.copyOf(slots, SlotSorter.selectFirst(keys, slots, slots.length, query.getEnd()));
+    }
+
+    // MODIFIES: slots
+    // EFFECTS: reverses the order of slots
+    private static void reverse(int[] slots) {
+        for (int i = 0; i < slots.length / 2; i++) {
+            int tmp = slots[i];
+            slots[i] = slots[slots.length - 1 - i];
+            slots[slots.length - 1 - i] = tmp;
+        }
+    }
+
+    // EFFECTS: returns the line describing how this plan finds its candidate cars
+    private String accessText() {
+        switch (access) {
+            case INDEX_RANGE:
+                return "Index range scan on " + ranges.get(0) + " (est. " + ranges.get(0).estimate(table)
+                        + " cars)" + (isOrderedByIndex() ? ", " + orderText() : "");
+            case INDEX_UNION:
+                return "Index union of " + Condition.join(new ArrayList<>(ranges), "; ");
+            case BITMAP:
+                return "Bitmap index scan on " + Condition.join(bitmapConditions, " and ") + " ("
+                        + bitmap.cardinality() + " cars)";
+            case INDEX_ORDER:
+                return "Index order scan on " + orderText() + ", stopping after " + query.getEnd() + " matches";
+            default:
+                return "Full scan of " + table.size() + " cars" + (stopsAtLimit()
+                        ? ", stopping after " + query.getEnd() + " matches" : "");
+        }
+    }
+
+    // EFFECTS: returns the order fields and their directions as text
+    private String orderText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < query.getOrderFields().size(); i++) {
+            sb.append(i > 0 ? ", " : "").append(query.getOrderFields().get(i).name().toLowerCase())
+                    .append(query.isAscending(i) ? " asc" : " desc");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package model.query;
+
+import model.CarTable;
+import model.bitmap.RoaringBitmap;
+import model.cars.CarField;
+
+// Represents a condition that a numeric field lies in a range; either bound may be infinite, and each is
+// included only if its inclusive flag is set
+final class RangeCondition extends Condition {
+
+    private final CarField field;
+    private final double min;
+    private final boolean minInclusive;
+    private final double max;
+    private final boolean maxInclusive;
+
+    // EFFECTS: constructs a condition that field lies between min and max;
+    // throws IllegalArgumentException if field is not numeric
+    RangeCondition(CarField field, double min, boolean minInclusive, double max, boolean maxInclusive) {
+        if (!field.isNumeric()) {
+            throw new IllegalArgumentException(field + " is not numeric");
+        }
+        this.field = field;
+        this.min = min;
+        this.minInclusive = minInclusive;
+        this.max = max;
+        this.maxInclusive = maxInclusive;
+    }
+
+    CarField getField() {
+        return field;
+    }
+
+    // EFFECTS: returns the slots of table in this range, in ascending order of field, from its sorted index
+    int[] lookup(CarTable table) {
+        return table.index(field).slotsInRange(min, minInclusive, max, maxInclusive);
+    }
+
+    @Override
+    SlotFilter bind(CarTable table) {
+        return (slots, n) -> table.retainInRange(field, min, minInclusive, max, maxInclusive, slots, n);
+    }
+
+    // EFFECTS: returns the exact number of cars of table in this range, counted on the sorted index
+    @Override
+    int estimate(CarTable table) {
+        return table.index(field).countInRange(min, minInclusive, max, maxInclusive);
+    }
+
+    // EFFECTS: returns true if this is a range of years
+    @Override
+    boolean isBitmapIndexed() {
+        return field == CarField.YEAR;
+    }
+
+    // EFFECTS: returns the union of the year bitmaps in this range, if this is a range of years
+    @Override
+    RoaringBitmap bitmap(CarTable table) {
+        if (!isBitmapIndexed()) {
+            return null;
+        }
+        double lo = minInclusive ? Math.ceil(min) : Math.floor(min) + 1;
+        double hi = maxInclusive ? Math.floor(max) : Math.ceil(max) - 1;
+        return table.bitmapIndex(CarField.YEAR).range((int) Math.max(lo, Integer.MIN_VALUE),
+                (int) Math.min(hi, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public String toString() {
+        String name = field.name().toLowerCase();
+        if (min == Double.NEGATIVE_INFINITY) {
+            return name + (maxInclusive ? " <= " : " < ") + format(max);
+        } else if (max == Double.POSITIVE_INFINITY) {
+            return name + (minInclusive ? " >= " : " > ") + format(min);
+        } else if (min == max && minInclusive && maxInclusive) {
+            return name + " = " + format(min);
+        }
+        return name + " in " + (minInclusive ? "[" : "(") + format(min) + ", " + format(max)
+                + (maxInclusive ? "]" : ")");
+    }
+
+    // EFFECTS: returns value without a fractional part if it is a whole number
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+}
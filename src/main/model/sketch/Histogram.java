@@ -0,0 +1,121 @@
+package model.sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Represents a histogram over fixed buckets: bucket i counts the numbers from its lower bound up to, but not
+// including, the next bucket's, the first bucket also counts any number below its lower bound, and the last
+// has no upper bound. A number's bucket is found by binary search over the bounds, a count can be taken away
+// again, and two histograms with the same bounds merge by adding their counts
+public class Histogram {
+
+    private final double[] lowerBounds;
+    private final int[] counts;
+
+    // REQUIRES: lowerBounds is not empty and strictly ascending
+    // EFFECTS: constructs an empty histogram with a bucket starting at each of lowerBounds
+    public Histogram(double... lowerBounds) {
+        this.lowerBounds = lowerBounds.clone();
+        this.counts = new int[lowerBounds.length];
+    }
+
+    // EFFECTS: returns the number of buckets
+    public int numBuckets() {
+        return counts.length;
+    }
+
+    // EFFECTS: returns the lower bound of bucket i
+    public double lowerBound(int i) {
+        return lowerBounds[i];
+    }
+
+    // EFFECTS: returns the upper bound of bucket i, which it does not include, or infinity for the last
+    public double upperBound(int i) {
+        return i + 1 < lowerBounds.length ? lowerBounds[i + 1] : Double.POSITIVE_INFINITY;
+    }
+
+    // EFFECTS: returns the count of bucket i
+    public int count(int i) {
+        return counts[i];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts value in its bucket
+    public void add(double value) {
+        counts[bucketOf(value)]++;
+    }
+
+    // REQUIRES: value is in the histogram
+    // MODIFIES: this
+    // EFFECTS: takes one count of value out of its bucket
+    public void remove(double value) {
+        counts[bucketOf(value)]--;
+    }
+
+    // REQUIRES: other has the same bounds as this histogram
+    // MODIFIES: this
+    // EFFECTS: adds every count of other to this histogram
+    public void merge(Histogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    // EFFECTS: returns a new histogram equal to this one
+    public Histogram copy() {
+        Histogram copy = new Histogram(lowerBounds);
+        copy.merge(this);
+        return copy;
+    }
+
+    // EFFECTS: writes the bounds and counts to out, as read by read
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            out.writeDouble(lowerBounds[i]);
+            out.writeInt(counts[i]);
+        }
+    }
+
+    // EFFECTS: returns the histogram written to in by write; throws IOException if it cannot be read
+    public static Histogram read(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length <= 0) {
+            throw new IOException("Corrupt histogram");
+        }
+        double[] lowerBounds = new double[length];
+        int[] counts = new int[length];
+        for (int i = 0; i < length; i++) {
+            lowerBounds[i] = in.readDouble();
+            counts[i] = in.readInt();
+        }
+        Histogram histogram = new Histogram(lowerBounds);
+        System.arraycopy(counts, 0, histogram.counts, 0, length);
+        return histogram;
+    }
+
+    // EFFECTS: returns the bucket value falls in
+    private int bucketOf(double value) {
+        int i = Arrays.binarySearch(lowerBounds, value);
+        return i >= 0 ? i : Math.max(0, -i - 2);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Histogram)) {
+            return false;
+        }
+        Histogram other = (Histogram) o;
+        return Arrays.equals(lowerBounds, other.lowerBounds) && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(lowerBounds) + Arrays.hashCode(counts);
+    }
+}
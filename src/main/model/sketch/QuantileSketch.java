@@ -0,0 +1,195 @@
+package model.sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Represents a quantile sketch of a multiset of numbers, after DDSketch: a number is counted in the bucket of
+// numbers of its sign within a factor of GAMMA of one another, so a quantile is answered with a relative
+// error of at most ACCURACY from a number of the right rank, in time proportional to the number of buckets.
+// Numbers this close to zero are counted apart as zeros. Prices from $1,000 to $10,000,000 take under 500
+// buckets, and stats from 0.1 to 10 about 230, whatever the number of cars.
+//
+// Unlike a t-digest or KLL sketch, a count can be taken away again, so a removed listing is forgotten
+// exactly, and two sketches merge by adding their counts
+public class QuantileSketch {
+
+    public static final double ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + ACCURACY) / (1 - ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_INDEXED = 1e-9;
+
+    private final Buckets positive;
+    private final Buckets negative;
+    private int zeros;
+    private int count;
+
+    // EFFECTS: constructs an empty sketch
+    public QuantileSketch() {
+        positive = new Buckets();
+        negative = new Buckets();
+    }
+
+    // EFFECTS: returns the number of numbers in the sketch
+    public int count() {
+        return count;
+    }
+
+    // EFFECTS: returns the number of buckets in use, counting the zeros as one
+    public int numBuckets() {
+        return positive.counts.length + negative.counts.length + 1;
+    }
+
+    // REQUIRES: 0 <= q <= 1
+    // EFFECTS: returns an estimate of the q-quantile, the number with q of the others below it, that is
+    // within ACCURACY relative error of a number of its rank; returns NaN if the sketch is empty
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));
+        long seen = 0;
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                return -value(negative.offset + i);
+            }
+        }
+        seen += zeros;
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                return value(positive.offset + i);
+            }
+        }
+        return value(positive.offset + positive.counts.length - 1);
+    }
+
+    // REQUIRES: value is finite
+    // MODIFIES: this
+    // EFFECTS: counts value in the sketch
+    public void add(double value) {
+        update(value, 1);
+    }
+
+    // REQUIRES: value is in the sketch
+    // MODIFIES: this
+    // EFFECTS: takes one count of value out of the sketch
+    public void remove(double value) {
+        update(value, -1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds every number of other to this sketch
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < other.positive.counts.length; i++) {
+            positive.add(other.positive.offset + i, other.positive.counts[i]);
+        }
+        for (int i = 0; i < other.negative.counts.length; i++) {
+            negative.add(other.negative.offset + i, other.negative.counts[i]);
+        }
+        zeros += other.zeros;
+        count += other.count;
+    }
+
+    // EFFECTS: returns a new sketch equal to this one
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    // EFFECTS: writes the sketch to out, as read by read
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(zeros);
+        positive.write(out);
+        negative.write(out);
+    }
+
+    // EFFECTS: returns the sketch written to in by write; throws IOException if it cannot be read
+    public static QuantileSketch read(DataInput in) throws IOException {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.zeros = in.readInt();
+        sketch.positive.read(in);
+        sketch.negative.read(in);
+        sketch.count = sketch.zeros + sketch.positive.total() + sketch.negative.total();
+        return sketch;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds n to the count of value's bucket
+    private void update(double value, int n) {
+        double magnitude = Math.abs(value);
+        if (magnitude < MIN_INDEXED) {
+            zeros += n;
+        } else {
+            (value > 0 ? positive : negative).add((int) Math.ceil(Math.log(magnitude) / LOG_GAMMA), n);
+        }
+        count += n;
+    }
+
+    // EFFECTS: returns the number that stands for the bucket at index, which holds the magnitudes above
+    // GAMMA^(index - 1) and up to GAMMA^index
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    // The counts of a run of consecutive buckets, the first at offset
+    private static class Buckets {
+        private int offset;
+        private int[] counts = new int[0];
+
+        // MODIFIES: this
+        // EFFECTS: adds n to the count of the bucket at index, widening the run to reach it
+        void add(int index, int n) {
+            if (counts.length == 0) {
+                offset = index;
+                counts = new int[1];
+            } else if (index < offset) {
+                int[] wider = new int[counts.length + offset - index];
+                System.arraycopy(counts, 0, wider, offset - index, counts.length);
+                counts = wider;
+                offset = index;
+            } else if (index >= offset + counts.length) {
+                counts = Arrays.copyOf(counts, index - offset + 1);
+            }
+            counts[index - offset] += n;
+        }
+
+        // EFFECTS: returns the sum of the counts
+        int total() {
+            int total = 0;
+            for (int c : counts) {
+                total += c;
+            }
+            return total;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeInt(offset);
+            out.writeInt(counts.length);
+            for (int c : counts) {
+                out.writeInt(c);
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: replaces the run with the one written to in; throws IOException if it cannot be read
+        void read(DataInput in) throws IOException {
+            offset = in.readInt();
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Corrupt sketch");
+            }
+            counts = new int[length];
+            for (int i = 0; i < length; i++) {
+                counts[i] = in.readInt();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Helpers for replacing a saved file in one step, so a crash mid-save leaves either the old file or the new one
+final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    // EFFECTS: returns the temporary file a new version of target is written to before it replaces target
+    static Path tempFileFor(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    // MODIFIES: temp, target
+    // EFFECTS: moves the fully written temp over target, atomically where the file system supports it
+    static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package persistence;
+
+import model.cars.Car;
+import model.cars.DriveType;
+
+// Represents the fields of one car record as they are read from a file, before any Car is built from them.
+// A reader reuses one record for every car it reads, so a filter can look at a record without a Car being
+// allocated for it. Fields that were not decoded are null or zero, and a record saved before cars had ids
+// has Car.NO_ID
+public class CarRecord {
+
+    private long id;
+    private String manufacturer;
+    private String model;
+    private int year;
+    private double speed;
+    private double handling;
+    private double acceleration;
+    private double braking;
+    private DriveType driveType;
+    private int price;
+    private String image;
+
+    // getters
+    public long getId() {
+        return id;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public double getHandling() {
+        return handling;
+    }
+
+    public double getAcceleration() {
+        return acceleration;
+    }
+
+    public double getBraking() {
+        return braking;
+    }
+
+    public DriveType getDriveType() {
+        return driveType;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    // setters
+    void setId(long id) {
+        this.id = id;
+    }
+
+    void setManufacturer(String manufacturer) {
+        this.manufacturer = manufacturer;
+    }
+
+    void setModel(String model) {
+        this.model = model;
+    }
+
+    void setYear(int year) {
+        this.year = year;
+    }
+
+    void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    void setHandling(double handling) {
+        this.handling = handling;
+    }
+
+    void setAcceleration(double acceleration) {
+        this.acceleration = acceleration;
+    }
+
+    void setBraking(double braking) {
+        this.braking = braking;
+    }
+
+    void setDriveType(DriveType driveType) {
+        this.driveType = driveType;
+    }
+
+    void setPrice(int price) {
+        this.price = price;
+    }
+
+    void setImage(String image) {
+        this.image = image;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: resets every field to null or zero, ready for the next record
+    void clear() {
+        id = Car.NO_ID;
+        manufacturer = null;
+        model = null;
+        year = 0;
+        speed = 0;
+        handling = 0;
+        acceleration = 0;
+        braking = 0;
+        driveType = null;
+        price = 0;
+        image = null;
+    }
+
+    // EFFECTS: returns a new car with the fields of this record, keeping its id if it has one
+    Car toCar() {
+        if (id == Car.NO_ID) {
+            return new Car(manufacturer, model, year, speed, handling, acceleration, braking, driveType, price,
+                    image);
+        }
+        return new Car(id, manufacturer, model, year, speed, handling, acceleration, braking, driveType, price, image);
+    }
+}
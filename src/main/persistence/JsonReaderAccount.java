@@ -17,6 +17,7 @@ import java.util.stream.Stream;
 public class JsonReaderAccount extends JsonReader {
 
     private String source;
+    private String journalEpoch;
 
     // EFFECTS: constructs reader to read from source file
     public JsonReaderAccount(String source) {
@@ -28,9 +29,15 @@ public class JsonReaderAccount extends JsonReader {
     public AccountWorkRoom read() throws IOException {
         String jsonData = readFile(source);
         JSONObject jsonObject = new JSONObject(jsonData);
+        journalEpoch = jsonObject.optString("journalEpoch", null);
         return parseWorkRoom(jsonObject);
     }
 
+    // EFFECTS: returns the journal epoch recorded in the file last read, or null if it recorded none
+    public String getJournalEpoch() {
+        return journalEpoch;
+    }
+
     // EFFECTS: parses workroom from JSON object and returns it
     private AccountWorkRoom parseWorkRoom(JSONObject jsonObject) {
         AccountWorkRoom wr = new AccountWorkRoom();
@@ -1,55 +1,381 @@
 package persistence;
 
+import model.CatalogOverlay;
 import model.GarageWorkRoom;
 import model.cars.Car;
+import model.cars.CarField;
 import model.cars.DriveType;
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 // Represents a reader that reads workroom from JSON data stored in file
+// The "cars" array is pulled from the file one record at a time into a reused CarRecord, so no JSON
+// object is built for a car. A filter is applied to each record before a Car is built for it, and fields
+// left out of the projection are skipped over in the file without being decoded
 public class JsonReaderGarage extends JsonReader {
 
+    private static final Set<CarField> ALL_FIELDS = EnumSet.allOf(CarField.class);
+    private static final String[] KEYS = {"manufacturer", "model", "year", "speed", "handling", "acceleration",
+            "braking", "driveType", "price", "image", "id"};
+    private static final CarField[] FIELDS = CarField.values();
+    private static final int ID_KEY = FIELDS.length;
+    private static final int OPTIONAL_FIELDS = 1 << CarField.IMAGE.ordinal() | 1 << CarField.DRIVE_TYPE.ordinal();
+
     private String source;
+    private String journalEpoch;
+    private final StringBuilder keyBuffer = new StringBuilder();
 
     // EFFECTS: constructs reader to read from source file
     public JsonReaderGarage(String source) {
         this.source = source;
     }
 
-    // EFFECTS: reads workroom from file and returns it;
-    // throws IOException if an error occurs reading data from file
+    // EFFECTS: reads workroom from file and returns it, bulk-loading the cars so the whole file is
+    // logged as one event; throws IOException if an error occurs reading data from file
     public GarageWorkRoom read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseWorkRoom(jsonObject);
+        return read(record -> true, ALL_FIELDS);
     }
 
-    // EFFECTS: parses workroom from JSON object and returns it
-    private GarageWorkRoom parseWorkRoom(JSONObject jsonObject) {
+    // REQUIRES: fields includes every field filter looks at
+    // EFFECTS: reads workroom from file and returns it with only the cars whose records satisfy filter, each
+    // built from only the given fields; throws IOException if an error occurs reading data from file
+    public GarageWorkRoom read(Predicate<CarRecord> filter, Set<CarField> fields) throws IOException {
+        List<Car> cars = new ArrayList<>();
+        forEachCar(filter, fields, cars::add);
         GarageWorkRoom wr = new GarageWorkRoom();
-        addCars(wr, jsonObject);
+        wr.addAll(cars);
         return wr;
     }
 
-    // MODIFIES: wr
-    // EFFECTS: parses cars from JSON object and adds them to workroom
-    private void addCars(GarageWorkRoom wr, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("cars");
-        for (Object json : jsonArray) {
-            JSONObject nextCar = (JSONObject) json;
-            addCar(wr, nextCar);
+    // EFFECTS: returns the journal epoch recorded in the file last read, or null if it recorded none
+    public String getJournalEpoch() {
+        return journalEpoch;
+    }
+
+    // EFFECTS: passes each car in the file's "cars" array to action, in file order, as soon as its record
+    // has been read; throws IOException if an error occurs reading data from file
+    public void forEachCar(Consumer<Car> action) throws IOException {
+        forEachCar(record -> true, ALL_FIELDS, action);
+    }
+
+    // REQUIRES: fields includes every field filter looks at
+    // EFFECTS: passes a car built from the given fields of each record in the file's "cars" array that
+    // satisfies filter to action, in file order; records that do not satisfy filter never become cars.
+    // Throws IOException if an error occurs reading data from file
+    public void forEachCar(Predicate<CarRecord> filter, Set<CarField> fields, Consumer<Car> action)
+            throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            streamWorkRoom(new JSONTokener(reader), new RecordReader(filter, fields, action), null);
+        }
+    }
+
+    // EFFECTS: reads an overlay saved from a CatalogOverlay and returns it layered over base: the file's
+    // "cars" are listed through the overlay, and each record in its "removed" array takes the base car with
+    // its id off the overlay, or, if the base has no such car with the same specifications, the first base
+    // car with them that is not removed yet. An addition whose id belongs to a different base car is given
+    // a fresh id. A file with no "removed" array was saved as the full list of the user's marketplace and is
+    // migrated by diffing it against base. Throws IOException if an error occurs reading data from file
+    public CatalogOverlay readOverlay(GarageWorkRoom base) throws IOException {
+        List<Car> added = new ArrayList<>();
+        List<Car> removed = new ArrayList<>();
+        boolean hasRemoved;
+        try (Reader reader = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            hasRemoved = streamWorkRoom(new JSONTokener(reader), new RecordReader(record -> true, ALL_FIELDS,
+                    added::add), new RecordReader(record -> true, ALL_FIELDS, removed::add));
+        }
+        if (!hasRemoved) {
+            return migrateFullList(base, added);
+        }
+        CatalogOverlay overlay = new CatalogOverlay(base);
+        overlay.addAll(withoutIdClashes(base, added));
+        for (Car car : removed) {
+            Car match = base.getCar(car.getId());
+            if (match == null || !match.isSameListing(car)) {
+                match = firstRemaining(overlay, car);
+            }
+            if (match != null) {
+                overlay.removeCar(match);
+            }
+        }
+        return overlay;
+    }
+
+    // EFFECTS: returns an overlay over base holding the full list of listings cars: each car of cars that is
+    // a base car, matched by id and specifications or else as the first base car with its specifications not
+    // matched yet, keeps that base car listed; every other car of cars is added, and every base car left
+    // unmatched is removed
+    private CatalogOverlay migrateFullList(GarageWorkRoom base, List<Car> cars) {
+        Set<Car> kept = new HashSet<>();
+        List<Car> added = new ArrayList<>();
+        for (Car car : cars) {
+            Car match = base.getCar(car.getId());
+            if (match == null || !match.isSameListing(car) || kept.contains(match)) {
+                match = firstUnmatched(base, car, kept);
+            }
+            if (match == null) {
+                added.add(car);
+            } else {
+                kept.add(match);
+            }
+        }
+        CatalogOverlay overlay = new CatalogOverlay(base);
+        for (Car c : base.getCars()) {
+            if (!kept.contains(c)) {
+                overlay.removeCar(c);
+            }
+        }
+        overlay.addAll(withoutIdClashes(base, added));
+        return overlay;
+    }
+
+    // EFFECTS: returns cars, with each car whose id belongs to a different base car replaced by a copy with the
+    // next unused id; a base catalog saved without ids has them handed out afresh at every launch, so they
+    // can clash with the ids additions were saved with
+    private List<Car> withoutIdClashes(GarageWorkRoom base, List<Car> cars) {
+        List<Car> distinct = new ArrayList<>(cars.size());
+        for (Car c : cars) {
+            Car clash = base.getCar(c.getId());
+            if (clash != null && !clash.isSameListing(c)) {
+                c = new Car(c.getManufacturer(), c.getModel(), c.getYear(), c.getSpeed(), c.getHandling(),
+                        c.getAcceleration(), c.getBraking(), c.getDriveType(), c.getPrice(), c.getImage());
+            }
+            distinct.add(c);
+        }
+        return distinct;
+    }
+
+    // EFFECTS: returns the first car of base with the same specifications as car that is not in matched, or
+    // null if there is none
+    private Car firstUnmatched(GarageWorkRoom base, Car car, Set<Car> matched) {
+        for (Car c : base.getCars()) {
+            if (c.isSameListing(car) && !matched.contains(c)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    // EFFECTS: returns the first base car of overlay with the same specifications as car that is not removed
+    // yet, or null if there is none; used for records saved before cars had ids, or whose base catalog
+    // assigned its ids afresh
+    private Car firstRemaining(CatalogOverlay overlay, Car car) {
+        for (Car c : overlay.getBase().getCars()) {
+            if (c.isSameListing(car) && !overlay.getRemoved().contains(c)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: walks the top-level JSON object, streaming the records of its "cars" array to action and,
+    // if removed is not null, those of its "removed" array to removed, and noting its journal epoch, skipping
+    // any other members; returns true if it has a "removed" array. Throws JSONException if there is no
+    // "cars" array
+    private boolean streamWorkRoom(JSONTokener tokener, RecordReader action, RecordReader removed) {
+        Set<String> keys = new HashSet<>();
+        journalEpoch = null;
+        expect(tokener, '{');
+        if (!isClosed(tokener, '}')) {
+            do {
+                String key = nextKey(tokener);
+                expect(tokener, ':');
+                keys.add(key);
+                streamMember(tokener, key, action, removed);
+            } while (hasNext(tokener, '}'));
+        }
+        if (!keys.contains("cars")) {
+            throw new JSONException("JSONObject[\"cars\"] not found.");
+        }
+        return keys.contains("removed");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the value of the member named key, streaming the records of a "cars" array to action and,
+    // if removed is not null, those of a "removed" array to removed, noting a journal epoch, and skipping
+    // any other value
+    private void streamMember(JSONTokener tokener, String key, RecordReader action, RecordReader removed) {
+        if (key.equals("cars")) {
+            streamCars(tokener, action);
+        } else if (removed != null && key.equals("removed")) {
+            streamCars(tokener, removed);
+        } else if (key.equals("journalEpoch")) {
+            journalEpoch = epochOf(tokener.nextValue());
+        } else {
+            tokener.nextValue();
+        }
+    }
+
+    // EFFECTS: returns the journal epoch a "journalEpoch" member with the given value records, or null if the
+    // value is not a string
+    private static String epochOf(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    // EFFECTS: reads the "cars" array one record at a time, passing each record to action
+    private void streamCars(JSONTokener tokener, RecordReader action) {
+        expect(tokener, '[');
+        if (isClosed(tokener, ']')) {
+            return;
+        }
+        do {
+            action.read(tokener);
+        } while (hasNext(tokener, ']'));
+    }
+
+    // Reads car records into one reused CarRecord, passing a car for each record that satisfies the filter
+    // to the action
+    private class RecordReader {
+        private final Predicate<CarRecord> filter;
+        private final Consumer<Car> action;
+        private final int projected;
+        private final CarRecord record = new CarRecord();
+
+        RecordReader(Predicate<CarRecord> filter, Set<CarField> fields, Consumer<Car> action) {
+            this.filter = filter;
+            this.action = action;
+            int mask = 0;
+            for (CarField field : fields) {
+                mask |= 1 << field.ordinal();
+            }
+            this.projected = mask;
+        }
+
+        // EFFECTS: reads the next record, decoding its id and only projected fields, and passes it on as a car
+        // if it satisfies the filter; throws JSONException if the record is not a car object or lacks a
+        // projected field other than the image or drive type, which a car may be saved without
+        void read(JSONTokener tokener) {
+            if (tokener.nextClean() != '{') {
+                throw tokener.syntaxError("Expected a car object");
+            }
+            record.clear();
+            int found = 0;
+            if (!isClosed(tokener, '}')) {
+                do {
+                    found |= readMember(tokener);
+                } while (hasNext(tokener, '}'));
+            }
+            int missing = projected & ~found & ~OPTIONAL_FIELDS;
+            if (missing != 0) {
+                throw new JSONException("JSONObject[\"" + KEYS[Integer.numberOfTrailingZeros(missing)]
+                        + "\"] not found.");
+            }
+            if (filter.test(record)) {
+                action.accept(record.toCar());
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: reads the next member of a record, decoding it into the record if it is the id or a projected
+        // field and skipping it otherwise; returns the bit of the projected field it decoded, or 0 if none
+        private int readMember(JSONTokener tokener) {
+            int key = nextCarKey(tokener);
+            expect(tokener, ':');
+            if (key == ID_KEY) {
+                record.setId(toId(tokener.nextValue()));
+            } else if (key >= 0 && (projected & (1 << key)) != 0) {
+                decode(FIELDS[key], tokener.nextValue());
+                return 1 << key;
+            } else {
+                skipValue(tokener);
+            }
+            return 0;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: stores the decoded value of field in the record
+        private void decode(CarField field, Object value) {
+            switch (field) {
+                case MANUFACTURER: record.setManufacturer(toStringValue(field, value));
+                    break;
+                case MODEL: record.setModel(toStringValue(field, value));
+                    break;
+                case YEAR: record.setYear((int) toNumber(field, value));
+                    break;
+                case SPEED: record.setSpeed(toNumber(field, value));
+                    break;
+                case HANDLING: record.setHandling(toNumber(field, value));
+                    break;
+                case ACCELERATION: record.setAcceleration(toNumber(field, value));
+                    break;
+                case BRAKING: record.setBraking(toNumber(field, value));
+                    break;
+                case DRIVE_TYPE: record.setDriveType(JSONObject.NULL.equals(value) ? null
+                        : DriveType.valueOf(toStringValue(field, value)));
+                    break;
+                case PRICE: record.setPrice((int) toNumber(field, value));
+                    break;
+                default: record.setImage(JSONObject.NULL.equals(value) ? null : value.toString());
+            }
+        }
+    }
+
+    // EFFECTS: returns value as a string; throws JSONException if it is not one
+    private static String toStringValue(CarField field, Object value) {
+        if (value instanceof String) {
+            return (String) value;
         }
+        throw new JSONException("JSONObject[\"" + KEYS[field.ordinal()] + "\"] is not a string.");
     }
 
-    // MODIFIES: wr
-    // EFFECTS: parses car from JSON object and adds it to workroom
-    private void addCar(GarageWorkRoom wr, JSONObject jsonObject) {
+    // EFFECTS: returns value as a car id; throws JSONException if it is not a positive whole number
+    private static long toId(Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            long id = ((Number) value).longValue();
+            if (id > Car.NO_ID) {
+                return id;
+            }
+        }
+        throw new JSONException("JSONObject[\"id\"] is not a car id.");
+    }
+
+    // EFFECTS: returns value as a number, parsing it if it is a string; throws JSONException if it is
+    // neither a number nor a string holding one
+    private static double toNumber(CarField field, Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            if (value instanceof String) {
+                return Double.parseDouble((String) value);
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new JSONException("JSONObject[\"" + KEYS[field.ordinal()] + "\"] is not a number.");
+    }
+
+    // EFFECTS: returns the cars of text, a run of car records separated by commas as in a "cars" array, in
+    // order, each read the same way as a record streamed from a file; throws JSONException if text is not
+    // such a run of records
+    static List<Car> parseRecords(String text) {
+        List<Car> cars = new ArrayList<>();
+        JsonReaderGarage reader = new JsonReaderGarage(null);
+        RecordReader records = reader.new RecordReader(record -> true, ALL_FIELDS, cars::add);
+        JSONTokener tokener = new JSONTokener(text);
+        do {
+            records.read(tokener);
+        } while (reader.hasNext(tokener, (char) 0));
+        return cars;
+    }
+
+    // EFFECTS: parses car from JSON object and returns it; a car saved without an image or drive type has a
+    // null one, and one saved without an id is given a new one
+    static Car parseCar(JSONObject jsonObject) {
         String manufacturer = jsonObject.getString("manufacturer");
         String model = jsonObject.getString("model");
         int year = jsonObject.getInt("year");
@@ -57,11 +383,121 @@ public class JsonReaderGarage extends JsonReader {
         double handling = jsonObject.getDouble("handling");
         double acceleration = jsonObject.getDouble("acceleration");
         double braking = jsonObject.getDouble("braking");
-        DriveType driveType = DriveType.valueOf(jsonObject.getString("driveType"));
+        DriveType driveType = jsonObject.has("driveType") ? DriveType.valueOf(jsonObject.getString("driveType"))
+                : null;
         int price = jsonObject.getInt("price");
-        String image = jsonObject.getString("image");
-        Car car = new Car(manufacturer, model, year, speed, handling, acceleration, braking, driveType, price, image);
-        wr.addCar(car);
+        String image = jsonObject.optString("image", null);
+        if (!jsonObject.has("id")) {
+            return new Car(manufacturer, model, year, speed, handling, acceleration, braking, driveType, price,
+                    image);
+        }
+        return new Car(toId(jsonObject.get("id")), manufacturer, model, year, speed, handling, acceleration,
+                braking, driveType, price, image);
+    }
+
+    // EFFECTS: consumes the next non-whitespace character; throws JSONException if it is not expected
+    private void expect(JSONTokener tokener, char expected) {
+        if (tokener.nextClean() != expected) {
+            throw tokener.syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    // EFFECTS: returns true and consumes closing if the enclosing object or array is empty,
+    // otherwise leaves the tokener where it was and returns false
+    private boolean isClosed(JSONTokener tokener, char closing) {
+        if (tokener.nextClean() == closing) {
+            return true;
+        }
+        tokener.back();
+        return false;
+    }
+
+    // EFFECTS: consumes the separator after a member or element; returns true if another one follows
+    // and false if closing ends the enclosing object or array
+    private boolean hasNext(JSONTokener tokener, char closing) {
+        char c = tokener.nextClean();
+        if (c == ',') {
+            return true;
+        } else if (c == closing) {
+            return false;
+        }
+        throw tokener.syntaxError("Expected ',' or '" + closing + "'");
+    }
+
+    // EFFECTS: reads the next quoted member name
+    private String nextKey(JSONTokener tokener) {
+        if (tokener.nextClean() != '"') {
+            throw tokener.syntaxError("Expected a quoted key");
+        }
+        return tokener.nextString('"');
+    }
+
+    // EFFECTS: reads the next quoted member name of a car record without allocating a string for it;
+    // returns the ordinal of the field it names, ID_KEY if it is the car's id, or -1 if it is neither
+    private int nextCarKey(JSONTokener tokener) {
+        if (tokener.nextClean() != '"') {
+            throw tokener.syntaxError("Expected a quoted key");
+        }
+        keyBuffer.setLength(0);
+        for (char c = tokener.next(); c != '"'; c = tokener.next()) {
+            if (c == 0 || c == '\n' || c == '\r') {
+                throw tokener.syntaxError("Unterminated string");
+            }
+            keyBuffer.append(c == '\\' ? tokener.next() : c);
+        }
+        for (int i = 0; i < KEYS.length; i++) {
+            if (KEYS[i].contentEquals(keyBuffer)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: moves past the next value without decoding it
+    private void skipValue(JSONTokener tokener) {
+        char c = tokener.nextClean();
+        if (c == '"' || c == '\'') {
+            skipString(tokener, c);
+        } else if (c == '{' || c == '[') {
+            skipContainer(tokener);
+        } else if (c == 0 || ",:}]".indexOf(c) >= 0) {
+            throw tokener.syntaxError("Missing value");
+        } else {
+            while (c != 0 && ",}] \t\r\n".indexOf(c) < 0) {
+                c = tokener.next();
+            }
+            tokener.back();
+        }
+    }
+
+    // EFFECTS: moves past the rest of an object or array whose opening bracket was just read, along with every
+    // object, array and string nested in it
+    private void skipContainer(JSONTokener tokener) {
+        int depth = 1;
+        while (depth > 0) {
+            char c = tokener.next();
+            if (c == 0) {
+                throw tokener.syntaxError("Unterminated value");
+            } else if (c == '"' || c == '\'') {
+                skipString(tokener, c);
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        }
+    }
+
+    // EFFECTS: moves past the rest of a string whose opening quote was just read
+    private void skipString(JSONTokener tokener, char quote) {
+        for (char c = tokener.next(); c != quote; c = tokener.next()) {
+            if (c == 0 || c == '\n' || c == '\r') {
+                throw tokener.syntaxError("Unterminated string");
+            }
+            if (c == '\\') {
+                tokener.next();
+            }
+        }
     }
 
 }
@@ -0,0 +1,135 @@
+package persistence;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Represents a writer that emits JSON tokens straight to an output writer as they are produced, so a
+// document can be written without first building it as JSONObjects or rendering it to a String
+public class JsonStreamWriter {
+
+    private Writer out;
+    private int indentFactor;
+    private int depth;
+    private boolean isFirst;
+    private boolean isAfterName;
+
+    // EFFECTS: constructs a stream writer to out that indents nested members by indentFactor spaces,
+    // or writes no whitespace at all if indentFactor is 0
+    public JsonStreamWriter(Writer out, int indentFactor) {
+        this.out = out;
+        this.indentFactor = indentFactor;
+        this.isFirst = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a JSON object
+    public void beginObject() throws IOException {
+        open('{');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the current JSON object
+    public void endObject() throws IOException {
+        close('}');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a JSON array
+    public void beginArray() throws IOException {
+        open('[');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the current JSON array
+    public void endArray() throws IOException {
+        close(']');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the name of the next member of the current object
+    public void name(String name) throws IOException {
+        beforeValue();
+        JSONObject.quote(name, out);
+        out.write(indentFactor > 0 ? ": " : ":");
+        isAfterName = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a string member of the current object; null is written as JSON null
+    public void member(String name, String value) throws IOException {
+        name(name);
+        beforeValue();
+        if (value == null) {
+            out.write("null");
+        } else {
+            JSONObject.quote(value, out);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes an integer member of the current object
+    public void member(String name, long value) throws IOException {
+        name(name);
+        beforeValue();
+        out.write(Long.toString(value));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a number member of the current object in the same form JSONObject uses, so 9.0 is
+    // written as 9; throws JSONException if value is not finite
+    public void member(String name, double value) throws IOException {
+        String number = JSONObject.numberToString(value);
+        name(name);
+        beforeValue();
+        out.write(number);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the opening bracket of a new object or array
+    private void open(char bracket) throws IOException {
+        beforeValue();
+        out.write(bracket);
+        depth++;
+        isFirst = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the closing bracket of the current object or array, on its own line if it is not empty
+    private void close(char bracket) throws IOException {
+        depth--;
+        if (!isFirst) {
+            newLine();
+        }
+        out.write(bracket);
+        isFirst = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the separator that comes before a value, unless the value follows its member name
+    private void beforeValue() throws IOException {
+        if (isAfterName) {
+            isAfterName = false;
+            return;
+        }
+        if (!isFirst) {
+            out.write(',');
+        }
+        if (depth > 0) {
+            newLine();
+        }
+        isFirst = false;
+    }
+
+    // EFFECTS: starts a new line indented to the current depth, if this writer indents
+    private void newLine() throws IOException {
+        if (indentFactor == 0) {
+            return;
+        }
+        out.write('\n');
+        for (int i = 0; i < depth * indentFactor; i++) {
+            out.write(' ');
+        }
+    }
+}
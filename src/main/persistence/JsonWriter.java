@@ -1,36 +1,131 @@
 package persistence;
 
-import java.io.File;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
-public abstract class JsonWriter {
+// Represents a writer that saves JSON to a destination file without ever leaving it half written:
+// the JSON is written through a buffered FileChannel to a temporary file next to the destination,
+// forced to disk, and then moved over the destination in one step. Closing the writer saves what was
+// written; a save that fails part way is aborted instead, which deletes the temporary file, so callers
+// abort in a finally block after closing, which does nothing once the writer has been closed
+public abstract class JsonWriter implements AutoCloseable {
 
     protected static final int TAB = 4;
-    protected PrintWriter writer;
+    protected static final String JOURNAL_EPOCH = "journalEpoch";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected Writer writer;
     protected String destination;
 
+    private boolean compact;
+    private FileChannel channel;
+    private Path target;
+    private Path temp;
+
     public JsonWriter(String destination) {
+        this(destination, false);
+    }
+
+    // EFFECTS: constructs a writer to destination that writes JSON without whitespace if compact,
+    // and indented by TAB otherwise
+    public JsonWriter(String destination, boolean compact) {
         this.destination = destination;
+        this.compact = compact;
     }
 
     // MODIFIES: this
-    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
-    // be opened for writing
-    public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+    // EFFECTS: opens writer on a temporary file next to destination; throws FileNotFoundException if
+    // destination is not a valid path and IOException if the temporary file cannot be opened for writing
+    public void open() throws IOException {
+        try {
+            target = Paths.get(destination);
+        } catch (InvalidPathException e) {
+            throw new FileNotFoundException(destination + " (" + e.getReason() + ")");
+        }
+        temp = AtomicFiles.tempFileFor(target);
+        channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE),
+                BUFFER_SIZE);
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
-    public void close() {
-        writer.close();
+    // EFFECTS: flushes and forces everything written to disk, closes writer, then replaces destination with
+    // what was written; does nothing if writer is not open. Throws IOException if any of this fails, in which
+    // case the temporary file is deleted and destination is left untouched
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            channel.force(true);
+            writer.close();
+            AtomicFiles.moveIntoPlace(temp, target);
+        } finally {
+            abort();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes writer and deletes the temporary file without saving anything to destination, which
+    // is left untouched; does nothing if writer is not open, as after it has been closed
+    public void abort() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // the temporary file is discarded either way
+        }
+        try {
+            channel.close();
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            // a temporary file that cannot be deleted is truncated by the next open
+        }
+        channel = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: streams the JSON representation of data to file without building it as JSON objects first,
+    // compactly or indented depending on how this writer was constructed
+    protected void streamToFile(StreamWriteable data) throws IOException {
+        data.writeJson(streamWriter());
+    }
+
+    // EFFECTS: returns a stream writer to file, writing compactly or indented depending on how this writer
+    // was constructed
+    protected JsonStreamWriter streamWriter() {
+        return new JsonStreamWriter(writer, compact ? 0 : TAB);
     }
 
     // MODIFIES: this
-    // EFFECTS: writes string to file
-    protected void saveToFile(String json) {
-        writer.print(json);
+    // EFFECTS: writes json to file, compactly or indented depending on how this writer was constructed
+    protected void saveToFile(JSONObject json) throws IOException {
+        try {
+            json.write(writer, compact ? 0 : TAB, 0);
+        } catch (JSONException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
     }
 
 }
@@ -1,9 +1,10 @@
 package persistence;
 
 import model.AccountWorkRoom;
-import model.GarageWorkRoom;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class JsonWriterAccount extends JsonWriter {
 
     // EFFECTS: constructs writer to write to destination file
@@ -13,8 +14,15 @@ public class JsonWriterAccount extends JsonWriter {
 
     // MODIFIES: this
     // EFFECTS: writes JSON representation of workroom to file
-    public void write(AccountWorkRoom wr) {
+    public void write(AccountWorkRoom wr) throws IOException {
+        saveToFile(wr.toJson());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes JSON representation of workroom to file as the snapshot of the journal epoch given
+    public void write(AccountWorkRoom wr, String journalEpoch) throws IOException {
         JSONObject json = wr.toJson();
-        saveToFile(json.toString(TAB));
+        json.put(JOURNAL_EPOCH, journalEpoch);
+        saveToFile(json);
     }
 }
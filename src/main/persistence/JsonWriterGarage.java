@@ -1,11 +1,8 @@
 package persistence;
 
 import model.GarageWorkRoom;
-import org.json.JSONObject;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.IOException;
 
 // Represents a writer that writes JSON representation of workroom to file
 public class JsonWriterGarage extends JsonWriter {
@@ -15,10 +12,25 @@ public class JsonWriterGarage extends JsonWriter {
         super(destination);
     }
 
+    // EFFECTS: constructs writer to write to destination file, without whitespace if compact
+    public JsonWriterGarage(String destination, boolean compact) {
+        super(destination, compact);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes JSON representation of workroom to file, streaming it one car at a time
+    public void write(GarageWorkRoom wr) throws IOException {
+        streamToFile(wr);
+    }
+
     // MODIFIES: this
-    // EFFECTS: writes JSON representation of workroom to file
-    public void write(GarageWorkRoom wr) {
-        JSONObject json = wr.toJson();
-        saveToFile(json.toString(TAB));
+    // EFFECTS: writes JSON representation of workroom to file as the snapshot of the journal epoch given,
+    // streaming it one car at a time
+    public void write(GarageWorkRoom wr, String journalEpoch) throws IOException {
+        JsonStreamWriter out = streamWriter();
+        out.beginObject();
+        out.member(JOURNAL_EPOCH, journalEpoch);
+        wr.writeMembers(out);
+        out.endObject();
     }
 }
@@ -0,0 +1,317 @@
+package persistence;
+
+import exceptions.IllegalAccountBalanceException;
+import model.AccountWorkRoom;
+import model.GarageWorkRoom;
+import model.cars.Car;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents an append-only journal of the mutations made to one saved file since that file was last
+// written in full. Each mutation is one line of JSON appended to the journal, so recording it costs a
+// small sequential write no matter how large the saved file is. Loading replays the journal on top of
+// the saved file; compacting writes a new full snapshot and starts an empty journal, and discarding drops
+// the mutations the user chose not to save.
+//
+// Compaction first moves the journal aside to a ".compacting" segment, so new mutations can keep being
+// appended while the snapshot is written on a background thread. The segment is deleted once the
+// snapshot has been written, and replayed before the journal if the snapshot never finished.
+//
+// Each compaction ends the journal with a marker line naming a fresh epoch before moving it aside, and its
+// snapshot records that epoch. A crash after the snapshot is in place but before the segment is deleted
+// leaves entries the snapshot already holds, so replaying skips every entry up to the marker of the
+// snapshot's epoch. The journal is renamed to the segment in one step if there is no segment yet; otherwise
+// both are merged into a new segment that replaces the old one in one step before the journal is deleted,
+// and a journal left behind by a crash in between is recognised by its marker, already in the segment, and
+// only its entries after that marker are kept.
+public class MutationJournal {
+
+    // The kinds of mutation recorded in a journal
+    public enum Mutation {
+        LISTING_ADDED, LISTING_REMOVED, CAR_BOUGHT, REFUND, BALANCE_SET
+    }
+
+    // Writes the full snapshot a journal is being compacted into
+    public interface Compaction {
+        // EFFECTS: writes the snapshot, recording epoch in it; throws IOException if it cannot be written
+        void writeSnapshot(String epoch) throws IOException;
+    }
+
+    private static final String EPOCH = "epoch";
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Path journal;
+    private Path compacting;
+    private int numEntries;
+    private Future<?> pendingCompaction;
+
+    // EFFECTS: constructs a journal stored in the destination file
+    public MutationJournal(String destination) {
+        journal = Paths.get(destination);
+        compacting = Paths.get(destination + ".compacting");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends a mutation of a listing or garage car to the journal;
+    // throws IOException if it cannot be written
+    public synchronized void append(Mutation mutation, Car car) throws IOException {
+        JSONObject entry = new JSONObject();
+        entry.put("op", mutation.name());
+        entry.put("car", car.toJson());
+        appendEntry(entry);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends a mutation that left the account with the given balance to the journal;
+    // throws IOException if it cannot be written
+    public synchronized void append(Mutation mutation, double balance) throws IOException {
+        JSONObject entry = new JSONObject();
+        entry.put("op", mutation.name());
+        entry.put("balance", balance);
+        appendEntry(entry);
+    }
+
+    // EFFECTS: returns the number of entries appended since this journal was last compacted
+    public synchronized int size() {
+        return numEntries;
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: applies every listing and garage mutation in the journal to wr, oldest first;
+    // throws IOException if the journal cannot be read
+    public void replay(GarageWorkRoom wr) throws IOException {
+        replay(wr, null);
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: applies the listing and garage mutations in the journal to wr, oldest first, skipping those
+    // already held by a snapshot recording appliedEpoch (null if it records none). Each run of added cars is
+    // added as one batch, logging a single event rather than one per car;
+    // throws IOException if the journal cannot be read
+    public void replay(GarageWorkRoom wr, String appliedEpoch) throws IOException {
+        List<Car> added = new ArrayList<>();
+        for (JSONObject entry : entries(appliedEpoch)) {
+            Mutation mutation = Mutation.valueOf(entry.getString("op"));
+            Car car = JsonReaderGarage.parseCar(entry.getJSONObject("car"));
+            if (mutation == Mutation.LISTING_ADDED || mutation == Mutation.CAR_BOUGHT) {
+                added.add(car);
+            } else {
+                addReplayed(wr, added);
+                removeMatching(wr, car);
+            }
+        }
+        addReplayed(wr, added);
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: applies every balance recorded in the journal to wr, oldest first;
+    // throws IOException if the journal cannot be read or records a negative balance
+    public void replay(AccountWorkRoom wr) throws IOException {
+        replay(wr, null);
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: applies the balances recorded in the journal to wr, oldest first, skipping those already held
+    // by a snapshot recording appliedEpoch (null if it records none);
+    // throws IOException if the journal cannot be read or records a negative balance
+    public void replay(AccountWorkRoom wr, String appliedEpoch) throws IOException {
+        try {
+            for (JSONObject entry : entries(appliedEpoch)) {
+                wr.setBalance(entry.getDouble("balance"));
+            }
+        } catch (IllegalAccountBalanceException e) {
+            throw new IOException("Negative balance in journal: " + journal);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards every entry appended since the journal was last compacted, after any pending
+    // compaction has finished, so that changes the user chose not to save are not replayed on the next load;
+    // throws IOException if the journal cannot be deleted
+    public synchronized void discard() throws IOException {
+        awaitPendingCompaction();
+        Files.deleteIfExists(journal);
+        numEntries = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the current journal aside, ended by the marker of a fresh epoch, and writes a full
+    // snapshot recording that epoch with compaction on a background thread, after any earlier compaction has
+    // finished; the moved-aside entries are discarded once the snapshot is written. Returns the pending
+    // compaction
+    public synchronized Future<?> compact(Compaction compaction) throws IOException {
+        awaitPendingCompaction();
+        String epoch = UUID.randomUUID().toString();
+        JSONObject marker = new JSONObject();
+        marker.put(EPOCH, epoch);
+        appendLine(marker);
+        if (Files.exists(compacting)) {
+            List<JSONObject> merged = readSegment(compacting);
+            merged.addAll(unmoved(readSegment(journal), merged));
+            Path temp = AtomicFiles.tempFileFor(compacting);
+            writeSegment(temp, merged);
+            AtomicFiles.moveIntoPlace(temp, compacting);
+            Files.delete(journal);
+        } else {
+            AtomicFiles.moveIntoPlace(journal, compacting);
+        }
+        numEntries = 0;
+        pendingCompaction = COMPACTOR.submit(() -> {
+            compaction.writeSnapshot(epoch);
+            Files.deleteIfExists(compacting);
+            return null;
+        });
+        return pendingCompaction;
+    }
+
+    // EFFECTS: waits for the pending compaction, if any, to finish; a compaction that failed leaves its
+    // segment in place to be replayed, so its failure is not rethrown here
+    private void awaitPendingCompaction() {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (ExecutionException e) {
+            // segment kept for the next compaction or replay
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends entry to the journal as one line of JSON
+    private void appendEntry(JSONObject entry) throws IOException {
+        appendLine(entry);
+        numEntries++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends line to the journal as one line of JSON
+    private void appendLine(JSONObject line) throws IOException {
+        Files.write(journal, (line.toString() + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    // EFFECTS: writes lines to file, one line of JSON each, and forces them to disk
+    private void writeSegment(Path file, List<JSONObject> lines) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (JSONObject line : lines) {
+            text.append(line).append('\n');
+        }
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+    }
+
+    // EFFECTS: returns the entries of the compacting segment followed by those of the journal not already
+    // merged into it, leaving out epoch markers and, if the segment holds the marker of appliedEpoch, every
+    // entry before it; a final line left incomplete by a crash mid-append is ignored. Throws IOException if
+    // any other line is not JSON
+    private List<JSONObject> entries(String appliedEpoch) throws IOException {
+        List<JSONObject> lines = readSegment(compacting);
+        lines.addAll(unmoved(readSegment(journal), lines));
+        List<JSONObject> entries = new ArrayList<>();
+        for (JSONObject line : lines) {
+            if (!line.has(EPOCH)) {
+                entries.add(line);
+            } else if (line.getString(EPOCH).equals(appliedEpoch)) {
+                entries.clear();
+            }
+        }
+        return entries;
+    }
+
+    // EFFECTS: returns the lines of the journal that were not moved into a segment holding the given lines:
+    // all of them, unless the journal holds the marker of an epoch the segment holds too, as it does when a
+    // crash left it behind after it was merged into the segment, in which case only those after that marker
+    private List<JSONObject> unmoved(List<JSONObject> journalLines, List<JSONObject> segmentLines) {
+        Set<String> moved = new HashSet<>();
+        for (JSONObject line : segmentLines) {
+            if (line.has(EPOCH)) {
+                moved.add(line.getString(EPOCH));
+            }
+        }
+        int from = 0;
+        for (int i = 0; i < journalLines.size(); i++) {
+            if (journalLines.get(i).has(EPOCH) && moved.contains(journalLines.get(i).getString(EPOCH))) {
+                from = i + 1;
+            }
+        }
+        return journalLines.subList(from, journalLines.size());
+    }
+
+    // EFFECTS: returns the lines of segment as JSON, or none if it does not exist; a final line left
+    // incomplete by a crash mid-append is ignored. Throws IOException if any other line is not JSON
+    private List<JSONObject> readSegment(Path segment) throws IOException {
+        List<JSONObject> parsed = new ArrayList<>();
+        if (!Files.exists(segment)) {
+            return parsed;
+        }
+        List<String> lines = Files.readAllLines(segment, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            JSONObject line = parseLine(segment, lines, i);
+            if (line != null) {
+                parsed.add(line);
+            }
+        }
+        return parsed;
+    }
+
+    // EFFECTS: returns line i of the lines of segment as JSON, or null if it is the last line and was left
+    // incomplete by a crash mid-append; throws IOException if any other line is not JSON
+    private JSONObject parseLine(Path segment, List<String> lines, int i) throws IOException {
+        try {
+            return new JSONObject(lines.get(i));
+        } catch (JSONException e) {
+            if (i < lines.size() - 1) {
+                throw new IOException("Corrupt journal entry in " + segment, e);
+            }
+            return null;
+        }
+    }
+
+    // MODIFIES: wr, added
+    // EFFECTS: adds the replayed cars in added to wr as one batch and empties added
+    private void addReplayed(GarageWorkRoom wr, List<Car> added) {
+        wr.addAll(added, "Replayed " + added.size() + " cars from journal");
+        added.clear();
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: removes the car in wr with car's id if it has the same specifications, found in constant time;
+    // otherwise, as for entries written before cars had ids, removes the first car in wr with the same
+    // specifications as car, if there is one
+    private void removeMatching(GarageWorkRoom wr, Car car) {
+        Car match = wr.getCar(car.getId());
+        if (match != null && match.isSameListing(car)) {
+            wr.removeCar(match);
+            return;
+        }
+        for (Car c : wr.getCars()) {
+            if (c.isSameListing(car)) {
+                wr.removeCar(c);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package persistence;
+
+import model.GarageWorkRoom;
+import model.cars.Car;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Represents a reader that reads workroom from JSON data stored in file, parsing the "cars" array on
+// several threads. One pass over the text finds where each car record starts and ends; the records are
+// then split into chunks that are parsed in parallel on a ForkJoinPool, each with the same record reader as
+// JsonReaderGarage, and joined back in file order
+public class ParallelJsonReaderGarage extends JsonReader {
+
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private String source;
+    private int parallelism;
+
+    // EFFECTS: constructs reader to read from source file using one thread per available processor
+    public ParallelJsonReaderGarage(String source) {
+        this(source, Runtime.getRuntime().availableProcessors());
+    }
+
+    // REQUIRES: parallelism > 0
+    // EFFECTS: constructs reader to read from source file using parallelism threads
+    public ParallelJsonReaderGarage(String source, int parallelism) {
+        this.source = source;
+        this.parallelism = parallelism;
+    }
+
+    // EFFECTS: reads workroom from file and returns it;
+    // throws IOException if an error occurs reading data from file
+    public GarageWorkRoom read() throws IOException {
+        return parse(new String(Files.readAllBytes(Paths.get(source)), StandardCharsets.UTF_8));
+    }
+
+    // EFFECTS: parses workroom from the JSON text of a whole workroom and returns it, with its cars in the
+    // order they appear in json; throws JSONException if json is not a workroom
+    public GarageWorkRoom parse(String json) {
+        RecordBoundaries records = new RecordBoundaries(json);
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, records.size() / (parallelism * CHUNKS_PER_THREAD));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            GarageWorkRoom wr = new GarageWorkRoom();
+            wr.addAll(pool.invoke(new ParseChunk(json, records, 0, records.size(), chunkSize)));
+            return wr;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Parses the car records with indexes lo (inclusive) to hi (exclusive), splitting the range in half
+    // until it is no bigger than chunkSize
+    private static class ParseChunk extends RecursiveTask<List<Car>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String json;
+        private final RecordBoundaries records;
+        private final int lo;
+        private final int hi;
+        private final int chunkSize;
+
+        ParseChunk(String json, RecordBoundaries records, int lo, int hi, int chunkSize) {
+            this.json = json;
+            this.records = records;
+            this.lo = lo;
+            this.hi = hi;
+            this.chunkSize = chunkSize;
+        }
+
+        // EFFECTS: returns the parsed cars of this chunk, in file order, each read by the streaming record
+        // reader of JsonReaderGarage so both readers accept the same files
+        @Override
+        protected List<Car> compute() {
+            if (lo == hi) {
+                return new ArrayList<>();
+            } else if (hi - lo <= chunkSize) {
+                return JsonReaderGarage.parseRecords(json.substring(records.start(lo), records.end(hi - 1)));
+            }
+            int mid = (lo + hi) >>> 1;
+            ParseChunk left = new ParseChunk(json, records, lo, mid, chunkSize);
+            left.fork();
+            List<Car> right = new ParseChunk(json, records, mid, hi, chunkSize).compute();
+            List<Car> cars = left.join();
+            cars.addAll(right);
+            return cars;
+        }
+    }
+
+    // Represents where each record of the "cars" array starts and ends in the JSON text of a workroom
+    private static class RecordBoundaries {
+        private final String json;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int size;
+        private int pos;
+
+        // EFFECTS: scans json once for the records of its top-level "cars" array;
+        // throws JSONException if json is not an object with a "cars" array of objects
+        RecordBoundaries(String json) {
+            this.json = json;
+            findCarsArray();
+            scanRecords();
+        }
+
+        int size() {
+            return size;
+        }
+
+        int start(int i) {
+            return starts[i];
+        }
+
+        int end(int i) {
+            return ends[i];
+        }
+
+        // MODIFIES: this
+        // EFFECTS: moves past the '[' that opens the value of the top-level "cars" member
+        private void findCarsArray() {
+            expect('{');
+            while (nextClean() == '"') {
+                String key = json.substring(pos, skipString());
+                expect(':');
+                if (key.equals("cars")) {
+                    expect('[');
+                    return;
+                }
+                skipValue();
+                if (nextClean() != ',') {
+                    break;
+                }
+            }
+            throw new JSONException("JSONObject[\"cars\"] not found.");
+        }
+
+        // MODIFIES: this
+        // EFFECTS: records the start and end of each object in the array up to its closing ']'
+        private void scanRecords() {
+            if (nextClean() == ']') {
+                return;
+            }
+            pos--;
+            do {
+                if (nextClean() != '{') {
+                    throw syntaxError("Expected a car object");
+                }
+                pos--;
+                int start = pos;
+                skipValue();
+                add(start, pos);
+            } while (nextClean() == ',');
+            pos--;
+            expect(']');
+        }
+
+        // MODIFIES: this
+        // EFFECTS: moves past the object, array, string or literal that starts at the next non-space character
+        private void skipValue() {
+            char c = nextClean();
+            if (c == '"') {
+                skipString();
+                return;
+            }
+            int depth = (c == '{' || c == '[') ? 1 : 0;
+            while (pos < json.length() && depth > 0) {
+                c = json.charAt(pos++);
+                if (c == '"') {
+                    skipString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            }
+            while (depth == 0 && pos < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos)) < 0) {
+                pos++;
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: moves past the rest of a string whose opening quote was just read; returns the index of
+        // its closing quote
+        private int skipString() {
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (c == '\\') {
+                    pos++;
+                } else if (c == '"') {
+                    return pos - 1;
+                }
+            }
+            throw syntaxError("Unterminated string");
+        }
+
+        // MODIFIES: this
+        // EFFECTS: records a record from start (inclusive) to end (exclusive)
+        private void add(int start, int end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns the next non-whitespace character, or 0 at the end of the text
+        private char nextClean() {
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (!Character.isWhitespace(c)) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: consumes the next non-whitespace character; throws JSONException if it is not expected
+        private void expect(char expected) {
+            if (nextClean() != expected) {
+                throw syntaxError("Expected '" + expected + "'");
+            }
+        }
+
+        // EFFECTS: returns an exception describing a syntax error at the current position
+        private JSONException syntaxError(String message) {
+            return new JSONException(message + " at " + pos);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package persistence;
+
+import model.CarTable;
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+
+import java.nio.ByteBuffer;
+
+import static persistence.SnapshotWriterGarage.HEADER_SIZE;
+import static persistence.SnapshotWriterGarage.RECORD_SIZE;
+
+// Represents a car backed by its record in a mapped snapshot. The id, and the manufacturer, model, year and
+// price that list rows, filters and the default sorts use, are decoded up front; the stats, drive type and image are
+// decoded from the record the first time any of them is asked for
+class SnapshotCar extends Car {
+
+    private ByteBuffer buffer;
+    private StringPool strings;
+    private int record;
+
+    // EFFECTS: constructs the car stored in record number i of buffer, decoding only what list rows show
+    SnapshotCar(ByteBuffer buffer, StringPool strings, int i) {
+        super(buffer.getLong(HEADER_SIZE + i * RECORD_SIZE + 56),
+                strings.get(buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + 32)),
+                strings.get(buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + 36)),
+                buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + 44), 0, 0, 0, 0, null,
+                buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + 48), null);
+        this.buffer = buffer;
+        this.strings = strings;
+        this.record = HEADER_SIZE + i * RECORD_SIZE;
+    }
+
+    // EFFECTS: returns true if the stats, drive type and image have been decoded
+    synchronized boolean isMaterialized() {
+        return buffer == null;
+    }
+
+    @Override
+    public double getSpeed() {
+        materialize();
+        return super.getSpeed();
+    }
+
+    @Override
+    public double getHandling() {
+        materialize();
+        return super.getHandling();
+    }
+
+    @Override
+    public double getAcceleration() {
+        materialize();
+        return super.getAcceleration();
+    }
+
+    @Override
+    public double getBraking() {
+        materialize();
+        return super.getBraking();
+    }
+
+    @Override
+    public DriveType getDriveType() {
+        materialize();
+        return super.getDriveType();
+    }
+
+    @Override
+    public String getImage() {
+        materialize();
+        return super.getImage();
+    }
+
+    // EFFECTS: returns the value of a numeric field, reading a stat or the drive type straight from the
+    // record if it has not been decoded yet, so that columnar storage can copy it without materializing
+    @Override
+    public synchronized double getValue(CarField field) {
+        if (buffer != null) {
+            switch (field) {
+                case SPEED: return buffer.getDouble(record);
+                case HANDLING: return buffer.getDouble(record + 8);
+                case ACCELERATION: return buffer.getDouble(record + 16);
+                case BRAKING: return buffer.getDouble(record + 24);
+                case DRIVE_TYPE: return buffer.get(record + 52);
+                default: break;
+            }
+        }
+        return super.getValue(field);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: decodes the rest of the record if it has not been decoded yet, then lets go of the snapshot
+    private synchronized void materialize() {
+        if (buffer == null) {
+            return;
+        }
+        byte driveType = buffer.get(record + 52);
+        setDetails(buffer.getDouble(record), buffer.getDouble(record + 8), buffer.getDouble(record + 16),
+                buffer.getDouble(record + 24), driveType == CarTable.NO_DRIVE_TYPE ? null
+                        : DriveType.values()[driveType], strings.get(buffer.getInt(record + 40)));
+        buffer = null;
+        strings = null;
+    }
+}
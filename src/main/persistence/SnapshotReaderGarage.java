@@ -0,0 +1,133 @@
+package persistence;
+
+import model.GarageWorkRoom;
+import model.MarketStats;
+import model.cars.Car;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static persistence.SnapshotWriterGarage.HEADER_SIZE;
+import static persistence.SnapshotWriterGarage.MAGIC;
+import static persistence.SnapshotWriterGarage.RECORD_SIZE;
+import static persistence.SnapshotWriterGarage.VERSION;
+
+// Represents a reader that reads a workroom from the binary snapshot kept next to its JSON file
+// The snapshot is memory-mapped, so the operating system pages it in as records are read. Each car keeps
+// its record and decodes its stats, drive type and image only when they are first asked for, and the market
+// statistics saved with the cars are restored instead of being counted again. The JSON file
+// stays the source of truth: if the snapshot is missing, corrupt or older than the JSON file, the workroom
+// is read from the JSON file instead and the snapshot is regenerated from it
+public class SnapshotReaderGarage {
+
+    private static final String JSON_EXTENSION = ".json";
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private String jsonSource;
+    private String snapshotSource;
+
+    // EFFECTS: constructs reader to read from the snapshot of the given JSON source file
+    public SnapshotReaderGarage(String jsonSource) {
+        this.jsonSource = jsonSource;
+        this.snapshotSource = snapshotPathFor(jsonSource);
+    }
+
+    // EFFECTS: returns the path of the snapshot kept next to jsonSource
+    public static String snapshotPathFor(String jsonSource) {
+        if (jsonSource.endsWith(JSON_EXTENSION)) {
+            return jsonSource.substring(0, jsonSource.length() - JSON_EXTENSION.length()) + SNAPSHOT_EXTENSION;
+        }
+        return jsonSource + SNAPSHOT_EXTENSION;
+    }
+
+    // EFFECTS: reads workroom from the snapshot if it is current, otherwise reads it from the JSON file and
+    // regenerates the snapshot; throws IOException if the JSON file cannot be read
+    public GarageWorkRoom read() throws IOException {
+        Path json = Paths.get(jsonSource);
+        long jsonLength = Files.size(json);
+        long jsonModified = Files.getLastModifiedTime(json).toMillis();
+        try {
+            return readSnapshot(jsonLength, jsonModified);
+        } catch (IOException e) {
+            GarageWorkRoom wr = new JsonReaderGarage(jsonSource).read();
+            regenerate(wr, jsonLength, jsonModified);
+            return wr;
+        }
+    }
+
+    // EFFECTS: maps the snapshot and reads workroom from it; throws IOException if the snapshot is missing,
+    // was not built from a JSON file with the given length and last-modified time, or is corrupt
+    private GarageWorkRoom readSnapshot(long jsonLength, long jsonModified) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(snapshotSource), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            checkHeader(buffer, jsonLength, jsonModified);
+            GarageWorkRoom wr = new GarageWorkRoom();
+            wr.addAll(readCars(buffer));
+            wr.restoreStats(readStats(buffer));
+            return wr;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt snapshot: " + snapshotSource, e);
+        }
+    }
+
+    // EFFECTS: throws IOException if the header of buffer is not a version this reader understands or
+    // does not match the JSON file's length and last-modified time
+    private void checkHeader(ByteBuffer buffer, long jsonLength, long jsonModified) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Not a snapshot: " + snapshotSource);
+        }
+        if (buffer.getLong(24) != jsonLength || buffer.getLong(32) != jsonModified) {
+            throw new IOException("Stale snapshot: " + snapshotSource);
+        }
+        if (buffer.getInt(20) != HEADER_SIZE + buffer.getInt(12) * RECORD_SIZE
+                || buffer.getInt(20) + buffer.getInt(16) * Integer.BYTES > buffer.capacity()) {
+            throw new IOException("Corrupt snapshot: " + snapshotSource);
+        }
+    }
+
+    // EFFECTS: returns a lazily decoded car for every record in buffer, all sharing one string pool
+    private List<Car> readCars(ByteBuffer buffer) {
+        int numCars = buffer.getInt(12);
+        StringPool strings = new StringPool(buffer, buffer.getInt(20), buffer.getInt(16));
+        List<Car> cars = new ArrayList<>(numCars);
+        for (int i = 0; i < numCars; i++) {
+            cars.add(new SnapshotCar(buffer, strings, i));
+        }
+        return cars;
+    }
+
+    // EFFECTS: returns the market statistics saved after the string pool of buffer; throws IOException if
+    // they cannot be read
+    private MarketStats readStats(ByteBuffer buffer) throws IOException {
+        ByteBuffer stats = buffer.duplicate();
+        stats.position(buffer.getInt(40));
+        byte[] bytes = new byte[stats.remaining()];
+        stats.get(bytes);
+        return MarketStats.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    // EFFECTS: rewrites the snapshot from wr; a snapshot that cannot be written is only reported,
+    // since the JSON file can always be read instead
+    private void regenerate(GarageWorkRoom wr, long jsonLength, long jsonModified) {
+        try {
+            new SnapshotWriterGarage(snapshotSource).write(wr, jsonLength, jsonModified);
+        } catch (IOException e) {
+            System.out.println("Unable to write to file: " + snapshotSource);
+        }
+    }
+}
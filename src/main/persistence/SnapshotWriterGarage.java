@@ -0,0 +1,145 @@
+package persistence;
+
+import model.CarTable;
+import model.GarageWorkRoom;
+import model.cars.Car;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents a writer that writes a workroom to a binary snapshot file
+//
+// Layout (big-endian):
+//   header   MAGIC, VERSION, RECORD_SIZE, number of cars, number of strings, string pool offset (ints),
+//            then the length and last-modified time of the JSON file the snapshot was built from (longs),
+//            then the statistics offset (int)
+//   records  one fixed-width RECORD_SIZE record per car: speed, handling, acceleration, braking (doubles),
+//            manufacturer, model and image string ids, year, price (ints), drive type ordinal, or
+//            CarTable.NO_DRIVE_TYPE for a car without one (byte), padding, car id (long)
+//   pool     one int offset per string id, relative to the pool, then each string as an int byte length
+//            followed by its UTF-8 bytes
+//   stats    the workroom's MarketStats, with their quantile sketches and histograms, as MarketStats.write
+//            writes them
+public class SnapshotWriterGarage {
+
+    static final int MAGIC = 0x41554d4b;
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 44;
+    static final int RECORD_SIZE = 64;
+    static final int NO_STRING = -1;
+
+    private static final int RECORD_PADDING = 3;
+
+    private String destination;
+
+    // EFFECTS: constructs writer to write to destination file
+    public SnapshotWriterGarage(String destination) {
+        this.destination = destination;
+    }
+
+    // MODIFIES: wr, destination file
+    // EFFECTS: writes a snapshot of wr and its statistics, stamped with the length and last-modified time of
+    // the JSON file it mirrors; the snapshot is written to a temporary file first and then moved over
+    // destination, so a reader never sees a partially written snapshot. Throws IOException if the snapshot
+    // cannot be written
+    public void write(GarageWorkRoom wr, long jsonLength, long jsonModified) throws IOException {
+        Path target = Paths.get(destination);
+        Path temp = AtomicFiles.tempFileFor(target);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            writeSnapshot(out, wr.getCars(), jsonLength, jsonModified);
+            wr.getStats().write(out);
+        }
+        AtomicFiles.moveIntoPlace(temp, target);
+    }
+
+    // EFFECTS: writes the header, records and string pool for cars to out
+    private void writeSnapshot(DataOutputStream out, List<Car> cars, long jsonLength, long jsonModified)
+            throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<byte[]> pool = new ArrayList<>();
+        int[][] stringIds = new int[cars.size()][];
+        for (int i = 0; i < cars.size(); i++) {
+            Car c = cars.get(i);
+            stringIds[i] = new int[] {intern(c.getManufacturer(), ids, pool), intern(c.getModel(), ids, pool),
+                    intern(c.getImage(), ids, pool)};
+        }
+        writeHeader(out, cars.size(), pool, jsonLength, jsonModified);
+        for (int i = 0; i < cars.size(); i++) {
+            writeRecord(out, cars.get(i), stringIds[i]);
+        }
+        writePool(out, pool);
+    }
+
+    // MODIFIES: ids, pool
+    // EFFECTS: returns the pool id of s, adding s to the pool if it is not already there;
+    // returns NO_STRING if s is null
+    private int intern(String s, Map<String, Integer> ids, List<byte[]> pool) {
+        if (s == null) {
+            return NO_STRING;
+        }
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = pool.size();
+            ids.put(s, id);
+            pool.add(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    // EFFECTS: writes the snapshot header to out
+    private void writeHeader(DataOutputStream out, int numCars, List<byte[]> pool, long jsonLength,
+                             long jsonModified) throws IOException {
+        int poolOffset = HEADER_SIZE + numCars * RECORD_SIZE;
+        int statsOffset = poolOffset + pool.size() * Integer.BYTES;
+        for (byte[] s : pool) {
+            statsOffset += Integer.BYTES + s.length;
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(RECORD_SIZE);
+        out.writeInt(numCars);
+        out.writeInt(pool.size());
+        out.writeInt(poolOffset);
+        out.writeLong(jsonLength);
+        out.writeLong(jsonModified);
+        out.writeInt(statsOffset);
+    }
+
+    // EFFECTS: writes the fixed-width record for c to out
+    private void writeRecord(DataOutputStream out, Car c, int[] stringIds) throws IOException {
+        out.writeDouble(c.getSpeed());
+        out.writeDouble(c.getHandling());
+        out.writeDouble(c.getAcceleration());
+        out.writeDouble(c.getBraking());
+        out.writeInt(stringIds[0]);
+        out.writeInt(stringIds[1]);
+        out.writeInt(stringIds[2]);
+        out.writeInt(c.getYear());
+        out.writeInt(c.getPrice());
+        out.writeByte(c.getDriveType() == null ? CarTable.NO_DRIVE_TYPE : c.getDriveType().ordinal());
+        out.write(new byte[RECORD_PADDING]);
+        out.writeLong(c.getId());
+    }
+
+    // EFFECTS: writes the string pool offset table followed by the encoded strings to out
+    private void writePool(DataOutputStream out, List<byte[]> pool) throws IOException {
+        int offset = pool.size() * Integer.BYTES;
+        for (byte[] s : pool) {
+            out.writeInt(offset);
+            offset += Integer.BYTES + s.length;
+        }
+        for (byte[] s : pool) {
+            out.writeInt(s.length);
+            out.write(s);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package persistence;
+
+import java.io.IOException;
+
+public interface StreamWriteable {
+    // EFFECTS: writes this as JSON straight to out, without building a JSON object
+    void writeJson(JsonStreamWriter out) throws IOException;
+}
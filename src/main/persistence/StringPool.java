@@ -0,0 +1,42 @@
+package persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static persistence.SnapshotWriterGarage.NO_STRING;
+
+// Represents the string pool of a mapped snapshot. Each pooled string is decoded only once, so every car
+// with the same manufacturer, model or image shares one String
+final class StringPool {
+
+    private final ByteBuffer buffer;
+    private final int poolOffset;
+    private final String[] strings;
+
+    // EFFECTS: constructs the pool of numStrings strings starting at poolOffset in buffer
+    StringPool(ByteBuffer buffer, int poolOffset, int numStrings) {
+        this.buffer = buffer;
+        this.poolOffset = poolOffset;
+        this.strings = new String[numStrings];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the pooled string with the given id, decoding and caching it on first use;
+    // returns null for NO_STRING
+    String get(int id) {
+        if (id == NO_STRING) {
+            return null;
+        }
+        String s = strings[id];
+        if (s == null) {
+            int entry = poolOffset + buffer.getInt(poolOffset + id * Integer.BYTES);
+            byte[] bytes = new byte[buffer.getInt(entry)];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(entry + Integer.BYTES);
+            slice.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+}
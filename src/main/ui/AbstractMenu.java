@@ -1,6 +1,7 @@
 package ui;
 
 import model.cars.Car;
+import model.cars.CarField;
 
 import javax.swing.*;
 import java.awt.*;
@@ -10,6 +11,10 @@ import java.util.List;
 // Abstract render of a menu
 public abstract class AbstractMenu extends JFrame {
 
+    // The field each entry of a sort combo box orders by, or null for its "Sort by:" entry
+    protected static final CarField[] SORT_FIELDS = {null, CarField.YEAR, CarField.SPEED, CarField.HANDLING,
+            CarField.ACCELERATION, CarField.BRAKING, CarField.DRIVE_TYPE, CarField.PRICE};
+
     private JPanel panel;
     protected CarListMenu carListMenu;
     protected List<Car> carList;
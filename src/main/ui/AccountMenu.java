@@ -106,7 +106,7 @@ public class AccountMenu extends AbstractMenu {
                 try {
                     String text = textField.getText();
                     balanceToSet = Double.parseDouble(text);
-                    marketplace.getUserAccount().setBalance(balanceToSet);
+                    marketplace.setBalance(balanceToSet);
                     textLabel.setText("Your account balance has been set to: $"
                             + df.format(marketplace.getUserAccount().getBalance()));
                     balanceLabel.setText("Your account balance is: $"
@@ -1,14 +1,11 @@
 package ui;
 
-import exceptions.IllegalAccountBalanceException;
 import model.cars.Car;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 // Creates the GarageMenu
@@ -19,9 +16,7 @@ public class GarageMenu extends AbstractMenu {
     private JComboBox sortComboBox;
     private JComboBox orderComboBox;
 
-    private String selectedFilter;
     private String selectedOrderFilter;
-    private List<Car> sortedList;
 
     private boolean isAscendingOrder = true;
 
@@ -59,11 +54,7 @@ public class GarageMenu extends AbstractMenu {
         sortComboBox.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (isAscendingOrder) {
-                    updateCarListAscending();
-                } else {
-                    updateCarListDescending();
-                }
+                updateCarList();
             }
         });
     }
@@ -81,94 +72,22 @@ public class GarageMenu extends AbstractMenu {
         });
     }
 
-    // MODIFIES: carList
-    // EFFECTS: sorts the list of cars according to the selected sorting filter, in ascending order
-    private void updateCarListAscending() {
-        setupLists();
-
-        if (selectedFilter.equals("Year")) {
-            sortedList.sort(Comparator.comparingInt(Car::getYear));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Speed")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getSpeed));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Handling")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getHandling));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Acceleration")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getAcceleration));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Braking")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getBraking));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Drive Type")) {
-            sortedList.sort(Comparator.comparing(Car::getDriveType));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Price")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getPrice));
-            addCarToSortedList();
-        }
-    }
-
-    // EFFECTS: initializes the list for sorting and creates the first element of the combo boxes
-    private void setupLists() {
+    // MODIFIES: this
+    // EFFECTS: shows the garage's cars in the order chosen by the sort combo boxes, read from the garage's
+    // kept sort order on the chosen field, so changing the order does not sort the cars again
+    private void updateCarList() {
         carDefaultListModel.clear();
-        sortedList = new ArrayList<>(carList);
-        selectedFilter = (String) sortComboBox.getSelectedItem();
-
-        if (selectedFilter.equals("Sort by:")) {
-            for (Car c : carList) {
-                carDefaultListModel.addElement(c);
-            }
-        }
-    }
-
-    // MODIFIES: carList
-    // EFFECTS: adds the car to the sorted list
-    private void addCarToSortedList() {
-        for (Car c : sortedList) {
+        for (Car c : marketplace.getUserGarage().sortedCars(SORT_FIELDS[sortComboBox.getSelectedIndex()],
+                isAscendingOrder)) {
             carDefaultListModel.addElement(c);
         }
     }
 
-    // MODIFIES: carList
-    // EFFECTS: sorts the list of cars according to the selected sorting filter, in descending order
-    private void updateCarListDescending() {
-        setupLists();
-
-        if (selectedFilter.equals("Year")) {
-            sortedList.sort(Comparator.comparingInt(Car::getYear).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Speed")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getSpeed).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Handling")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getHandling).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Acceleration")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getAcceleration).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Braking")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getBraking).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Drive Type")) {
-            sortedList.sort(Comparator.comparing(Car::getDriveType).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Price")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getPrice).reversed());
-            addCarToSortedList();
-        }
-    }
-
     // EFFECTS: chooses how to sort the lists, according to the sort combo box selection
     private void chooseSortOrder() {
         selectedOrderFilter = (String) orderComboBox.getSelectedItem();
         isAscendingOrder = selectedOrderFilter.equals("Ascending order");
-        if (isAscendingOrder) {
-            updateCarListAscending();
-        } else {
-            updateCarListDescending();
-        }
+        updateCarList();
     }
 
     // MODIFIES: this
@@ -183,20 +102,10 @@ public class GarageMenu extends AbstractMenu {
     }
 
     // MODIFIES: this, userAccount
-    // EFFECTS: removes the selected car from the garage and refunds the car money to the user account
+    // EFFECTS: removes the selected cars from the garage and refunds the car money to the user account
     private void refundCar() {
-        double balanceToSet = 0.0;
-        double currentBalance = marketplace.getUserAccount().getBalance();;
-        for (Car c : carListMenu.getSelectedCarList()) {
-            marketplace.getUserGarage().removeCar(c);
-            balanceToSet += c.getPrice();
-            try {
-                marketplace.getUserAccount().setBalance(currentBalance + balanceToSet);
-                balanceLabel.setText("Balance: $" + df.format(marketplace.getUserAccount().getBalance()));
-            } catch (IllegalAccountBalanceException e) {
-                // can't be thrown
-            }
-        }
+        marketplace.refundCars(carListMenu.getSelectedCarList());
+        balanceLabel.setText("Balance: $" + df.format(marketplace.getUserAccount().getBalance()));
         dispose();
         new GarageMenu(marketplace.getUserGarage().getCars());
     }
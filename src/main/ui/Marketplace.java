@@ -3,27 +3,45 @@ package ui;
 import exceptions.IllegalAccountBalanceException;
 import model.Account;
 import model.AccountWorkRoom;
+import model.CatalogOverlay;
 import model.GarageWorkRoom;
+import model.MarketStats;
+import model.PurchaseEngine;
 import model.cars.Car;
+import model.cars.CarField;
 import model.cars.DriveType;
+import model.sketch.Histogram;
+import model.query.CarQuery;
+import model.query.QueryParser;
 import persistence.JsonReaderAccount;
 import persistence.JsonReaderGarage;
 import persistence.JsonWriterAccount;
 import persistence.JsonWriterGarage;
+import persistence.MutationJournal;
+import persistence.MutationJournal.Compaction;
+import persistence.MutationJournal.Mutation;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.text.DecimalFormat;
+import java.util.concurrent.ExecutionException;
 
 // Console car marketplace, where car listings are shown and up for sale
 public class Marketplace {
 
-    private static final String JSON_MARKET = "./data/carMarket.json";
+    private static final String JSON_MARKET = "./data/originalMarket.json";
     private static final String JSON_USER_MARKET = "./data/userCarMarket.json";
     private static final String JSON_GARAGE = "./data/garage.json";
     private static final String JSON_ACCOUNT = "./data/account.json";
+    private static final String JOURNAL_USER_MARKET = "./data/userCarMarket.journal";
+    private static final String JOURNAL_GARAGE = "./data/garage.journal";
+    private static final String JOURNAL_ACCOUNT = "./data/account.journal";
+    private static final int COMPACTION_THRESHOLD = 1000;
 
     //private Account userAccount;
     private Scanner input;
@@ -38,6 +56,7 @@ public class Marketplace {
     private GarageWorkRoom userGarage;
     private GarageWorkRoom filteredMarketplace;
     private AccountWorkRoom userAccount;
+    private final PurchaseEngine purchases = new PurchaseEngine();
 
     //private JsonWriter jsonWriterMarket; probably won't want to write to this file
     private JsonWriterGarage jsonWriterUserMarket;
@@ -49,6 +68,10 @@ public class Marketplace {
     private JsonReaderGarage jsonReaderGarage;
     private JsonReaderAccount jsonReaderAccount;
 
+    private MutationJournal userMarketJournal;
+    private MutationJournal garageJournal;
+    private MutationJournal accountJournal;
+
     // EFFECTS: runs the marketplace application
     public Marketplace() {
         //runMarketplace();
@@ -106,7 +129,7 @@ public class Marketplace {
     // EFFECTS: initializes the JSON reader, JSON writer, and marketplace
     private void initialize() {
         marketplace = new GarageWorkRoom();
-        userMarketplace = new GarageWorkRoom();
+        userMarketplace = new CatalogOverlay(marketplace);
         userGarage = new GarageWorkRoom();
         filteredMarketplace = new GarageWorkRoom();
         userAccount = new AccountWorkRoom();
@@ -120,15 +143,20 @@ public class Marketplace {
         jsonReaderGarage = new JsonReaderGarage(JSON_GARAGE);
         jsonReaderAccount = new JsonReaderAccount(JSON_ACCOUNT);
 
+        userMarketJournal = new MutationJournal(JOURNAL_USER_MARKET);
+        garageJournal = new MutationJournal(JOURNAL_GARAGE);
+        accountJournal = new MutationJournal(JOURNAL_ACCOUNT);
+
         //account = new Account(0);
         input = new Scanner(System.in);
     }
 
     // MODIFIES: this
-    // EFFECTS: loads the user's garage cars
+    // EFFECTS: loads the user's garage cars, replaying the changes journaled since it was last saved
     public void loadGarage() {
         try {
             userGarage = jsonReaderGarage.read();
+            garageJournal.replay(userGarage, jsonReaderGarage.getJournalEpoch());
             if (userGarage.getCars().isEmpty()) {
                 System.out.println("No file loaded - your garage is empty. Visit the marketplace to buy cars!");
             } else {
@@ -140,10 +168,11 @@ public class Marketplace {
     }
 
     // MODIFIES: this
-    // EFFECTS: loads the user's account balance
+    // EFFECTS: loads the user's account balance, replaying the changes journaled since it was last saved
     public void loadAccount() {
         try {
             userAccount = jsonReaderAccount.read();
+            accountJournal.replay(userAccount, jsonReaderAccount.getJournalEpoch());
             System.out.println("Account balance successfully loaded.");
         } catch (IOException e) {
             System.out.println("Unable to read from file: " + JSON_GARAGE);
@@ -151,10 +180,13 @@ public class Marketplace {
     }
 
     // MODIFIES: this
-    // EFFECTS: loads the user's marketplace car listings
+    // EFFECTS: loads the default marketplace, then layers the user's saved listings and removals over it,
+    // replaying the changes journaled since they were last saved
     public void loadUserListings() {
+        loadListings();
         try {
-            userMarketplace = jsonReaderUserMarket.read();
+            userMarketplace = jsonReaderUserMarket.readOverlay(marketplace);
+            userMarketJournal.replay(userMarketplace, jsonReaderUserMarket.getJournalEpoch());
             System.out.println("Marketplace listings successfully loaded.");
         } catch (IOException e) {
             System.out.println("Unable to read from file: " + JSON_USER_MARKET);
@@ -162,54 +194,182 @@ public class Marketplace {
     }
 
     // MODIFIES: this
-    // EFFECTS: loads the default marketplace car listings
+    // EFFECTS: loads the default marketplace car listings, shared by the user's marketplace as its base
     public void loadListings() {
         try {
             marketplace = jsonReaderMarket.read();
+            userMarketplace = new CatalogOverlay(marketplace);
         } catch (IOException e) {
             System.out.println("Unable to read from file: " + JSON_MARKET);
         }
     }
 
     // MODIFIES: userGarage workroom
-    // EFFECTS: saves the user's garage workroom to file
+    // EFFECTS: saves the user's garage workroom to file, compacting its journal into it
     public void saveGarage() {
-        try {
-            jsonWriterGarage.open();
-            jsonWriterGarage.write(userGarage);
-            jsonWriterGarage.close();
+        if (compactJournal(garageJournal, garageCompaction())) {
             System.out.println("Garage successfully saved!");
-        } catch (FileNotFoundException e) {
+        } else {
             System.out.println("Unable to write to file: " + JSON_GARAGE);
         }
     }
 
     // MODIFIES: marketplace workroom
-    // EFFECTS: saves the user's marketplace listings to file
+    // EFFECTS: saves the user's marketplace listings to file, compacting their journal into it
     public void saveMarketplace() {
-        try {
-            jsonWriterUserMarket.open();
-            jsonWriterUserMarket.write(userMarketplace);
-            jsonWriterUserMarket.close();
+        if (compactJournal(userMarketJournal, userMarketCompaction())) {
             System.out.println("Marketplace successfully saved!");
-        } catch (FileNotFoundException e) {
+        } else {
             System.out.println("Unable to write to file: " + JSON_USER_MARKET);
         }
     }
 
     // MODIFIES: userAccount workroom
-    // EFFECTS: saves the user's account balance to file
+    // EFFECTS: saves the user's account balance to file, compacting its journal into it
     public void saveAccount() {
-        try {
-            jsonWriterAccount.open();
-            jsonWriterAccount.write(userAccount);
-            jsonWriterAccount.close();
+        if (compactJournal(accountJournal, accountCompaction())) {
             System.out.println("Account balance successfully saved!");
-        } catch (FileNotFoundException e) {
+        } else {
             System.out.println("Unable to write to file: " + JSON_ACCOUNT);
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: discards the changes to the user's garage, marketplace listings and account balance made since
+    // each was last saved, so that quitting without saving does not bring them back on the next launch
+    public void discardUnsavedChanges() {
+        discardGarage();
+        discardMarketplace();
+        discardAccount();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards the changes to the user's garage made since it was last saved
+    public void discardGarage() {
+        discardJournal(garageJournal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards the changes to the user's marketplace listings made since they were last saved
+    public void discardMarketplace() {
+        discardJournal(userMarketJournal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards the changes to the user's account balance made since it was last saved
+    public void discardAccount() {
+        discardJournal(accountJournal);
+    }
+
+    // MODIFIES: journal
+    // EFFECTS: discards the entries of journal not yet compacted into its saved file
+    private void discardJournal(MutationJournal journal) {
+        try {
+            journal.discard();
+        } catch (IOException e) {
+            System.out.println("Unable to discard journal: " + e.getMessage());
+        }
+    }
+
+    // EFFECTS: compacts journal into the full snapshot written by compaction and waits for it to finish;
+    // returns true if the snapshot was written
+    private boolean compactJournal(MutationJournal journal, Compaction compaction) {
+        try {
+            journal.compact(compaction).get();
+            return true;
+        } catch (IOException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // EFFECTS: returns a compaction that writes the garage as it is now to file, with its journal epoch
+    private Compaction garageCompaction() {
+        GarageWorkRoom garage = userGarage.snapshot();
+        return epoch -> {
+            jsonWriterGarage.open();
+            try {
+                jsonWriterGarage.write(garage, epoch);
+                jsonWriterGarage.close();
+            } finally {
+                jsonWriterGarage.abort();
+            }
+        };
+    }
+
+    // EFFECTS: returns a compaction that writes the user's marketplace listings as they are now to file, with
+    // their journal epoch
+    private Compaction userMarketCompaction() {
+        GarageWorkRoom listings = userMarketplace.snapshot();
+        return epoch -> {
+            jsonWriterUserMarket.open();
+            try {
+                jsonWriterUserMarket.write(listings, epoch);
+                jsonWriterUserMarket.close();
+            } finally {
+                jsonWriterUserMarket.abort();
+            }
+        };
+    }
+
+    // EFFECTS: returns a compaction that writes the account balance as it is now to file, with its journal
+    // epoch
+    private Compaction accountCompaction() {
+        AccountWorkRoom account = userAccount.snapshot();
+        return epoch -> {
+            jsonWriterAccount.open();
+            try {
+                jsonWriterAccount.write(account, epoch);
+                jsonWriterAccount.close();
+            } finally {
+                jsonWriterAccount.abort();
+            }
+        };
+    }
+
+    // MODIFIES: journal
+    // EFFECTS: appends a listing or garage mutation of car to journal
+    private void recordCar(MutationJournal journal, Mutation mutation, Car car) {
+        try {
+            journal.append(mutation, car);
+        } catch (IOException e) {
+            System.out.println("Unable to write to journal: " + e.getMessage());
+        }
+        compactIfLarge(journal);
+    }
+
+    // MODIFIES: accountJournal
+    // EFFECTS: appends a mutation that left the account at its current balance to the account journal
+    private void recordBalance(Mutation mutation) {
+        try {
+            accountJournal.append(mutation, userAccount.getBalance());
+        } catch (IOException e) {
+            System.out.println("Unable to write to journal: " + e.getMessage());
+        }
+        compactIfLarge(accountJournal);
+    }
+
+    // MODIFIES: journal
+    // EFFECTS: starts compacting journal on a background thread once it holds COMPACTION_THRESHOLD entries
+    private void compactIfLarge(MutationJournal journal) {
+        if (journal.size() < COMPACTION_THRESHOLD) {
+            return;
+        }
+        try {
+            if (journal == garageJournal) {
+                journal.compact(garageCompaction());
+            } else if (journal == userMarketJournal) {
+                journal.compact(userMarketCompaction());
+            } else {
+                journal.compact(accountCompaction());
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to compact journal: " + e.getMessage());
+        }
+    }
+
 
     // MODIFIES: this
     // EFFECTS: processes user command for the main menu
@@ -248,7 +408,7 @@ public class Marketplace {
                 System.out.println("Please choose from one of the cars listed, or enter an integer.");
             }
         } else if (command.equals("f")) {
-            System.out.println("Filter by: \nYear\nSpeed\nHandling\nAcceleration\nBraking\nDrivetype\nPrice");
+            System.out.println("Filter by: \nYear\nSpeed\nHandling\nAcceleration\nBraking\nDrivetype\nPrice\nQuery");
             filter(input.next().toLowerCase());
         } else if (command.equals("d")) {
             checkMarketStats();
@@ -317,7 +477,7 @@ public class Marketplace {
         if (command.equals("o")) {
             System.out.println("Set your account balance to any positive number:");
             try {
-                userAccount.setBalance(input.nextDouble());
+                setBalance(input.nextDouble());
             } catch (IllegalAccountBalanceException e) {
                 System.out.println("Cannot set balance to a negative number.");
                 System.out.println("Your account balance is $" + formatAccountBalance(df));
@@ -353,7 +513,7 @@ public class Marketplace {
         } else {
             System.out.println("Type 'r' to reset the filter");
         }
-        System.out.println("Type 'd' to view car specifications");
+        System.out.println("Type 'd' to view market statistics");
         System.out.println("Type 's' to list a car for sale on the marketplace");
     }
 
@@ -395,52 +555,52 @@ public class Marketplace {
         return filteredCarListings;
     }
 
-    // EFFECTS: checks which market to display detailed stats for
+    // MODIFIES: this
+    // EFFECTS: displays the statistics of the market being viewed, which the market keeps up to date as cars
+    // come and go instead of going through every car
     private void checkMarketStats() {
-        System.out.println("Now displaying detailed car information.");
-        if (isDefaultMarket && !isFiltered) {
-            viewDetailedStatsUnfilteredDefault();
-        } else if (!isDefaultMarket && !isFiltered) {
-            viewDetailedStatsUnfilteredUser();
-        } else {
-            viewDetailedStatsFiltered();
-        }
+        System.out.println("Now displaying market statistics.");
+        GarageWorkRoom market = isFiltered ? filteredMarketplace : isDefaultMarket ? marketplace : userMarketplace;
+        MarketStats stats = market.getStats();
+        System.out.println(summaryToString("All cars", stats.getOverall()));
+        printHistogram(stats.getOverall().getHistogram(CarField.PRICE));
+        printGroupStats("drive type", stats.getByDriveType());
+        printGroupStats("manufacturer", stats.getByManufacturer());
+        printGroupStats("year", stats.getByYear());
         System.out.println("Enter any key to return to the main menu.");
     }
 
-    // EFFECTS: displays all the car's detailed specifications for the default market
-    private void viewDetailedStatsUnfilteredDefault() {
-        String detailedCars = "";
-        printDetailedStatsUnfiltered(marketplace.numCars(), detailedCars, marketplace);
-    }
-
-    // EFFECTS: displays all the car's detailed specifications for the user market
-    private void viewDetailedStatsUnfilteredUser() {
-        String detailedCarsUser = "";
-        printDetailedStatsUnfiltered(userMarketplace.numCars(), detailedCarsUser, userMarketplace);
+    // EFFECTS: prints the summary of each group of cars, under a heading naming what they are grouped by
+    private void printGroupStats(String groupedBy, Map<?, MarketStats.Summary> groups) {
+        System.out.println("\nBy " + groupedBy + ":");
+        for (Map.Entry<?, MarketStats.Summary> group : groups.entrySet()) {
+            System.out.println(summaryToString(String.valueOf(group.getKey()), group.getValue()));
+        }
     }
 
-    // EFFECTS: prints each car's detailed specifications according to the specific marketplace
-    private void printDetailedStatsUnfiltered(int userMarketplace, String detailedCarsUser,
-                                              GarageWorkRoom userMarketplace1) {
-        for (int i = 0; i < userMarketplace; i++) {
-            detailedCarsUser += "\n" + (i + 1) + ". " + userMarketplace1.getCars().get(i).getYear() + " "
-                    + userMarketplace1.getCars().get(i).getManufacturer() + " "
-                    + userMarketplace1.getCars().get(i).getModel() + " $"
-                    + df.format(userMarketplace1.getCars().get(i).getPrice()) + "\n" + "Speed: "
-                    + userMarketplace1.getCars().get(i).getSpeed() + "\n" + "Handling: "
-                    + userMarketplace1.getCars().get(i).getHandling() + "\n" + "Acceleration: "
-                    + userMarketplace1.getCars().get(i).getAcceleration() + "\n" + "Braking: "
-                    + userMarketplace1.getCars().get(i).getBraking() + "\n" + "Drive type: "
-                    + userMarketplace1.getCars().get(i).getDriveType() + "\n";
+    // EFFECTS: prints how many cars fall in each price band of histogram
+    private void printHistogram(Histogram histogram) {
+        System.out.println("Prices:");
+        for (int i = 0; i < histogram.numBuckets(); i++) {
+            String upper = i + 1 < histogram.numBuckets() ? " to $" + df.format(histogram.upperBound(i)) : " and up";
+            System.out.println("    $" + df.format(histogram.lowerBound(i)) + upper + ": " + histogram.count(i));
         }
-        System.out.println(detailedCarsUser);
     }
 
-    // EFFECTS: displays the filtered car's detailed specifications for the both the default and user market
-    private void viewDetailedStatsFiltered() {
-        String filteredDetailedCars = "";
-        printDetailedStatsUnfiltered(filteredMarketplace.getCars().size(), filteredDetailedCars, filteredMarketplace);
+    // EFFECTS: returns the count of cars in summary and the mean, median, 90th percentile, minimum and maximum
+    // of each figure, one line per figure
+    private String summaryToString(String name, MarketStats.Summary summary) {
+        StringBuilder text = new StringBuilder(name + ": " + summary.getCount() + " cars");
+        for (CarField field : MarketStats.FIELDS) {
+            String prefix = field == CarField.PRICE ? "$" : "";
+            text.append("\n    ").append(field.name().charAt(0)).append(field.name().substring(1).toLowerCase())
+                    .append(": mean ").append(prefix).append(df.format(summary.getMean(field)))
+                    .append(", median ").append(prefix).append(df.format(summary.getQuantile(field, 0.5)))
+                    .append(", p90 ").append(prefix).append(df.format(summary.getQuantile(field, 0.9)))
+                    .append(", min ").append(prefix).append(df.format(summary.getMin(field)))
+                    .append(", max ").append(prefix).append(df.format(summary.getMax(field)));
+        }
+        return text.toString();
     }
 
     // EFFECTS: displays the options an Account can operate on
@@ -454,7 +614,7 @@ public class Marketplace {
     public void filter(String filter) {
         while (!filter.equals("year") && !filter.equals("speed") && !filter.equals("handling")
                 && !filter.equals("acceleration") && !filter.equals("braking") && !filter.equals("drivetype")
-                && !filter.equals("price")) {
+                && !filter.equals("price") && !filter.equals("query")) {
             System.out.println("Invalid filter. Please select from the options above.");
             input.nextLine();
             filter = input.next().toLowerCase();
@@ -469,6 +629,28 @@ public class Marketplace {
         if (filter.equals("drivetype")) {
             filterCarsDriveType(filter);
         }
+        if (filter.equals("query")) {
+            filterCarsQuery();
+        }
+    }
+
+    // MODIFIES: filteredCarListing
+    // EFFECTS: filters, sorts and limits the car market listings according to a query typed on one line,
+    // showing the plan it runs with
+    public void filterCarsQuery() {
+        System.out.println("Type a query, e.g. price < 50000 and (drivetype = awd or year >= 2015) "
+                + "sort by speed desc limit 10, or year >= 2015 skyline sort by price for the best value cars");
+        input.nextLine();
+        try {
+            CarQuery query = QueryParser.parse(input.nextLine());
+            System.out.println("You selected: " + query);
+            System.out.print(currentMarket().explain(query));
+            showFiltered(currentMarket().query(query));
+            isFiltered = true;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid query: " + e.getMessage());
+        }
+        displayMenu();
     }
 
     // REQUIRES: user input must be an integer
@@ -490,36 +672,12 @@ public class Marketplace {
 
     // EFFECTS: checks which market to base filtering on, for the year field
     private void checkMarketYear(int value) {
-        if (isDefaultMarket) {
-            for (Car c : marketplace.getCars()) {
-                if (c.getYear() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        } else {
-            for (Car c : userMarketplace.getCars()) {
-                if (c.getYear() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        }
+        showFiltered(currentMarket().carsBelow(CarField.YEAR, value));
     }
 
     // EFFECTS: checks which market to base filtering on, for the price field
     private void checkMarketPrice(int value) {
-        if (isDefaultMarket) {
-            for (Car c : marketplace.getCars()) {
-                if (c.getPrice() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        } else {
-            for (Car c : userMarketplace.getCars()) {
-                if (c.getPrice() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        }
+        showFiltered(currentMarket().carsBelow(CarField.PRICE, value));
     }
 
     // EFFECTS: filters the car market listings according to drive type
@@ -579,128 +737,132 @@ public class Marketplace {
     // EFFECTS: checks which market to base filtering on, for the DriveType field
     private void checkMarketFilterDriveType(String value) {
         DriveType driveType = DriveType.valueOf(value.toUpperCase());
-        if (isDefaultMarket) {
-            for (Car c : marketplace.getCars()) {
-                if (c.getDriveType() == driveType) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        } else {
-            for (Car c : userMarketplace.getCars()) {
-                if (c.getDriveType() == driveType) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        }
+        showFiltered(currentMarket().carsWithDriveType(driveType));
+    }
+
+    // EFFECTS: returns the market that filters are based on
+    private GarageWorkRoom currentMarket() {
+        return isDefaultMarket ? marketplace : userMarketplace;
+    }
+
+    // MODIFIES: filteredCarListing
+    // EFFECTS: adds the cars a filter matched to the filtered listings, logging the filter rather than a load
+    private void showFiltered(List<Car> cars) {
+        filteredMarketplace.addAll(cars, "Filtered marketplace to " + cars.size() + " cars");
     }
 
     // EFFECTS: checks which market to base filtering on, for the speed field
     private void checkMarketFilterSpeed(double value) {
-        if (isDefaultMarket) {
-            for (Car c : marketplace.getCars()) {
-                if (c.getSpeed() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        } else {
-            for (Car c : userMarketplace.getCars()) {
-                if (c.getSpeed() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        }
+        showFiltered(currentMarket().carsBelow(CarField.SPEED, value));
     }
 
     // EFFECTS: checks which market to base filtering on, for the handling field
     private void checkMarketFilterHandling(double value) {
-        if (isDefaultMarket) {
-            for (Car c : marketplace.getCars()) {
-                if (c.getHandling() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        } else {
-            for (Car c : userMarketplace.getCars()) {
-                if (c.getHandling() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        }
+        showFiltered(currentMarket().carsBelow(CarField.HANDLING, value));
     }
 
     // EFFECTS: checks which market to base filtering on, for the acceleration field
     private void checkMarketFilterAcceleration(double value) {
-        if (isDefaultMarket) {
-            for (Car c : marketplace.getCars()) {
-                if (c.getAcceleration() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        } else {
-            for (Car c : userMarketplace.getCars()) {
-                if (c.getAcceleration() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        }
+        showFiltered(currentMarket().carsBelow(CarField.ACCELERATION, value));
     }
 
     // EFFECTS: checks which market to base filtering on, for the braking field
     private void checkMarketFilterBraking(double value) {
-        if (isDefaultMarket) {
-            for (Car c : marketplace.getCars()) {
-                if (c.getBraking() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        } else {
-            for (Car c : userMarketplace.getCars()) {
-                if (c.getBraking() < value) {
-                    filteredMarketplace.addCar(c);
-                }
-            }
-        }
+        showFiltered(currentMarket().carsBelow(CarField.BRAKING, value));
     }
 
     // EFFECTS: checks which market to base filtering on, for any car field
     private void checkMarketFieldsDouble(double field, double value) {
+        List<Car> matches = new ArrayList<>();
         if (isDefaultMarket) {
             for (Car c : marketplace.getCars()) {
                 if (field < value) {
-                    filteredMarketplace.addCar(c);
+                    matches.add(c);
                 }
             }
         } else {
             for (Car c : userMarketplace.getCars()) {
                 if (field < value) {
-                    filteredMarketplace.addCar(c);
+                    matches.add(c);
                 }
             }
         }
+        showFiltered(matches);
     }
 
 
-    // MODIFIES: garage
-    // EFFECTS: buys the car from the marketplace, adding it to the garage, and subtracting the car's
-    // price from the account's.
+    // MODIFIES: userMarketplace, garage, userAccount
+    // EFFECTS: buys the car from the user's marketplace through the purchase engine, which reserves the
+    // listing, subtracts the car's price from the account's and moves the car into the garage as one
+    // purchase, then shows the user's marketplace, which no longer lists it
     public void buyCar(Car c) {
-        if (userAccount.boughtCar(c)) {
-            userGarage.addCar(c);
+        buyCar(c, userMarketplace);
+    }
+
+    // MODIFIES: this, market, garage, userAccount
+    // EFFECTS: buys the car from market, the marketplace shown to the user, as buyCar does; the GUI shows a
+    // market of its own rather than the user's marketplace, so the removed listing is only journaled when
+    // market is the user's marketplace
+    public void buyCar(Car c, GarageWorkRoom market) {
+        PurchaseEngine.Outcome outcome = purchases.buy(c, market, userAccount, userGarage);
+        if (outcome == PurchaseEngine.Outcome.BOUGHT) {
+            if (market == userMarketplace) {
+                isDefaultMarket = false;
+                recordCar(userMarketJournal, Mutation.LISTING_REMOVED, c);
+            }
+            recordCar(garageJournal, Mutation.CAR_BOUGHT, c);
+            recordBalance(Mutation.CAR_BOUGHT);
             System.out.println("Purchase complete! Enjoy your new car!");
-            displayMenu();
-        } else {
+        } else if (outcome == PurchaseEngine.Outcome.INSUFFICIENT_FUNDS) {
             System.out.println("Insufficient funds. Please get more money before purchasing.");
             System.out.println("Your current account balance is: $" + formatAccountBalance(df));
-            displayMenu();
+        } else {
+            System.out.println("This car is no longer for sale.");
+        }
+        displayMenu();
+    }
+
+    // MODIFIES: garage, userAccount
+    // EFFECTS: removes the car from the garage and refunds the car's price to the account
+    public void refundCar(Car c) {
+        refundCars(Collections.singletonList(c));
+    }
+
+    // MODIFIES: garage, userMarketplace, userAccount
+    // EFFECTS: removes each of cars from the garage, each by its id in constant time, lists it on the user's
+    // marketplace again unless it is still there, and refunds their total price to the account, recording the
+    // new balance once
+    public void refundCars(List<Car> cars) {
+        double refund = 0;
+        for (Car c : cars) {
+            userGarage.removeCar(c);
+            refund += c.getPrice();
+            recordCar(garageJournal, Mutation.REFUND, c);
+            if (!userMarketplace.containsCar(c)) {
+                userMarketplace.addCar(c);
+                recordCar(userMarketJournal, Mutation.LISTING_ADDED, c);
+            }
         }
+        userAccount.credit(refund);
+        recordBalance(Mutation.REFUND);
+    }
+
+    // MODIFIES: userAccount
+    // EFFECTS: sets the account's balance to the given amount;
+    // throws IllegalAccountBalanceException if amount is negative
+    public void setBalance(double amount) throws IllegalAccountBalanceException {
+        userAccount.setBalance(amount);
+        recordBalance(Mutation.BALANCE_SET);
     }
 
     // MODIFIES: carListing
-    // EFFECTS: creates a new car and lists it for sale on the marketplace
+    // EFFECTS: creates a new car and lists it for sale on the user's marketplace, which shows the default
+    // marketplace's cars along with the user's listings
     public void createCarListing() {
         Car carToList = getCarListingInfo();
-        marketplace.addCar(carToList);
         userMarketplace.addCar(carToList);
+        isDefaultMarket = false;
+        recordCar(userMarketJournal, Mutation.LISTING_ADDED, carToList);
         System.out.println("Car successfully listed on the marketplace!");
         listedCar = true;
         displayMenu();
@@ -807,18 +969,24 @@ public class Marketplace {
         System.out.println("Would you like to save your garage to file? (Y/N)");
         if (input.next().toLowerCase().equals("y")) {
             saveGarage();
+        } else {
+            discardGarage();
         }
         System.out.println("Would you like to save your marketplace listings to file? (Y/N)");
-        if (input.next().toLowerCase().equals("y")) {
-            if (listedCar) {
-                saveMarketplace();
-            } else {
+        boolean saveListings = input.next().toLowerCase().equals("y");
+        if (saveListings && listedCar) {
+            saveMarketplace();
+        } else {
+            if (saveListings) {
                 System.out.println("Unable to save to file - you did not list any cars for sale on the marketplace.");
             }
+            discardMarketplace();
         }
         System.out.println("Would you like to save your account balance to file? (Y/N)");
         if (input.next().toLowerCase().equals("y")) {
             saveAccount();
+        } else {
+            discardAccount();
         }
     }
 
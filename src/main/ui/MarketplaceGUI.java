@@ -1,6 +1,7 @@
 package ui;
 
 import model.AccountWorkRoom;
+import model.CatalogOverlay;
 import model.EventLog;
 import model.GarageWorkRoom;
 import model.cars.Car;
@@ -8,6 +9,7 @@ import persistence.JsonReaderAccount;
 import persistence.JsonReaderGarage;
 import persistence.JsonWriterAccount;
 import persistence.JsonWriterGarage;
+import persistence.SnapshotReaderGarage;
 
 import javax.swing.*;
 import java.awt.*;
@@ -15,7 +17,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 
@@ -36,7 +37,7 @@ public class MarketplaceGUI extends JFrame {
     private JsonWriterGarage jsonWriterOriginalMarket;
     private JsonWriterGarage jsonWriterMarket;
 
-    private JsonReaderGarage jsonReaderOriginalMarket;
+    private SnapshotReaderGarage snapshotReaderOriginalMarket;
     private JsonReaderGarage jsonReaderMarket;
     private JsonReaderGarage jsonReaderGarage;
     private JsonReaderAccount jsonReaderAccount;
@@ -60,15 +61,15 @@ public class MarketplaceGUI extends JFrame {
     }
 
     private void initialize() {
-        marketplace = new GarageWorkRoom();
         originalMarketplace = new GarageWorkRoom();
+        marketplace = new CatalogOverlay(originalMarketplace);
         userGarage = new GarageWorkRoom();
         userAccount = new AccountWorkRoom();
 
         jsonWriterOriginalMarket = new JsonWriterGarage(JSON_ORIGINAL_MARKET);
         jsonWriterMarket = new JsonWriterGarage(JSON_MARKET);
 
-        jsonReaderOriginalMarket = new JsonReaderGarage(JSON_ORIGINAL_MARKET);
+        snapshotReaderOriginalMarket = new SnapshotReaderGarage(JSON_ORIGINAL_MARKET);
         jsonReaderMarket = new JsonReaderGarage(JSON_MARKET);
         jsonReaderGarage = new JsonReaderGarage(JSON_GARAGE);
         jsonReaderAccount = new JsonReaderAccount(JSON_ACCOUNT);
@@ -153,8 +154,8 @@ public class MarketplaceGUI extends JFrame {
             loadCars();
             isOriginalMarket = false;
         } else {
-            loadCars();
             loadOriginalMarket();
+            loadCars();
             isOriginalMarket = true;
         }
 
@@ -198,11 +199,9 @@ public class MarketplaceGUI extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 if (isOriginalMarket) {
-                    List<Car> carList = originalMarketplace.getCars();
-                    new MarketplaceMenu(carList);
+                    new MarketplaceMenu(originalMarketplace);
                 } else {
-                    List<Car> carList = marketplace.getCars();
-                    new MarketplaceMenu(carList);
+                    new MarketplaceMenu(marketplace);
                 }
             }
         });
@@ -269,21 +268,24 @@ public class MarketplaceGUI extends JFrame {
     }
 
     // MODIFIES: this
-    // EFFECTS: loads the market if the user chooses not to load their market
+    // EFFECTS: loads the market if the user chooses not to load their market, from its binary snapshot
+    // when that is up to date with the JSON file
     private void loadOriginalMarket() {
         try {
-            originalMarketplace = jsonReaderOriginalMarket.read();
+            originalMarketplace = snapshotReaderOriginalMarket.read();
         } catch (IOException e) {
             System.out.println("Unable to read from file: " + JSON_ORIGINAL_MARKET);
         }
     }
 
     // MODIFIES: this
-    // EFFECTS: loads the cars listed for sale onto the marketplace menu
+    // EFFECTS: loads the cars listed for sale onto the marketplace menu, as the listings and removals saved
+    // in the market file layered over the original market, which must already be loaded
     private void loadCars() {
         try {
-            marketplace = jsonReaderMarket.read();
+            marketplace = jsonReaderMarket.readOverlay(originalMarketplace);
         } catch (IOException e) {
+            marketplace = new CatalogOverlay(originalMarketplace);
             System.out.println("Unable to read from file: " + JSON_MARKET);
         }
     }
@@ -337,7 +339,7 @@ public class MarketplaceGUI extends JFrame {
                 JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
 
         if (saveData == 0) {
-            if (SellCarMenu.getHasListedCar()) {
+            if (SellCarMenu.getHasListedCar() || MarketplaceMenu.getHasBoughtListing()) {
                 if (isOriginalMarket) {
                     //saveOriginalMarketplace();
                     saveMarketplace(); //choose no load market, save and market saves 0 cars
@@ -350,8 +352,11 @@ public class MarketplaceGUI extends JFrame {
 
             }
             //AbstractMenu.marketplace.saveMarketplace();
+            AbstractMenu.marketplace.discardMarketplace();
             AbstractMenu.marketplace.saveGarage();
             AbstractMenu.marketplace.saveAccount();
+        } else {
+            AbstractMenu.marketplace.discardUnsavedChanges();
         }
         lp.printLog(EventLog.getInstance());
         System.exit(0);
@@ -362,10 +367,14 @@ public class MarketplaceGUI extends JFrame {
     private void saveOriginalMarketplace() {
         try {
             jsonWriterOriginalMarket.open();
-            jsonWriterOriginalMarket.write(originalMarketplace);
-            jsonWriterOriginalMarket.close();
+            try {
+                jsonWriterOriginalMarket.write(originalMarketplace);
+                jsonWriterOriginalMarket.close();
+            } finally {
+                jsonWriterOriginalMarket.abort();
+            }
             System.out.println("original market saved");
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.out.println("Unable to write to file: " + JSON_ORIGINAL_MARKET);
         }
     }
@@ -375,10 +384,14 @@ public class MarketplaceGUI extends JFrame {
     public void saveMarketplace() {
         try {
             jsonWriterMarket.open();
-            jsonWriterMarket.write(marketplace);
-            jsonWriterMarket.close();
+            try {
+                jsonWriterMarket.write(marketplace);
+                jsonWriterMarket.close();
+            } finally {
+                jsonWriterMarket.abort();
+            }
             System.out.println("Marketplace successfully saved!");
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.out.println("Unable to write to file: " + JSON_USER_MARKET);
         }
     }
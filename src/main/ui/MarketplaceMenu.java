@@ -1,36 +1,54 @@
 package ui;
 
+import model.GarageWorkRoom;
 import model.cars.Car;
+import model.cars.CarField;
+import model.query.CarQuery;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
-// Creates the marketplace menu
+// Creates the marketplace menu. The market can hold many more cars than anyone scrolls through, so the list
+// shows one page of cars at a time and fetches the next page from the market, already in the chosen order,
+// when it is scrolled to the bottom. Typing in the search box shows the best matches for the manufacturer
+// and model typed so far instead, the similar cars button shows the cars most like the one selected, and the
+// best value button shows the cars no other car beats on both price and performance, cheapest first
 public class MarketplaceMenu extends AbstractMenu {
 
+    private static final int PAGE_SIZE = 50;
+    private static final int SEARCH_LIMIT = 200;
+    private static final int SIMILAR_COUNT = 10;
+
+    private static boolean hasBoughtListing = false;
+
+    private GarageWorkRoom market;
     private JButton buyCarButton;
     private JButton sellCarButton;
+    private JButton similarCarsButton;
+    private JButton bestValueButton;
     private JLabel balanceLabel;
     private JComboBox sortComboBox;
     private JComboBox orderComboBox;
+    private JTextField searchField;
 
-    private String selectedFilter;
     private String selectedOrderFilter;
-    private List<Car> sortedList;
 
     private boolean isAscendingOrder = true;
+    private boolean isShowingSelection;
 
-    // EFFECTS: constructs a new marketplace menu with the list of cars available for purchase
-    public MarketplaceMenu(List<Car> cars) {
-        super(cars);
+    // EFFECTS: constructs a new marketplace menu showing the first page of the market's cars
+    public MarketplaceMenu(GarageWorkRoom market) {
+        super(market.getCars());
+        this.market = market;
         buyCarButtonListener();
         sellCarButtonListener();
+        similarCarsButtonListener();
+        bestValueButtonListener();
     }
 
     @Override
@@ -41,6 +59,10 @@ public class MarketplaceMenu extends AbstractMenu {
         buttonPanel.add(buyCarButton);
         sellCarButton = new JButton("List/Sell car");
         buttonPanel.add(sellCarButton);
+        similarCarsButton = new JButton("Similar cars");
+        buttonPanel.add(similarCarsButton);
+        bestValueButton = new JButton("Best value");
+        buttonPanel.add(bestValueButton);
 
         createSortComboBox();
         buttonPanel.add(sortComboBox);
@@ -48,6 +70,10 @@ public class MarketplaceMenu extends AbstractMenu {
         createOrderComboBox();
         buttonPanel.add(orderComboBox);
 
+        createSearchField();
+        buttonPanel.add(new JLabel("Search:"));
+        buttonPanel.add(searchField);
+
         balanceLabel = new JLabel();
         balanceLabel.setText("Balance: $" + df.format(marketplace.getUserAccount().getBalance()));
         buttonPanel.add(balanceLabel);
@@ -76,90 +102,60 @@ public class MarketplaceMenu extends AbstractMenu {
         sortComboBox.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (isAscendingOrder) {
-                    updateCarListAscending();
-                } else {
-                    updateCarListDescending();
-                }
+                updateCarList();
             }
         });
     }
 
-    // MODIFIES: garageList
-    // EFFECTS: sorts the list of cars according to the selected sorting filter, in ascending order
-    private void updateCarListAscending() {
-        setupLists();
-
-        if (selectedFilter.equals("Year")) {
-            sortedList.sort(Comparator.comparingInt(Car::getYear));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Speed")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getSpeed));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Handling")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getHandling));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Acceleration")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getAcceleration));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Braking")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getBraking));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Drive Type")) {
-            sortedList.sort(Comparator.comparing(Car::getDriveType));
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Price")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getPrice));
-            addCarToSortedList();
-        }
-    }
+    // MODIFIES: this
+    // EFFECTS: creates the search box, which updates the list as its text changes
+    private void createSearchField() {
+        searchField = new JTextField(12);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateCarList();
+            }
 
-    // MODIFIES: garageList
-    // EFFECTS: sorts the list of cars according to the selected sorting filter, in descending order
-    private void updateCarListDescending() {
-        setupLists();
-
-        if (selectedFilter.equals("Year")) {
-            sortedList.sort(Comparator.comparingInt(Car::getYear).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Speed")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getSpeed).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Handling")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getHandling).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Acceleration")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getAcceleration).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Braking")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getBraking).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Drive Type")) {
-            sortedList.sort(Comparator.comparing(Car::getDriveType).reversed());
-            addCarToSortedList();
-        } else if (selectedFilter.equals("Price")) {
-            sortedList.sort(Comparator.comparingDouble(Car::getPrice).reversed());
-            addCarToSortedList();
-        }
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateCarList();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateCarList();
+            }
+        });
     }
 
-    // EFFECTS: initializes the list for sorting and creates the first element of the combo boxes
-    private void setupLists() {
+    // MODIFIES: this
+    // EFFECTS: shows the market's best matches for the search text if there is any, otherwise the first page
+    // of the market's cars in the order chosen by the sort combo boxes, fetching only that page from the
+    // market
+    private void updateCarList() {
         carDefaultListModel.clear();
-        sortedList = new ArrayList<>(carList);
-        selectedFilter = (String) sortComboBox.getSelectedItem();
-
-        if (selectedFilter.equals("Sort by:")) {
-            for (Car c : carList) {
+        isShowingSelection = false;
+        if (isSearching()) {
+            for (Car c : market.search(searchField.getText(), SEARCH_LIMIT)) {
                 carDefaultListModel.addElement(c);
             }
+        } else {
+            loadNextPage();
         }
     }
 
-    // MODIFIES: garageList
-    // EFFECTS: adds the car to the sorted list
-    private void addCarToSortedList() {
-        for (Car c : sortedList) {
+    // EFFECTS: returns true if the search box holds text to search for
+    private boolean isSearching() {
+        return !searchField.getText().trim().isEmpty();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends the next page of the market's cars, in the chosen order, to the list shown
+    private void loadNextPage() {
+        List<Car> page = market.page(SORT_FIELDS[sortComboBox.getSelectedIndex()], isAscendingOrder,
+                carDefaultListModel.size(), PAGE_SIZE);
+        for (Car c : page) {
             carDefaultListModel.addElement(c);
         }
     }
@@ -168,19 +164,25 @@ public class MarketplaceMenu extends AbstractMenu {
     private void chooseSortOrder() {
         selectedOrderFilter = (String) orderComboBox.getSelectedItem();
         isAscendingOrder = selectedOrderFilter.equals("Ascending order");
-        if (isAscendingOrder) {
-            updateCarListAscending();
-        } else {
-            updateCarListDescending();
-        }
+        updateCarList();
     }
 
-    // EFFECTS: creates the menu scroll panel
+    // EFFECTS: creates the menu scroll panel showing the first page of cars, which fetches the next page
+    // whenever it is scrolled to the bottom and more cars remain
     @Override
     protected JPanel createMainPanel() {
         JPanel centerPanel = new JPanel();
         centerPanel.setLayout(new BorderLayout());
-        JScrollPane scrollPane = new JScrollPane(createCarsJList(carList));
+        JScrollPane scrollPane = new JScrollPane(createCarsJList(carList.subList(0,
+                Math.min(PAGE_SIZE, carList.size()))));
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        scrollBar.addAdjustmentListener(e -> {
+            if (market != null && !isSearching() && !isShowingSelection
+                    && scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum()
+                    && carDefaultListModel.size() < carList.size()) {
+                loadNextPage();
+            }
+        });
         centerPanel.add(scrollPane);
         return centerPanel;
     }
@@ -188,17 +190,62 @@ public class MarketplaceMenu extends AbstractMenu {
     // EFFECTS: button listener for the buy car button, buys the selected car when clicked
     private void buyCarButtonListener() {
         buyCarButton.addActionListener(new ActionListener() {
-            // EFFECTS: buys the car from marketplace, adds it to garage, and subtracts car price from account balance
+            // EFFECTS: buys the car from the market shown, adds it to garage, and subtracts car price from account
+            // balance, then shows the market without it; a car bought from the marketplace listings marks them
+            // to be saved on quit
             @Override
             public void actionPerformed(ActionEvent e) {
                 for (Car c : carListMenu.getSelectedCarList()) {
-                    marketplace.buyCar(c);
+                    marketplace.buyCar(c, market);
+                    if (market == MarketplaceGUI.getMarketplace() && market.getCar(c.getId()) == null) {
+                        hasBoughtListing = true;
+                    }
                     balanceLabel.setText("Balance: $" + df.format(marketplace.getUserAccount().getBalance()));
                 }
+                updateCarList();
+            }
+        });
+    }
+
+    // EFFECTS: button listener for the similar cars button, shows the cars most like the selected car when
+    // clicked
+    private void similarCarsButtonListener() {
+        similarCarsButton.addActionListener(new ActionListener() {
+            // EFFECTS: replaces the list with the market's cars nearest the first selected car in performance
+            // and price, until the sort, order or search is changed
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (carListMenu.getSelectedCarList().isEmpty()) {
+                    return;
+                }
+                showSelection(market.similarCars(carListMenu.getSelectedCarList().get(0), SIMILAR_COUNT));
             }
         });
     }
 
+    // EFFECTS: button listener for the best value button, shows the market's skyline on price and performance
+    // when clicked
+    private void bestValueButtonListener() {
+        bestValueButton.addActionListener(new ActionListener() {
+            // EFFECTS: replaces the list with the market's cars that no other car beats on price and every
+            // performance stat, cheapest first, until the sort, order or search is changed
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showSelection(market.query(new CarQuery().skyline().orderBy(CarField.PRICE, true)));
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the list with cars, which is not paged
+    private void showSelection(List<Car> cars) {
+        carDefaultListModel.clear();
+        isShowingSelection = true;
+        for (Car c : cars) {
+            carDefaultListModel.addElement(c);
+        }
+    }
+
     // EFFECTS: button listener for the sell car button, opens a list car menu when clicked
     private void sellCarButtonListener() {
         sellCarButton.addActionListener(new ActionListener() {
@@ -211,4 +258,10 @@ public class MarketplaceMenu extends AbstractMenu {
         });
     }
 
+    // EFFECTS: returns true if the user has bought a car listed on the marketplace, which must then be saved for
+    // the purchase to remove the listing on the next launch
+    public static boolean getHasBoughtListing() {
+        return hasBoughtListing;
+    }
+
 }
@@ -73,9 +73,9 @@ public class SellCarMenu extends JFrame {
             @Override
             public void windowClosing(WindowEvent e) {
                 if (MarketplaceGUI.getIsOriginalMarket()) {
-                    new MarketplaceMenu(MarketplaceGUI.getOriginalMarket().getCars());
+                    new MarketplaceMenu(MarketplaceGUI.getOriginalMarket());
                 } else {
-                    new MarketplaceMenu(MarketplaceGUI.getMarketplace().getCars());
+                    new MarketplaceMenu(MarketplaceGUI.getMarketplace());
                 }
             }
         });
@@ -198,12 +198,12 @@ public class SellCarMenu extends JFrame {
                     MarketplaceGUI.getMarketplace().addCar(car);
                     MarketplaceGUI.setOriginalMarketplaceBooleanFalse();
                     dispose();
-                    new MarketplaceMenu(MarketplaceGUI.getMarketplace().getCars());
-                    //new MarketplaceMenu(MarketplaceGUI.getOriginalMarket().getCars());
+                    new MarketplaceMenu(MarketplaceGUI.getMarketplace());
+                    //new MarketplaceMenu(MarketplaceGUI.getOriginalMarket());
                 } else {
                     MarketplaceGUI.getMarketplace().addCar(car);
                     dispose();
-                    new MarketplaceMenu(MarketplaceGUI.getMarketplace().getCars());
+                    new MarketplaceMenu(MarketplaceGUI.getMarketplace());
                 }
                 hasListedCar = true;
             }
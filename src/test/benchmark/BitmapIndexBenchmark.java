@@ -0,0 +1,74 @@
+package benchmark;
+
+import model.BitmapIndex;
+import model.CarTable;
+import model.bitmap.RoaringBitmap;
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+
+import java.util.Comparator;
+import java.util.List;
+
+// Reports the memory taken by the bitmap indexes on drive type, manufacturer and year of a generated
+// market, and the throughput of intersecting, uniting and subtracting their bitmaps. The market is indexed
+// twice: in generated order, and sorted by manufacturer and year as a catalog loaded from a sorted export
+// would be, where runs compress best. Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx2g benchmark.BitmapIndexBenchmark 1000000
+public class BitmapIndexBenchmark {
+
+    private static final int RUNS = 50;
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Car> cars = new MarketGenerator(42).cars(numCars);
+        System.out.printf("%,d cars%n", numCars);
+        report("generated order", cars);
+        cars.sort(Comparator.comparing(Car::getManufacturer).thenComparingInt(Car::getYear));
+        report("sorted by manufacturer and year", cars);
+    }
+
+    // EFFECTS: indexes cars and prints the size of each index and the throughput of combining them
+    private static void report(String name, List<Car> cars) {
+        CarTable table = new CarTable();
+        table.ensureCapacity(cars.size());
+        for (Car c : cars) {
+            table.add(c);
+        }
+        System.out.printf("%n%s%n", name);
+        for (CarField field : new CarField[] {CarField.DRIVE_TYPE, CarField.MANUFACTURER, CarField.YEAR}) {
+            BitmapIndex index = table.bitmapIndex(field);
+            int[] containers = index.containerCounts();
+            System.out.printf("  %-12s %4d keys  %,10d bytes (%.2f bytes/car, int lists %,d bytes)  "
+                            + "containers: %d array, %d bitmap, %d run%n", field, index.numKeys(),
+                    index.sizeInBytes(), (double) index.sizeInBytes() / table.size(), 4L * table.size(),
+                    containers[0], containers[1], containers[2]);
+        }
+        RoaringBitmap awd = table.bitmapIndex(CarField.DRIVE_TYPE).get(DriveType.AWD.ordinal());
+        RoaringBitmap honda = table.bitmapIndex(CarField.MANUFACTURER).get(table.getManufacturers().lookup("Honda"));
+        RoaringBitmap recent = table.bitmapIndex(CarField.YEAR).range(2010, 2024);
+        time("AWD and Honda", awd, honda, () -> awd.and(honda));
+        time("AWD and 2010-2024", awd, recent, () -> awd.and(recent));
+        time("Honda or 2010-2024", honda, recent, () -> honda.or(recent));
+        time("2010-2024 andNot AWD", recent, awd, () -> recent.andNot(awd));
+    }
+
+    // EFFECTS: runs op RUNS times and prints its best time and the rate it consumes its inputs' values at
+    private static void time(String name, RoaringBitmap a, RoaringBitmap b, Op op) {
+        long best = Long.MAX_VALUE;
+        int cardinality = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            cardinality = op.run().cardinality();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double inputs = a.cardinality() + (double) b.cardinality();
+        System.out.printf("  %-22s %8.3f ms  %,8.0f M input values/s  (%,d results)%n", name, best / 1e6,
+                inputs / (best / 1e9) / 1e6, cardinality);
+    }
+
+    // One timed bitmap operation
+    private interface Op {
+        RoaringBitmap run();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmark;
+
+import model.cars.Car;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Reports the heap retained per Car: cars from the market generator, whose image names are built afresh for
+// every car as a file reader's strings would be, are held in a list and the used heap is measured before and
+// after, with the list's own array subtracted. Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx2g benchmark.CarFootprintBenchmark 1000000
+public class CarFootprintBenchmark {
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        MarketGenerator generator = new MarketGenerator(42);
+        List<Car> cars = new ArrayList<>(numCars);
+        long before = usedHeap();
+        for (int i = 0; i < numCars; i++) {
+            cars.add(generator.nextCar());
+        }
+        long after = usedHeap();
+        System.out.printf("%,d cars: %.1f bytes per car%n", numCars, (double) (after - before) / numCars);
+
+        long chars = 0;
+        for (Car c : cars) {
+            chars += c.toString().length();
+        }
+        long shown = usedHeap();
+        System.out.printf("after showing every car (%,d chars): %.1f bytes per car%n", chars,
+                (double) (shown - before) / numCars);
+        System.out.println(cars.size());
+    }
+
+    // EFFECTS: returns the bytes of heap in use after collecting garbage until the figure settles
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
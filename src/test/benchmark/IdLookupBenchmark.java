@@ -0,0 +1,68 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.cars.Car;
+
+import java.util.List;
+import java.util.Random;
+
+// Measures finding and removing cars by id in a generated market through the workroom's id index, against
+// the linear scan over the cars that removal used to take. Not part of the unit test suite; run main
+// directly, e.g.
+//     java -Xmx2g benchmark.IdLookupBenchmark 1000000
+public class IdLookupBenchmark {
+
+    private static final int LOOKUPS = 1_000_000;
+    private static final int SCANS = 20;
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Car> cars = new MarketGenerator(42).cars(numCars);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(cars);
+        System.out.printf("%,d cars%n", numCars);
+
+        Random random = new Random(15);
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += wr.getCar(cars.get(random.nextInt(numCars)).getId()) != null ? 1 : 0;
+        }
+        report("getCar by id", System.nanoTime() - start, LOOKUPS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            found += indexOf(wr.getCars(), cars.get(random.nextInt(numCars))) >= 0 ? 1 : 0;
+        }
+        report("linear scan", System.nanoTime() - start, SCANS);
+
+        measureRemovals(wr, cars);
+        System.out.printf("(%,d found, %,d cars left)%n", found, wr.numCars());
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: prints the time to remove every tenth car of cars from wr
+    private static void measureRemovals(GarageWorkRoom wr, List<Car> cars) {
+        int removals = cars.size() / 10;
+        long start = System.nanoTime();
+        for (int i = 0; i < removals; i++) {
+            wr.removeCar(cars.get(i * 10));
+        }
+        report("removeCar", System.nanoTime() - start, removals);
+    }
+
+    // EFFECTS: returns the index of car in cars found by comparing every car in turn, or -1
+    private static int indexOf(List<Car> cars, Car car) {
+        for (int i = 0; i < cars.size(); i++) {
+            if (cars.get(i) == car) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: prints the time per operation of n operations that took nanos in total
+    private static void report(String name, long nanos, int n) {
+        System.out.printf("%-14s %,12.1f ns/op  (%,d ops)%n", name, (double) nanos / n, n);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import model.cars.CarField;
+import org.json.JSONObject;
+import persistence.JsonReaderGarage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+// Measures the parse rate, allocation and heap of the streaming JsonReaderGarage against parsing the whole
+// document into a JSONObject first, and of a pushed-down "cars under $50k" read that decodes only four
+// fields. Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx2g benchmark.JsonReaderGarageBenchmark 1000000
+public class JsonReaderGarageBenchmark {
+
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path file = Files.createTempFile("market", ".json");
+        try {
+            new MarketGenerator(42).writeMarket(file, numCars);
+            double megabytes = Files.size(file) / (1024.0 * 1024.0);
+            System.out.printf("%,d cars, %.1f MB%n", numCars, megabytes);
+            for (int i = 0; i < RUNS; i++) {
+                report("streaming", numCars, megabytes, () -> streamingCount(file));
+                report("document", numCars, megabytes, () -> documentCount(file));
+                report("pushdown", numCars, megabytes, () -> pushdownCount(file));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // EFFECTS: counts the cars in file with the streaming reader, without keeping them
+    private static int streamingCount(Path file) throws IOException {
+        int[] count = new int[1];
+        new JsonReaderGarage(file.toString()).forEachCar(car -> count[0]++);
+        return count[0];
+    }
+
+    // EFFECTS: counts the cars under $50k in file, decoding only the fields a list view shows
+    private static int pushdownCount(Path file) throws IOException {
+        int[] count = new int[1];
+        new JsonReaderGarage(file.toString()).forEachCar(record -> record.getPrice() < 50_000,
+                EnumSet.of(CarField.MANUFACTURER, CarField.MODEL, CarField.YEAR, CarField.PRICE),
+                car -> count[0]++);
+        return count[0];
+    }
+
+    // EFFECTS: counts the cars in file by reading the whole file and building a JSONObject from it
+    private static int documentCount(Path file) throws IOException {
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        return new JSONObject(json).getJSONArray("cars").length();
+    }
+
+    // EFFECTS: runs parse once and prints its parse rate, the heap it allocated and the heap in use when
+    // it finished
+    private static void report(String name, int numCars, double megabytes, Parse parse) throws IOException {
+        System.gc();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int parsed = parse.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double allocated = (allocatedBytes() - allocatedBefore) / (1024.0 * 1024.0);
+        Runtime rt = Runtime.getRuntime();
+        long usedMegabytes = (rt.totalMemory() - rt.freeMemory()) / (1024 * 1024);
+        System.out.printf("%-10s %,12.0f cars/s %8.1f MB/s  %,8.1f MB allocated  %,d MB heap  (%,d cars)%n",
+                name, numCars / seconds, megabytes / seconds, allocated, usedMegabytes, parsed);
+    }
+
+    // EFFECTS: returns the bytes allocated on the heap by this thread so far
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // A single timed parse of the benchmark file
+    private interface Parse {
+        int run() throws IOException;
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import persistence.JsonWriterGarage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Measures save throughput and allocation of JsonWriterGarage in indented and compact mode, against
+// building the JSONObject tree and writing it ("tree"), and against the old path of rendering the whole
+// document with toString(TAB) and printing it through an unbuffered PrintWriter ("printwriter").
+// Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx2g benchmark.JsonWriterGarageBenchmark 500000
+public class JsonWriterGarageBenchmark {
+
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(new MarketGenerator(42).cars(numCars));
+        Path file = Files.createTempFile("market", ".json");
+        try {
+            System.out.printf("%,d cars%n", numCars);
+            for (int i = 0; i < RUNS; i++) {
+                report("printwriter", numCars, file, () -> printWriterSave(wr, file));
+                report("tree", numCars, file, () -> treeSave(wr, file));
+                report("indented", numCars, file, () -> save(new JsonWriterGarage(file.toString()), wr));
+                report("compact", numCars, file, () -> save(new JsonWriterGarage(file.toString(), true), wr));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // EFFECTS: saves wr with writer
+    private static void save(JsonWriterGarage writer, GarageWorkRoom wr) throws IOException {
+        writer.open();
+        writer.write(wr);
+        writer.close();
+    }
+
+    // EFFECTS: saves wr the way JsonWriter did before saves became atomic
+    private static void printWriterSave(GarageWorkRoom wr, Path file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new File(file.toString()))) {
+            writer.print(wr.toJson().toString(4));
+        }
+    }
+
+    // EFFECTS: saves wr by building its JSONObject tree and writing that to a buffered writer
+    private static void treeSave(GarageWorkRoom wr, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            wr.toJson().write(writer, 4, 0);
+        }
+    }
+
+    // EFFECTS: runs save once and prints its throughput in cars/s and MB/s, and the heap it allocated
+    private static void report(String name, int numCars, Path file, Save save) throws IOException {
+        System.gc();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        save.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double allocated = (allocatedBytes() - allocatedBefore) / (1024.0 * 1024.0);
+        double megabytes = Files.size(file) / (1024.0 * 1024.0);
+        System.out.printf("%-12s %,12.0f cars/s %8.1f MB/s  %,8.1f MB allocated  (%.1f MB file)%n",
+                name, numCars / seconds, megabytes / seconds, allocated, megabytes);
+    }
+
+    // EFFECTS: returns the bytes allocated on the heap by this thread so far
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // A single timed save of the benchmark workroom
+    private interface Save {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import model.cars.Car;
+import model.cars.DriveType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Generates synthetic car markets of any size for the benchmarks in this package
+public class MarketGenerator {
+
+    private static final String[][] MAKES = {
+            {"Audi", "R8"}, {"Nissan", "GT-R"}, {"Toyota", "Trueno AE86"}, {"Honda", "Civic Type R"},
+            {"BMW", "M5"}, {"Lamborghini", "Aventador"}, {"Porsche", "911 GT3 RS"}, {"Chevrolet", "Stingray"},
+            {"Mazda", "MX-5"}, {"Dodge", "Challenger"}, {"Bugatti", "Veyron"}, {"Ferrari", "LaFerrari"}
+    };
+
+    private final Random random;
+
+    // EFFECTS: constructs a generator whose output is fully determined by seed
+    public MarketGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    // EFFECTS: returns a new randomly generated car
+    public Car nextCar() {
+        String[] make = MAKES[random.nextInt(MAKES.length)];
+        return new Car(make[0], make[1], 1980 + random.nextInt(45), stat(), stat(), stat(), stat(),
+                DriveType.values()[random.nextInt(DriveType.values().length)],
+                5000 + random.nextInt(3_000_000), make[0].toLowerCase() + ".png");
+    }
+
+    // EFFECTS: returns a list of numCars randomly generated cars
+    public List<Car> cars(int numCars) {
+        List<Car> cars = new ArrayList<>(numCars);
+        for (int i = 0; i < numCars; i++) {
+            cars.add(nextCar());
+        }
+        return cars;
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes a market of numCars randomly generated cars to file, one record at a time
+    public void writeMarket(Path file, int numCars) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("{\"cars\": [\n");
+            for (int i = 0; i < numCars; i++) {
+                out.write(nextCar().toJson().toString());
+                out.write(i + 1 < numCars ? ",\n" : "\n");
+            }
+            out.write("]}");
+        }
+    }
+
+    // EFFECTS: returns a random stat between 0.0 and 10.0, rounded to one decimal place
+    private double stat() {
+        return random.nextInt(101) / 10.0;
+    }
+}
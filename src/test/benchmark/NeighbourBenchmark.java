@@ -0,0 +1,92 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.NeighbourIndex;
+import model.cars.Car;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures finding the cars most like a listing of a generated market through the workroom's k-d tree,
+// against measuring the distance to every car, and the cost of keeping the tree up to date as listings are
+// added and removed. Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx3g benchmark.NeighbourBenchmark 1000000
+public class NeighbourBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 2000;
+    private static final int SCANS = 5;
+    private static final int CHANGES = 100_000;
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        MarketGenerator generator = new MarketGenerator(42);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(generator.cars(numCars));
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        wr.similarCars(wr.getCars().get(0), K);
+        System.out.printf("%,d cars, tree built in %,.1f ms%n", numCars, (System.nanoTime() - start) / 1e6);
+
+        long checksum = measureTree(wr, random, K + " nearest, tree");
+        start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            checksum += scan(wr.getCars(), wr.getCars().get(random.nextInt(numCars)));
+        }
+        report(K + " nearest, scan", System.nanoTime() - start, SCANS);
+
+        measureChanges(wr, generator.cars(CHANGES));
+        checksum += measureTree(wr, random, K + " nearest after changes");
+        System.out.println("checksum " + checksum);
+    }
+
+    // EFFECTS: reports the time to find the K cars most like QUERIES random cars of wr through its tree, and
+    // returns the number of cars found
+    private static long measureTree(GarageWorkRoom wr, Random random, String label) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            checksum += wr.similarCars(wr.getCars().get(random.nextInt(wr.numCars())), K).size();
+        }
+        report(label, System.nanoTime() - start, QUERIES);
+        return checksum;
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: reports the time to list each car of added on wr while removing one of its first cars
+    private static void measureChanges(GarageWorkRoom wr, List<Car> added) {
+        List<Car> listed = new ArrayList<>(wr.getCars());
+        long start = System.nanoTime();
+        for (int i = 0; i < added.size(); i++) {
+            wr.addCar(added.get(i));
+            wr.removeCar(listed.get(i));
+        }
+        report("add and remove", System.nanoTime() - start, added.size());
+    }
+
+    // EFFECTS: returns the number of cars nearer to car than the K-th nearest, found by measuring the distance
+    // to every car and keeping the K smallest
+    private static int scan(List<Car> cars, Car car) {
+        List<Double> nearest = new ArrayList<>(K + 1);
+        for (Car c : cars) {
+            double d = NeighbourIndex.distance(car, c);
+            if (c != car && (nearest.size() < K || d < nearest.get(K - 1))) {
+                int i = 0;
+                while (i < nearest.size() && nearest.get(i) <= d) {
+                    i++;
+                }
+                nearest.add(i, d);
+                if (nearest.size() > K) {
+                    nearest.remove(K);
+                }
+            }
+        }
+        return nearest.size();
+    }
+
+    // EFFECTS: prints the average time per operation
+    private static void report(String label, long nanos, int count) {
+        System.out.printf("%-26s %9.4f ms%n", label, nanos / 1e6 / count);
+    }
+}
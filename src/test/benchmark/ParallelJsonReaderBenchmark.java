@@ -0,0 +1,53 @@
+package benchmark;
+
+import persistence.JsonReaderGarage;
+import persistence.ParallelJsonReaderGarage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Measures the parse rate of ParallelJsonReaderGarage at 1, 4, 16 and 32 threads, with the JSON already
+// in memory, against the single-threaded JsonReaderGarage. Not part of the unit test suite; run main
+// directly, e.g.
+//     java -Xmx4g benchmark.ParallelJsonReaderBenchmark 1000000
+public class ParallelJsonReaderBenchmark {
+
+    private static final int RUNS = 3;
+    private static final int[] THREADS = {1, 4, 16, 32};
+
+    public static void main(String[] args) throws IOException {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path file = Files.createTempFile("market", ".json");
+        try {
+            new MarketGenerator(42).writeMarket(file, numCars);
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            System.out.printf("%,d cars, %.1f MB, %d cores%n", numCars, Files.size(file) / (1024.0 * 1024.0),
+                    Runtime.getRuntime().availableProcessors());
+            for (int i = 0; i < RUNS; i++) {
+                report("sequential", numCars, () -> new JsonReaderGarage(file.toString()).read().numCars());
+                for (int threads : THREADS) {
+                    ParallelJsonReaderGarage reader = new ParallelJsonReaderGarage(file.toString(), threads);
+                    report(threads + " threads", numCars, () -> reader.parse(json).numCars());
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // EFFECTS: runs parse once and prints its parse rate
+    private static void report(String name, int numCars, Parse parse) throws IOException {
+        System.gc();
+        long start = System.nanoTime();
+        int parsed = parse.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-12s %,12.0f records/s  (%,d cars)%n", name, numCars / seconds, parsed);
+    }
+
+    // A single timed parse of the benchmark market
+    private interface Parse {
+        int run() throws IOException;
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.MarketStats;
+import model.cars.Car;
+import model.cars.CarField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Measures reading medians and 90th percentiles of price per manufacturer and per year from the quantile
+// sketches kept with a generated market's statistics, against collecting and sorting each group's prices, and
+// reports the worst relative error of the sketched answers. Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx3g benchmark.QuantileBenchmark 1000000
+public class QuantileBenchmark {
+
+    private static final int ROUNDS = 1000;
+    private static final int CHANGES = 200_000;
+    private static final double[] QUANTILES = {0.5, 0.9};
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        MarketGenerator generator = new MarketGenerator(42);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(generator.cars(numCars));
+        long start = System.nanoTime();
+        MarketStats stats = wr.getStats();
+        System.out.printf("%,d cars, statistics counted in %,.1f ms%n", numCars, (System.nanoTime() - start) / 1e6);
+
+        List<Car> added = generator.cars(CHANGES);
+        List<Car> listed = new ArrayList<>(wr.getCars());
+        Random random = new Random(7);
+        start = System.nanoTime();
+        for (int i = 0; i < CHANGES; i++) {
+            wr.addCar(added.get(i));
+            wr.removeCar(listed.get(random.nextInt(numCars)));
+        }
+        System.out.printf("add and remove %.4f ms each%n", (System.nanoTime() - start) / 1e6 / CHANGES);
+
+        stats = wr.getStats();
+        measure("manufacturer", stats.getByManufacturer(), wr, CarField.MANUFACTURER);
+        measure("year", stats.getByYear(), wr, CarField.YEAR);
+    }
+
+    // EFFECTS: prints the time to read every group's price quantiles from the sketches and by collecting and
+    // sorting each group's prices, and the worst relative error of the sketched ones
+    private static void measure(String groupedBy, Map<?, MarketStats.Summary> groups, GarageWorkRoom wr,
+                                CarField field) {
+        long start = System.nanoTime();
+        double checksum = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            for (MarketStats.Summary summary : groups.values()) {
+                for (double q : QUANTILES) {
+                    checksum += summary.getQuantile(CarField.PRICE, q);
+                }
+            }
+        }
+        double sketched = (System.nanoTime() - start) / 1e3 / ROUNDS;
+        start = System.nanoTime();
+        double worst = worstError(groups, wr, field);
+        double sorted = (System.nanoTime() - start) / 1e3;
+        System.out.printf("by %-12s %3d groups: sketches %,9.1f us, scan and sort %,12.1f us, "
+                + "worst error %.4f%% (%s)%n", groupedBy, groups.size(), sketched, sorted, 100 * worst,
+                checksum > 0 ? "ok" : "-");
+    }
+
+    // EFFECTS: returns the worst relative error of the sketched price quantiles of groups, keyed by field,
+    // against those found by collecting and sorting each group's prices from wr
+    private static double worstError(Map<?, MarketStats.Summary> groups, GarageWorkRoom wr, CarField field) {
+        double worst = 0;
+        for (Map.Entry<?, MarketStats.Summary> group : groups.entrySet()) {
+            double[] prices = prices(wr, field, group.getKey());
+            Arrays.sort(prices);
+            for (double q : QUANTILES) {
+                double exact = prices[(int) (q * (prices.length - 1))];
+                worst = Math.max(worst, Math.abs(group.getValue().getQuantile(CarField.PRICE, q) - exact) / exact);
+            }
+        }
+        return worst;
+    }
+
+    // EFFECTS: returns the prices of the cars of wr whose field is key
+    private static double[] prices(GarageWorkRoom wr, CarField field, Object key) {
+        return wr.getCars().stream()
+                .filter(c -> field == CarField.YEAR ? key.equals(c.getYear()) : key.equals(c.getManufacturer()))
+                .mapToDouble(Car::getPrice).toArray();
+    }
+}
@@ -0,0 +1,48 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.query.CarQuery;
+import model.query.QueryParser;
+
+import java.util.Arrays;
+
+// Measures the latency of planned queries over a generated market, printing each query's plan and its
+// best and median times once the indexes it uses have been built. Not part of the unit test suite; run main
+// directly, e.g.
+//     java -Xmx2g benchmark.QueryBenchmark 1000000
+public class QueryBenchmark {
+
+    private static final int RUNS = 21;
+    private static final String[] QUERIES = {
+            "price < 50000",
+            "price < 500000 and drivetype = awd and year >= 2010",
+            "manufacturer = honda and speed > 8 and handling > 8",
+            "price < 20000 or price > 2990000",
+            "drivetype = rwd sort by speed desc limit 20",
+            "manufacturer = bmw and year >= 2000 sort by price limit 50",
+            "speed > 9.5 and braking > 9.5 sort by price desc",
+            "year = 2020 or manufacturer = ferrari",
+            "limit 100"
+    };
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(new MarketGenerator(42).cars(numCars));
+        System.out.printf("%,d cars%n", numCars);
+        for (String text : QUERIES) {
+            CarQuery query = QueryParser.parse(text);
+            int matches = wr.query(query).size();
+            long[] times = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                wr.query(query);
+                times[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            System.out.printf("%n%-58s best %7.3f ms  median %7.3f ms  (%,d cars)%n", text, times[0] / 1e6,
+                    times[RUNS / 2] / 1e6, matches);
+            System.out.print(wr.explain(query));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.DriveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Measures searching a generated market by manufacturer and model through the workroom's trigram index, for
+// whole names, names still being typed and names with typos, against scanning every car for the text. The
+// market has many more distinct model names than MarketGenerator's, as a real catalog would. Not part of the
+// unit test suite; run main directly, e.g.
+//     java -Xmx3g benchmark.SearchBenchmark 1000000
+public class SearchBenchmark {
+
+    private static final String[] MAKES = {"Audi", "Nissan", "Toyota", "Honda", "BMW", "Lamborghini", "Porsche",
+            "Chevrolet", "Mazda", "Dodge", "Bugatti", "Ferrari", "Ford", "Volvo", "Subaru", "Lotus"};
+    private static final String[] SYLLABLES = {"ra", "ven", "ta", "dor", "cu", "ri", "on", "ga", "lar", "mi",
+            "se", "ro", "ka", "zan", "te", "li", "mo", "vo", "ne", "stra"};
+    private static final String[] QUERIES = {"lamborghini aventador", "aven", "lambo", "aventdor", "porsche 9",
+            "huracn", "mazda", "ravendor", "chev", "stradorka"};
+    private static final int SEARCHES = 200;
+    private static final int LIMIT = 50;
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(cars(numCars, new Random(42)));
+        long start = System.nanoTime();
+        wr.search("warm up", 1);
+        System.out.printf("%,d cars, %,d names, index built in %,.1f ms%n", numCars,
+                wr.getTable().textIndex().numNames(), (System.nanoTime() - start) / 1e6);
+
+        for (String query : QUERIES) {
+            start = System.nanoTime();
+            List<Car> found = null;
+            for (int i = 0; i < SEARCHES; i++) {
+                found = wr.search(query, LIMIT);
+            }
+            double indexed = (System.nanoTime() - start) / 1e6 / SEARCHES;
+            start = System.nanoTime();
+            int scanned = scan(wr.getCars(), query);
+            double scan = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%-22s index %7.3f ms  (%2d cars, first %-28s)  scan %7.1f ms (%,d substring hits)%n",
+                    "\"" + query + "\"", indexed, found.size(), found.isEmpty() ? "-" : name(found.get(0)), scan,
+                    scanned);
+        }
+    }
+
+    // EFFECTS: returns numCars cars whose models are made of two or three random syllables
+    private static List<Car> cars(int numCars, Random random) {
+        List<Car> cars = new ArrayList<>(numCars);
+        for (int i = 0; i < numCars; i++) {
+            String model = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                    + (random.nextBoolean() ? SYLLABLES[random.nextInt(SYLLABLES.length)] : "");
+            model = Character.toUpperCase(model.charAt(0)) + model.substring(1)
+                    + (random.nextInt(4) == 0 ? " " + (random.nextInt(9) + 1) + "00" : "");
+            cars.add(new Car(MAKES[random.nextInt(MAKES.length)], model, 1980 + random.nextInt(45), 5, 5, 5, 5,
+                    DriveType.AWD, 5000 + random.nextInt(3_000_000), null));
+        }
+        return cars;
+    }
+
+    // EFFECTS: returns the number of cars whose manufacturer and model contain query, ignoring case
+    private static int scan(List<Car> cars, String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        int hits = 0;
+        for (Car c : cars) {
+            hits += name(c).toLowerCase(Locale.ROOT).contains(q) ? 1 : 0;
+        }
+        return hits;
+    }
+
+    // EFFECTS: returns car's manufacturer and model
+    private static String name(Car car) {
+        return car.getManufacturer() + " " + car.getModel();
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import model.CarTable;
+import model.GarageWorkRoom;
+import model.Skyline;
+import model.cars.CarField;
+import model.cars.DriveType;
+import model.query.CarQuery;
+import model.query.Condition;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Measures finding the skyline on price and performance of a generated market with Skyline on ForkJoinPools
+// of one thread up to twice the available processors, checking every pool finds the same cars, and a skyline
+// query restricted by a filter through the workroom. Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx3g benchmark.SkylineBenchmark 1000000
+public class SkylineBenchmark {
+
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(new MarketGenerator(42).cars(numCars));
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%,d cars, %d processors%n", numCars, processors);
+        measurePools(wr.getTable(), Math.max(4, 2 * processors));
+        measureQuery(wr);
+    }
+
+    // EFFECTS: prints the time to find the skyline of table on pools of one thread up to maxThreads, doubling
+    // each time, and whether each pool finds the same cars as one thread
+    private static void measurePools(CarTable table, int maxThreads) {
+        int[] slots = table.liveSlots();
+        int[] expected = null;
+        double oneThread = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                int[] skyline = Skyline.of(table, slots, pool);
+                long start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) {
+                    skyline = Skyline.of(table, slots, pool);
+                }
+                double ms = (System.nanoTime() - start) / 1e6 / RUNS;
+                oneThread = threads == 1 ? ms : oneThread;
+                expected = expected == null ? skyline : expected;
+                System.out.printf("%2d threads: %,d cars on the skyline in %,.1f ms, %.2fx one thread%s%n", threads,
+                        skyline.length, ms, oneThread / ms, Arrays.equals(expected, skyline) ? "" : " MISMATCH");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // EFFECTS: prints the time of a skyline query restricted by a filter through wr
+    private static void measureQuery(GarageWorkRoom wr) {
+        CarQuery filtered = new CarQuery().where(Condition.and(Condition.driveType(DriveType.AWD),
+                Condition.atLeast(CarField.YEAR, 2010))).skyline().orderBy(CarField.PRICE, true);
+        int found = wr.query(filtered).size();
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            found = wr.query(filtered).size();
+        }
+        System.out.printf("query '%s': %,d cars in %,.1f ms on the common pool%n", filtered, found,
+                (System.nanoTime() - start) / 1e6 / RUNS);
+    }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import model.CarTable;
+import model.SlotSorter;
+import model.cars.Car;
+import model.cars.CarField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Measures sorting a generated market by price, by speed, and by year then price, with SlotSorter over key
+// arrays read from the table's columns, against sorting a list of the cars with the comparators the menus
+// used to build. Not part of the unit test suite; run main directly with the market sizes to try, e.g.
+//     java -Xmx4g benchmark.SortEngineBenchmark 100000 1000000 10000000
+public class SortEngineBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        String[] sizes = args.length > 0 ? args : new String[] {"100000", "1000000"};
+        for (String size : sizes) {
+            run(Integer.parseInt(size));
+        }
+    }
+
+    // EFFECTS: prints the times of each sort over a market of numCars cars
+    private static void run(int numCars) {
+        List<Car> cars = new MarketGenerator(42).cars(numCars);
+        CarTable table = new CarTable();
+        table.ensureCapacity(numCars);
+        for (Car c : cars) {
+            table.add(c);
+        }
+        System.out.printf("%,d cars%n", numCars);
+        report("price", timeComparator(cars, Comparator.comparingDouble(Car::getPrice)),
+                timeEngine(table, CarField.PRICE));
+        report("speed", timeComparator(cars, Comparator.comparingDouble(Car::getSpeed)),
+                timeEngine(table, CarField.SPEED));
+        report("year, price", timeComparator(cars, Comparator.comparingInt(Car::getYear)
+                .thenComparingDouble(Car::getPrice)), timeEngine(table, CarField.YEAR, CarField.PRICE));
+    }
+
+    // EFFECTS: returns the best time in ns of copying cars and sorting the copy with comparator
+    private static long timeComparator(List<Car> cars, Comparator<Car> comparator) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            List<Car> sorted = new ArrayList<>(cars);
+            sorted.sort(comparator);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    // EFFECTS: returns the best time in ns of reading the keys of fields from table's columns and sorting the
+    // table's slots by them in ascending order
+    private static long timeEngine(CarTable table, CarField... fields) {
+        boolean[] ascending = new boolean[fields.length];
+        Arrays.fill(ascending, true);
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            int n = table.size();
+            int[] slots = new int[n];
+            double[][] keys = new double[fields.length][n];
+            for (int i = 0; i < n; i++) {
+                slots[i] = i;
+                for (int j = 0; j < fields.length; j++) {
+                    keys[j][i] = table.value(fields[j], i);
+                }
+            }
+            if (fields.length == 1) {
+                SlotSorter.sort(keys[0], slots, n);
+            } else {
+                SlotSorter.sort(keys, ascending, slots, n);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    // EFFECTS: prints the comparator and engine times of one sort
+    private static void report(String name, long comparator, long engine) {
+        System.out.printf("  %-12s comparator %,9.1f ms   engine %,8.1f ms   %5.1fx%n", name, comparator / 1e6,
+                engine / 1e6, (double) comparator / engine);
+    }
+}
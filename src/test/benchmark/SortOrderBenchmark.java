@@ -0,0 +1,82 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.CarField;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Measures showing a generated market in each sortable field's order, in both directions, through the sort
+// orders the workroom keeps, against copying and sorting every car on each change as the garage list used
+// to, and the cost of keeping the orders up to date as cars are listed and removed. Not part of the unit test
+// suite; run main directly, e.g.
+//     java -Xmx2g benchmark.SortOrderBenchmark 1000000
+public class SortOrderBenchmark {
+
+    private static final CarField[] FIELDS = {CarField.YEAR, CarField.SPEED, CarField.HANDLING,
+            CarField.ACCELERATION, CarField.BRAKING, CarField.DRIVE_TYPE, CarField.PRICE};
+    private static final int CHANGES = 1000;
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(new MarketGenerator(42).cars(numCars));
+        System.out.printf("%,d cars%n", numCars);
+
+        long checksum = 0;
+        for (CarField field : FIELDS) {
+            long start = System.nanoTime();
+            checksum += wr.sortedCars(field, true).get(0).getPrice();
+            long built = System.nanoTime() - start;
+            start = System.nanoTime();
+            checksum += sum(wr.sortedCars(field, true)) + sum(wr.sortedCars(field, false));
+            long walked = System.nanoTime() - start;
+            start = System.nanoTime();
+            checksum += sum(resorted(wr.getCars(), field, true)) + sum(resorted(wr.getCars(), field, false));
+            report(field, built, walked, System.nanoTime() - start);
+        }
+
+        measureChanges(wr, new MarketGenerator(7).cars(CHANGES));
+        System.out.printf("(checksum %d)%n", checksum);
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: prints the time per car to list every car of extra on wr and then remove them all, with the
+    // order of every field kept
+    private static void measureChanges(GarageWorkRoom wr, List<Car> extra) {
+        long start = System.nanoTime();
+        for (Car c : extra) {
+            wr.addCar(c);
+        }
+        for (Car c : extra) {
+            wr.removeCar(c);
+        }
+        System.out.printf("add and remove, %d orders kept: %,.1f us/car%n", FIELDS.length,
+                (System.nanoTime() - start) / 1e3 / extra.size());
+    }
+
+    // EFFECTS: returns a sorted copy of cars, compared as the garage list used to
+    private static List<Car> resorted(List<Car> cars, CarField field, boolean ascending) {
+        List<Car> sorted = new ArrayList<>(cars);
+        Comparator<Car> comparator = Comparator.comparingDouble(c -> c.getValue(field));
+        sorted.sort(ascending ? comparator : comparator.reversed());
+        return sorted;
+    }
+
+    // EFFECTS: returns the sum of the prices of cars, reading every car in order
+    private static long sum(List<Car> cars) {
+        long sum = 0;
+        for (Car c : cars) {
+            sum += c.getPrice();
+        }
+        return sum;
+    }
+
+    // EFFECTS: prints the times to build field's order, read it both ways, and copy and sort both ways
+    private static void report(CarField field, long built, long walked, long resorted) {
+        System.out.printf("%-13s build %,9.1f ms   both ways %,8.1f ms   re-sort both ways %,9.1f ms%n",
+                field.name().toLowerCase(), built / 1e6, walked / 1e6, resorted / 1e6);
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.MarketStats;
+import model.cars.Car;
+import model.cars.CarField;
+import model.query.CarQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures keeping the statistics of a generated market up to date as listings come and go, and reading
+// them afterwards, against counting them again from every car. Also takes the cheapest car off the market
+// repeatedly, the case where an extreme is lost on every change and its year group must be looked at again.
+// Not part of the unit test suite; run main directly, e.g.
+//     java -Xmx3g benchmark.StatsBenchmark 1000000
+public class StatsBenchmark {
+
+    private static final int CHANGES = 200_000;
+    private static final int READS = 200;
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        MarketGenerator generator = new MarketGenerator(42);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(generator.cars(numCars));
+        long start = System.nanoTime();
+        wr.getStats();
+        report("first count", System.nanoTime() - start, 1);
+
+        measureChanges(wr, generator.cars(CHANGES));
+        MarketStats stats = measureRemovingCheapest(wr);
+        GarageWorkRoom recount = new GarageWorkRoom();
+        start = System.nanoTime();
+        recount.addAll(wr.getCars());
+        MarketStats recounted = recount.getStats();
+        report("copy and count again", System.nanoTime() - start, 1);
+        System.out.printf("%,d cars, mean price $%,.0f, cheapest $%,.0f (recount $%,.0f)%n",
+                stats.getOverall().getCount(), stats.getOverall().getMean(CarField.PRICE),
+                stats.getOverall().getMin(CarField.PRICE), recounted.getOverall().getMin(CarField.PRICE));
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: prints the time to list each car of added on wr while removing a random one of its cars, and
+    // then to read the statistics
+    private static void measureChanges(GarageWorkRoom wr, List<Car> added) {
+        List<Car> listed = new ArrayList<>(wr.getCars());
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        for (int i = 0; i < added.size(); i++) {
+            wr.addCar(added.get(i));
+            wr.removeCar(listed.get(random.nextInt(listed.size())));
+        }
+        report("add and remove", System.nanoTime() - start, added.size());
+        start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            wr.getStats();
+        }
+        report("read after changes", System.nanoTime() - start, READS);
+    }
+
+    // MODIFIES: wr
+    // EFFECTS: prints the time to take the cheapest car off wr and read the statistics, READS times over, and
+    // returns the statistics last read
+    private static MarketStats measureRemovingCheapest(GarageWorkRoom wr) {
+        MarketStats stats = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            Car cheapest = wr.query(new CarQuery().orderBy(CarField.PRICE, true).limit(1)).get(0);
+            wr.removeCar(cheapest);
+            stats = wr.getStats();
+        }
+        report("remove cheapest and read", System.nanoTime() - start, READS);
+        return stats;
+    }
+
+    // EFFECTS: prints the average time per operation
+    private static void report(String label, long nanos, int count) {
+        System.out.printf("%-26s %10.4f ms%n", label, nanos / 1e6 / count);
+    }
+}
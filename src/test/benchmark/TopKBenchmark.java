@@ -0,0 +1,52 @@
+package benchmark;
+
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.CarField;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Measures fetching pages of a generated market in price order through the workroom's top-K query path,
+// against copying every car and sorting the copy as the marketplace list used to. Not part of the unit test
+// suite; run main directly, e.g.
+//     java -Xmx2g benchmark.TopKBenchmark 1000000
+public class TopKBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int ROUNDS = 10;
+    private static final int[] PAGES = {0, 1, 10, 100};
+
+    public static void main(String[] args) {
+        int numCars = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(new MarketGenerator(42).cars(numCars));
+        System.out.printf("%,d cars, %d cars per page%n", numCars, PAGE_SIZE);
+
+        long checksum = 0;
+        for (int page : PAGES) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    checksum += wr.page(CarField.PRICE, ascending, page * PAGE_SIZE, PAGE_SIZE).size();
+                }
+                report("page " + page + (ascending ? " asc" : " desc"), System.nanoTime() - start);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            List<Car> sorted = new ArrayList<>(wr.getCars());
+            sorted.sort(Comparator.comparingInt(Car::getPrice));
+            checksum += sorted.subList(0, Math.min(PAGE_SIZE, sorted.size())).size();
+        }
+        report("copy and sort", System.nanoTime() - start);
+        System.out.printf("(checksum %d)%n", checksum);
+    }
+
+    // EFFECTS: prints the time per round of ROUNDS rounds that took nanos in total
+    private static void report(String name, long nanos) {
+        System.out.printf("%-16s %,10.2f ms%n", name, nanos / 1e6 / ROUNDS);
+    }
+}
@@ -107,4 +107,12 @@ public class AccountWorkRoomTest {
         assertEquals(0, accountWorkRoom.getBalance());
     }
 
+    @Test
+    public void testSnapshot() {
+        accountWorkRoom.setBalanceBoughtCar(1000);
+        AccountWorkRoom copy = accountWorkRoom.snapshot();
+        accountWorkRoom.setBalanceBoughtCar(50);
+        assertEquals(1000, copy.getBalance());
+        assertEquals(50, accountWorkRoom.getBalance());
+    }
 }
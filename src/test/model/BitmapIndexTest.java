@@ -0,0 +1,88 @@
+package model;
+
+import model.bitmap.RoaringBitmap;
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitmapIndexTest {
+    private CarTable table;
+    private int slot1;
+    private int slot2;
+    private int slot3;
+
+    @BeforeEach
+    public void runBefore() {
+        table = new CarTable();
+        slot1 = table.add(car("Nissan", 2016, DriveType.AWD));
+        slot2 = table.add(car("Audi", 2012, DriveType.AWD));
+        slot3 = table.add(car("Nissan", 2018, DriveType.RWD));
+    }
+
+    @Test
+    public void testBuiltFromTable() {
+        BitmapIndex index = table.bitmapIndex(CarField.DRIVE_TYPE);
+        assertEquals(CarField.DRIVE_TYPE, index.getField());
+        assertEquals(2, index.numKeys());
+        assertArrayEquals(new int[] {slot1, slot2}, index.get(DriveType.AWD.ordinal()).toArray());
+        assertTrue(index.get(DriveType.FWD.ordinal()).isEmpty());
+        assertEquals(1, index.count(DriveType.RWD.ordinal()));
+        assertSame(index, table.bitmapIndex(CarField.DRIVE_TYPE));
+        assertTrue(index.sizeInBytes() > 0);
+
+        int nissan = table.getManufacturers().lookup("Nissan");
+        assertArrayEquals(new int[] {slot1, slot3}, table.bitmapIndex(CarField.MANUFACTURER).get(nissan).toArray());
+    }
+
+    @Test
+    public void testYearRange() {
+        BitmapIndex index = table.bitmapIndex(CarField.YEAR);
+        assertArrayEquals(new int[] {slot1, slot2}, index.range(2010, 2016).toArray());
+        assertEquals(2, index.countInRange(2016, 2020));
+        assertTrue(index.range(2020, 2010).isEmpty());
+        assertEquals(0, index.countInRange(2020, 2010));
+    }
+
+    @Test
+    public void testUnsupportedField() {
+        assertThrows(IllegalArgumentException.class, () -> table.bitmapIndex(CarField.PRICE));
+        assertFalse(BitmapIndex.supports(CarField.MODEL));
+    }
+
+    @Test
+    public void testKeptUpToDate() {
+        BitmapIndex index = table.bitmapIndex(CarField.DRIVE_TYPE);
+        int slot4 = table.add(car("Audi", 2020, DriveType.AWD));
+        table.remove(slot1);
+        RoaringBitmap awd = index.get(DriveType.AWD.ordinal());
+        assertArrayEquals(new int[] {slot2, slot4}, awd.toArray());
+        table.remove(slot3);
+        assertEquals(1, index.numKeys());
+    }
+
+    @Test
+    public void testRemappedWhenTablePacked() {
+        BitmapIndex index = table.bitmapIndex(CarField.YEAR);
+        for (int i = 0; i < 100; i++) {
+            table.add(car("Make", 2000 + i % 2, DriveType.FWD));
+        }
+        for (int i = 0; i < 80; i++) {
+            table.remove(table.slotAt(3));
+        }
+        assertTrue(table.numSlots() < 100);
+        int[] evenYears = index.get(2000).toArray();
+        assertEquals(10, evenYears.length);
+        for (int slot : evenYears) {
+            assertEquals(2000, table.year(slot));
+        }
+        assertEquals(table.size(), index.countInRange(0, 3000));
+    }
+
+    private Car car(String manufacturer, int year, DriveType driveType) {
+        return new Car(manufacturer, "Model", year, 5, 5, 5, 5, driveType, 10000, null);
+    }
+}
@@ -0,0 +1,128 @@
+package model;
+
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CarTableTest {
+    private CarTable table;
+    private Car car1;
+    private Car car2;
+    private Car car3;
+
+    @BeforeEach
+    public void runBefore() {
+        table = new CarTable();
+        car1 = new Car("Nissan", "GT-R", 2016, 8.2,
+                7.6, 9.0, 9.2, DriveType.AWD, 242000, null);
+        car2 = new Car("Audi", "R8", 2012, 8.4,
+                7.1, 8.0, 9.5, DriveType.RWD, 39120, null);
+        car3 = new Car("Nissan", "Skyline", 1999, 7.2,
+                7.8, 7.0, 6.2, DriveType.RWD, 84923, null);
+    }
+
+    @Test
+    public void testAddStoresColumns() {
+        int slot = table.add(car2);
+        assertEquals(1, table.size());
+        assertSame(car2, table.car(slot));
+        assertEquals("Audi", table.manufacturer(slot));
+        assertEquals("R8", table.model(slot));
+        assertEquals(2012, table.year(slot));
+        assertEquals(39120, table.price(slot));
+        assertEquals(8.4, table.speed(slot));
+        assertEquals(7.1, table.handling(slot));
+        assertEquals(8.0, table.acceleration(slot));
+        assertEquals(9.5, table.braking(slot));
+        assertEquals(DriveType.RWD, table.driveType(slot));
+        assertEquals(9.5, table.value(CarField.BRAKING, slot));
+    }
+
+    @Test
+    public void testManufacturersAreDictionaryEncoded() {
+        int slot1 = table.add(car1);
+        int slot2 = table.add(car2);
+        int slot3 = table.add(car3);
+        assertEquals(table.manufacturerId(slot1), table.manufacturerId(slot3));
+        assertNotEquals(table.manufacturerId(slot1), table.manufacturerId(slot2));
+        assertEquals(2, table.getManufacturers().size());
+        assertEquals(3, table.getModels().size());
+        assertEquals(StringDictionary.NO_STRING, table.getManufacturers().lookup("Toyota"));
+    }
+
+    @Test
+    public void testRemoveKeepsOtherSlots() {
+        int slot1 = table.add(car1);
+        int slot2 = table.add(car2);
+        int slot3 = table.add(car3);
+        table.remove(slot2);
+        assertEquals(2, table.size());
+        assertFalse(table.isLive(slot2));
+        assertSame(car1, table.car(slot1));
+        assertSame(car3, table.car(slot3));
+        assertEquals(slot3, table.slotAt(1));
+        assertEquals(-1, table.slotOf(car2));
+        assertArrayEquals(new int[] {slot1, slot3}, table.liveSlots());
+    }
+
+    @Test
+    public void testCompactionKeepsOrder() {
+        Car[] cars = new Car[200];
+        for (int i = 0; i < cars.length; i++) {
+            cars[i] = new Car("Make", "Model", 2000 + i % 20, i, i, i, i, DriveType.FWD, i, null);
+            table.add(cars[i]);
+        }
+        for (int i = 0; i < cars.length; i++) {
+            if (i % 4 != 0) {
+                table.remove(table.slotOf(cars[i]));
+            }
+        }
+        assertEquals(50, table.size());
+        assertTrue(table.numSlots() < cars.length);
+        for (int i = 0; i < 50; i++) {
+            assertSame(cars[i * 4], table.car(table.slotAt(i)));
+            assertEquals(i * 4, table.price(table.slotAt(i)));
+            assertEquals(table.slotAt(i), table.slotOf(cars[i * 4].getId()));
+            assertEquals(cars[i * 4].getId(), table.id(table.slotAt(i)));
+        }
+        assertEquals(-1, table.slotOf(cars[1]));
+    }
+
+    @Test
+    public void testSlotOfId() {
+        int slot1 = table.add(car1);
+        int slot2 = table.add(car2);
+        assertEquals(slot1, table.slotOf(car1.getId()));
+        assertEquals(slot2, table.slotOf(car2));
+        assertEquals(-1, table.slotOf(car3.getId()));
+        int again = table.add(car1);
+        table.remove(slot1);
+        assertEquals(again, table.slotOf(car1));
+    }
+
+    @Test
+    public void testSlotsBelow() {
+        int slot1 = table.add(car1);
+        int slot2 = table.add(car2);
+        int slot3 = table.add(car3);
+        assertArrayEquals(new int[] {slot2, slot3}, table.slotsBelow(CarField.PRICE, 100000));
+        assertArrayEquals(new int[] {slot1, slot3}, table.slotsBelow(CarField.BRAKING, 9.5));
+        table.remove(slot2);
+        assertArrayEquals(new int[] {slot3}, table.slotsBelow(CarField.YEAR, 2016));
+        assertArrayEquals(new int[0], table.slotsBelow(CarField.SPEED, 1));
+    }
+
+    @Test
+    public void testSlotsWithDriveType() {
+        int slot1 = table.add(car1);
+        int slot2 = table.add(car2);
+        int slot3 = table.add(car3);
+        assertArrayEquals(new int[] {slot2, slot3}, table.slotsWithDriveType(DriveType.RWD));
+        assertArrayEquals(new int[] {slot1}, table.slotsWithDriveType(DriveType.AWD));
+        assertArrayEquals(new int[0], table.slotsWithDriveType(DriveType.FWD));
+    }
+}
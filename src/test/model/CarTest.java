@@ -5,7 +5,7 @@ import model.cars.DriveType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class CarTest {
     private Car car1;
@@ -39,6 +39,31 @@ public class CarTest {
         assertEquals(DriveType.FWD, car3.getDriveType());
     }
 
+    @Test
+    public void testNewCarsGetDistinctIds() {
+        assertTrue(car1.getId() > Car.NO_ID);
+        assertTrue(car2.getId() > car1.getId());
+        assertTrue(car3.getId() > car2.getId());
+        assertNotEquals(car2, car3);
+    }
+
+    @Test
+    public void testSavedIdIsKeptAndReserved() {
+        long id = car3.getId() + 1000;
+        Car saved = new Car(id, "Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, null);
+        assertEquals(id, saved.getId());
+        assertTrue(new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, null).getId() > id);
+    }
+
+    @Test
+    public void testEqualityFollowsId() {
+        Car copy = new Car(car2.getId(), "Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 132000, null);
+        assertEquals(car2, copy);
+        assertEquals(car2.hashCode(), copy.hashCode());
+        assertNotEquals(car1, copy);
+        assertEquals(car2.getId(), car2.toJson().getLong("id"));
+    }
+
     @Test
     public void testToString() {
         assertEquals( "2016" + " "
@@ -51,4 +76,16 @@ public class CarTest {
                 + 9.2 + "\n" + "Drive type: "
                 + "RWD" + "\n", car1.toString());
     }
+
+    @Test
+    public void testNamesAreShared() {
+        Car other = new Car(new String("Nissan"), new String("GT-R"), 2017, 7.9,
+                7.2, 9.6, 7.6, DriveType.AWD, 132000, new String("nissan.png"));
+        Car same = new Car(new String("Nissan"), new String("GT-R"), 2020, 8.1,
+                7.4, 9.6, 7.7, DriveType.AWD, 142000, new String("nissan.png"));
+        assertSame(car2.getManufacturer(), other.getManufacturer());
+        assertSame(car2.getModel(), other.getModel());
+        assertSame(other.getImage(), same.getImage());
+        assertNull(car2.getImage());
+    }
 }
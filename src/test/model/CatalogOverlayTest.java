@@ -0,0 +1,222 @@
+package model;
+
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import model.query.CarQuery;
+import model.query.Condition;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogOverlayTest {
+    private GarageWorkRoom base;
+    private CatalogOverlay overlay;
+    private Car car1;
+    private Car car2;
+    private Car car3;
+
+    @BeforeEach
+    public void runBefore() {
+        car1 = new Car("Nissan", "GT-R", 2016, 8.2,
+                7.6, 9.0, 9.2, DriveType.RWD, 242000, null);
+        car2 = new Car("Audi", "R8", 2016, 8.2,
+                7.6, 9.0, 9.2, DriveType.RWD, 39120, null);
+        car3 = new Car("Toyota", "Corolla", 2016, 8.2,
+                7.6, 9.0, 9.2, DriveType.RWD, 584923, null);
+        base = new GarageWorkRoom();
+        base.addAll(Arrays.asList(car1, car2));
+        overlay = new CatalogOverlay(base);
+    }
+
+    @Test
+    public void testConstructorSharesBase() {
+        assertEquals(2, overlay.numCars());
+        assertSame(car1, overlay.getCars().get(0));
+        assertSame(car2, overlay.getCars().get(1));
+        assertTrue(overlay.getAdded().isEmpty());
+        assertTrue(overlay.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void testAddCarLeavesBaseUntouched() {
+        overlay.addCar(car3);
+        assertEquals(3, overlay.numCars());
+        assertEquals(Arrays.asList(car1, car2, car3), overlay.getCars());
+        assertEquals(2, base.numCars());
+    }
+
+    @Test
+    public void testRemoveBaseCar() {
+        overlay.addCar(car3);
+        overlay.removeCar(car1);
+        assertEquals(Arrays.asList(car2, car3), overlay.getCars());
+        assertEquals(2, base.numCars());
+        assertTrue(overlay.getRemoved().contains(car1));
+    }
+
+    @Test
+    public void testRemoveAddedCar() {
+        overlay.addCar(car3);
+        overlay.removeCar(car3);
+        assertEquals(Arrays.asList(car1, car2), overlay.getCars());
+        assertTrue(overlay.getAdded().isEmpty());
+        assertTrue(overlay.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void testRemoveUnknownCar() {
+        overlay.removeCar(car3);
+        assertEquals(2, overlay.numCars());
+        assertTrue(overlay.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void testMembershipNeedsSameListingAsWellAsId() {
+        Car clash = new Car(car1.getId(), "Porsche", "911", 2019, 8.8, 8.9, 8.7, 9.1, DriveType.RWD, 120000, null);
+        assertFalse(overlay.containsCar(clash));
+        overlay.removeCar(clash);
+        assertEquals(2, overlay.numCars());
+        assertTrue(overlay.getRemoved().isEmpty());
+
+        overlay.addCar(clash);
+        assertTrue(overlay.containsCar(clash));
+        assertTrue(overlay.containsCar(car1));
+        overlay.removeCar(car1);
+        assertEquals(Arrays.asList(car2, clash), overlay.getCars());
+        assertTrue(overlay.containsCar(clash));
+        assertFalse(overlay.containsCar(car1));
+    }
+
+    @Test
+    public void testSnapshotCopiesDeltaOnly() {
+        overlay.addCar(car3);
+        overlay.removeCar(car2);
+        CatalogOverlay copy = overlay.snapshot();
+        overlay.removeCar(car1);
+        assertSame(base, copy.getBase());
+        assertEquals(Arrays.asList(car1, car3), copy.getCars());
+    }
+
+    @Test
+    public void testToJsonHoldsOnlyDelta() {
+        overlay.addCar(car3);
+        overlay.removeCar(car1);
+        JSONObject json = overlay.toJson();
+        assertEquals(1, json.getJSONArray("cars").length());
+        assertEquals("Toyota", json.getJSONArray("cars").getJSONObject(0).getString("manufacturer"));
+        assertEquals(1, json.getJSONArray("removed").length());
+        assertEquals("Nissan", json.getJSONArray("removed").getJSONObject(0).getString("manufacturer"));
+    }
+
+    @Test
+    public void testCarsInGarage() {
+        overlay.removeCar(car1);
+        assertEquals("1. 2016 Audi R8\n", overlay.carsInGarage());
+    }
+
+    @Test
+    public void testRangeQueriesMergeBaseAndAdditions() {
+        Car cheap = new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null);
+        overlay.addCar(car3);
+        overlay.addCar(cheap);
+        overlay.removeCar(car2);
+        assertEquals(Arrays.asList(cheap, car1, car3), overlay.carsInRange(CarField.PRICE, 0, 1e9));
+        assertEquals(Arrays.asList(cheap), overlay.carsBelow(CarField.PRICE, 200000));
+        assertEquals(Arrays.asList(car1, car3, cheap), overlay.carsWithDriveType(DriveType.RWD));
+    }
+
+    @Test
+    public void testQueryMergesBaseAndAdditions() {
+        overlay.addCar(car3);
+        CarQuery byPrice = new CarQuery().orderBy(CarField.PRICE, true);
+        assertEquals(Arrays.asList(car2, car1, car3), overlay.query(byPrice));
+        assertEquals(Arrays.asList(car3, car1), overlay.query(new CarQuery().orderBy(CarField.PRICE, false)
+                .limit(2)));
+        overlay.removeCar(car2);
+        assertEquals(Arrays.asList(car1), overlay.query(byPrice.withLimit(1)));
+        assertEquals(Arrays.asList(car1, car3), overlay.query(new CarQuery().where(Condition.atLeast(
+                CarField.PRICE, 100000))));
+        assertTrue(overlay.explain(byPrice).startsWith("Merge of base catalog without 1 removed cars:"));
+    }
+
+    @Test
+    public void testPagesMergeBaseAndAdditions() {
+        Car cheap = new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null);
+        overlay.addCar(car3);
+        overlay.addCar(cheap);
+        overlay.removeCar(car2);
+        assertEquals(Arrays.asList(cheap, car1), overlay.page(CarField.PRICE, true, 0, 2));
+        assertEquals(Arrays.asList(car1, car3), overlay.page(CarField.PRICE, true, 1, 5));
+        assertEquals(Arrays.asList(car1, cheap), overlay.page(CarField.PRICE, false, 1, 2));
+        assertEquals(Arrays.asList(car3, cheap), overlay.page(null, true, 1, 2));
+        assertTrue(overlay.page(CarField.PRICE, true, 3, 2).isEmpty());
+    }
+
+    @Test
+    public void testSortedCarsMergeBaseAndAdditions() {
+        Car cheap = new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null);
+        overlay.addCar(car3);
+        overlay.addCar(cheap);
+        overlay.removeCar(car1);
+        assertEquals(Arrays.asList(cheap, car2, car3), overlay.sortedCars(CarField.PRICE, true));
+        assertEquals(Arrays.asList(car3, car2, cheap), overlay.sortedCars(CarField.PRICE, false));
+        assertEquals(Arrays.asList(car2, car3, cheap), overlay.sortedCars(null, true));
+    }
+
+    @Test
+    public void testQueryBySeveralFieldsMergesBaseAndAdditions() {
+        Car older = new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 39120, null);
+        overlay.addCar(car3);
+        overlay.addCar(older);
+        CarQuery query = new CarQuery().orderBy(CarField.PRICE, true).thenBy(CarField.YEAR, true);
+        assertEquals(Arrays.asList(older, car2, car1, car3), overlay.query(query));
+        query.thenBy(CarField.DRIVE_TYPE, false);
+        assertEquals(Arrays.asList(older, car2, car1, car3), overlay.query(query));
+        assertEquals(Arrays.asList(car3, car1, car2, older), overlay.query(new CarQuery()
+                .orderBy(CarField.PRICE, false).thenBy(CarField.YEAR, false)));
+    }
+
+    @Test
+    public void testSearchMergesBaseAndAdditions() {
+        Car r8 = new Car("Audi", "R8", 2020, 9.1, 8.4, 9.5, 9.0, DriveType.AWD, 180000, null);
+        Car spyder = new Car("Audi", "R8 Spyder", 2020, 9.1, 8.4, 9.5, 9.0, DriveType.AWD, 190000, null);
+        overlay.addCar(spyder);
+        overlay.addCar(r8);
+        assertEquals(Arrays.asList(car2, r8, spyder), overlay.search("audi r8", 10));
+        assertEquals(Arrays.asList(car2, r8), overlay.search("audi r8", 2));
+        overlay.removeCar(car2);
+        assertEquals(Arrays.asList(r8, spyder), overlay.search("audi r8", 10));
+    }
+
+    @Test
+    public void testSkylineMergesBaseAndAdditions() {
+        Car cheaper = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 30000, null);
+        Car faster = new Car("Audi", "R8", 2016, 9.0, 7.6, 9.0, 9.2, DriveType.RWD, 300000, null);
+        overlay.addCar(faster);
+        assertEquals(Arrays.asList(car2, faster), overlay.query(new CarQuery().skyline()));
+        assertEquals(Arrays.asList(faster, car2), overlay.query(new CarQuery().skyline()
+                .orderBy(CarField.PRICE, false)));
+        overlay.removeCar(car2);
+        assertEquals(Arrays.asList(car1, faster), overlay.query(new CarQuery().skyline()));
+        overlay.addCar(cheaper);
+        assertEquals(Arrays.asList(faster, cheaper), overlay.query(new CarQuery().skyline()));
+        assertEquals(Arrays.asList(cheaper), overlay.query(new CarQuery().skyline().offset(1)
+                .orderBy(CarField.SPEED, false)));
+        assertEquals(Arrays.asList(car2), base.query(new CarQuery().skyline()));
+    }
+
+    @Test
+    public void testSimilarCarsMergeBaseAndAdditions() {
+        overlay.addCar(car3);
+        assertEquals(Arrays.asList(car3, car2), overlay.similarCars(car1, 10));
+        assertEquals(Arrays.asList(car1, car3), overlay.similarCars(car2, 10));
+        overlay.removeCar(car2);
+        assertEquals(Arrays.asList(car3), overlay.similarCars(car1, 10));
+        assertEquals(2, base.similarCars(car3, 10).size());
+    }
+}
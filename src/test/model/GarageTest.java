@@ -1,10 +1,15 @@
 package model;
 
 import model.cars.Car;
+import model.cars.CarField;
 import model.cars.DriveType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GarageTest {
@@ -151,4 +156,152 @@ public class GarageTest {
         garageWorkRoom.addCar(car2);
         assertEquals(2, garageWorkRoom.numCars());
     }
+
+    @Test
+    public void testAddAll() {
+        garageWorkRoom.addCar(car3);
+        garageWorkRoom.addAll(Arrays.asList(car1, car2));
+        assertEquals(3, garageWorkRoom.numCars());
+        assertEquals(car3, garageWorkRoom.getCars().get(0));
+        assertEquals(car1, garageWorkRoom.getCars().get(1));
+        assertEquals(car2, garageWorkRoom.getCars().get(2));
+    }
+
+    @Test
+    public void testAddAllLogsOneEvent() {
+        EventLog.getInstance().clear();
+        garageWorkRoom.addAll(Arrays.asList(car1, car2, car3));
+        List<Event> events = new ArrayList<>();
+        for (Event e : EventLog.getInstance()) {
+            events.add(e);
+        }
+        assertEquals(2, events.size());
+        assertEquals("Loaded 3 cars onto marketplace", events.get(1).getDescription());
+    }
+
+    @Test
+    public void testAddAllLogsCallersEvent() {
+        EventLog.getInstance().clear();
+        garageWorkRoom.addAll(Arrays.asList(car1, car2), "Filtered marketplace to 2 cars");
+        List<Event> events = new ArrayList<>();
+        for (Event e : EventLog.getInstance()) {
+            events.add(e);
+        }
+        assertEquals(2, events.size());
+        assertEquals("Filtered marketplace to 2 cars", events.get(1).getDescription());
+        assertEquals(2, garageWorkRoom.numCars());
+    }
+
+    @Test
+    public void testAddAllEmpty() {
+        EventLog.getInstance().clear();
+        garageWorkRoom.addAll(new ArrayList<>());
+        assertEquals(0, garageWorkRoom.numCars());
+        int numEvents = 0;
+        for (Event e : EventLog.getInstance()) {
+            numEvents++;
+        }
+        assertEquals(1, numEvents);
+    }
+
+    @Test
+    public void testSnapshot() {
+        garageWorkRoom.addCar(car1);
+        GarageWorkRoom copy = garageWorkRoom.snapshot();
+        garageWorkRoom.addCar(car2);
+        assertEquals(1, copy.numCars());
+        assertEquals(car1, copy.getCars().get(0));
+        assertEquals(2, garageWorkRoom.numCars());
+    }
+
+    @Test
+    public void testCarsBelowScansColumn() {
+        garageWorkRoom.addAll(Arrays.asList(car1, car2, car3));
+        assertEquals(Arrays.asList(car2), garageWorkRoom.carsBelow(CarField.PRICE, 242000));
+        assertEquals(Arrays.asList(car1, car2, car3), garageWorkRoom.carsBelow(CarField.YEAR, 2017));
+        garageWorkRoom.removeCar(car2);
+        assertTrue(garageWorkRoom.carsBelow(CarField.PRICE, 242000).isEmpty());
+    }
+
+    @Test
+    public void testCarsWithDriveType() {
+        garageWorkRoom.addAll(Arrays.asList(car1, car2, car3));
+        assertEquals(3, garageWorkRoom.carsWithDriveType(DriveType.RWD).size());
+        assertTrue(garageWorkRoom.carsWithDriveType(DriveType.AWD).isEmpty());
+    }
+
+    @Test
+    public void testGetCarsIsViewOfTable() {
+        List<Car> cars = garageWorkRoom.getCars();
+        garageWorkRoom.addCar(car1);
+        garageWorkRoom.addCar(car2);
+        garageWorkRoom.removeCar(car1);
+        assertEquals(1, cars.size());
+        assertSame(car2, cars.get(0));
+        assertFalse(cars.contains(car1));
+        assertThrows(UnsupportedOperationException.class, () -> cars.add(car3));
+    }
+
+    @Test
+    public void testCarsInRangeInValueOrder() {
+        garageWorkRoom.addAll(Arrays.asList(car1, car2, car3));
+        assertEquals(Arrays.asList(car2, car1), garageWorkRoom.carsInRange(CarField.PRICE, 39120, 242000));
+        garageWorkRoom.addCar(car2);
+        garageWorkRoom.removeCar(car1);
+        assertEquals(Arrays.asList(car2, car2, car3), garageWorkRoom.carsInRange(CarField.PRICE, 0, 1e9));
+    }
+
+    @Test
+    public void testGetCarById() {
+        garageWorkRoom.addAll(Arrays.asList(car1, car2));
+        assertSame(car2, garageWorkRoom.getCar(car2.getId()));
+        assertNull(garageWorkRoom.getCar(car3.getId()));
+        assertTrue(garageWorkRoom.containsCar(car1));
+        garageWorkRoom.removeCar(car1);
+        assertFalse(garageWorkRoom.containsCar(car1));
+        assertNull(garageWorkRoom.getCar(car1.getId()));
+    }
+
+    @Test
+    public void testPageByDriveType() {
+        Car awd = new Car("Audi", "RS6", 2020, 8.0, 7.0, 8.5, 8.0, DriveType.AWD, 120000, null);
+        garageWorkRoom.addAll(Arrays.asList(car1, awd, car2, car3));
+        assertEquals(Arrays.asList(awd, car1), garageWorkRoom.page(CarField.DRIVE_TYPE, true, 0, 2));
+        assertEquals(Arrays.asList(car2, car3), garageWorkRoom.page(CarField.DRIVE_TYPE, true, 2, 2));
+        assertEquals(Arrays.asList(car3, car2, car1), garageWorkRoom.page(CarField.DRIVE_TYPE, false, 0, 3));
+        assertEquals(Arrays.asList(car2), garageWorkRoom.page(CarField.PRICE, true, 0, 1));
+    }
+
+    @Test
+    public void testSortedCarsFollowChanges() {
+        garageWorkRoom.addAll(Arrays.asList(car1, car2));
+        List<Car> ascending = garageWorkRoom.sortedCars(CarField.PRICE, true);
+        List<Car> descending = garageWorkRoom.sortedCars(CarField.PRICE, false);
+        assertEquals(Arrays.asList(car2, car1), ascending);
+        assertEquals(Arrays.asList(car1, car2), descending);
+        garageWorkRoom.addCar(car3);
+        garageWorkRoom.removeCar(car1);
+        assertEquals(Arrays.asList(car2, car3), ascending);
+        assertEquals(Arrays.asList(car3, car2), descending);
+        assertSame(garageWorkRoom.getCars(), garageWorkRoom.sortedCars(null, false));
+        assertThrows(IndexOutOfBoundsException.class, () -> ascending.get(2));
+    }
+
+    @Test
+    public void testSearch() {
+        garageWorkRoom.addAll(Arrays.asList(car1, car2, car3));
+        assertEquals(Arrays.asList(car3), garageWorkRoom.search("toyta corolla", 10));
+        assertEquals(Arrays.asList(car1), garageWorkRoom.search("nis", 10));
+        garageWorkRoom.removeCar(car1);
+        assertTrue(garageWorkRoom.search("nissan", 10).isEmpty());
+    }
+
+    @Test
+    public void testSimilarCars() {
+        garageWorkRoom.addAll(Arrays.asList(car1, car2, car3));
+        assertEquals(Arrays.asList(car3, car2), garageWorkRoom.similarCars(car1, 10));
+        assertEquals(Arrays.asList(car1), garageWorkRoom.similarCars(car2, 1));
+        garageWorkRoom.removeCar(car3);
+        assertEquals(Arrays.asList(car2), garageWorkRoom.similarCars(car1, 10));
+    }
 }
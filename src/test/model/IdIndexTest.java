@@ -0,0 +1,92 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdIndexTest {
+    private IdIndex index;
+
+    @BeforeEach
+    public void runBefore() {
+        index = new IdIndex();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, index.size());
+        assertEquals(-1, index.find(1));
+    }
+
+    @Test
+    public void testInsertAndFind() {
+        for (int i = 0; i < 1000; i++) {
+            index.insert(1000L * i + 1, i);
+        }
+        assertEquals(1000, index.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.find(1000L * i + 1));
+        }
+        assertEquals(-1, index.find(2));
+    }
+
+    @Test
+    public void testDuplicateIdFindsLowestSlot() {
+        index.insert(7, 5);
+        index.insert(7, 2);
+        index.insert(7, 9);
+        assertEquals(2, index.find(7));
+        index.remove(7, 2);
+        assertEquals(5, index.find(7));
+        index.remove(7, 5);
+        index.remove(7, 9);
+        assertEquals(-1, index.find(7));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testRemoveMissingEntry() {
+        index.insert(3, 0);
+        index.remove(3, 1);
+        index.remove(4, 0);
+        assertEquals(1, index.size());
+        assertEquals(0, index.find(3));
+    }
+
+    @Test
+    public void testRandomInsertsAndRemovesMatchMap() {
+        Random random = new Random(15);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int slot = 0; slot < 20000; slot++) {
+            long id = random.nextInt(5000) + 1;
+            if (expected.containsKey(id)) {
+                index.remove(id, expected.remove(id));
+            } else {
+                index.insert(id, slot);
+                expected.put(id, slot);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (long id = 1; id <= 5000; id++) {
+            assertEquals(expected.getOrDefault(id, -1).intValue(), index.find(id));
+        }
+    }
+
+    @Test
+    public void testRemap() {
+        index.ensureCapacity(100);
+        index.insert(10, 4);
+        index.insert(20, 8);
+        int[] newSlots = new int[9];
+        newSlots[4] = 0;
+        newSlots[8] = 1;
+        index.remap(newSlots);
+        assertEquals(0, index.find(10));
+        assertEquals(1, index.find(20));
+    }
+}
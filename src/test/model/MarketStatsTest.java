@@ -0,0 +1,197 @@
+package model;
+
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarketStatsTest {
+    private GarageWorkRoom wr;
+    private Car gtr;
+    private Car r8;
+    private Car corolla;
+
+    @BeforeEach
+    public void runBefore() {
+        wr = new GarageWorkRoom();
+        gtr = new Car("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 132000, null);
+        r8 = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, null);
+        corolla = new Car("Toyota", "Corolla", 2016, 4.1, 5.5, 3.2, 6.0, DriveType.FWD, 21000, null);
+    }
+
+    @Test
+    public void testEmpty() {
+        MarketStats stats = wr.getStats();
+        assertEquals(0, stats.getOverall().getCount());
+        assertEquals(0, stats.getOverall().getSum(CarField.PRICE));
+        assertTrue(Double.isNaN(stats.getOverall().getMean(CarField.SPEED)));
+        assertTrue(Double.isNaN(stats.getOverall().getMin(CarField.PRICE)));
+        assertTrue(stats.getByManufacturer().isEmpty());
+    }
+
+    @Test
+    public void testSummaries() {
+        wr.addAll(Arrays.asList(gtr, r8, corolla));
+        MarketStats.Summary overall = wr.getStats().getOverall();
+        assertEquals(3, overall.getCount());
+        assertEquals(395000, overall.getSum(CarField.PRICE));
+        assertEquals(20.2 / 3, overall.getMean(CarField.SPEED), 1e-9);
+        assertEquals(21000, overall.getMin(CarField.PRICE));
+        assertEquals(9.2, overall.getMax(CarField.BRAKING));
+        assertNull(overall.getGroupField());
+
+        MarketStats.Summary year = wr.getStats().getByYear().get(2016);
+        assertEquals(CarField.YEAR, year.getGroupField());
+        assertEquals(2016, year.getGroupKey());
+        assertEquals(2, year.getCount());
+        assertEquals(5.5, year.getMin(CarField.HANDLING));
+        assertEquals(Arrays.asList("Audi", "Nissan", "Toyota"),
+                new ArrayList<>(wr.getStats().getByManufacturer().keySet()));
+        assertEquals(132000, wr.getStats().getByDriveType().get(DriveType.AWD).getMax(CarField.PRICE));
+        assertThrows(IllegalArgumentException.class, () -> overall.getMean(CarField.YEAR));
+    }
+
+    @Test
+    public void testKeptUpToDate() {
+        MarketStats stats = wr.getStats();
+        wr.addAll(Arrays.asList(gtr, r8, corolla));
+        wr.removeCar(corolla);
+        assertSame(stats, wr.getStats());
+        assertEquals(2, stats.getOverall().getCount());
+        assertEquals(132000, stats.getOverall().getMin(CarField.PRICE));
+        assertEquals(1, stats.getByYear().get(2016).getCount());
+        assertFalse(stats.getByManufacturer().containsKey("Toyota"));
+        assertFalse(stats.getByDriveType().containsKey(DriveType.FWD));
+
+        wr.removeCar(r8);
+        Car cheaper = new Car("Audi", "TT", 2016, 6.0, 6.5, 6.1, 6.8, DriveType.AWD, 40000, null);
+        wr.addCar(cheaper);
+        assertEquals(40000, wr.getStats().getOverall().getMin(CarField.PRICE));
+        assertEquals(132000, wr.getStats().getOverall().getMax(CarField.PRICE));
+        assertEquals(6.0, wr.getStats().getByYear().get(2016).getMax(CarField.SPEED));
+    }
+
+    @Test
+    public void testMatchesRecount() {
+        Random random = new Random(3);
+        List<Car> listed = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            if (!listed.isEmpty() && random.nextInt(3) == 0) {
+                wr.removeCar(listed.remove(random.nextInt(listed.size())));
+            } else {
+                Car car = randomCar(random);
+                listed.add(car);
+                wr.addCar(car);
+            }
+            if (i % 500 == 0) {
+                assertStatsEqual(recount(listed), wr.getStats());
+            }
+        }
+        assertStatsEqual(recount(listed), wr.getStats());
+    }
+
+    @Test
+    public void testOverlay() {
+        wr.addAll(Arrays.asList(gtr, r8));
+        CatalogOverlay overlay = new CatalogOverlay(wr);
+        overlay.removeCar(r8);
+        overlay.addCar(corolla);
+        assertStatsEqual(recount(Arrays.asList(gtr, corolla)), overlay.getStats());
+        Car m3 = new Car("BMW", "M3", 2016, 7.5, 7.9, 8.0, 8.1, DriveType.RWD, 80000, null);
+        overlay.addAll(Arrays.asList(m3));
+        overlay.removeCar(gtr);
+        overlay.removeCar(corolla);
+        assertStatsEqual(recount(Arrays.asList(m3)), overlay.getStats());
+        assertEquals(2, wr.getStats().getOverall().getCount());
+        assertEquals(242000, wr.getStats().getOverall().getMax(CarField.PRICE));
+    }
+
+    @Test
+    public void testQuantilesAndHistograms() {
+        for (int i = 1; i <= 100; i++) {
+            wr.addCar(new Car("Audi", "A" + i, 2016, i / 10.0, 5.0, 5.0, 5.0, DriveType.AWD, i * 10000, null));
+        }
+        MarketStats.Summary audi = wr.getStats().getByManufacturer().get("Audi");
+        assertEquals(500000, audi.getQuantile(CarField.PRICE, 0.5), 500000 * 0.01);
+        assertEquals(900000, audi.getQuantile(CarField.PRICE, 0.9), 900000 * 0.01);
+        assertEquals(5.0, audi.getQuantile(CarField.SPEED, 0.5), 5.0 * 0.01);
+        assertEquals(15, audi.getHistogram(CarField.PRICE).count(4));
+        assertEquals(11, audi.getHistogram(CarField.SPEED).count(9));
+        for (Car c : new ArrayList<>(wr.getCars()).subList(0, 50)) {
+            wr.removeCar(c);
+        }
+        assertEquals(750000, audi.getQuantile(CarField.PRICE, 0.5), 750000 * 0.01);
+        assertEquals(0, audi.getHistogram(CarField.PRICE).count(4));
+        assertTrue(Double.isNaN(new MarketStats().getOverall().getQuantile(CarField.PRICE, 0.5)));
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        wr.addAll(Arrays.asList(gtr, r8, corolla, new Car(null, "Kit", 2016, 1, 1, 1, 1, null, 9000, null)));
+        wr.removeCar(corolla);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        wr.getStats().write(new DataOutputStream(bytes));
+        MarketStats read = MarketStats.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertStatsEqual(wr.getStats(), read);
+        assertTrue(read.getByManufacturer().containsKey(null));
+        assertEquals(wr.getStats().getByYear().get(2016).getHistogram(CarField.PRICE),
+                read.getByYear().get(2016).getHistogram(CarField.PRICE));
+    }
+
+    // EFFECTS: returns the statistics of a new workroom holding cars
+    private static MarketStats recount(List<Car> cars) {
+        GarageWorkRoom fresh = new GarageWorkRoom();
+        fresh.addAll(cars);
+        return fresh.getStats();
+    }
+
+    // EFFECTS: asserts that every summary of actual has the same figures as the one of expected
+    private static void assertStatsEqual(MarketStats expected, MarketStats actual) {
+        assertSummaryEqual(expected.getOverall(), actual.getOverall());
+        assertGroupsEqual(expected.getByManufacturer(), actual.getByManufacturer());
+        assertGroupsEqual(expected.getByYear(), actual.getByYear());
+        assertGroupsEqual(expected.getByDriveType(), actual.getByDriveType());
+    }
+
+    private static void assertGroupsEqual(Map<?, MarketStats.Summary> expected, Map<?, MarketStats.Summary> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Object key : expected.keySet()) {
+            assertSummaryEqual(expected.get(key), actual.get(key));
+        }
+    }
+
+    private static void assertSummaryEqual(MarketStats.Summary expected, MarketStats.Summary actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        for (CarField field : MarketStats.FIELDS) {
+            assertEquals(expected.getSum(field), actual.getSum(field), 1e-6);
+            assertEquals(expected.getMin(field), actual.getMin(field));
+            assertEquals(expected.getMax(field), actual.getMax(field));
+            assertEquals(expected.getQuantile(field, 0.5), actual.getQuantile(field, 0.5));
+            assertEquals(expected.getQuantile(field, 0.9), actual.getQuantile(field, 0.9));
+            assertEquals(expected.getHistogram(field), actual.getHistogram(field));
+        }
+    }
+
+    // EFFECTS: returns a car of one of a few makes and years with random stats and price
+    private static Car randomCar(Random random) {
+        String[] makes = {"Audi", "Nissan", "Toyota", "Honda"};
+        return new Car(makes[random.nextInt(makes.length)], "X", 2015 + random.nextInt(4),
+                random.nextInt(101) / 10.0, random.nextInt(101) / 10.0, random.nextInt(101) / 10.0,
+                random.nextInt(101) / 10.0, DriveType.values()[random.nextInt(3)], 5000 + random.nextInt(100000),
+                null);
+    }
+}
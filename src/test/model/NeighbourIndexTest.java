@@ -0,0 +1,119 @@
+package model;
+
+import model.cars.Car;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NeighbourIndexTest {
+    private CarTable table;
+    private Random random;
+
+    @BeforeEach
+    public void runBefore() {
+        table = new CarTable();
+        random = new Random(7);
+    }
+
+    @Test
+    public void testEmptyAndZero() {
+        Car car = randomCar();
+        assertArrayEquals(new int[0], table.neighbourIndex().nearest(car, 5));
+        table.add(car);
+        assertArrayEquals(new int[0], table.neighbourIndex().nearest(randomCar(), 0));
+        assertEquals(1, table.neighbourIndex().size());
+    }
+
+    @Test
+    public void testLeavesOutCarItself() {
+        Car slow = new Car("Mazda", "MX-5", 2019, 5.0, 7.0, 5.0, 6.0, DriveType.RWD, 30000, null);
+        Car close = new Car("Mazda", "RX-8", 2010, 5.5, 7.0, 5.0, 6.0, DriveType.RWD, 30000, null);
+        Car dearer = new Car("Audi", "TT", 2019, 5.0, 7.0, 5.0, 6.0, DriveType.AWD, 120000, null);
+        int slowSlot = table.add(slow);
+        int closeSlot = table.add(close);
+        int dearerSlot = table.add(dearer);
+        assertArrayEquals(new int[] {closeSlot, dearerSlot}, table.neighbourIndex().nearest(slow, 10));
+        assertArrayEquals(new int[] {slowSlot}, table.neighbourIndex().nearest(close, 1));
+        assertEquals(2.0, NeighbourIndex.distance(slow, dearer), 1e-9);
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        for (int i = 0; i < 2000; i++) {
+            table.add(randomCar());
+        }
+        for (int i = 0; i < 50; i++) {
+            Car query = i % 2 == 0 ? randomCar() : table.car(table.liveSlots()[random.nextInt(table.size())]);
+            assertArrayEquals(bruteForce(query, 10), table.neighbourIndex().nearest(query, 10));
+        }
+    }
+
+    @Test
+    public void testFollowsAddsRemovesAndCompaction() {
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            cars.add(randomCar());
+            table.add(cars.get(i));
+        }
+        NeighbourIndex index = table.neighbourIndex();
+        for (int i = 0; i < 700; i++) {
+            table.remove(table.slotOf(cars.get(i)));
+        }
+        for (int i = 0; i < 300; i++) {
+            table.add(randomCar());
+        }
+        assertSame(index, table.neighbourIndex());
+        assertEquals(table.size(), index.size());
+        for (int i = 0; i < 20; i++) {
+            Car query = randomCar();
+            assertArrayEquals(bruteForce(query, 7), index.nearest(query, 7));
+        }
+        for (int i = 0; i < 100; i++) {
+            table.add(randomCar());
+        }
+        assertNotSame(index, table.neighbourIndex());
+        assertArrayEquals(bruteForce(cars.get(999), 7), table.neighbourIndex().nearest(cars.get(999), 7));
+    }
+
+    @Test
+    public void testManyEqualPoints() {
+        Car same = new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 25000, null);
+        for (int i = 0; i < 100; i++) {
+            table.add(new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 25000, null));
+        }
+        NeighbourIndex index = table.neighbourIndex();
+        for (int i = 0; i < 100; i++) {
+            table.add(new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 25000, null));
+        }
+        assertArrayEquals(new int[] {0, 1, 2}, index.nearest(same, 3));
+        table.remove(1);
+        assertArrayEquals(new int[] {0, 2, 3}, index.nearest(same, 3));
+    }
+
+    // EFFECTS: returns the slots of the k cars nearest to car other than car itself, found by measuring the
+    // distance to every car
+    private int[] bruteForce(Car car, int k) {
+        List<double[]> found = new ArrayList<>();
+        for (int slot : table.liveSlots()) {
+            if (table.id(slot) != car.getId()) {
+                found.add(new double[] {NeighbourIndex.distance(car, table.car(slot)), slot});
+            }
+        }
+        found.sort((a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+        return found.stream().limit(k).mapToInt(e -> (int) e[1]).toArray();
+    }
+
+    // EFFECTS: returns a car with random stats and price
+    private Car randomCar() {
+        return new Car("Audi", "R8", 2016, random.nextInt(101) / 10.0, random.nextInt(101) / 10.0,
+                random.nextInt(101) / 10.0, random.nextInt(101) / 10.0, DriveType.AWD, 5000 + random.nextInt(300000),
+                null);
+    }
+}
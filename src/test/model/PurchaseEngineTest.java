@@ -0,0 +1,212 @@
+package model;
+
+import model.cars.Car;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PurchaseEngineTest {
+    private static final int THREADS = 2000;
+    private static final int ATTEMPTS = 10;
+    private static final int ACCOUNTS = 100;
+
+    private PurchaseEngine engine;
+    private GarageWorkRoom base;
+    private CatalogOverlay market;
+    private AccountWorkRoom buyer;
+    private GarageWorkRoom garage;
+    private Car cheap;
+    private Car dear;
+
+    @BeforeEach
+    public void runBefore() {
+        engine = new PurchaseEngine();
+        cheap = new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 25000, null);
+        dear = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, null);
+        base = new GarageWorkRoom();
+        base.addCar(cheap);
+        market = new CatalogOverlay(base);
+        market.addCar(dear);
+        buyer = new AccountWorkRoom();
+        buyer.setBalanceBoughtCar(100000);
+        garage = new GarageWorkRoom();
+    }
+
+    @Test
+    public void testBuyMovesCarAndDebits() {
+        assertEquals(PurchaseEngine.Outcome.BOUGHT, engine.buy(cheap, market, buyer, garage));
+        assertEquals(75000, buyer.getBalance());
+        assertFalse(market.containsCar(cheap));
+        assertTrue(base.containsCar(cheap));
+        assertTrue(garage.containsCar(cheap));
+        assertFalse(engine.isReserved(cheap));
+        assertEquals(PurchaseEngine.Outcome.NOT_LISTED, engine.buy(cheap, market, buyer, garage));
+        assertEquals(75000, buyer.getBalance());
+    }
+
+    @Test
+    public void testInsufficientFundsChangesNothing() {
+        assertEquals(PurchaseEngine.Outcome.INSUFFICIENT_FUNDS, engine.buy(dear, market, buyer, garage));
+        assertEquals(100000, buyer.getBalance());
+        assertTrue(market.containsCar(dear));
+        assertEquals(0, garage.numCars());
+        assertFalse(engine.isReserved(dear));
+    }
+
+    @Test
+    public void testFailedMoveCreditsBackAndRelists() {
+        GarageWorkRoom full = new GarageWorkRoom() {
+            @Override
+            public void addCar(Car car) {
+                throw new IllegalStateException("garage full");
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> engine.buy(cheap, market, buyer, full));
+        assertEquals(100000, buyer.getBalance());
+        assertTrue(market.containsCar(cheap));
+        assertFalse(engine.isReserved(cheap));
+        assertEquals(PurchaseEngine.Outcome.BOUGHT, engine.buy(cheap, market, buyer, garage));
+        assertEquals(75000, buyer.getBalance());
+    }
+
+    @Test
+    public void testOtherListingsDoNotWaitForALockedOne() throws InterruptedException {
+        buyer.setBalanceBoughtCar(300000);
+        assertNotSame(engine.lockFor(cheap), engine.lockFor(dear));
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            engine.lockFor(cheap).lock();
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                // fall through and unlock
+            }
+            engine.lockFor(cheap).unlock();
+        });
+        holder.start();
+        held.await();
+        try {
+            assertEquals(PurchaseEngine.Outcome.BOUGHT, engine.buy(dear, market, buyer, garage));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertEquals(PurchaseEngine.Outcome.BOUGHT, engine.buy(cheap, market, buyer, garage));
+        assertEquals(33000, buyer.getBalance());
+    }
+
+    @Test
+    public void testDebitAndCredit() {
+        assertTrue(buyer.debit(100000));
+        assertFalse(buyer.debit(0.01));
+        buyer.credit(500);
+        assertEquals(500, buyer.getBalance());
+        assertTrue(buyer.boughtCar(new Car("Mazda", "MX-5", 2019, 5, 7, 5, 6, DriveType.RWD, 500, null)));
+        assertEquals(0, buyer.getBalance());
+    }
+
+    @Test
+    public void testConcurrentBuyersNeverShareListingsOrOverdraw() throws InterruptedException {
+        List<Car> listings = listRandomCars(1000);
+        AccountWorkRoom[] accounts = fundedAccounts();
+        GarageWorkRoom[] garages = new GarageWorkRoom[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            garages[i] = new GarageWorkRoom();
+        }
+        AtomicInteger bought = hammer(listings, accounts, garages);
+
+        Set<Long> owned = new HashSet<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            double spent = 0;
+            for (Car c : garages[i].getCars()) {
+                assertTrue(owned.add(c.getId()), "car bought twice");
+                assertFalse(market.containsCar(c));
+                spent += c.getPrice();
+            }
+            assertTrue(accounts[i].getBalance() >= 0);
+            assertEquals(50000 + 1000 * i - spent, accounts[i].getBalance(), 1e-6);
+        }
+        assertEquals(bought.get(), owned.size());
+        for (Car c : listings) {
+            assertNotEquals(owned.contains(c.getId()), market.containsCar(c));
+            assertFalse(engine.isReserved(c));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns n new cars at random prices, listed alternately on the base catalog and the market
+    private List<Car> listRandomCars(int n) {
+        List<Car> listings = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < n; i++) {
+            listings.add(new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD,
+                    1000 * (1 + random.nextInt(20)), null));
+            (i % 2 == 0 ? base : market).addCar(listings.get(i));
+        }
+        return listings;
+    }
+
+    // EFFECTS: returns ACCOUNTS accounts, the i-th of which holds 50000 + 1000 * i
+    private AccountWorkRoom[] fundedAccounts() {
+        AccountWorkRoom[] accounts = new AccountWorkRoom[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = new AccountWorkRoom();
+            accounts[i].setBalanceBoughtCar(50000 + 1000 * i);
+        }
+        return accounts;
+    }
+
+    // EFFECTS: starts THREADS threads at once, each buying ATTEMPTS cars picked at random from listings on
+    // market for one of accounts into its garage, and returns how many purchases succeeded once all are done
+    private AtomicInteger hammer(List<Car> listings, AccountWorkRoom[] accounts, GarageWorkRoom[] garages)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger bought = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int account = t % ACCOUNTS;
+            Random random = new Random(t);
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                buyAtRandom(listings, random, accounts[account], garages[account], bought);
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return bought;
+    }
+
+    // MODIFIES: this, account, garage, bought
+    // EFFECTS: tries ATTEMPTS times to buy a car picked at random from listings on market for account into
+    // garage, counting each purchase that succeeds in bought
+    private void buyAtRandom(List<Car> listings, Random random, AccountWorkRoom account, GarageWorkRoom garage,
+                             AtomicInteger bought) {
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Car car = listings.get(random.nextInt(listings.size()));
+            if (engine.buy(car, market, account, garage) == PurchaseEngine.Outcome.BOUGHT) {
+                bought.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package model;
+
+import model.cars.Car;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkylineTest {
+    private CarTable table;
+    private Random random;
+
+    @BeforeEach
+    public void runBefore() {
+        table = new CarTable();
+        random = new Random(11);
+    }
+
+    @Test
+    public void testBeats() {
+        Car cheap = new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 25000, null);
+        Car dearer = new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 26000, null);
+        Car faster = new Car("Honda", "Civic", 2018, 6.5, 6.0, 6.0, 6.0, DriveType.FWD, 26000, null);
+        assertTrue(Skyline.beats(cheap, dearer));
+        assertFalse(Skyline.beats(dearer, cheap));
+        assertFalse(Skyline.beats(cheap, faster));
+        assertFalse(Skyline.beats(faster, cheap));
+        assertTrue(Skyline.beats(faster, dearer));
+        assertFalse(Skyline.beats(cheap, cheap));
+    }
+
+    @Test
+    public void testEmptyAndEqualCars() {
+        assertArrayEquals(new int[0], Skyline.of(table, new int[0]));
+        for (int i = 0; i < 3; i++) {
+            table.add(new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 25000, null));
+        }
+        table.add(new Car("Honda", "Civic", 2018, 6.0, 5.0, 6.0, 6.0, DriveType.FWD, 25000, null));
+        assertArrayEquals(new int[] {0, 1, 2}, Skyline.of(table, table.liveSlots()));
+        assertArrayEquals(new int[] {2, 0}, Skyline.of(table, new int[] {2, 3, 0}));
+    }
+
+    @Test
+    public void testMatchesBruteForceAcrossLeaves() {
+        for (int i = 0; i < 10000; i++) {
+            table.add(randomCar());
+        }
+        int[] slots = table.liveSlots();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(bruteForce(slots), Skyline.of(table, slots, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(bruteForce(slots), Skyline.of(table, slots));
+    }
+
+    @Test
+    public void testOfCarsKeepsOrderGiven() {
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            cars.add(randomCar());
+            table.add(cars.get(i));
+        }
+        List<Car> expected = new ArrayList<>();
+        for (int slot : bruteForce(table.liveSlots())) {
+            expected.add(cars.get(slot));
+        }
+        assertEquals(expected, Skyline.of(cars));
+        assertEquals(Arrays.asList(cars.get(0)), Skyline.of(cars.subList(0, 1)));
+    }
+
+    // EFFECTS: returns the slots among slots whose cars no other of them beats, in the order given, found by
+    // comparing every pair
+    private int[] bruteForce(int[] slots) {
+        Car[] cars = new Car[table.numSlots()];
+        for (int slot : slots) {
+            cars[slot] = table.car(slot);
+        }
+        return Arrays.stream(slots).filter(s -> Arrays.stream(slots)
+                .noneMatch(t -> Skyline.beats(cars[t], cars[s]))).toArray();
+    }
+
+    // EFFECTS: returns a car with random stats and price, drawn from few values so that many cars tie
+    private Car randomCar() {
+        return new Car("Audi", "R8", 2016, random.nextInt(21) / 2.0, random.nextInt(21) / 2.0,
+                random.nextInt(21) / 2.0, random.nextInt(21) / 2.0, DriveType.AWD, 5000 * (1 + random.nextInt(60)),
+                null);
+    }
+}
@@ -0,0 +1,108 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlotSorterTest {
+    private static final double[] SPECIAL = {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE};
+
+    @Test
+    public void testSortableKeepsOrder() {
+        double[] keys = {Double.NEGATIVE_INFINITY, -1e300, -2.5, -Double.MIN_VALUE, -0.0, 0.0, Double.MIN_VALUE,
+                1, 1990, 2.5e6, Double.POSITIVE_INFINITY, Double.NaN};
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(Double.doubleToLongBits(keys[i]),
+                    Double.doubleToLongBits(SlotSorter.fromSortable(SlotSorter.sortable(keys[i]))));
+            if (i > 0) {
+                assertTrue(Long.compareUnsigned(SlotSorter.sortable(keys[i - 1]), SlotSorter.sortable(keys[i])) < 0);
+            }
+        }
+    }
+
+    @Test
+    public void testSortMatchesStableSort() {
+        Random random = new Random(19);
+        for (int n : new int[] {0, 1, 7, 31, 32, 1000, 20000}) {
+            double[] fractions = new double[n];
+            double[] wholes = new double[n];
+            for (int i = 0; i < n; i++) {
+                fractions[i] = random.nextInt(10) == 0 ? SPECIAL[random.nextInt(SPECIAL.length)]
+                        : random.nextGaussian() * 100;
+                wholes[i] = 1980 + random.nextInt(45);
+            }
+            assertSortsStably(fractions, false);
+            assertSortsStably(wholes, false);
+            assertSortsStably(wholes, true);
+        }
+    }
+
+    @Test
+    public void testSortByKeys() {
+        Random random = new Random(20);
+        int n = 5000;
+        double[][] keys = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            keys[0][i] = random.nextInt(3);
+            keys[1][i] = random.nextInt(50) / 10.0;
+        }
+        for (boolean first : new boolean[] {true, false}) {
+            for (boolean second : new boolean[] {true, false}) {
+                int[] slots = positions(n);
+                SlotSorter.sort(keys, new boolean[] {first, second}, slots, n);
+                Comparator<Integer> byKeys = Comparator.comparingDouble((Integer i) -> keys[0][i] * (first ? 1 : -1))
+                        .thenComparingDouble(i -> keys[1][i] * (second ? 1 : -1))
+                        .thenComparingInt(i -> second ? i : -i);
+                assertArrayEquals(reference(n, byKeys), slots);
+            }
+        }
+    }
+
+    @Test
+    public void testDescendingOneKeyIsReverse() {
+        double[][] keys = {{2, 1, 2, 1, 3}};
+        int[] ascending = positions(5);
+        int[] descending = positions(5);
+        SlotSorter.sort(keys, new boolean[] {true}, ascending, 5);
+        SlotSorter.sort(keys, new boolean[] {false}, descending, 5);
+        assertArrayEquals(new int[] {1, 3, 0, 2, 4}, ascending);
+        assertArrayEquals(new int[] {4, 2, 0, 3, 1}, descending);
+    }
+
+    // EFFECTS: asserts that sorting keys, in parallel if asked, moves the slots as a stable sort would
+    private static void assertSortsStably(double[] keys, boolean parallel) {
+        int n = keys.length;
+        double[] sortedKeys = keys.clone();
+        int[] slots = positions(n);
+        SlotSorter.sort(sortedKeys, slots, n, parallel);
+        int[] expected = reference(n, Comparator.comparing((Integer i) -> keys[i], Double::compare));
+        assertArrayEquals(expected, slots);
+        for (int i = 0; i < n; i++) {
+            assertEquals(Double.doubleToLongBits(keys[expected[i]]), Double.doubleToLongBits(sortedKeys[i]));
+        }
+    }
+
+    // EFFECTS: returns the positions 0 to n - 1 sorted stably by comparator
+    private static int[] reference(int n, Comparator<Integer> comparator) {
+        Integer[] boxed = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, comparator);
+        return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+
+    // EFFECTS: returns the positions 0 to n - 1 in order
+    private static int[] positions(int n) {
+        int[] slots = new int[n];
+        for (int i = 0; i < n; i++) {
+            slots[i] = i;
+        }
+        return slots;
+    }
+}
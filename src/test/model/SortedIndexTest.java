@@ -0,0 +1,112 @@
+package model;
+
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortedIndexTest {
+    private CarTable table;
+    private int slot1;
+    private int slot2;
+    private int slot3;
+
+    @BeforeEach
+    public void runBefore() {
+        table = new CarTable();
+        slot1 = table.add(car(2016, 242000));
+        slot2 = table.add(car(2012, 39120));
+        slot3 = table.add(car(2018, 84923));
+    }
+
+    @Test
+    public void testBuiltInValueOrder() {
+        SortedIndex index = table.index(CarField.PRICE);
+        assertEquals(3, index.size());
+        assertEquals(CarField.PRICE, index.getField());
+        assertEquals(slot2, index.slotAt(0));
+        assertEquals(slot3, index.slotAt(1));
+        assertEquals(slot1, index.slotAt(2));
+        assertEquals(39120, index.keyAt(0));
+    }
+
+    @Test
+    public void testRanges() {
+        SortedIndex index = table.index(CarField.YEAR);
+        assertArrayEquals(new int[] {slot2, slot1}, index.slotsInRange(2012, true, 2016, true));
+        assertArrayEquals(new int[] {slot1}, index.slotsInRange(2012, false, 2016, true));
+        assertArrayEquals(new int[] {slot2}, index.slotsInRange(2012, true, 2016, false));
+        assertArrayEquals(new int[0], index.slotsInRange(2019, true, 2030, true));
+        assertArrayEquals(new int[0], index.slotsInRange(2016, true, 2012, true));
+        assertArrayEquals(new int[] {slot2, slot1}, index.slotsBelow(2018));
+        assertEquals(3, index.countInRange(2000, true, 2020, true));
+        assertEquals(0, index.countInRange(2018, false, 2020, true));
+    }
+
+    @Test
+    public void testMaintainedOnAddAndRemove() {
+        SortedIndex index = table.index(CarField.PRICE);
+        int slot4 = table.add(car(2020, 50000));
+        assertArrayEquals(new int[] {slot2, slot4, slot3, slot1}, index.slotsBelow(Double.MAX_VALUE));
+        table.remove(slot3);
+        assertArrayEquals(new int[] {slot2, slot4, slot1}, index.slotsBelow(Double.MAX_VALUE));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testTiesInSlotOrder() {
+        int slot4 = table.add(car(2016, 1));
+        int slot5 = table.add(car(2016, 2));
+        SortedIndex index = table.index(CarField.YEAR);
+        assertArrayEquals(new int[] {slot1, slot4, slot5}, index.slotsInRange(2016, true, 2016, true));
+        table.remove(slot4);
+        assertArrayEquals(new int[] {slot1, slot5}, index.slotsInRange(2016, true, 2016, true));
+    }
+
+    @Test
+    public void testRemappedWhenTableIsPacked() {
+        SortedIndex index = table.index(CarField.PRICE);
+        Car[] cars = new Car[200];
+        for (int i = 0; i < cars.length; i++) {
+            cars[i] = car(2000, 1000 + i);
+            table.add(cars[i]);
+        }
+        for (int i = 0; i < cars.length; i++) {
+            if (i % 2 == 1) {
+                table.remove(table.slotOf(cars[i]));
+            }
+        }
+        table.remove(slot1);
+        table.remove(slot3);
+        assertEquals(table.size(), index.size());
+        for (int i = 0; i < index.size() - 1; i++) {
+            assertTrue(index.keyAt(i) <= index.keyAt(i + 1));
+            assertEquals(index.keyAt(i), table.price(index.slotAt(i)));
+            assertTrue(table.isLive(index.slotAt(i)));
+        }
+    }
+
+    @Test
+    public void testIndexOnUnorderableField() {
+        assertThrows(IllegalArgumentException.class, () -> table.index(CarField.MANUFACTURER));
+    }
+
+    @Test
+    public void testDriveTypeIndex() {
+        int slot4 = table.add(new Car("Make", "Model", 2020, 5, 5, 5, 5, DriveType.AWD, 1, null));
+        SortedIndex index = table.index(CarField.DRIVE_TYPE);
+        assertEquals(slot4, index.slotAt(0));
+        assertEquals(DriveType.FWD.ordinal(), index.keyAt(1));
+        int slot5 = table.add(new Car("Make", "Model", 2020, 5, 5, 5, 5, DriveType.RWD, 1, null));
+        int slot6 = table.add(new Car("Make", "Model", 2020, 5, 5, 5, 5, DriveType.AWD, 1, null));
+        assertArrayEquals(new int[] {slot4, slot6, slot1, slot2, slot3, slot5},
+                index.slotsBelow(Double.MAX_VALUE));
+    }
+
+    private Car car(int year, int price) {
+        return new Car("Make", "Model", year, 5, 5, 5, 5, DriveType.FWD, price, null);
+    }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import model.cars.Car;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextIndexTest {
+    private CarTable table;
+    private int aventador;
+    private int r8;
+    private int huracan;
+    private int r8Spyder;
+
+    @BeforeEach
+    public void runBefore() {
+        table = new CarTable();
+        aventador = table.add(car("Lamborghini", "Aventador"));
+        r8 = table.add(car("Audi", "R8"));
+        huracan = table.add(car("Lamborghini", "Huracan"));
+        r8Spyder = table.add(car("Audi", "R8 Spyder"));
+    }
+
+    @Test
+    public void testBuiltOncePerName() {
+        int second = table.add(car("Lamborghini", "Aventador"));
+        TextIndex index = table.textIndex();
+        assertSame(index, table.textIndex());
+        assertEquals(4, index.numNames());
+        assertTrue(index.numTrigrams() > 0);
+        assertArrayEquals(new int[] {aventador, second}, index.search("aventador", 10));
+        assertArrayEquals(new int[] {aventador}, index.search("aventador", 1));
+    }
+
+    @Test
+    public void testPrefixAndCase() {
+        TextIndex index = table.textIndex();
+        assertArrayEquals(new int[] {aventador}, index.search("AVEN", 10));
+        assertArrayEquals(new int[] {huracan, aventador}, index.search("lambo", 10));
+        assertArrayEquals(new int[] {aventador, huracan}, index.search("lamborghini av", 10));
+        assertArrayEquals(new int[0], index.search("  -- ", 10));
+        assertArrayEquals(new int[0], index.search("ferrari", 10));
+    }
+
+    @Test
+    public void testTypos() {
+        TextIndex index = table.textIndex();
+        assertArrayEquals(new int[] {aventador}, index.search("aventdor", 10));
+        assertArrayEquals(new int[] {huracan}, index.search("huracn", 10));
+        assertArrayEquals(new int[] {huracan, aventador}, index.search("lamborgini", 10));
+    }
+
+    @Test
+    public void testShorterNameRanksFirst() {
+        assertArrayEquals(new int[] {r8, r8Spyder}, table.textIndex().search("audi r8", 10));
+        assertTrue(TextIndex.similarity("audi r8", "Audi", "R8") > TextIndex.similarity("audi r8", "Audi",
+                "R8 Spyder"));
+        assertEquals(0, TextIndex.similarity("", "Audi", "R8"));
+    }
+
+    @Test
+    public void testFinishedWordMustEnd() {
+        assertArrayEquals(new int[] {r8, r8Spyder}, table.textIndex().search("r8", 10));
+        assertEquals(1.0, TextIndex.similarity("r", "Audi", "R8"), 1e-3);
+        assertTrue(TextIndex.similarity("r ", "Audi", "R8") < TextIndex.MIN_SIMILARITY);
+    }
+
+    @Test
+    public void testMaintainedOnAddAndRemove() {
+        TextIndex index = table.textIndex();
+        table.remove(aventador);
+        int added = table.add(car("Lamborghini", "Aventador"));
+        int other = table.add(car("Ferrari", "LaFerrari"));
+        assertArrayEquals(new int[] {added}, index.search("aventador", 10));
+        assertArrayEquals(new int[] {other}, index.search("ferari", 10));
+        table.remove(other);
+        assertArrayEquals(new int[0], index.search("ferrari", 10));
+    }
+
+    @Test
+    public void testRemappedWhenTableIsPacked() {
+        TextIndex index = table.textIndex();
+        for (int i = 0; i < 200; i++) {
+            table.add(car("Make", "Filler"));
+        }
+        for (int i = 0; i < 190; i++) {
+            table.remove(table.slotAt(table.size() - 1));
+        }
+        table.remove(aventador);
+        int[] slots = index.search("audi r8", 10);
+        assertEquals(2, slots.length);
+        assertEquals("R8", table.model(slots[0]));
+        assertEquals("R8 Spyder", table.model(slots[1]));
+        assertEquals(10, index.search("filler", 100).length);
+    }
+
+    private Car car(String manufacturer, String model) {
+        return new Car(manufacturer, model, 2020, 5, 5, 5, 5, DriveType.AWD, 100000, null);
+    }
+}
@@ -0,0 +1,134 @@
+package model.bitmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoaringBitmapTest {
+
+    @Test
+    public void testAddRemoveContains() {
+        RoaringBitmap bitmap = RoaringBitmap.of(5, 1, 70000, 5);
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(1));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(-1));
+        assertArrayEquals(new int[] {1, 5, 70000}, bitmap.toArray());
+        bitmap.remove(70000);
+        bitmap.remove(3);
+        bitmap.remove(-1);
+        assertArrayEquals(new int[] {1, 5}, bitmap.toArray());
+        bitmap.remove(1);
+        bitmap.remove(5);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    public void testToArrayWithLimit() {
+        RoaringBitmap bitmap = RoaringBitmap.of(1, 5, 70000, 70001, 140000);
+        assertArrayEquals(new int[0], bitmap.toArray(0));
+        assertArrayEquals(new int[] {1, 5}, bitmap.toArray(2));
+        assertArrayEquals(new int[] {1, 5, 70000}, bitmap.toArray(3));
+        assertArrayEquals(bitmap.toArray(), bitmap.toArray(10));
+    }
+
+    @Test
+    public void testContainerForms() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 5000; i++) {
+            bitmap.add(i * 2);
+        }
+        assertArrayEquals(new int[] {0, 1, 0}, bitmap.containerCounts());
+        for (int i = 0; i < 1000; i++) {
+            bitmap.remove(i * 2);
+        }
+        assertArrayEquals(new int[] {1, 0, 0}, bitmap.containerCounts());
+        assertEquals(4000, bitmap.cardinality());
+
+        RoaringBitmap dense = new RoaringBitmap();
+        for (int i = 0; i < 60000; i++) {
+            dense.add(i);
+        }
+        long bitmapBytes = dense.sizeInBytes();
+        dense.runOptimize();
+        assertArrayEquals(new int[] {0, 0, 1}, dense.containerCounts());
+        assertTrue(dense.sizeInBytes() < bitmapBytes / 50);
+        assertTrue(dense.contains(59999));
+        assertFalse(dense.contains(60000));
+        dense.add(60001);
+        assertArrayEquals(new int[] {0, 1, 0}, dense.containerCounts());
+        assertEquals(60001, dense.cardinality());
+    }
+
+    @Test
+    public void testSetOperations() {
+        RoaringBitmap a = RoaringBitmap.of(1, 2, 3, 100000);
+        RoaringBitmap b = RoaringBitmap.of(2, 3, 4, 200000);
+        assertArrayEquals(new int[] {2, 3}, a.and(b).toArray());
+        assertArrayEquals(new int[] {1, 2, 3, 4, 100000, 200000}, a.or(b).toArray());
+        assertArrayEquals(new int[] {1, 100000}, a.andNot(b).toArray());
+        assertArrayEquals(new int[] {1, 2, 3, 100000}, a.toArray());
+        assertTrue(a.and(new RoaringBitmap()).isEmpty());
+    }
+
+    @Test
+    public void testOperationsMatchReferenceAcrossForms() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 20; trial++) {
+            TreeSet<Integer> setA = new TreeSet<>();
+            TreeSet<Integer> setB = new TreeSet<>();
+            RoaringBitmap a = randomBitmap(random, setA);
+            RoaringBitmap b = randomBitmap(random, setB);
+            TreeSet<Integer> and = new TreeSet<>(setA);
+            and.retainAll(setB);
+            TreeSet<Integer> or = new TreeSet<>(setA);
+            or.addAll(setB);
+            TreeSet<Integer> andNot = new TreeSet<>(setA);
+            andNot.removeAll(setB);
+            assertArrayEquals(toArray(and), a.and(b).toArray());
+            assertArrayEquals(toArray(or), a.or(b).toArray());
+            assertArrayEquals(toArray(andNot), a.andNot(b).toArray());
+            assertEquals(setA.size(), a.cardinality());
+        }
+    }
+
+    @Test
+    public void testResultsDoNotShareContainers() {
+        RoaringBitmap a = RoaringBitmap.of(1, 2);
+        RoaringBitmap union = a.or(RoaringBitmap.of(100000));
+        union.add(3);
+        assertFalse(a.contains(3));
+        assertEquals(a, RoaringBitmap.of(2, 1));
+        assertEquals(a.hashCode(), RoaringBitmap.of(2, 1).hashCode());
+    }
+
+    // MODIFIES: reference
+    // EFFECTS: returns a bitmap over three chunks, sparse, dense or in runs at random, holding the same
+    // values as it adds to reference
+    private RoaringBitmap randomBitmap(Random random, TreeSet<Integer> reference) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int chunk = 0; chunk < 3; chunk++) {
+            int form = random.nextInt(3);
+            int count = form == 0 ? 100 : 20000;
+            int start = random.nextInt(30000);
+            for (int i = 0; i < count; i++) {
+                int low = form == 2 ? start + i : random.nextInt(65536);
+                bitmap.add((chunk << 16) | low);
+                reference.add((chunk << 16) | low);
+            }
+        }
+        if (random.nextBoolean()) {
+            bitmap.runOptimize();
+        }
+        return bitmap;
+    }
+
+    // EFFECTS: returns the values of set in ascending order
+    private int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,84 @@
+package model.query;
+
+import model.cars.CarField;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryParserTest {
+
+    @Test
+    public void testComparisons() {
+        assertEquals("price < 50000", QueryParser.parse("price < 50000").toString());
+        assertEquals("year >= 2015", QueryParser.parse("YEAR>=2015").toString());
+        assertEquals("speed > 7.5", QueryParser.parse("speed > 7.5").toString());
+        assertEquals("braking <= 9", QueryParser.parse("braking <= 9").toString());
+        assertEquals("handling = 6", QueryParser.parse("handling = 6").toString());
+        assertEquals("drivetype = AWD", QueryParser.parse("drivetype = awd").toString());
+        assertEquals("manufacturer = 'Aston Martin'",
+                QueryParser.parse("manufacturer = \"Aston Martin\"").toString());
+    }
+
+    @Test
+    public void testAndBindsTighterThanOr() {
+        CarQuery query = QueryParser.parse("price < 50000 and drivetype = fwd or year >= 2020");
+        assertTrue(query.getCondition() instanceof OrCondition);
+        assertEquals("(price < 50000 and drivetype = FWD) or year >= 2020", query.toString());
+        query = QueryParser.parse("price < 50000 and (drivetype = fwd or year >= 2020)");
+        assertTrue(query.getCondition() instanceof AndCondition);
+        assertEquals("price < 50000 and (drivetype = FWD or year >= 2020)", query.toString());
+    }
+
+    @Test
+    public void testSkyline() {
+        CarQuery query = QueryParser.parse("year >= 2015 SKYLINE sort by price limit 5");
+        assertTrue(query.isSkyline());
+        assertEquals("year >= 2015 skyline sort by price asc limit 5", query.toString());
+        query = QueryParser.parse("skyline");
+        assertTrue(query.isSkyline());
+        assertNull(query.getCondition());
+        assertFalse(QueryParser.parse("year >= 2015").isSkyline());
+        assertTrue(query.withLimit(3).isSkyline());
+    }
+
+    @Test
+    public void testSortAndLimit() {
+        CarQuery query = QueryParser.parse("manufacturer = honda sort by speed desc limit 10");
+        assertEquals(CarField.SPEED, query.getOrderBy());
+        assertFalse(query.isAscending());
+        assertEquals(10, query.getLimit());
+        query = QueryParser.parse("order by price");
+        assertNull(query.getCondition());
+        assertTrue(query.isAscending());
+        assertFalse(query.hasLimit());
+        assertEquals(3, QueryParser.parse("limit 3").getLimit());
+        query = QueryParser.parse("sort by year limit 10 offset 30");
+        assertEquals(10, query.getLimit());
+        assertEquals(30, query.getOffset());
+        assertEquals(40, query.getEnd());
+        assertEquals(5, QueryParser.parse("offset 5").getOffset());
+        query = QueryParser.parse("year > 2000 sort by year desc, price,speed asc");
+        assertEquals(Arrays.asList(CarField.YEAR, CarField.PRICE, CarField.SPEED), query.getOrderFields());
+        assertFalse(query.isAscending(0));
+        assertTrue(query.isAscending(1));
+        assertEquals("year > 2000 sort by year desc, price asc, speed asc", query.toString());
+        assertNull(QueryParser.parse("").getCondition());
+    }
+
+    @Test
+    public void testInvalidQueries() {
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("colour = red"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("price < cheap"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("drivetype < awd"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("drivetype = 4wd"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("price <"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("(price < 5"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("price < 5 limit -1"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("limit 5 offset"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("sort by manufacturer"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("manufacturer = 'Audi"));
+        assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("price < 5 price"));
+    }
+}
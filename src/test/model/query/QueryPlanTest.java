@@ -0,0 +1,269 @@
+package model.query;
+
+import model.CarTable;
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPlanTest {
+    private GarageWorkRoom wr;
+    private Car gtr;
+    private Car r8;
+    private Car corolla;
+    private Car civic;
+
+    @BeforeEach
+    public void runBefore() {
+        gtr = new Car("Nissan", "GT-R", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.AWD, 242000, null);
+        r8 = new Car("Audi", "R8", 2018, 9.1, 8.4, 9.5, 9.0, DriveType.AWD, 180000, null);
+        corolla = new Car("Toyota", "Corolla", 2012, 4.0, 5.1, 3.2, 6.0, DriveType.FWD, 18000, null);
+        civic = new Car("Honda", "Civic", 2015, 5.2, 6.0, 4.8, 6.5, DriveType.FWD, 22000, null);
+        wr = new GarageWorkRoom();
+        wr.addAll(Arrays.asList(gtr, r8, corolla, civic));
+    }
+
+    @Test
+    public void testNoConditionReturnsAllInOrder() {
+        assertEquals(Arrays.asList(gtr, r8, corolla, civic), wr.query(new CarQuery()));
+    }
+
+    @Test
+    public void testRange() {
+        assertEquals(Arrays.asList(gtr, r8), wr.query(new CarQuery().where(Condition.atLeast(CarField.PRICE,
+                100000))));
+        assertEquals(Arrays.asList(corolla, civic), wr.query(new CarQuery().where(Condition.below(CarField.YEAR,
+                2016))));
+        assertEquals(Arrays.asList(gtr), wr.query(new CarQuery().where(Condition.between(CarField.YEAR,
+                2016, 2016))));
+        assertEquals(Arrays.asList(civic), wr.query(new CarQuery().where(Condition.and(
+                Condition.above(CarField.SPEED, 4.0), Condition.atMost(CarField.SPEED, 5.2)))));
+    }
+
+    @Test
+    public void testAndOfRangeAndEqualities() {
+        Condition c = Condition.and(Condition.below(CarField.PRICE, 200000), Condition.driveType(DriveType.AWD));
+        assertEquals(Arrays.asList(r8), wr.query(new CarQuery().where(c)));
+        c = Condition.and(Condition.manufacturer("toyota"), Condition.atLeast(CarField.YEAR, 2010));
+        assertEquals(Arrays.asList(corolla), wr.query(new CarQuery().where(c)));
+        assertTrue(wr.query(new CarQuery().where(Condition.manufacturer("Ferrari"))).isEmpty());
+    }
+
+    @Test
+    public void testOr() {
+        Condition ranges = Condition.or(Condition.below(CarField.PRICE, 20000),
+                Condition.atLeast(CarField.YEAR, 2016), Condition.above(CarField.HANDLING, 7));
+        assertEquals(Arrays.asList(gtr, r8, corolla), wr.query(new CarQuery().where(ranges)));
+        Condition mixed = Condition.or(Condition.manufacturer("Honda"), Condition.driveType(DriveType.AWD));
+        assertEquals(Arrays.asList(gtr, r8, civic), wr.query(new CarQuery().where(mixed)));
+    }
+
+    @Test
+    public void testOrderAndLimit() {
+        assertEquals(Arrays.asList(corolla, civic, r8, gtr),
+                wr.query(new CarQuery().orderBy(CarField.PRICE, true)));
+        assertEquals(Arrays.asList(r8, gtr, civic),
+                wr.query(new CarQuery().orderBy(CarField.SPEED, false).limit(3)));
+        assertEquals(Arrays.asList(gtr, r8),
+                wr.query(new CarQuery().limit(2)));
+        Condition fwd = Condition.driveType(DriveType.FWD);
+        assertEquals(Arrays.asList(civic),
+                wr.query(new CarQuery().where(fwd).orderBy(CarField.YEAR, false).limit(1)));
+        assertTrue(wr.query(new CarQuery().limit(0)).isEmpty());
+    }
+
+    @Test
+    public void testOffset() {
+        assertEquals(Arrays.asList(corolla, civic), wr.query(new CarQuery().offset(2)));
+        assertEquals(Arrays.asList(r8), wr.query(new CarQuery().offset(1).limit(1)));
+        assertEquals(Arrays.asList(civic, r8), wr.query(new CarQuery().orderBy(CarField.PRICE, true).offset(1)
+                .limit(2)));
+        assertTrue(wr.query(new CarQuery().orderBy(CarField.PRICE, true).offset(4).limit(2)).isEmpty());
+        assertEquals("sort by price asc limit 2 offset 1",
+                new CarQuery().orderBy(CarField.PRICE, true).limit(2).offset(1).toString());
+    }
+
+    @Test
+    public void testPagesMatchFullSort() {
+        wr = new GarageWorkRoom();
+        for (int i = 0; i < 3000; i++) {
+            wr.addCar(new Car("Make" + i % 7, "Model", 1990 + i % 31, i % 13, i % 17, i % 19, i % 23,
+                    DriveType.values()[i % 3], 1000 * (i * 7919 % 97), null));
+        }
+        Condition[] conditions = {null, Condition.atLeast(CarField.YEAR, 2000), Condition.manufacturer("Make3")};
+        for (Condition c : conditions) {
+            for (CarField field : new CarField[] {CarField.PRICE, CarField.DRIVE_TYPE}) {
+                for (boolean ascending : new boolean[] {true, false}) {
+                    List<Car> all = wr.query(new CarQuery().where(c).orderBy(field, ascending));
+                    for (int offset : new int[] {0, 35, 400, 2990}) {
+                        CarQuery page = new CarQuery().where(c).orderBy(field, ascending).offset(offset).limit(20);
+                        assertEquals(all.subList(Math.min(offset, all.size()), Math.min(offset + 20, all.size())),
+                                wr.query(page));
+                    }
+                }
+            }
+        }
+        CarQuery firstPage = new CarQuery().orderBy(CarField.DRIVE_TYPE, false).limit(20);
+        assertTrue(wr.explain(firstPage).contains("Index order scan on drive_type desc"));
+        CarQuery selective = new CarQuery().where(Condition.between(CarField.YEAR, 2000, 2000))
+                .orderBy(CarField.PRICE, true).limit(5);
+        assertTrue(wr.explain(selective).contains("Top 5 by price asc"));
+    }
+
+    @Test
+    public void testSkyline() {
+        Car slow = new Car("Nissan", "Juke", 2016, 4.0, 4.0, 3.0, 6.0, DriveType.AWD, 250000, null);
+        Car cheaperGtr = new Car("Nissan", "GT-R", 2014, 8.2, 7.6, 9.0, 9.2, DriveType.AWD, 200000, null);
+        wr.addCar(slow);
+        assertEquals(Arrays.asList(gtr, r8, corolla, civic), wr.query(new CarQuery().skyline()));
+        wr.addCar(cheaperGtr);
+        assertEquals(Arrays.asList(r8, corolla, civic, cheaperGtr), wr.query(new CarQuery().skyline()));
+        CarQuery dear = new CarQuery().where(Condition.atLeast(CarField.PRICE, 100000)).skyline()
+                .orderBy(CarField.PRICE, false);
+        assertEquals(Arrays.asList(cheaperGtr, r8), wr.query(dear));
+        assertEquals(Arrays.asList(corolla), wr.query(new CarQuery().skyline().orderBy(CarField.PRICE, true)
+                .limit(1)));
+        assertEquals(Arrays.asList(corolla, civic), wr.query(new CarQuery().where(Condition.driveType(DriveType.FWD))
+                .skyline().limit(2)));
+        assertTrue(wr.explain(dear).contains("Skyline on price"));
+    }
+
+    @Test
+    public void testOrderWithoutLimitWalksIndex() {
+        CarQuery query = new CarQuery().orderBy(CarField.SPEED, false);
+        assertEquals(Arrays.asList(r8, gtr, civic, corolla), wr.query(query));
+        for (int i = 0; i < 100; i++) {
+            wr.addCar(new Car("Make", "Model", 2000, i % 8, 5, 5, 5, DriveType.RWD, 1000, null));
+        }
+        assertEquals(QueryPlan.Access.INDEX_ORDER, QueryPlan.plan(wr.getTable(), query).getAccess());
+        List<Car> cars = wr.query(query);
+        assertEquals(Arrays.asList(r8, gtr), cars.subList(0, 2));
+        for (int i = 1; i < cars.size(); i++) {
+            assertTrue(cars.get(i - 1).getSpeed() >= cars.get(i).getSpeed());
+        }
+    }
+
+    @Test
+    public void testOrderBySeveralFields() {
+        CarQuery query = new CarQuery().orderBy(CarField.DRIVE_TYPE, true).thenBy(CarField.PRICE, false);
+        assertEquals(Arrays.asList(gtr, r8, civic, corolla), wr.query(query));
+        assertEquals(Arrays.asList(r8, civic), wr.query(query.offset(1).limit(2)));
+        query = new CarQuery().where(Condition.atLeast(CarField.YEAR, 2015)).orderBy(CarField.YEAR, true)
+                .thenBy(CarField.SPEED, true).limit(2);
+        assertEquals(Arrays.asList(civic, gtr), wr.query(query));
+        assertTrue(wr.explain(query).contains("Sort by year asc, speed asc"));
+    }
+
+    @Test
+    public void testDescendingIsReverseOfAscending() {
+        Car twin = new Car("Nissan", "GT-R", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.AWD, 242000, null);
+        wr.addCar(twin);
+        List<Car> ascending = wr.query(new CarQuery().orderBy(CarField.PRICE, true));
+        List<Car> descending = new ArrayList<>(wr.query(new CarQuery().orderBy(CarField.PRICE, false)));
+        assertEquals(Arrays.asList(gtr, twin), ascending.subList(3, 5));
+        Collections.reverse(descending);
+        assertEquals(ascending, descending);
+    }
+
+    @Test
+    public void testQueryFollowsChanges() {
+        CarQuery query = new CarQuery().where(Condition.below(CarField.PRICE, 30000));
+        assertEquals(Arrays.asList(corolla, civic), wr.query(query));
+        wr.removeCar(corolla);
+        Car beetle = new Car("VW", "Beetle", 1970, 2.0, 3.0, 1.5, 2.0, DriveType.RWD, 9000, null);
+        wr.addCar(beetle);
+        assertEquals(Arrays.asList(civic, beetle), wr.query(query));
+    }
+
+    @Test
+    public void testPlannerChoosesSelectiveIndex() {
+        CarTable table = bigTable();
+        CarQuery selective = new CarQuery().where(Condition.and(Condition.below(CarField.PRICE, 10100),
+                Condition.atLeast(CarField.YEAR, 2000), Condition.driveType(DriveType.AWD)));
+        QueryPlan plan = QueryPlan.plan(table, selective);
+        assertEquals(QueryPlan.Access.INDEX_RANGE, plan.getAccess());
+        assertEquals(100, plan.getEstimate());
+        assertTrue(plan.explain().contains("Index range scan on price < 10100"));
+        assertTrue(plan.explain().contains("Filter year >= 2000 and drivetype = AWD"));
+
+        CarQuery broad = new CarQuery().where(Condition.and(Condition.atLeast(CarField.PRICE, 10000),
+                Condition.driveType(DriveType.AWD)));
+        assertEquals(QueryPlan.Access.FULL_SCAN, QueryPlan.plan(table, broad).getAccess());
+    }
+
+    @Test
+    public void testPlannerChoosesUnionAndOrderWalk() {
+        CarTable table = bigTable();
+        CarQuery union = new CarQuery().where(Condition.or(Condition.below(CarField.PRICE, 10050),
+                Condition.atLeast(CarField.PRICE, 19950)));
+        QueryPlan plan = QueryPlan.plan(table, union);
+        assertEquals(QueryPlan.Access.INDEX_UNION, plan.getAccess());
+        assertEquals(100, plan.execute().length);
+
+        CarQuery top = new CarQuery().where(Condition.driveType(DriveType.FWD)).orderBy(CarField.PRICE, false)
+                .limit(5);
+        plan = QueryPlan.plan(table, top);
+        assertEquals(QueryPlan.Access.INDEX_ORDER, plan.getAccess());
+        int[] slots = plan.execute();
+        assertEquals(5, slots.length);
+        assertEquals(19997, table.price(slots[0]));
+        assertEquals(19994, table.price(slots[1]));
+        assertTrue(plan.explain().contains("Index order scan on price desc, stopping after 5 matches"));
+    }
+
+    @Test
+    public void testNot() {
+        assertEquals(Arrays.asList(corolla, civic), wr.query(new CarQuery().where(Condition.not(
+                Condition.driveType(DriveType.AWD)))));
+        Condition c = Condition.and(Condition.below(CarField.PRICE, 200000), Condition.not(
+                Condition.manufacturer("Honda")));
+        assertEquals(Arrays.asList(r8, corolla), wr.query(new CarQuery().where(c)));
+    }
+
+    @Test
+    public void testPlannerChoosesBitmaps() {
+        CarTable table = bigTable();
+        CarQuery query = new CarQuery().where(Condition.and(Condition.driveType(DriveType.RWD),
+                Condition.or(Condition.manufacturer("make3"), Condition.manufacturer("make4")),
+                Condition.not(Condition.between(CarField.YEAR, 2010, 2019)), Condition.atLeast(CarField.SPEED, 0)));
+        QueryPlan plan = QueryPlan.plan(table, query);
+        assertEquals(QueryPlan.Access.BITMAP, plan.getAccess());
+        int[] slots = plan.execute();
+        assertEquals(333, slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            assertEquals(14, slots[i] % 30);
+            assertTrue(i == 0 || slots[i - 1] < slots[i]);
+        }
+        assertTrue(plan.explain().contains("Bitmap index scan on drivetype = RWD and (manufacturer = 'make3' or "
+                + "manufacturer = 'make4') and not year in [2010, 2019] (333 cars)"));
+        assertTrue(plan.explain().contains("Filter speed >= 0"));
+    }
+
+    @Test
+    public void testExplainFullScan() {
+        String explain = wr.explain(new CarQuery().limit(2));
+        assertTrue(explain.startsWith("Plan for: limit 2"));
+        assertTrue(explain.contains("Limit 2"));
+        assertTrue(explain.contains("Full scan of 4 cars, stopping after 2 matches"));
+    }
+
+    // EFFECTS: returns a table of 10000 cars priced 10000 to 19999, with drive types in turn
+    private CarTable bigTable() {
+        CarTable table = new CarTable();
+        DriveType[] driveTypes = DriveType.values();
+        for (int i = 0; i < 10000; i++) {
+            table.add(new Car("Make" + (i % 10), "Model", 1990 + i % 30, 5, 5, 5, 5,
+                    driveTypes[i % driveTypes.length], 10000 + i, null));
+        }
+        return table;
+    }
+}
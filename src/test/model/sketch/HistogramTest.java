@@ -0,0 +1,52 @@
+package model.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    public void testBuckets() {
+        Histogram histogram = new Histogram(0, 10, 100);
+        assertEquals(3, histogram.numBuckets());
+        assertEquals(10, histogram.lowerBound(1));
+        assertEquals(100, histogram.upperBound(1));
+        assertEquals(Double.POSITIVE_INFINITY, histogram.upperBound(2));
+        for (double value : new double[] {-5, 0, 9.99, 10, 99, 100, 1e9}) {
+            histogram.add(value);
+        }
+        assertEquals(3, histogram.count(0));
+        assertEquals(2, histogram.count(1));
+        assertEquals(2, histogram.count(2));
+        histogram.remove(10);
+        histogram.remove(-5);
+        assertEquals(2, histogram.count(0));
+        assertEquals(1, histogram.count(1));
+    }
+
+    @Test
+    public void testMergeCopyAndRoundTrip() throws IOException {
+        Histogram a = new Histogram(0, 1, 2);
+        a.add(0.5);
+        Histogram b = a.copy();
+        b.add(1.5);
+        b.merge(a);
+        assertEquals(1, a.count(0));
+        assertEquals(2, b.count(0));
+        assertEquals(1, b.count(1));
+        assertNotEquals(a, b);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        b.write(new DataOutputStream(bytes));
+        Histogram read = Histogram.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(b, read);
+        assertEquals(b.hashCode(), read.hashCode());
+    }
+}
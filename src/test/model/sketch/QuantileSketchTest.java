@@ -0,0 +1,93 @@
+package model.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void testEmpty() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0, sketch.count());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+    }
+
+    @Test
+    public void testQuantilesWithinAccuracy() {
+        Random random = new Random(1);
+        QuantileSketch sketch = new QuantileSketch();
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            double value = 5000 + random.nextInt(3_000_000);
+            values.add(value);
+            sketch.add(value);
+        }
+        Collections.sort(values);
+        for (double q : new double[] {0, 0.01, 0.25, 0.5, 0.9, 0.99, 1}) {
+            double exact = values.get((int) (q * (values.size() - 1)));
+            assertEquals(exact, sketch.quantile(q), exact * QuantileSketch.ACCURACY);
+        }
+        assertTrue(sketch.numBuckets() < 500);
+    }
+
+    @Test
+    public void testZerosAndNegatives() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : new double[] {-4, -2, 0, 0, 3}) {
+            sketch.add(value);
+        }
+        assertEquals(-4, sketch.quantile(0), 4 * QuantileSketch.ACCURACY);
+        assertEquals(-2, sketch.quantile(0.25), 2 * QuantileSketch.ACCURACY);
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(3, sketch.quantile(1), 3 * QuantileSketch.ACCURACY);
+    }
+
+    @Test
+    public void testRemoveForgetsValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+        for (int i = 1; i <= 50; i++) {
+            sketch.remove(i);
+        }
+        assertEquals(50, sketch.count());
+        assertEquals(51, sketch.quantile(0), 51 * QuantileSketch.ACCURACY);
+        assertEquals(75, sketch.quantile(0.5), 75 * QuantileSketch.ACCURACY);
+    }
+
+    @Test
+    public void testMergeCopyAndRoundTrip() throws IOException {
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            low.add(i / 10.0);
+            high.add(100 + i);
+        }
+        QuantileSketch both = low.copy();
+        both.merge(high);
+        assertEquals(100, low.count());
+        assertEquals(200, both.count());
+        assertEquals(10, both.quantile(0.5), 10 * QuantileSketch.ACCURACY);
+        assertEquals(200, both.quantile(1), 200 * QuantileSketch.ACCURACY);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        both.write(new DataOutputStream(bytes));
+        QuantileSketch read = QuantileSketch.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(both.count(), read.count());
+        for (double q = 0; q <= 1; q += 0.125) {
+            assertEquals(both.quantile(q), read.quantile(q));
+        }
+    }
+}
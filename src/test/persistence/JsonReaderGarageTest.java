@@ -2,13 +2,19 @@ package persistence;
 
 import model.GarageWorkRoom;
 import model.cars.Car;
+import model.cars.CarField;
 import model.cars.DriveType;
 import org.junit.jupiter.api.Test;
 
+import org.json.JSONException;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class JsonReaderGarageTest extends JsonTest {
@@ -51,4 +57,61 @@ public class JsonReaderGarageTest extends JsonTest {
         }
     }
 
+    @Test
+    void testReaderNoCarsArray() {
+        JsonReaderGarage reader = new JsonReaderGarage("./data/testReaderNoCarsWorkRoom.json");
+        assertThrows(JSONException.class, reader::read);
+    }
+
+    @Test
+    void testForEachCarStreamsInFileOrder() {
+        JsonReaderGarage reader = new JsonReaderGarage("./data/testReaderGeneralWorkRoom.json");
+        List<Car> streamed = new ArrayList<>();
+        try {
+            reader.forEachCar(streamed::add);
+            assertEquals(2, streamed.size());
+            checkCar("Audi", "R8", 2016, 8.2, 7.6, 9.0,
+                    9.2, DriveType.RWD, 242000, "", streamed.get(0));
+            checkCar("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6,
+                    7.6, DriveType.AWD, 132000, "", streamed.get(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReadWithFilterAndProjection() {
+        JsonReaderGarage reader = new JsonReaderGarage("./data/testReaderGeneralWorkRoom.json");
+        try {
+            GarageWorkRoom wr = reader.read(record -> record.getPrice() < 200000,
+                    EnumSet.of(CarField.MANUFACTURER, CarField.MODEL, CarField.PRICE));
+            assertEquals(1, wr.numCars());
+            checkCar("Nissan", "GT-R", 0, 0, 0, 0,
+                    0, null, 132000, null, wr.getCars().get(0));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReadSkipsUnknownAndUnprojectedMembers() {
+        JsonReaderGarage reader = new JsonReaderGarage("./data/testReaderPartialWorkRoom.json");
+        try {
+            GarageWorkRoom wr = reader.read(record -> true, EnumSet.complementOf(EnumSet.of(CarField.YEAR)));
+            assertEquals(2, wr.numCars());
+            checkCar("Audi", "R8", 0, 8.2, 7.6, 9.0,
+                    9.2, DriveType.RWD, 242000, "audi.png", wr.getCars().get(0));
+            checkCar("Nissan", "GT-R", 0, 7.9, 7.2, 9.6,
+                    7.6, DriveType.AWD, 132000, null, wr.getCars().get(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReadMissingProjectedField() {
+        JsonReaderGarage reader = new JsonReaderGarage("./data/testReaderPartialWorkRoom.json");
+        assertThrows(JSONException.class, reader::read);
+    }
+
 }
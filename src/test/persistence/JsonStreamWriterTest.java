@@ -0,0 +1,89 @@
+package persistence;
+
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.DriveType;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonStreamWriterTest {
+    private StringWriter out;
+    private GarageWorkRoom wr;
+
+    @BeforeEach
+    void runBefore() {
+        out = new StringWriter();
+        wr = new GarageWorkRoom();
+        wr.addCar(new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, "audi_r8.png"));
+        wr.addCar(new Car("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 132000, null));
+    }
+
+    @Test
+    void testCompactEmptyWorkRoom() throws IOException {
+        new GarageWorkRoom().writeJson(new JsonStreamWriter(out, 0));
+        assertEquals("{\"cars\":[]}", out.toString());
+    }
+
+    @Test
+    void testIndentedEmptyWorkRoom() throws IOException {
+        new GarageWorkRoom().writeJson(new JsonStreamWriter(out, 4));
+        assertEquals("{\n    \"cars\": []\n}", out.toString());
+    }
+
+    @Test
+    void testCompactCar() throws IOException {
+        Car car = wr.getCars().get(1);
+        car.writeJson(new JsonStreamWriter(out, 0));
+        assertEquals("{\"id\":" + car.getId() + ",\"manufacturer\":\"Nissan\",\"model\":\"GT-R\",\"year\":2017,"
+                + "\"speed\":7.9,\"handling\":7.2,\"acceleration\":9.6,\"braking\":7.6,\"driveType\":\"AWD\","
+                + "\"price\":132000}",
+                out.toString());
+    }
+
+    @Test
+    void testCarWithoutDriveTypeRoundTrips() throws IOException {
+        Car car = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, null, 242000, null);
+        car.writeJson(new JsonStreamWriter(out, 0));
+        JSONObject json = new JSONObject(out.toString());
+        assertTrue(car.toJson().similar(json));
+        assertFalse(json.has("driveType"));
+        Car read = JsonReaderGarage.parseCar(json);
+        assertEquals(car, read);
+        assertNull(read.getDriveType());
+        assertEquals(242000, read.getPrice());
+    }
+
+    @Test
+    void testStreamedMatchesToJson() throws IOException {
+        wr.writeJson(new JsonStreamWriter(out, 4));
+        assertTrue(new JSONObject(wr.toJson().toString()).similar(new JSONObject(out.toString())));
+    }
+
+    @Test
+    void testEscapesStrings() throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(out, 0);
+        writer.beginObject();
+        writer.member("model", "\"Quoted\"\n");
+        writer.member("image", (String) null);
+        writer.endObject();
+        JSONObject json = new JSONObject(out.toString());
+        assertEquals("\"Quoted\"\n", json.getString("model"));
+        assertTrue(json.isNull("image"));
+    }
+
+    @Test
+    void testNonFiniteNumber() {
+        JsonStreamWriter writer = new JsonStreamWriter(out, 0);
+        assertThrows(JSONException.class, () -> {
+            writer.beginObject();
+            writer.member("speed", Double.NaN);
+        });
+    }
+}
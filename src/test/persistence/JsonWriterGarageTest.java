@@ -1,14 +1,24 @@
 package persistence;
 
+import model.CatalogOverlay;
 import model.GarageWorkRoom;
 import model.cars.Car;
 import model.cars.DriveType;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class JsonWriterGarageTest extends JsonTest {
@@ -66,4 +76,203 @@ public class JsonWriterGarageTest extends JsonTest {
             fail("Exception should not have been thrown");
         }
     }
+
+    @Test
+    void testWriterCompactWorkroom() {
+        try {
+            GarageWorkRoom wr = new GarageWorkRoom();
+            wr.addCar(new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0,
+                    9.2, DriveType.RWD, 100000, ""));
+            JsonWriterGarage writer = new JsonWriterGarage("./data/testWriterCompactWorkroom.json", true);
+            writer.open();
+            writer.write(wr);
+            writer.close();
+
+            String json = new String(Files.readAllBytes(Paths.get("./data/testWriterCompactWorkroom.json")),
+                    StandardCharsets.UTF_8);
+            assertFalse(json.contains("\n"));
+            assertFalse(json.contains(" "));
+            wr = new JsonReaderGarage("./data/testWriterCompactWorkroom.json").read();
+            assertEquals(1, wr.numCars());
+            checkCar("Audi", "R8", 2016, 8.2, 7.6, 9.0,
+                    9.2, DriveType.RWD, 100000, "", wr.getCars().get(0));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterUnclosedLeavesFileUntouched() {
+        try {
+            GarageWorkRoom wr = new GarageWorkRoom();
+            wr.addCar(new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0,
+                    9.2, DriveType.RWD, 100000, ""));
+            JsonWriterGarage writer = new JsonWriterGarage("./data/testWriterCompactWorkroom.json", true);
+            writer.open();
+            writer.write(wr);
+            writer.close();
+
+            wr.addCar(new Car("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6,
+                    7.6, DriveType.AWD, 50000, ""));
+            writer.open();
+            writer.write(wr);
+            // no close: as if the application crashed mid-save
+
+            wr = new JsonReaderGarage("./data/testWriterCompactWorkroom.json").read();
+            assertEquals(1, wr.numCars());
+            writer.close();
+            assertFalse(Files.exists(Paths.get("./data/testWriterCompactWorkroom.json.tmp")));
+            assertEquals(2, new JsonReaderGarage("./data/testWriterCompactWorkroom.json").read().numCars());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterAbortDeletesTempFileAndLeavesFileUntouched() throws IOException {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 100000, ""));
+        JsonWriterGarage writer = new JsonWriterGarage("./data/testWriterCompactWorkroom.json", true);
+        writer.open();
+        try {
+            writer.write(wr);
+            writer.close();
+        } finally {
+            writer.abort();
+        }
+        assertEquals(1, new JsonReaderGarage("./data/testWriterCompactWorkroom.json").read().numCars());
+
+        wr.addCar(new Car("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 50000, ""));
+        writer.open();
+        writer.write(wr);
+        writer.abort();
+        writer.close();
+        assertFalse(Files.exists(Paths.get("./data/testWriterCompactWorkroom.json.tmp")));
+        assertEquals(1, new JsonReaderGarage("./data/testWriterCompactWorkroom.json").read().numCars());
+    }
+
+    @Test
+    void testWriterOverlayRoundTrip() throws IOException {
+        Car audi = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 100000, "");
+        Car nissan = new Car("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 50000, "");
+        GarageWorkRoom base = new GarageWorkRoom();
+        base.addAll(Arrays.asList(audi, nissan));
+        CatalogOverlay overlay = new CatalogOverlay(base);
+        overlay.addCar(new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null));
+        overlay.removeCar(audi);
+
+        Path file = Files.createTempFile("overlay", ".json");
+        try {
+            JsonWriterGarage writer = new JsonWriterGarage(file.toString());
+            writer.open();
+            writer.write(overlay);
+            writer.close();
+
+            CatalogOverlay read = new JsonReaderGarage(file.toString()).readOverlay(base);
+            List<Car> carList = read.getCars();
+            assertEquals(2, carList.size());
+            assertSame(nissan, carList.get(0));
+            checkCar("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null, carList.get(1));
+            assertEquals(overlay.getAdded().get(0), carList.get(1));
+            assertEquals(1, new JsonReaderGarage(file.toString()).read().numCars());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testWriterOverlayRemovesBaseCarById() throws IOException {
+        Car first = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 100000, null);
+        Car second = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 100000, null);
+        GarageWorkRoom base = new GarageWorkRoom();
+        base.addAll(Arrays.asList(first, second));
+        CatalogOverlay overlay = new CatalogOverlay(base);
+        overlay.removeCar(second);
+
+        Path file = Files.createTempFile("overlay", ".json");
+        try {
+            JsonWriterGarage writer = new JsonWriterGarage(file.toString());
+            writer.open();
+            writer.write(overlay);
+            writer.close();
+
+            CatalogOverlay read = new JsonReaderGarage(file.toString()).readOverlay(base);
+            assertEquals(1, read.numCars());
+            assertSame(first, read.getCars().get(0));
+            assertFalse(read.containsCar(second));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testReadOverlayMigratesFullListFormat() throws IOException {
+        Car audi = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 100000, "");
+        Car nissan = new Car("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 50000, "");
+        Car porsche = new Car("Porsche", "911", 2019, 8.8, 8.9, 8.7, 9.1, DriveType.RWD, 120000, "");
+        GarageWorkRoom base = new GarageWorkRoom();
+        base.addAll(Arrays.asList(audi, nissan, porsche));
+        Car mazda = new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null);
+        GarageWorkRoom fullList = new GarageWorkRoom();
+        fullList.addAll(Arrays.asList(new Car("Porsche", "911", 2019, 8.8, 8.9, 8.7, 9.1, DriveType.RWD, 120000,
+                ""), audi, mazda));
+
+        CatalogOverlay read = writeAndReadOverlay(fullList, base);
+        assertEquals(3, read.numCars());
+        assertEquals(Arrays.asList(audi, porsche), read.getCars().subList(0, 2));
+        assertFalse(read.containsCar(nissan));
+        assertEquals(1, read.getAdded().size());
+        assertTrue(mazda.isSameListing(read.getAdded().get(0)));
+    }
+
+    // EFFECTS: writes wr to a temporary file and returns it read back as an overlay over base
+    private CatalogOverlay writeAndReadOverlay(GarageWorkRoom wr, GarageWorkRoom base) throws IOException {
+        Path file = Files.createTempFile("overlay", ".json");
+        try {
+            JsonWriterGarage writer = new JsonWriterGarage(file.toString());
+            writer.open();
+            writer.write(wr);
+            writer.close();
+            return new JsonReaderGarage(file.toString()).readOverlay(base);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testReadOverlayGivesClashingAdditionFreshId() throws IOException {
+        Car porsche = new Car("Porsche", "911", 2019, 8.8, 8.9, 8.7, 9.1, DriveType.RWD, 120000, "");
+        Car listing = new Car(porsche.getId(), "Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000,
+                null);
+        GarageWorkRoom base = new GarageWorkRoom();
+        base.addCar(porsche);
+        CatalogOverlay saved = new CatalogOverlay(new GarageWorkRoom());
+        saved.addCar(listing);
+
+        Path file = Files.createTempFile("overlay", ".json");
+        try {
+            JsonWriterGarage writer = new JsonWriterGarage(file.toString());
+            writer.open();
+            writer.write(saved);
+            writer.close();
+
+            CatalogOverlay read = new JsonReaderGarage(file.toString()).readOverlay(base);
+            assertEquals(2, read.numCars());
+            Car added = read.getAdded().get(0);
+            assertTrue(listing.isSameListing(added));
+            assertNotEquals(porsche.getId(), added.getId());
+            read.removeCar(porsche);
+            assertEquals(Arrays.asList(added), read.getCars());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testBaseCatalogIdsAreStableAcrossReads() throws IOException {
+        List<Car> first = new JsonReaderGarage("./data/originalMarket.json").read().getCars();
+        List<Car> second = new JsonReaderGarage("./data/originalMarket.json").read().getCars();
+        assertEquals(first, second);
+        assertEquals(1, first.get(0).getId());
+    }
 }
@@ -0,0 +1,260 @@
+package persistence;
+
+import model.AccountWorkRoom;
+import model.Event;
+import model.EventLog;
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.DriveType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.MutationJournal.Mutation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MutationJournalTest extends JsonTest {
+    private static final String JOURNAL = "./data/testJournal.journal";
+    private static final String SNAPSHOT = "./data/testWriterJournalSnapshot.json";
+
+    private MutationJournal journal;
+    private Car car1;
+    private Car car2;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        cleanUp();
+        journal = new MutationJournal(JOURNAL);
+        car1 = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, "audi_r8.png");
+        car2 = new Car("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 132000, null);
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        Files.deleteIfExists(Paths.get(JOURNAL));
+        Files.deleteIfExists(Paths.get(JOURNAL + ".compacting"));
+        Files.deleteIfExists(Paths.get(SNAPSHOT));
+    }
+
+    @Test
+    void testReplayEmptyJournal() throws IOException {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        journal.replay(wr);
+        assertEquals(0, wr.numCars());
+        assertEquals(0, journal.size());
+    }
+
+    @Test
+    void testReplayGarageMutations() throws IOException {
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        journal.append(Mutation.CAR_BOUGHT, car2);
+        journal.append(Mutation.REFUND, car1);
+        assertEquals(3, journal.size());
+
+        GarageWorkRoom wr = new GarageWorkRoom();
+        new MutationJournal(JOURNAL).replay(wr);
+        assertEquals(1, wr.numCars());
+        checkCar("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6, 7.6, DriveType.AWD, 132000, null, wr.getCars().get(0));
+    }
+
+    @Test
+    void testReplayListingRemovedOnTopOfSnapshot() throws IOException {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, "audi_r8.png"));
+        journal.append(Mutation.LISTING_ADDED, car2);
+        journal.append(Mutation.LISTING_REMOVED, car1);
+        journal.replay(wr);
+        assertEquals(1, wr.numCars());
+        assertEquals("GT-R", wr.getCars().get(0).getModel());
+    }
+
+    @Test
+    void testReplayRemovesCarById() throws IOException {
+        Car first = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, null);
+        Car second = new Car("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, DriveType.RWD, 242000, null);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addAll(Arrays.asList(first, second));
+        journal.append(Mutation.LISTING_REMOVED, second);
+        journal.replay(wr);
+        assertEquals(1, wr.numCars());
+        assertSame(first, wr.getCars().get(0));
+    }
+
+    @Test
+    void testReplayLogsOneEventPerBatchOfAddedCars() throws IOException {
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        journal.append(Mutation.CAR_BOUGHT, car2);
+        EventLog.getInstance().clear();
+        journal.replay(new GarageWorkRoom());
+        List<Event> events = new ArrayList<>();
+        for (Event e : EventLog.getInstance()) {
+            events.add(e);
+        }
+        assertEquals(2, events.size());
+        assertEquals("Replayed 2 cars from journal", events.get(1).getDescription());
+    }
+
+    @Test
+    void testDiscardDropsUnsavedEntries() throws Exception {
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        journal.compact(epoch -> {
+            throw new IOException("disk full");
+        });
+        journal.append(Mutation.CAR_BOUGHT, car2);
+        journal.discard();
+        assertEquals(0, journal.size());
+
+        GarageWorkRoom wr = new GarageWorkRoom();
+        new MutationJournal(JOURNAL).replay(wr);
+        assertEquals(Arrays.asList(car1), wr.getCars());
+    }
+
+    @Test
+    void testReplayAccount() throws IOException {
+        journal.append(Mutation.BALANCE_SET, 500000);
+        journal.append(Mutation.CAR_BOUGHT, 258000);
+        AccountWorkRoom wr = new AccountWorkRoom();
+        journal.replay(wr);
+        assertEquals(258000, wr.getBalance());
+    }
+
+    @Test
+    void testReplayIgnoresTornLastEntry() throws IOException {
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        Files.write(Paths.get(JOURNAL), "{\"op\": \"CAR_BOU".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        journal.replay(wr);
+        assertEquals(1, wr.numCars());
+    }
+
+    @Test
+    void testReplayCorruptEntry() throws IOException {
+        Files.write(Paths.get(JOURNAL), "not json\n".getBytes(StandardCharsets.UTF_8));
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        assertThrows(IOException.class, () -> journal.replay(new GarageWorkRoom()));
+    }
+
+    @Test
+    void testCompact() throws Exception {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(car1);
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        journal.compact(epoch -> {
+            JsonWriterGarage writer = new JsonWriterGarage(SNAPSHOT);
+            writer.open();
+            writer.write(wr, epoch);
+            writer.close();
+        }).get();
+        journal.append(Mutation.CAR_BOUGHT, car2);
+        assertEquals(1, journal.size());
+        assertFalse(Files.exists(Paths.get(JOURNAL + ".compacting")));
+
+        JsonReaderGarage reader = new JsonReaderGarage(SNAPSHOT);
+        GarageWorkRoom loaded = reader.read();
+        journal.replay(loaded, reader.getJournalEpoch());
+        assertEquals(2, loaded.numCars());
+    }
+
+    @Test
+    void testCrashBeforeSegmentDeletedSkipsSnapshotEntries() throws Exception {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(car1);
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        String[] written = new String[1];
+        assertThrows(ExecutionException.class, () -> journal.compact(epoch -> {
+            JsonWriterGarage writer = new JsonWriterGarage(SNAPSHOT);
+            writer.open();
+            writer.write(wr, epoch);
+            writer.close();
+            written[0] = epoch;
+            throw new IOException("crash before the segment is deleted");
+        }).get());
+        journal.append(Mutation.CAR_BOUGHT, car2);
+        assertThrows(ExecutionException.class, () -> journal.compact(epoch -> {
+            throw new IOException("disk full");
+        }).get());
+        journal.append(Mutation.LISTING_REMOVED, car1);
+
+        JsonReaderGarage reader = new JsonReaderGarage(SNAPSHOT);
+        GarageWorkRoom loaded = reader.read();
+        assertEquals(written[0], reader.getJournalEpoch());
+        new MutationJournal(JOURNAL).replay(loaded, reader.getJournalEpoch());
+        assertEquals(Arrays.asList(car2), loaded.getCars());
+    }
+
+    @Test
+    void testSnapshotEpochRoundTrips() throws IOException {
+        AccountWorkRoom account = new AccountWorkRoom();
+        account.setBalanceBoughtCar(500);
+        JsonWriterAccount writer = new JsonWriterAccount(SNAPSHOT);
+        writer.open();
+        writer.write(account, "e1");
+        writer.close();
+        JsonReaderAccount reader = new JsonReaderAccount(SNAPSHOT);
+        assertEquals(500, reader.read().getBalance());
+        assertEquals("e1", reader.getJournalEpoch());
+
+        writer.open();
+        writer.write(account);
+        writer.close();
+        reader.read();
+        assertNull(reader.getJournalEpoch());
+    }
+
+    @Test
+    void testFailedCompactionKeepsEntries() throws IOException {
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        try {
+            journal.compact(epoch -> {
+                throw new IOException("disk full");
+            }).get();
+            fail("ExecutionException expected");
+        } catch (ExecutionException | InterruptedException e) {
+            // pass
+        }
+        journal.append(Mutation.CAR_BOUGHT, car2);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        journal.replay(wr);
+        assertEquals(2, wr.numCars());
+        assertEquals("R8", wr.getCars().get(0).getModel());
+    }
+
+    @Test
+    void testCrashAfterMergeBeforeJournalDeletedKeepsEntriesOnce() throws IOException {
+        Car car3 = new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null);
+        journal.append(Mutation.CAR_BOUGHT, car1);
+        assertThrows(ExecutionException.class, () -> journal.compact(epoch -> {
+            throw new IOException("disk full");
+        }).get());
+        journal.append(Mutation.CAR_BOUGHT, car2);
+        Files.write(Paths.get(JOURNAL), "{\"epoch\":\"e2\"}\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        Files.write(Paths.get(JOURNAL + ".compacting"), Files.readAllBytes(Paths.get(JOURNAL)),
+                StandardOpenOption.APPEND);
+
+        MutationJournal restarted = new MutationJournal(JOURNAL);
+        restarted.append(Mutation.CAR_BOUGHT, car3);
+        GarageWorkRoom wr = new GarageWorkRoom();
+        restarted.replay(wr);
+        assertEquals(Arrays.asList(car1, car2, car3), wr.getCars());
+
+        assertThrows(ExecutionException.class, () -> restarted.compact(epoch -> {
+            throw new IOException("disk full");
+        }).get());
+        assertFalse(Files.exists(Paths.get(JOURNAL)));
+        wr = new GarageWorkRoom();
+        restarted.replay(wr);
+        assertEquals(Arrays.asList(car1, car2, car3), wr.getCars());
+    }
+}
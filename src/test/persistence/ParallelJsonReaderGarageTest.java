@@ -0,0 +1,113 @@
+package persistence;
+
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.DriveType;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class ParallelJsonReaderGarageTest extends JsonTest {
+
+    @Test
+    void testReaderNonExistentFile() {
+        ParallelJsonReaderGarage reader = new ParallelJsonReaderGarage("./data/noSuchFile.json", 4);
+        assertThrows(IOException.class, reader::read);
+    }
+
+    @Test
+    void testReaderEmptyWorkRoom() {
+        ParallelJsonReaderGarage reader = new ParallelJsonReaderGarage("./data/testReaderEmptyWorkRoom.json", 4);
+        try {
+            assertEquals(0, reader.read().numCars());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderGeneralWorkRoom() {
+        ParallelJsonReaderGarage reader = new ParallelJsonReaderGarage("./data/testReaderGeneralWorkRoom.json", 4);
+        try {
+            List<Car> carList = reader.read().getCars();
+            assertEquals(2, carList.size());
+            checkCar("Audi", "R8", 2016, 8.2, 7.6, 9.0,
+                    9.2, DriveType.RWD, 242000, "", carList.get(0));
+            checkCar("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6,
+                    7.6, DriveType.AWD, 132000, "", carList.get(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderNoCarsArray() {
+        ParallelJsonReaderGarage reader = new ParallelJsonReaderGarage("./data/testReaderNoCarsWorkRoom.json", 4);
+        assertThrows(JSONException.class, reader::read);
+    }
+
+    @Test
+    void testParseManyChunksKeepsFileOrder() {
+        JSONArray cars = new JSONArray();
+        for (int i = 0; i < 5000; i++) {
+            cars.put(new Car("Make \"" + i + "\"", "{[Model]} " + i, 1990 + i % 30, 1.5, 2.5, 3.5, 4.5,
+                    DriveType.values()[i % 3], i, null).toJson());
+        }
+        String json = "{\"name\": \"not \\\"cars\\\": [ {\", \"extra\": {\"cars\": 1}, \"cars\": " + cars + "}";
+
+        GarageWorkRoom wr = new ParallelJsonReaderGarage("unused", 8).parse(json);
+        assertEquals(5000, wr.numCars());
+        for (int i = 0; i < 5000; i++) {
+            Car c = wr.getCars().get(i);
+            assertEquals("Make \"" + i + "\"", c.getManufacturer());
+            assertEquals("{[Model]} " + i, c.getModel());
+            assertEquals(i, c.getPrice());
+            assertEquals(DriveType.values()[i % 3], c.getDriveType());
+        }
+    }
+
+    @Test
+    void testParseMatchesSequentialReader() {
+        try {
+            GarageWorkRoom sequential = new JsonReaderGarage("./data/testReaderGeneralWorkRoom.json").read();
+            for (int threads : new int[] {1, 2, 32}) {
+                GarageWorkRoom parallel =
+                        new ParallelJsonReaderGarage("./data/testReaderGeneralWorkRoom.json", threads).read();
+                assertEquals(sequential.numCars(), parallel.numCars());
+                for (int i = 0; i < sequential.numCars(); i++) {
+                    assertTrue(new JSONObject(sequential.getCars().get(i).toJson().toString())
+                            .similar(new JSONObject(parallel.getCars().get(i).toJson().toString())));
+                }
+            }
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testParseAcceptsRecordsTheSequentialReaderAccepts() {
+        String json = "{\"cars\": [{\"manufacturer\": \"Audi\", \"model\": \"R8\", \"year\": \"2016\", "
+                + "\"speed\": 8.2, \"handling\": 7.6, \"acceleration\": 9.0, \"braking\": 9.2, "
+                + "\"driveType\": null, \"price\": 242000, \"image\": null, \"id\": 7}]}";
+        List<Car> carList = new ParallelJsonReaderGarage("unused", 2).parse(json).getCars();
+        assertEquals(1, carList.size());
+        checkCar("Audi", "R8", 2016, 8.2, 7.6, 9.0, 9.2, null, 242000, null, carList.get(0));
+        assertEquals(7, carList.get(0).getId());
+    }
+
+    @Test
+    void testParseMalformedCarsArray() {
+        ParallelJsonReaderGarage reader = new ParallelJsonReaderGarage("unused", 2);
+        assertThrows(JSONException.class, () -> reader.parse("{\"cars\": [1, 2]}"));
+        assertThrows(JSONException.class, () -> reader.parse("{\"cars\": [{\"manufacturer\": \"open"));
+    }
+}
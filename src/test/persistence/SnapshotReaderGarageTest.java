@@ -0,0 +1,158 @@
+package persistence;
+
+import model.GarageWorkRoom;
+import model.MarketStats;
+import model.cars.Car;
+import model.cars.CarField;
+import model.cars.DriveType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotReaderGarageTest extends JsonTest {
+    private static final String JSON = "./data/testReaderGeneralWorkRoom.json";
+    private static final String SNAPSHOT = "./data/testReaderGeneralWorkRoom.snapshot";
+
+    private long jsonLength;
+    private long jsonModified;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        Files.deleteIfExists(Paths.get(SNAPSHOT));
+        jsonLength = Files.size(Paths.get(JSON));
+        jsonModified = Files.getLastModifiedTime(Paths.get(JSON)).toMillis();
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        Files.deleteIfExists(Paths.get(SNAPSHOT));
+    }
+
+    @Test
+    void testSnapshotPathFor() {
+        assertEquals(SNAPSHOT, SnapshotReaderGarage.snapshotPathFor(JSON));
+        assertEquals("./data/market.snapshot", SnapshotReaderGarage.snapshotPathFor("./data/market"));
+    }
+
+    @Test
+    void testReaderNonExistentFile() {
+        SnapshotReaderGarage reader = new SnapshotReaderGarage("./data/noSuchFile.json");
+        assertThrows(IOException.class, reader::read);
+    }
+
+    @Test
+    void testReadRegeneratesMissingSnapshot() throws IOException {
+        GarageWorkRoom wr = new SnapshotReaderGarage(JSON).read();
+        checkGeneralWorkRoom(wr.getCars());
+        assertTrue(Files.exists(Paths.get(SNAPSHOT)));
+        checkGeneralWorkRoom(new SnapshotReaderGarage(JSON).read().getCars());
+    }
+
+    @Test
+    void testReadFromCurrentSnapshot() throws IOException {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null));
+        wr.addCar(new Car("Mazda", "MX-5", 2019, 5.9, 8.8, 5.2, 6.6, DriveType.RWD, 32000, "mazda_mx-5.png"));
+        new SnapshotWriterGarage(SNAPSHOT).write(wr, jsonLength, jsonModified);
+
+        List<Car> cars = new SnapshotReaderGarage(JSON).read().getCars();
+        assertEquals(2, cars.size());
+        checkCar("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null, cars.get(0));
+        checkCar("Mazda", "MX-5", 2019, 5.9, 8.8, 5.2, 6.6, DriveType.RWD, 32000, "mazda_mx-5.png", cars.get(1));
+        assertSame(cars.get(0).getManufacturer(), cars.get(1).getManufacturer());
+        assertEquals(wr.getCars().get(0).getId(), cars.get(0).getId());
+        assertEquals(wr.getCars().get(1), cars.get(1));
+    }
+
+    @Test
+    void testRestoresStats() throws IOException {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null));
+        wr.addCar(new Car("Mazda", "MX-5", 2019, 5.9, 8.8, 5.2, 6.6, DriveType.RWD, 32000, "mazda_mx-5.png"));
+        new SnapshotWriterGarage(SNAPSHOT).write(wr, jsonLength, jsonModified);
+
+        GarageWorkRoom read = new SnapshotReaderGarage(JSON).read();
+        MarketStats stats = read.getStats();
+        assertEquals(2, stats.getOverall().getCount());
+        assertEquals(50000, stats.getOverall().getSum(CarField.PRICE));
+        assertEquals(18000, stats.getByYear().get(1990).getQuantile(CarField.PRICE, 0.5), 18000 * 0.01);
+        assertEquals(1, stats.getByManufacturer().get("Mazda").getHistogram(CarField.PRICE).count(2));
+        read.addCar(new Car("Mazda", "RX-7", 1993, 6.9, 7.8, 6.2, 6.9, DriveType.RWD, 45000, null));
+        assertEquals(3, read.getStats().getByManufacturer().get("Mazda").getCount());
+    }
+
+    @Test
+    void testStaleSnapshotFallsBackToJson() throws IOException {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(new Car("Mazda", "MX-5", 1990, 5.1, 8.3, 4.4, 6.0, DriveType.RWD, 18000, null));
+        new SnapshotWriterGarage(SNAPSHOT).write(wr, jsonLength, jsonModified - 1);
+
+        checkGeneralWorkRoom(new SnapshotReaderGarage(JSON).read().getCars());
+        checkGeneralWorkRoom(new SnapshotReaderGarage(JSON).read().getCars());
+    }
+
+    @Test
+    void testCorruptSnapshotFallsBackToJson() throws IOException {
+        Path snapshot = Paths.get(SNAPSHOT);
+        Files.write(snapshot, new byte[] {0x41, 0x55, 0x4d, 0x4b, 0, 0, 0, 1});
+        checkGeneralWorkRoom(new SnapshotReaderGarage(JSON).read().getCars());
+        assertTrue(Files.size(snapshot) > 8);
+    }
+
+    @Test
+    void testSnapshotCarsDecodeDetailsOnFirstAccess() throws IOException {
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(new Car("Mazda", "MX-5", 2019, 5.9, 8.8, 5.2, 6.6, DriveType.RWD, 32000, "mazda_mx-5.png"));
+        new SnapshotWriterGarage(SNAPSHOT).write(wr, jsonLength, jsonModified);
+
+        SnapshotCar car = (SnapshotCar) new SnapshotReaderGarage(JSON).read().getCars().get(0);
+        assertEquals("MX-5", car.getModel());
+        assertEquals(32000, car.getPrice());
+        assertFalse(car.isMaterialized());
+        assertEquals(DriveType.RWD, car.getDriveType());
+        assertTrue(car.isMaterialized());
+        checkCar("Mazda", "MX-5", 2019, 5.9, 8.8, 5.2, 6.6, DriveType.RWD, 32000, "mazda_mx-5.png", car);
+        assertTrue(car.toJson().similar(wr.getCars().get(0).toJson()));
+    }
+
+    private void checkGeneralWorkRoom(List<Car> cars) {
+        assertEquals(2, cars.size());
+        checkCar("Audi", "R8", 2016, 8.2, 7.6, 9.0,
+                9.2, DriveType.RWD, 242000, "", cars.get(0));
+        checkCar("Nissan", "GT-R", 2017, 7.9, 7.2, 9.6,
+                7.6, DriveType.AWD, 132000, "", cars.get(1));
+    }
+
+    @Test
+    void testCarWithoutDriveTypeRoundTrips() throws IOException {
+        String json = "./data/testWriterNoDriveType.json";
+        GarageWorkRoom wr = new GarageWorkRoom();
+        wr.addCar(new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, null, 25000, null));
+        try {
+            JsonWriterGarage writer = new JsonWriterGarage(json);
+            writer.open();
+            writer.write(wr);
+            writer.close();
+
+            checkCar("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, null, 25000, null,
+                    new JsonReaderGarage(json).read().getCars().get(0));
+            checkCar("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, null, 25000, null,
+                    new SnapshotReaderGarage(json).read().getCars().get(0));
+            assertTrue(Files.exists(Paths.get(SnapshotReaderGarage.snapshotPathFor(json))));
+            Car fromSnapshot = new SnapshotReaderGarage(json).read().getCars().get(0);
+            assertTrue(fromSnapshot instanceof SnapshotCar);
+            checkCar("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, null, 25000, null, fromSnapshot);
+        } finally {
+            Files.deleteIfExists(Paths.get(json));
+            Files.deleteIfExists(Paths.get(SnapshotReaderGarage.snapshotPathFor(json)));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ui;
+
+import model.CatalogOverlay;
+import model.GarageWorkRoom;
+import model.cars.Car;
+import model.cars.DriveType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarketplaceTest {
+    private static final Path[] JOURNALS = {Paths.get("./data/garage.journal"), Paths.get("./data/account.journal")};
+
+    private byte[][] saved;
+    private Marketplace marketplace;
+    private CatalogOverlay market;
+    private Car car;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        saved = new byte[JOURNALS.length][];
+        for (int i = 0; i < JOURNALS.length; i++) {
+            saved[i] = Files.exists(JOURNALS[i]) ? Files.readAllBytes(JOURNALS[i]) : null;
+        }
+        marketplace = AbstractMenu.marketplace;
+        car = new Car("Honda", "Civic", 2018, 6.0, 6.0, 6.0, 6.0, DriveType.FWD, 25000, null);
+        GarageWorkRoom originalMarketplace = new GarageWorkRoom();
+        originalMarketplace.addCar(car);
+        market = new CatalogOverlay(originalMarketplace);
+        marketplace.getUserAccount().setBalanceBoughtCar(100000);
+    }
+
+    @AfterEach
+    void restoreJournals() throws IOException {
+        for (int i = 0; i < JOURNALS.length; i++) {
+            if (saved[i] == null) {
+                Files.deleteIfExists(JOURNALS[i]);
+            } else {
+                Files.write(JOURNALS[i], saved[i]);
+            }
+        }
+    }
+
+    @Test
+    void testBuyFromMarketShownInGui() {
+        int owned = marketplace.getUserGarage().numCars();
+        marketplace.buyCar(car, market);
+        assertEquals(75000, marketplace.getUserAccount().getBalance());
+        assertTrue(marketplace.getUserGarage().containsCar(car));
+        assertEquals(owned + 1, marketplace.getUserGarage().numCars());
+        assertFalse(market.containsCar(car));
+
+        marketplace.buyCar(car, market);
+        assertEquals(75000, marketplace.getUserAccount().getBalance());
+        assertEquals(owned + 1, marketplace.getUserGarage().numCars());
+    }
+}